@@ -26,7 +26,10 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.Base64.Decoder;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -67,9 +70,11 @@ public class OidcProvider implements IOidcProvider {
     private static final String BEARER_TOKEN_SCOPE = "openid offline_access profile";
     private static final int JWK_REFRESH_INTERVAL_MINUTES = 10;
 
-    private JsonArray jsonWebKeys;
-    private Instant nextJwkRefresh = Instant.EPOCH;
+    // The current set of keys, replaced as a whole on refresh so that it can be read without locking
+    private volatile JsonWebKeySet jsonWebKeySet;
+    private final ReentrantLock jwkRefreshLock = new ReentrantLock();
     private ITimeService timeService;
+    private VerifiedJwtCache verifiedJwts;
 
     private URI issuerUrl;
     private URI authorizationEndpoint;
@@ -78,11 +83,26 @@ public class OidcProvider implements IOidcProvider {
 
     private HttpClient httpClient = HttpClient.newHttpClient();
 
+    /**
+     * An issuer's JSON Web Keys as they were at the last refresh, along with the
+     * RSA public keys built from them and a verifier for each, indexed by key ID
+     */
+    private static class JsonWebKeySet {
+        private final Map<String, JsonWebKey> keysById = new HashMap<>();
+        private final Map<String, JWTVerifier> verifiersById = new HashMap<>();
+        private final Instant nextRefresh;
+
+        private JsonWebKeySet(Instant nextRefresh) {
+            this.nextRefresh = nextRefresh;
+        }
+    }
+
     public OidcProvider(String issuerUrl, HttpClient httpClient, ITimeService timeService) throws ServletException {
         try {
             this.issuerUrl = new URI(issuerUrl);
             this.httpClient = httpClient;
             this.timeService = timeService;
+            this.verifiedJwts = new VerifiedJwtCache(timeService);
 
             this.authorizationEndpoint = URI.create(issuerUrl + "/auth");
             this.tokenEndpoint = URI.create(issuerUrl + "/token");
@@ -240,43 +260,37 @@ public class OidcProvider implements IOidcProvider {
     /**
      * Gets a JSON Web Key with a given key ID ('kid') from an OpenID connect issuer's /keys endpoint, returned as a JSON object
      */
-    public synchronized JsonWebKey getJsonWebKeyByKeyId(String keyId) throws IOException, InterruptedException {
-        // Check if it is time to refresh the cached JSON web keys
-        if (jsonWebKeys == null || nextJwkRefresh.isBefore(timeService.now())) {
-            logger.info("Refreshing cached JSON Web Keys");
-            refreshJsonWebKeys();
-        }
-
-        // Iterate over the JSON array of JWKs, finding the one that matches the given key ID
-        JsonWebKey matchingKey = null;
-        for (JsonElement keyElement : jsonWebKeys) {
-            JsonWebKey key = gson.fromJson(keyElement.toString(), JsonWebKey.class);
-            if (key.getKeyId().equals(keyId)) {
-                matchingKey = key;
-                break;
-            }
-        }
-        return matchingKey;
+    public JsonWebKey getJsonWebKeyByKeyId(String keyId) throws IOException, InterruptedException {
+        return getJsonWebKeySet().keysById.get(keyId);
     }
 
     /**
      * Checks if a given JWT is valid or not
      */
     public boolean isJwtValid(String jwt) throws NoSuchAlgorithmException, InvalidKeySpecException, IOException, InterruptedException {
+        // Tokens are re-sent on every request, so skip the signature check if this one has already passed it
+        if (verifiedJwts.isVerified(jwt)) {
+            return true;
+        }
+
         boolean isValid = false;
         try {
             DecodedJWT decodedJwt = JWT.decode(jwt);
 
-            // Try to get the public key used to sign this JWT
-            RSAPublicKey publicKey = getRSAPublicKeyFromIssuer(decodedJwt.getKeyId());
-            if (publicKey != null) {
-                Algorithm algorithm = Algorithm.RSA256(publicKey, null);
-                JWTVerifier verifier = JWT.require(algorithm).withIssuer(issuerUrl.toString()).build();
-
+            // Try to get the verifier for the public key used to sign this JWT
+            JWTVerifier verifier = getVerifierFromIssuer(decodedJwt.getKeyId());
+            if (verifier != null) {
                 decodedJwt = verifier.verify(jwt);
                 isValid = (decodedJwt != null);
             }
 
+            if (isValid) {
+                // The expiry is read as seconds as the token may expire too far in the future to fit in a Date
+                Long expirySeconds = decodedJwt.getClaim("exp").asLong();
+                Instant expiry = (expirySeconds == null) ? null : Instant.ofEpochSecond(expirySeconds);
+                verifiedJwts.addVerified(jwt, expiry);
+            }
+
         } catch (JWTVerificationException e) {
             // The JWT is not valid
             logger.error("Invalid JWT '" + jwt + "'. Reason: " + e.getMessage(), e);
@@ -284,7 +298,27 @@ public class OidcProvider implements IOidcProvider {
         return isValid;
     }
 
-    // Constructs an RSA public key from a JSON Web Key (JWK) that contains the provided key ID
+    /**
+     * Gets the verifier for JWTs signed by the key with the given key ID, refreshing
+     * the cached keys if the key is not known
+     */
+    private JWTVerifier getVerifierFromIssuer(String keyId) throws IOException, InterruptedException {
+        JsonWebKeySet keySet = getJsonWebKeySet();
+        JWTVerifier verifier = keySet.verifiersById.get(keyId);
+        if (verifier == null) {
+            // Force the cached keys to be refreshed and try again
+            keySet = refreshJsonWebKeys(keySet, true);
+            verifier = keySet.verifiersById.get(keyId);
+
+            // If we still failed to get a matching key, then this must be a bad key ID
+            if (verifier == null) {
+                logger.error("Error: No matching JSON Web Key was found with key ID '" + keyId + "'.");
+            }
+        }
+        return verifier;
+    }
+
+    // Constructs an RSA public key from a JSON Web Key (JWK)
     // A JWK contains the following fields:
     // {
     //   "use": "sig",
@@ -294,29 +328,13 @@ public class OidcProvider implements IOidcProvider {
     //   "n": "abcdefg",
     //   "e": "xyz"
     // }
-    private RSAPublicKey getRSAPublicKeyFromIssuer(String keyId)
-            throws IOException, InterruptedException, NoSuchAlgorithmException, InvalidKeySpecException {
-
-        // Get the JWK with the given key ID
-        JsonWebKey matchingJwk = getJsonWebKeyByKeyId(keyId);
-        if (matchingJwk == null) {
-            // Force the cached keys to be refreshed and try again
-            nextJwkRefresh = Instant.EPOCH;
-            matchingJwk = getJsonWebKeyByKeyId(keyId);
-
-            // If we still failed to get a matching key, then this must be a bad key ID
-            if (matchingJwk == null) {
-                logger.error("Error: No matching JSON Web Key was found with key ID '" + keyId + "'.");
-                return null;
-            }
-        }
-
+    private RSAPublicKey getRSAPublicKey(JsonWebKey jwk) throws NoSuchAlgorithmException, InvalidKeySpecException {
         // A JWK contains an 'n' field to represent the key's modulus, and an 'e' field to represent the key's exponent, both are Base64URL-encoded
         Decoder decoder = Base64.getUrlDecoder();
-        BigInteger modulus = new BigInteger(1, decoder.decode(matchingJwk.getRsaModulus()));
-        BigInteger exponent = new BigInteger(1, decoder.decode(matchingJwk.getRsaExponent()));
+        BigInteger modulus = new BigInteger(1, decoder.decode(jwk.getRsaModulus()));
+        BigInteger exponent = new BigInteger(1, decoder.decode(jwk.getRsaExponent()));
 
-        // Build a public key from the JWK that was matched
+        // Build a public key from the JWK
         RSAPublicKeySpec keySpec = new RSAPublicKeySpec(modulus, exponent);
         KeyFactory keyFactory = KeyFactory.getInstance("RSA");
         RSAPublicKey generatedPublicKey = (RSAPublicKey) keyFactory.generatePublic(keySpec);
@@ -362,13 +380,71 @@ public class OidcProvider implements IOidcProvider {
 
 
     /**
-     * Refreshes the cached JSON Web Keys used to verify the signature of JWTs
+     * Gets the cached JSON Web Keys, refreshing them if the refresh interval has elapsed
      */
-    private void refreshJsonWebKeys() throws IOException, InterruptedException {
-        jsonWebKeys = getJsonWebKeysFromIssuer();
+    private JsonWebKeySet getJsonWebKeySet() throws IOException, InterruptedException {
+        JsonWebKeySet keySet = jsonWebKeySet;
+        if (keySet == null || keySet.nextRefresh.isBefore(timeService.now())) {
+            logger.info("Refreshing cached JSON Web Keys");
+            keySet = refreshJsonWebKeys(keySet, false);
+        }
+        return keySet;
+    }
 
-        // Update the next refresh time by the refresh interval
-        nextJwkRefresh = Instant.now().plus(JWK_REFRESH_INTERVAL_MINUTES, ChronoUnit.MINUTES);
+    /**
+     * Refreshes the cached JSON Web Keys used to verify the signature of JWTs.
+     * Only one thread fetches the keys at a time. Threads that arrive while a
+     * refresh is in flight wait for it and use its keys, unless they already have
+     * keys they can use and do not need to wait.
+     *
+     * @param seenKeySet the key set the caller found to be out of date, or null if there were no keys
+     * @param mustWait true if the caller needs the result of a refresh, false if the keys it has will do for now
+     */
+    private JsonWebKeySet refreshJsonWebKeys(JsonWebKeySet seenKeySet, boolean mustWait) throws IOException, InterruptedException {
+        if (seenKeySet != null && !mustWait) {
+            if (!jwkRefreshLock.tryLock()) {
+                return seenKeySet;
+            }
+        } else {
+            jwkRefreshLock.lockInterruptibly();
+        }
+
+        try {
+            // Another thread may have refreshed the keys while this one was waiting
+            JsonWebKeySet currentKeySet = jsonWebKeySet;
+            if (currentKeySet != seenKeySet) {
+                return currentKeySet;
+            }
+
+            // Update the next refresh time by the refresh interval
+            JsonWebKeySet newKeySet = new JsonWebKeySet(timeService.now().plus(JWK_REFRESH_INTERVAL_MINUTES, ChronoUnit.MINUTES));
+            for (JsonElement keyElement : getJsonWebKeysFromIssuer()) {
+                JsonWebKey key = gson.fromJson(keyElement.toString(), JsonWebKey.class);
+                if (key.getKeyId() == null) {
+                    continue;
+                }
+                newKeySet.keysById.putIfAbsent(key.getKeyId(), key);
+
+                if (key.getRsaModulus() != null && key.getRsaExponent() != null) {
+                    try {
+                        Algorithm algorithm = Algorithm.RSA256(getRSAPublicKey(key), null);
+                        newKeySet.verifiersById.putIfAbsent(key.getKeyId(), JWT.require(algorithm).withIssuer(issuerUrl.toString()).build());
+                    } catch (NoSuchAlgorithmException | InvalidKeySpecException | IllegalArgumentException e) {
+                        logger.error("Unable to build an RSA public key from the JSON Web Key with key ID '" + key.getKeyId() + "'", e);
+                    }
+                }
+            }
+
+            // Tokens verified with keys that the issuer no longer publishes must be verified again
+            if (seenKeySet != null && !newKeySet.verifiersById.keySet().containsAll(seenKeySet.verifiersById.keySet())) {
+                verifiedJwts.clear();
+            }
+
+            jsonWebKeySet = newKeySet;
+            return newKeySet;
+        } finally {
+            jwkRefreshLock.unlock();
+        }
     }
 
     /**
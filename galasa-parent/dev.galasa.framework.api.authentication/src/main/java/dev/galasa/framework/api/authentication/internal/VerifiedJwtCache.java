@@ -0,0 +1,101 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.authentication.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dev.galasa.framework.spi.utils.ITimeService;
+
+/**
+ * Remembers JWTs whose signatures have already been verified, so that a client
+ * polling the API server with the same token does not have its signature
+ * checked on every request.
+ *
+ * Tokens are held as SHA-256 digests rather than as the tokens themselves. An
+ * entry lasts until the token expires, but no longer than the maximum entry
+ * lifetime, so that a token is re-verified against the issuer's current keys
+ * every so often.
+ */
+public class VerifiedJwtCache {
+
+    public static final int      MAX_ENTRIES         = 10000;
+    public static final Duration MAX_ENTRY_LIFETIME  = Duration.ofMinutes(5);
+
+    private final ConcurrentHashMap<String, Instant> expiryByDigest = new ConcurrentHashMap<>();
+    private final ITimeService timeService;
+
+    public VerifiedJwtCache(ITimeService timeService) {
+        this.timeService = timeService;
+    }
+
+    /**
+     * Checks if the given JWT has been verified and the verification has not expired
+     */
+    public boolean isVerified(String jwt) throws NoSuchAlgorithmException {
+        String digest = getDigest(jwt);
+        Instant expiry = expiryByDigest.get(digest);
+
+        boolean isVerified = false;
+        if (expiry != null) {
+            if (expiry.isAfter(timeService.now())) {
+                isVerified = true;
+            } else {
+                expiryByDigest.remove(digest, expiry);
+            }
+        }
+        return isVerified;
+    }
+
+    /**
+     * Records that the given JWT has been verified
+     *
+     * @param jwt the verified JWT
+     * @param tokenExpiry when the JWT expires, or null if it does not have an expiry
+     */
+    public void addVerified(String jwt, Instant tokenExpiry) throws NoSuchAlgorithmException {
+        Instant now = timeService.now();
+        Instant expiry = now.plus(MAX_ENTRY_LIFETIME);
+        if (tokenExpiry != null && tokenExpiry.isBefore(expiry)) {
+            expiry = tokenExpiry;
+        }
+
+        if (expiry.isAfter(now)) {
+            if (expiryByDigest.size() >= MAX_ENTRIES) {
+                makeRoom(now);
+            }
+            expiryByDigest.put(getDigest(jwt), expiry);
+        }
+    }
+
+    public int size() {
+        return expiryByDigest.size();
+    }
+
+    public void clear() {
+        expiryByDigest.clear();
+    }
+
+    private void makeRoom(Instant now) {
+        expiryByDigest.values().removeIf(expiry -> !expiry.isAfter(now));
+
+        // Every entry is still live, so start again rather than grow without bounds
+        if (expiryByDigest.size() >= MAX_ENTRIES) {
+            expiryByDigest.clear();
+        }
+    }
+
+    private String getDigest(String jwt) throws NoSuchAlgorithmException {
+        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        byte[] digest = messageDigest.digest(jwt.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
@@ -544,6 +544,43 @@ public class OidcProviderTest {
         assertThat(result).isTrue();
     }
 
+    @Test
+    public void testIsJwtValidWithRotatedKeysReverifiesCachedJwt() throws Exception {
+        // Given...
+        String issuer = "http://dummy-issuer";
+        String keyId = "mock-key";
+
+        // Generate an RSA key pair to sign the mock JWT
+        KeyPair mockKeyPair = generateMockRsaKeyPair();
+        RSAPublicKey mockPublicKey =  (RSAPublicKey) mockKeyPair.getPublic();
+        RSAPrivateKey mockPrivateKey =  (RSAPrivateKey) mockKeyPair.getPrivate();
+
+        JsonObject mockJwk = createMockJwkObject(keyId, mockPublicKey);
+
+        String validJwt = JWT.create()
+            .withIssuer(issuer)
+            .withKeyId(keyId)
+            .withExpiresAt(Instant.MAX)
+            .sign(Algorithm.RSA256(mockPublicKey, mockPrivateKey));
+
+        MockHttpClient mockHttpClient = new MockHttpClient(createMockOidcDiscoveryResponse());
+        MockTimeService mockTimeService = new MockTimeService(Instant.now());
+        OidcProvider oidcProvider = new OidcProvider(issuer, mockHttpClient, mockTimeService);
+
+        mockHttpClient.setMockResponse(createMockJwksResponse(mockJwk));
+        assertThat(oidcProvider.isJwtValid(validJwt)).isTrue();
+
+        // When...
+        // The issuer stops publishing the key, and the cached keys are due a refresh
+        mockHttpClient.setMockResponse(createMockJwksResponse("adifferentkey"));
+        mockTimeService.setCurrentTime(Instant.now().plus(1, ChronoUnit.HOURS));
+
+        boolean result = oidcProvider.isJwtValid(validJwt);
+
+        // Then...
+        assertThat(result).isFalse();
+    }
+
     @Test
     public void testGetOpenIdConfigurationReturnsValidConfig() throws Exception {
         // Given...
@@ -0,0 +1,88 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.authentication.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.Test;
+
+import dev.galasa.framework.api.common.mocks.MockTimeService;
+
+public class VerifiedJwtCacheTest {
+
+    @Test
+    public void testAddedJwtIsVerifiedUntilItExpires() throws Exception {
+        // Given...
+        Instant now = Instant.now();
+        MockTimeService mockTimeService = new MockTimeService(now);
+        VerifiedJwtCache cache = new VerifiedJwtCache(mockTimeService);
+
+        // When...
+        cache.addVerified("my.jwt.token", now.plus(1, ChronoUnit.MINUTES));
+
+        // Then...
+        assertThat(cache.isVerified("my.jwt.token")).isTrue();
+        assertThat(cache.isVerified("another.jwt.token")).isFalse();
+
+        mockTimeService.setCurrentTime(now.plus(2, ChronoUnit.MINUTES));
+        assertThat(cache.isVerified("my.jwt.token")).isFalse();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testJwtWithLongExpiryIsOnlyVerifiedForMaxEntryLifetime() throws Exception {
+        // Given...
+        Instant now = Instant.now();
+        MockTimeService mockTimeService = new MockTimeService(now);
+        VerifiedJwtCache cache = new VerifiedJwtCache(mockTimeService);
+
+        // When...
+        cache.addVerified("my.jwt.token", Instant.MAX);
+        cache.addVerified("my.other.token", null);
+
+        // Then...
+        mockTimeService.setCurrentTime(now.plus(VerifiedJwtCache.MAX_ENTRY_LIFETIME).minusSeconds(1));
+        assertThat(cache.isVerified("my.jwt.token")).isTrue();
+        assertThat(cache.isVerified("my.other.token")).isTrue();
+
+        mockTimeService.setCurrentTime(now.plus(VerifiedJwtCache.MAX_ENTRY_LIFETIME));
+        assertThat(cache.isVerified("my.jwt.token")).isFalse();
+        assertThat(cache.isVerified("my.other.token")).isFalse();
+    }
+
+    @Test
+    public void testExpiredJwtIsNotAdded() throws Exception {
+        // Given...
+        Instant now = Instant.now();
+        VerifiedJwtCache cache = new VerifiedJwtCache(new MockTimeService(now));
+
+        // When...
+        cache.addVerified("my.jwt.token", now.minusSeconds(1));
+
+        // Then...
+        assertThat(cache.isVerified("my.jwt.token")).isFalse();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCacheDoesNotGrowPastMaxEntries() throws Exception {
+        // Given...
+        Instant now = Instant.now();
+        VerifiedJwtCache cache = new VerifiedJwtCache(new MockTimeService(now));
+
+        // When...
+        for (int i = 0; i <= VerifiedJwtCache.MAX_ENTRIES; i++) {
+            cache.addVerified("my.jwt.token" + i, now.plus(1, ChronoUnit.MINUTES));
+        }
+
+        // Then...
+        assertThat(cache.size()).isLessThanOrEqualTo(VerifiedJwtCache.MAX_ENTRIES);
+        assertThat(cache.isVerified("my.jwt.token" + VerifiedJwtCache.MAX_ENTRIES)).isTrue();
+    }
+}
@@ -15,8 +15,6 @@ import static dev.galasa.framework.api.common.HttpMethod.*;
 import static dev.galasa.framework.api.common.ServletErrorMessage.*;
 
 import java.io.IOException;
-import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.servlet.ServletException;
@@ -32,14 +30,16 @@ public class BaseServlet extends HttpServlet {
 
     static final GalasaGson gson = new GalasaGson();
 
-    private final Map<Pattern, IRoute> routes = new HashMap<>();
+    private final RouteTable routes = new RouteTable();
+
+    private final String servletLabel = RouteMetrics.getLabel(this.getClass());
 
     private ResponseBuilder responseBuilder = new ResponseBuilder();
 
     protected void addRoute(IRoute route) {
         Pattern path = route.getPath();
         logger.info("Base servlet adding route " + path);
-        routes.put(path, route);
+        routes.add(route);
     }
 
     protected ResponseBuilder getResponseBuilder() {
@@ -52,34 +52,51 @@ public class BaseServlet extends HttpServlet {
 
     @Override
     public void doGet(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
-        logger.info("BaseServlet: doGet() entered. Url: " + req.getPathInfo());
+        logger.debug("BaseServlet: doGet() entered. Url: " + req.getPathInfo());
         processRequest(req, res);
     }
 
     @Override
     public void doPost(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
-        logger.info("BaseServlet: doPost() entered");
+        logger.debug("BaseServlet: doPost() entered");
         processRequest(req, res);
     }
 
     @Override
     public void doPut(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
-        logger.info("BaseServlet: doPut() entered");
+        logger.debug("BaseServlet: doPut() entered");
         processRequest(req, res);
     }
 
     @Override
     public void doDelete(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
-        logger.info("BaseServlet: doDelete() entered");
+        logger.debug("BaseServlet: doDelete() entered");
         processRequest(req, res);
     }
 
     private void processRequest(HttpServletRequest req, HttpServletResponse res) {
+        long startTime = System.nanoTime();
         String errorString = "";
         int httpStatusCode = HttpServletResponse.SC_OK;
+        String routeLabel = RouteMetrics.NO_ROUTE;
 
         try {
-            processRoutes(req, res);
+            String url = req.getPathInfo();
+            if (url == null) {
+                // There is no path information, so this must be a root path (e.g. /cps)
+                url = "";
+            }
+
+            IRoute route = routes.findRoute(url);
+            if (route == null) {
+                // No matching route was found, throw a 404 error.
+                logger.debug("BaseServlet: No matching route found.");
+                ServletError error = new ServletError(GAL5404_UNRESOLVED_ENDPOINT_ERROR, url);
+                throw new InternalServletException(error, HttpServletResponse.SC_NOT_FOUND);
+            }
+
+            routeLabel = RouteMetrics.getLabel(route.getClass());
+            handleRoute(route, url, new QueryParameters(req.getParameterMap()), req, res);
         } catch (InternalServletException ex) {
             // the message is a curated servlet message, we intentionally threw up to this level.
             errorString = ex.getMessage();
@@ -94,41 +111,14 @@ public class BaseServlet extends HttpServlet {
 
         if (!errorString.isEmpty()) {
             getResponseBuilder().buildResponse(req, res, "application/json", errorString, httpStatusCode);
-        }
-    }
-
-    private void processRoutes(HttpServletRequest req, HttpServletResponse res)
-            throws ServletException, IOException, FrameworkException, InterruptedException {
-        String url = req.getPathInfo();
-        if (url == null) {
-            // There is no path information, so this must be a root path (e.g. /cps)
-            url = "";
-        }
-
-        QueryParameters queryParameters = new QueryParameters(req.getParameterMap());
-
-        boolean pathMatched = false;
-        for (Map.Entry<Pattern, IRoute> entry : routes.entrySet()) {
-
-            Pattern routePattern = entry.getKey();
-            IRoute route = entry.getValue();
-
-            Matcher matcher = routePattern.matcher(url);
-
-            if (matcher.matches()) {
-                pathMatched = true;
-                logger.info("BaseServlet: Found a route that matches.");
-                handleRoute(route, url, queryParameters, req, res);
-                break;
-            }
+        } else {
+            httpStatusCode = res.getStatus();
         }
 
-        if (!pathMatched) {
-            // No matching route was found, throw a 404 error.
-            logger.info("BaseServlet: No matching route found.");
-            ServletError error = new ServletError(GAL5404_UNRESOLVED_ENDPOINT_ERROR, url);
-            throw new InternalServletException(error, HttpServletResponse.SC_NOT_FOUND);
-        }
+        // Unknown methods are counted together so that clients can't create new label values
+        HttpMethod method = HttpMethod.getFromString(req.getMethod());
+        String methodLabel = method == null ? "OTHER" : method.toString();
+        RouteMetrics.getInstance().record(servletLabel, routeLabel, methodLabel, httpStatusCode, System.nanoTime() - startTime);
     }
 
     private void handleRoute(
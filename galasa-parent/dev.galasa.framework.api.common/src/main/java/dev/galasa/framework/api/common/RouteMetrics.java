@@ -0,0 +1,72 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+
+/**
+ * The request count and latency of every route of every servlet, registered in the
+ * default Prometheus registry
+ */
+class RouteMetrics {
+
+    static final String REQUESTS_METRIC_NAME = "galasa_api_route_requests_total";
+    static final String LATENCY_METRIC_NAME  = "galasa_api_route_request_duration_seconds";
+
+    // The route label used for requests that did not match any route
+    static final String NO_ROUTE = "none";
+
+    private static final Log logger = LogFactory.getLog(RouteMetrics.class);
+
+    private static final RouteMetrics instance = new RouteMetrics(CollectorRegistry.defaultRegistry);
+
+    private final Counter   requests;
+    private final Histogram latency;
+
+    RouteMetrics(CollectorRegistry registry) {
+        this.requests = Counter.build()
+            .name(REQUESTS_METRIC_NAME)
+            .help("The number of requests handled by each API route")
+            .labelNames("servlet", "route", "method", "status")
+            .create();
+        this.latency = Histogram.build()
+            .name(LATENCY_METRIC_NAME)
+            .help("The time taken to handle requests to each API route")
+            .labelNames("servlet", "route", "method")
+            .create();
+
+        try {
+            registry.register(this.requests);
+            registry.register(this.latency);
+        } catch (IllegalArgumentException e) {
+            // *** Already registered by an earlier copy of this bundle, so the metrics are only counted here
+            logger.warn("Unable to register the API route metrics", e);
+        }
+    }
+
+    static RouteMetrics getInstance() {
+        return instance;
+    }
+
+    void record(String servlet, String route, String method, int status, long elapsedNanos) {
+        requests.labels(servlet, route, method, Integer.toString(status)).inc();
+        latency.labels(servlet, route, method).observe(elapsedNanos / 1e9);
+    }
+
+    static String getLabel(Class<?> clazz) {
+        String label = clazz.getSimpleName();
+        if (label.isEmpty()) {
+            // Anonymous classes have no simple name
+            label = clazz.getName();
+        }
+        return label;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the route that handles a request path without trying every route's regex.
+ *
+ * Each route's regex is split into the literal path it starts with and whatever follows.
+ * Routes whose regex is nothing but a literal path (optionally followed by "\/?") are looked
+ * up directly. All other routes are placed in a tree keyed by the complete path segments
+ * of their literal prefix, so only the routes that could possibly match a path have their
+ * regex run against it.
+ *
+ * Precedence is deterministic: an exact path wins, then the route with the longest literal
+ * prefix, then the route that was added first.
+ */
+class RouteTable {
+
+    private final Map<String, IRoute> exactRoutes = new HashMap<>();
+
+    private final Node root = new Node();
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<IRoute> routes = new ArrayList<>();
+    }
+
+    static class LiteralPrefix {
+        private final String  literal;
+        private final boolean isExact;
+        private final boolean hasOptionalSlash;
+
+        LiteralPrefix(String literal, boolean isExact, boolean hasOptionalSlash) {
+            this.literal = literal;
+            this.isExact = isExact;
+            this.hasOptionalSlash = hasOptionalSlash;
+        }
+
+        String getLiteral() {
+            return literal;
+        }
+
+        boolean isExact() {
+            return isExact;
+        }
+
+        boolean hasOptionalSlash() {
+            return hasOptionalSlash;
+        }
+    }
+
+    void add(IRoute route) {
+        LiteralPrefix prefix = getLiteralPrefix(route.getPath().pattern());
+        if (route.getPath().flags() == 0 && prefix.isExact()) {
+            // An earlier route that matches the same path takes precedence
+            String literal = prefix.getLiteral();
+            exactRoutes.putIfAbsent(literal, route);
+            if (prefix.hasOptionalSlash()) {
+                exactRoutes.putIfAbsent(literal + "/", route);
+            }
+            return;
+        }
+
+        // Only complete segments can be used as keys, "/runs/ab[a-z]*" may only rely on "runs"
+        Node node = root;
+        String literal = prefix.getLiteral();
+        if (route.getPath().flags() == 0 && literal.startsWith("/")) {
+            int start = 1;
+            int end = literal.indexOf('/', start);
+            while (end >= 0) {
+                String segment = literal.substring(start, end);
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+                start = end + 1;
+                end = literal.indexOf('/', start);
+            }
+        }
+        node.routes.add(route);
+    }
+
+    /**
+     * @param url the path of the request
+     * @return the route that handles the path, or null if no route matches it
+     */
+    IRoute findRoute(String url) {
+        IRoute route = exactRoutes.get(url);
+        if (route != null) {
+            return route;
+        }
+
+        // Walk down the tree as far as the path's segments go, then try the deepest routes first
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(root);
+        if (url.startsWith("/")) {
+            Node node = root;
+            int start = 1;
+            int end = url.indexOf('/', start);
+            while (end >= 0) {
+                node = node.children.get(url.substring(start, end));
+                if (node == null) {
+                    break;
+                }
+                nodes.add(node);
+                start = end + 1;
+                end = url.indexOf('/', start);
+            }
+        }
+
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            for (IRoute candidate : nodes.get(i).routes) {
+                if (candidate.getPath().matcher(url).matches()) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the literal text that every string matched by a regex must start with.
+     *
+     * @param regex the regex of a route
+     * @return the literal prefix, which is exact if the regex matches nothing but the
+     *         literal, or the literal followed by an optional "/"
+     */
+    static LiteralPrefix getLiteralPrefix(String regex) {
+        if (hasTopLevelAlternation(regex)) {
+            return new LiteralPrefix("", false, false);
+        }
+
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        int lastTokenStart = 0;
+        while (index < regex.length()) {
+            char c = regex.charAt(index);
+            int tokenStart = index;
+            char literalChar;
+            if (c == '\\') {
+                if (index + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(index + 1))) {
+                    // A character class such as \d, or a back reference
+                    break;
+                }
+                literalChar = regex.charAt(index + 1);
+                index += 2;
+            } else if (".[](){}*+?^$|".indexOf(c) >= 0) {
+                if ("*+?{".indexOf(c) >= 0 && literal.length() > 0) {
+                    // The last literal character is quantified, so it may not be there at all
+                    literal.setLength(literal.length() - 1);
+                    index = lastTokenStart;
+                }
+                break;
+            } else {
+                literalChar = c;
+                index++;
+            }
+            literal.append(literalChar);
+            lastTokenStart = tokenStart;
+        }
+
+        String remainder = regex.substring(index);
+        boolean hasOptionalSlash = remainder.equals("\\/?") || remainder.equals("/?");
+        boolean isExact = remainder.isEmpty() || hasOptionalSlash;
+        return new LiteralPrefix(literal.toString(), isExact, hasOptionalSlash);
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean isInClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (isInClass) {
+                if (c == ']') {
+                    isInClass = false;
+                }
+            } else if (c == '[') {
+                isInClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
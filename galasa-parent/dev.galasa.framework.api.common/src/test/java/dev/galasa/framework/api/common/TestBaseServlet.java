@@ -19,6 +19,7 @@ import dev.galasa.framework.api.common.mocks.MockEnvironment;
 import dev.galasa.framework.api.common.mocks.MockHttpServletRequest;
 import dev.galasa.framework.api.common.mocks.MockHttpServletResponse;
 import dev.galasa.framework.spi.FrameworkException;
+import io.prometheus.client.CollectorRegistry;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -248,4 +249,30 @@ public class TestBaseServlet extends BaseServletTest {
             "Error occurred when trying to identify the endpoint"
         );
     }
+
+    @Test
+    public void testBaseServletCountsRequestsForEachRoute() throws Exception {
+        // Given...
+        BaseServlet servlet = new BaseServlet();
+        MockRoute mockRoute = new MockRoute();
+        servlet.addRoute(mockRoute);
+
+        String[] labelNames = { "servlet", "route", "method", "status" };
+        String[] labelValues = { "BaseServlet", "MockRoute", "GET", "200" };
+        Double countBefore = CollectorRegistry.defaultRegistry.getSampleValue(RouteMetrics.REQUESTS_METRIC_NAME, labelNames, labelValues);
+
+        MockHttpServletRequest req = new MockHttpServletRequest("/");
+        MockHttpServletResponse resp = new MockHttpServletResponse();
+        req.setMethod(HttpMethod.GET.toString());
+
+        // When...
+        servlet.doGet(req, resp);
+
+        // Then...
+        Double countAfter = CollectorRegistry.defaultRegistry.getSampleValue(RouteMetrics.REQUESTS_METRIC_NAME, labelNames, labelValues);
+        double expectedCount = (countBefore == null ? 0 : countBefore) + 1;
+        assertThat(countAfter).isEqualTo(expectedCount);
+        assertThat(CollectorRegistry.defaultRegistry.getSampleValue(RouteMetrics.LATENCY_METRIC_NAME + "_count",
+            new String[] { "servlet", "route", "method" }, new String[] { "BaseServlet", "MockRoute", "GET" })).isNotNull();
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.common;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.Test;
+
+import dev.galasa.framework.api.common.RouteTable.LiteralPrefix;
+import dev.galasa.framework.api.common.mocks.MockEnvironment;
+
+public class TestRouteTable {
+
+    private final ResponseBuilder responseBuilder = new ResponseBuilder(new MockEnvironment());
+
+    class MockRoute extends BaseRoute {
+        public MockRoute(String path) {
+            super(responseBuilder, path);
+        }
+    }
+
+    @Test
+    public void testLiteralPrefixOfLiteralPathIsExact() throws Exception {
+        // When...
+        LiteralPrefix prefix = RouteTable.getLiteralPrefix("\\/runs\\/?");
+
+        // Then...
+        assertThat(prefix.getLiteral()).isEqualTo("/runs");
+        assertThat(prefix.isExact()).isTrue();
+        assertThat(prefix.hasOptionalSlash()).isTrue();
+    }
+
+    @Test
+    public void testLiteralPrefixStopsAtFirstRegexToken() throws Exception {
+        // When...
+        LiteralPrefix prefix = RouteTable.getLiteralPrefix("\\/runs\\/([A-Za-z0-9.\\-=]+)\\/files\\/(.*)");
+
+        // Then...
+        assertThat(prefix.getLiteral()).isEqualTo("/runs/");
+        assertThat(prefix.isExact()).isFalse();
+    }
+
+    @Test
+    public void testLiteralPrefixDropsQuantifiedCharacter() throws Exception {
+        // When...
+        LiteralPrefix prefix = RouteTable.getLiteralPrefix("\\/runs*\\/");
+
+        // Then...
+        assertThat(prefix.getLiteral()).isEqualTo("/run");
+        assertThat(prefix.isExact()).isFalse();
+    }
+
+    @Test
+    public void testLiteralPrefixOfTopLevelAlternationIsEmpty() throws Exception {
+        // When...
+        LiteralPrefix prefix = RouteTable.getLiteralPrefix("\\/runs|\\/requestors");
+
+        // Then...
+        assertThat(prefix.getLiteral()).isEmpty();
+        assertThat(prefix.isExact()).isFalse();
+    }
+
+    @Test
+    public void testExactRouteIsFoundWithAndWithoutTrailingSlash() throws Exception {
+        // Given...
+        RouteTable table = new RouteTable();
+        IRoute runsRoute = new MockRoute("\\/runs\\/?");
+        IRoute rootRoute = new MockRoute("\\/?");
+        table.add(runsRoute);
+        table.add(rootRoute);
+
+        // Then...
+        assertThat(table.findRoute("/runs")).isSameAs(runsRoute);
+        assertThat(table.findRoute("/runs/")).isSameAs(runsRoute);
+        assertThat(table.findRoute("")).isSameAs(rootRoute);
+        assertThat(table.findRoute("/")).isSameAs(rootRoute);
+        assertThat(table.findRoute("/runs//")).isNull();
+    }
+
+    @Test
+    public void testMostSpecificRouteTakesPrecedence() throws Exception {
+        // Given...
+        RouteTable table = new RouteTable();
+        IRoute anyRoute = new MockRoute("\\/.*");
+        IRoute runRoute = new MockRoute("\\/runs\\/([a-z0-9]+)\\/?");
+        IRoute artifactRoute = new MockRoute("\\/runs\\/([a-z0-9]+)\\/files\\/(.*)");
+        IRoute latestRoute = new MockRoute("\\/runs\\/latest");
+        table.add(anyRoute);
+        table.add(runRoute);
+        table.add(artifactRoute);
+        table.add(latestRoute);
+
+        // Then...
+        assertThat(table.findRoute("/runs/latest")).isSameAs(latestRoute);
+        assertThat(table.findRoute("/runs/abc123")).isSameAs(runRoute);
+        assertThat(table.findRoute("/runs/abc123/files/a/b.txt")).isSameAs(artifactRoute);
+        assertThat(table.findRoute("/requestors")).isSameAs(anyRoute);
+    }
+
+    @Test
+    public void testRoutesWithTheSamePrefixAreTriedInTheOrderAdded() throws Exception {
+        // Given...
+        RouteTable table = new RouteTable();
+        IRoute firstRoute = new MockRoute("\\/namespace\\/([a-z]+)");
+        IRoute secondRoute = new MockRoute("\\/namespace\\/([a-z0-9]+)");
+        table.add(firstRoute);
+        table.add(secondRoute);
+
+        // Then...
+        assertThat(table.findRoute("/namespace/abc")).isSameAs(firstRoute);
+        assertThat(table.findRoute("/namespace/abc1")).isSameAs(secondRoute);
+        assertThat(table.findRoute("/namespace/ABC")).isNull();
+    }
+}
@@ -99,7 +99,7 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void setContentLengthLong(long len) {
-        throw new UnsupportedOperationException("Unimplemented method 'setContentLengthLong'");
+        setHeader("Content-Length", Long.toString(len));
     }
 
 
@@ -15,6 +15,7 @@ import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunsSnapshot;
 
 public class MockIFrameworkRuns implements IFrameworkRuns{
     protected String groupName;
@@ -45,6 +46,11 @@ public class MockIFrameworkRuns implements IFrameworkRuns{
         throw new UnsupportedOperationException("Unimplemented method 'getAllRuns'");
     }
 
+    @Override
+    public @NotNull RunsSnapshot getRunsSnapshot() throws FrameworkException {
+        return new RunsSnapshot(this.runs);
+    }
+
     @Override
     public @NotNull List<IRun> getAllGroupedRuns(@NotNull String groupName) throws FrameworkException {
         if(groupName.equals("invalid")){
@@ -65,7 +71,7 @@ public class MockIFrameworkRuns implements IFrameworkRuns{
             String mavenRepository, String obr, String stream, boolean local, boolean trace, Properties overrides,
             SharedEnvironmentPhase sharedEnvironmentPhase, String sharedEnvironmentRunName, String language)
             throws FrameworkException {
-            if (stream.equals("null")){
+            if (stream.equals("null") || bundleName.equals("failing")){
                 throw new FrameworkException(language);
             }
         return new MockIRun("runname"+testName, type, requestor, testName, sharedEnvironmentRunName, bundleName, language, groupName);
@@ -0,0 +1,197 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.ras.internal.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * The content of an artifact being downloaded, which is only read as the
+ * response is written, so that large artifacts are never held in memory.
+ */
+public abstract class ArtifactContent implements Closeable {
+
+    // Large enough that a big artifact does not need many thousands of reads
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long   size;
+    private final String etag;
+
+    protected ArtifactContent(long size, String etag) {
+        this.size = size;
+        this.etag = etag;
+    }
+
+    /**
+     * @return the size of the content in bytes, or -1 if it is not known
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the ETag of the content, or null if it has none
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Write part of the content
+     *
+     * @param outStream where to write the content
+     * @param start     the offset of the first byte to write
+     * @param length    the number of bytes to write, or -1 to write to the end
+     * @throws IOException if the content cannot be read or written
+     */
+    public abstract void writeTo(OutputStream outStream, long start, long length) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * @param content the content, null is treated as empty
+     * @return content held in memory, with an ETag that is a hash of the content
+     */
+    public static ArtifactContent fromBytes(byte[] content) {
+        byte[] bytes = content == null ? new byte[0] : content;
+        return new StreamContent(new ByteArrayInputStream(bytes), bytes.length, "\"" + digest(bytes) + "\"");
+    }
+
+    /**
+     * @param inStream the content, which is closed with the artifact content
+     * @param size     the size of the content, or -1 if it is not known
+     * @param etag     the ETag of the content, or null
+     * @return content read from a stream
+     */
+    public static ArtifactContent fromStream(InputStream inStream, long size, String etag) {
+        return new StreamContent(inStream, size, etag);
+    }
+
+    /**
+     * @param channel the content, which is closed with the artifact content
+     * @param etag    the ETag of the content, or null
+     * @return content read from a channel, straight from the file if the channel
+     *         is a file channel
+     * @throws IOException if the size of the channel cannot be found
+     */
+    public static ArtifactContent fromChannel(SeekableByteChannel channel, String etag) throws IOException {
+        return new ChannelContent(channel, etag);
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(messageDigest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class StreamContent extends ArtifactContent {
+        private final InputStream inStream;
+
+        private StreamContent(InputStream inStream, long size, String etag) {
+            super(size, etag);
+            this.inStream = inStream;
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream, long start, long length) throws IOException {
+            long toSkip = start;
+            while (toSkip > 0) {
+                long skipped = inStream.skip(toSkip);
+                if (skipped <= 0) {
+                    if (inStream.read() < 0) {
+                        return;
+                    }
+                    skipped = 1;
+                }
+                toSkip -= skipped;
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length < 0 ? Long.MAX_VALUE : length;
+            while (remaining > 0) {
+                int bytesRead = inStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (bytesRead < 0) {
+                    break;
+                }
+                outStream.write(buffer, 0, bytesRead);
+                remaining -= bytesRead;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            inStream.close();
+        }
+    }
+
+    private static class ChannelContent extends ArtifactContent {
+        private final SeekableByteChannel channel;
+
+        private ChannelContent(SeekableByteChannel channel, String etag) throws IOException {
+            super(channel.size(), etag);
+            this.channel = channel;
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream, long start, long length) throws IOException {
+            long remaining = length < 0 ? getSize() - start : length;
+
+            if (channel instanceof FileChannel) {
+                // *** Let the file channel move the bytes, rather than copying them through our own buffer
+                FileChannel fileChannel = (FileChannel) channel;
+                WritableByteChannel outChannel = Channels.newChannel(outStream);
+                long position = start;
+                while (remaining > 0) {
+                    long transferred = fileChannel.transferTo(position, remaining, outChannel);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+                return;
+            }
+
+            if (start > 0) {
+                channel.position(start);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (remaining > 0) {
+                buffer.clear();
+                if (remaining < buffer.capacity()) {
+                    buffer.limit((int) remaining);
+                }
+                int bytesRead = channel.read(buffer);
+                if (bytesRead < 0) {
+                    break;
+                }
+                outStream.write(buffer.array(), 0, bytesRead);
+                remaining -= bytesRead;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
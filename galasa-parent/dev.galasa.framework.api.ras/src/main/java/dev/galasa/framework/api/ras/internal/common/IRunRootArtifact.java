@@ -14,4 +14,11 @@ public interface IRunRootArtifact {
     String getPathName();
     byte[] getContent(IRunResult run) throws ResultArchiveStoreException, IOException;
     String getContentType();
+
+    /**
+     * @return the content to download, by default held in memory from {@link #getContent(IRunResult)}
+     */
+    default ArtifactContent getDownloadContent(IRunResult run) throws ResultArchiveStoreException, IOException {
+        return ArtifactContent.fromBytes(getContent(run));
+    }
 }
@@ -22,6 +22,17 @@ public class RunLogArtifact implements IRunRootArtifact {
         return "".getBytes(StandardCharsets.UTF_8);
     }
 
+    @Override
+    public ArtifactContent getDownloadContent(IRunResult run) throws ResultArchiveStoreException, IOException {
+        // *** Stream the log rather than loading it, the log of a long run can be very large.
+        // *** A store that can't tell us the size of the log has to load it anyway
+        long size = run.getLogSize();
+        if (size < 0) {
+            return ArtifactContent.fromBytes(getContent(run));
+        }
+        return ArtifactContent.fromStream(run.getLogStream(), size, "W/\"" + size + "\"");
+    }
+
     @Override
     public String getContentType() {
         return "text/plain";
@@ -9,13 +9,14 @@ import static dev.galasa.framework.api.common.ServletErrorMessage.*;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.ByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
+import java.nio.file.spi.FileSystemProvider;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -27,6 +28,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import dev.galasa.framework.IFileSystem;
+import dev.galasa.framework.api.ras.internal.common.ArtifactContent;
 import dev.galasa.framework.api.ras.internal.common.ArtifactsJson;
 import dev.galasa.framework.api.ras.internal.common.ArtifactsProperties;
 import dev.galasa.framework.api.ras.internal.common.IRunRootArtifact;
@@ -84,10 +86,10 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
         matcher.matches();
         String runId = matcher.group(1);
         String artifactPath = matcher.group(2);
-        return downloadArtifact(runId, artifactPath, response);
+        return downloadArtifact(runId, artifactPath, req, response);
     }
 
-    private HttpServletResponse downloadArtifact(String runId, String artifactPath, HttpServletResponse res) throws InternalServletException, IOException {
+    private HttpServletResponse downloadArtifact(String runId, String artifactPath, HttpServletRequest req, HttpServletResponse res) throws InternalServletException, IOException {
         IRunResult run = null;
         String runName = "";
         String artifactsPrefix = "artifacts/";
@@ -106,9 +108,11 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
         try {
             IRunRootArtifact artifact = rootArtifacts.get(artifactPath);
             if (artifact != null) {
-                res = setDownloadResponse(res, artifact.getContent(run), artifact.getContentType());
+                try (ArtifactContent content = artifact.getDownloadContent(run)) {
+                    res = writeArtifact(req, res, content, artifact.getContentType());
+                }
             } else if (artifactPath.startsWith(artifactsPrefix)) {
-                res = downloadStoredArtifact(res, run, artifactPath.substring(artifactsPrefix.length() - 1));
+                res = downloadStoredArtifact(req, res, run, artifactPath.substring(artifactsPrefix.length() - 1));
             } else {
                 ServletError error = new ServletError(GAL5008_ERROR_LOCATING_ARTIFACT, artifactPath, runName);
                 throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -120,46 +124,150 @@ public class RunArtifactsDownloadRoute extends RunArtifactsRoute {
         return res;
     }
 
-    private HttpServletResponse downloadStoredArtifact(HttpServletResponse res, IRunResult run, String artifactPath) throws ResultArchiveStoreException, IOException {
+    private HttpServletResponse downloadStoredArtifact(HttpServletRequest req, HttpServletResponse res, IRunResult run, String artifactPath) throws ResultArchiveStoreException, IOException {
         FileSystem artifactFileSystem = run.getArtifactsRoot().getFileSystem();
         Path artifactLocation = artifactFileSystem.getPath(artifactPath);
+        FileSystemProvider provider = artifactFileSystem.provider();
 
         // Open the artifact for reading
         Set<OpenOption> options = new HashSet<>();
         options.add(StandardOpenOption.READ);
-        try (ByteChannel channel = artifactFileSystem.provider().newByteChannel(artifactLocation, options, new FileAttribute<?>[]{});
-            OutputStream outStream = res.getOutputStream()) {
+        SeekableByteChannel channel = provider.newByteChannel(artifactLocation, options, new FileAttribute<?>[]{});
+        try (ArtifactContent content = ArtifactContent.fromChannel(channel, getStoredArtifactEtag(provider, artifactLocation, channel.size()))) {
+            return writeArtifact(req, res, content, getFileSystem().probeContentType(artifactLocation));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
 
-            // Create a buffer to read small amounts of data into to avoid out-of-memory issues
-            int bufferCapacity = 1024;
-            ByteBuffer buffer = ByteBuffer.allocate(bufferCapacity);
+    private String getStoredArtifactEtag(FileSystemProvider provider, Path artifactLocation, long size) {
+        String etag = "W/\"" + size + "\"";
+        try {
+            BasicFileAttributes attributes = provider.readAttributes(artifactLocation, BasicFileAttributes.class);
+            if (attributes != null && attributes.lastModifiedTime() != null) {
+                etag = "\"" + size + "-" + attributes.lastModifiedTime().toMillis() + "\"";
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            // *** Not every RAS can tell us when the artifact was stored, so the size will have to do
+        }
+        return etag;
+    }
 
-            // Read the artifact and write it to the response's output stream
-            int bytesRead = channel.read(buffer);
-            while (bytesRead > 0) {
-                buffer.flip();
-                byte[] bytes = new byte[bytesRead];
-                buffer.get(bytes);
+    /**
+     * Write the artifact to the response, honouring conditional requests and a
+     * single byte range so that clients can resume or tail large artifacts
+     */
+    private HttpServletResponse writeArtifact(HttpServletRequest req, HttpServletResponse res, ArtifactContent content, String contentType) throws IOException {
+        res.setContentType(contentType);
+        res.setHeader("Content-Disposition", "attachment");
 
-                outStream.write(bytes);
+        String etag = content.getEtag();
+        if (etag != null) {
+            res.setHeader("ETag", etag);
+            if (etagMatches(req.getHeader("If-None-Match"), etag)) {
+                res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return res;
+            }
+        }
 
-                buffer.clear();
-                bytesRead = channel.read(buffer);
+        long size = content.getSize();
+        long start = 0;
+        long length = size;
+        int status = HttpServletResponse.SC_OK;
+        if (size >= 0) {
+            res.setHeader("Accept-Ranges", "bytes");
+
+            String range = req.getHeader("Range");
+            String ifRange = req.getHeader("If-Range");
+            // *** A weak ETag can't be used to decide whether the range still applies, so send everything
+            boolean isRangeCurrent = ifRange == null || (etag != null && !etag.startsWith("W/") && ifRange.trim().equals(etag));
+            if (range != null && isRangeCurrent) {
+                long[] byteRange = parseByteRange(range, size);
+                if (byteRange == null) {
+                    res.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    res.setHeader("Content-Range", "bytes */" + size);
+                    return res;
+                }
+                if (byteRange.length == 2) {
+                    start = byteRange[0];
+                    length = byteRange[1] - byteRange[0] + 1;
+                    status = HttpServletResponse.SC_PARTIAL_CONTENT;
+                    res.setHeader("Content-Range", "bytes " + byteRange[0] + "-" + byteRange[1] + "/" + size);
+                }
             }
-            res.setStatus(HttpServletResponse.SC_OK);
-            res.setContentType(getFileSystem().probeContentType(artifactLocation));
-            res.setHeader("Content-Disposition", "attachment");
+            res.setContentLengthLong(length);
+        }
+
+        res.setStatus(status);
+        try (OutputStream outStream = res.getOutputStream()) {
+            content.writeTo(outStream, start, length);
         }
         return res;
     }
 
-    private HttpServletResponse setDownloadResponse(HttpServletResponse res, byte[] content, String contentType) throws IOException {
-        OutputStream outStream = res.getOutputStream();
-        res.setStatus(HttpServletResponse.SC_OK);
-        res.setContentType(contentType);
-        res.setHeader("Content-Disposition", "attachment");
-        outStream.write(content);
-        outStream.close();
-        return res;
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        boolean isMatch = false;
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || trimmed.equals(etag)) {
+                    isMatch = true;
+                    break;
+                }
+            }
+        }
+        return isMatch;
+    }
+
+    /**
+     * Parse a "bytes=" range header into the first and last byte to send
+     *
+     * @return the first and last byte, an empty array if the header should be
+     *         ignored and the whole artifact sent, or null if the range cannot be satisfied
+     */
+    long[] parseByteRange(String rangeHeader, long size) {
+        String header = rangeHeader.trim();
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            // Other units and multiple ranges are not supported, so send the whole artifact
+            return new long[0];
+        }
+
+        String range = header.substring("bytes=".length()).trim();
+        int dash = range.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+
+        long first;
+        long last;
+        try {
+            String firstPart = range.substring(0, dash).trim();
+            String lastPart = range.substring(dash + 1).trim();
+            if (firstPart.isEmpty()) {
+                // A suffix range, "bytes=-500" is the last 500 bytes
+                long suffixLength = Long.parseLong(lastPart);
+                if (suffixLength <= 0 || size == 0) {
+                    return null;
+                }
+                first = Math.max(0, size - suffixLength);
+                last = size - 1;
+            } else {
+                first = Long.parseLong(firstPart);
+                last = lastPart.isEmpty() ? size - 1 : Long.parseLong(lastPart);
+                if (last < first) {
+                    // A range that ends before it starts is invalid, so it is ignored rather than unsatisfiable
+                    return new long[0];
+                }
+                last = Math.min(last, size - 1);
+            }
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+
+        if (first < 0 || first >= size || last < first) {
+            return null;
+        }
+        return new long[] { first, last };
     }
-}
\ No newline at end of file
+}
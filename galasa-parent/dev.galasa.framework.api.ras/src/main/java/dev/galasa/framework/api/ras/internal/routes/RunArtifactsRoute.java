@@ -20,6 +20,7 @@ import dev.galasa.framework.api.common.ResponseBuilder;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IRunResult;
 import dev.galasa.framework.spi.ResultArchiveStoreException;
+import dev.galasa.framework.spi.ras.ArtifactManifestEntry;
 
 /**
  * An abstract route for holding common code used by multiple artifact-related
@@ -73,6 +74,9 @@ public abstract class RunArtifactsRoute extends RunsRoute {
      * </code>
      * </pre>
      *
+     * If the RAS keeps a manifest of the run's artifacts it is used, otherwise the
+     * artifacts are found by walking the run's artifact directories.
+     *
      * @param run
      * @return
      * @throws ResultArchiveStoreException
@@ -81,6 +85,21 @@ public abstract class RunArtifactsRoute extends RunsRoute {
     public JsonArray getArtifacts(IRunResult run) throws ResultArchiveStoreException, IOException {
 
         JsonArray artifactRecords = new JsonArray();
+        List<ArtifactManifestEntry> manifest = run.getArtifactManifest();
+        if (manifest != null) {
+            Path artifactsRoot = run.getArtifactsRoot();
+            for (ArtifactManifestEntry entry : manifest) {
+                Path artifactPath = artifactsRoot.getFileSystem().getPath(entry.getPath());
+                long size = entry.getSize();
+                if (size < 0) {
+                    // The artifact is still being written
+                    size = fileSystem.size(artifactPath);
+                }
+                artifactRecords.add(getArtifactAsJsonObject("/artifacts" + artifactPath.toString(), fileSystem.probeContentType(artifactPath), size));
+            }
+            return artifactRecords;
+        }
+
         List<Path> artifactPaths = getArtifactPaths(run.getArtifactsRoot(), new ArrayList<>());
         for (Path artifactPath : artifactPaths) {
             JsonObject artifactRecord = getArtifactAsJsonObject("/artifacts" + artifactPath.toString(), fileSystem.probeContentType(artifactPath), fileSystem.size(artifactPath));
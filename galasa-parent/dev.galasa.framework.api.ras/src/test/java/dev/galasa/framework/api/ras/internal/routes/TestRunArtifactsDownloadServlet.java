@@ -583,4 +583,173 @@ public class TestRunArtifactsDownloadServlet extends RasServletTest {
 		assertThat(resp.getContentType()).isEqualTo("text/plain");
 		assertThat(resp.getHeader("Content-Disposition")).isEqualTo("attachment");
 	}
+
+    @Test
+    public void testRangeOfStoredArtifactReturnsPartialContent() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        MockPath artifactPath = new MockPath("/term002.gz", mockFileSystem);
+		String fileContent = "dummy content";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+		mockFileSystem.createFile(artifactPath);
+		mockFileSystem.setFileContents(artifactPath, fileContent);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=6-");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/artifacts" + artifactPath.toString(), headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("content");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 6-12/13");
+		assertThat(resp.getHeader("Content-Length")).isEqualTo("7");
+		assertThat(resp.getHeader("Accept-Ranges")).isEqualTo("bytes");
+	}
+
+    @Test
+    public void testSuffixRangeOfRunLogReturnsTheEndOfTheLog() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String runlog = "very detailed run log";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, runlog);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=-3");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/run.log", headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(206);
+        assertThat(outStream.toString()).isEqualTo("log");
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes 18-20/21");
+	}
+
+    @Test
+    public void testUnsatisfiableRangeReturnsRangeNotSatisfiable() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        MockPath artifactPath = new MockPath("/term002.gz", mockFileSystem);
+		String fileContent = "dummy content";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+		mockFileSystem.createFile(artifactPath);
+		mockFileSystem.setFileContents(artifactPath, fileContent);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=100-200");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/artifacts" + artifactPath.toString(), headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(416);
+        assertThat(outStream.toString()).isEmpty();
+		assertThat(resp.getHeader("Content-Range")).isEqualTo("bytes */13");
+	}
+
+    @Test
+    public void testRangeEndingBeforeItStartsReturnsTheWholeArtifact() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        MockPath artifactPath = new MockPath("/term002.gz", mockFileSystem);
+		String fileContent = "dummy content";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+		mockFileSystem.createFile(artifactPath);
+		mockFileSystem.setFileContents(artifactPath, fileContent);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("Range", "bytes=5-2");
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/artifacts" + artifactPath.toString(), headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(resp.getStatus()).isEqualTo(200);
+        assertThat(outStream.toString()).isEqualTo(fileContent);
+		assertThat(resp.getHeader("Content-Range")).isNull();
+	}
+
+    @Test
+    public void testMatchingEtagReturnsNotModified() throws Exception {
+		//Given..
+		String runId = "12345";
+		String runName = "testA";
+        String artifactPath = "structure.json";
+        List<IRunResult> mockInputRunResults = generateTestData(runId, runName, null);
+
+		Map<String, String[]> parameterMap = new HashMap<String,String[]>();
+		MockHttpServletRequest firstRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath);
+		MockRasServletEnvironment firstEnvironment = new MockRasServletEnvironment(mockInputRunResults, firstRequest, mockFileSystem);
+		RasServlet firstServlet = firstEnvironment.getServlet();
+		firstServlet.init();
+		firstServlet.doGet(firstEnvironment.getRequest(), firstEnvironment.getResponse());
+		String etag = firstEnvironment.getResponse().getHeader("ETag");
+
+		Map<String, String> headerMap = new HashMap<String,String>();
+		headerMap.put("If-None-Match", etag);
+		MockHttpServletRequest mockRequest = new MockHttpServletRequest(parameterMap, "/runs/" + runId + "/files/" + artifactPath, headerMap);
+		MockRasServletEnvironment mockServletEnvironment = new MockRasServletEnvironment(mockInputRunResults, mockRequest, mockFileSystem);
+
+		RasServlet servlet = mockServletEnvironment.getServlet();
+		HttpServletRequest req = mockServletEnvironment.getRequest();
+		HttpServletResponse resp = mockServletEnvironment.getResponse();
+		ServletOutputStream outStream = resp.getOutputStream();
+
+		//When...
+		servlet.init();
+		servlet.doGet(req,resp);
+
+		// Then...
+		// Expecting:
+		assertThat(etag).isNotNull();
+		assertThat(resp.getStatus()).isEqualTo(304);
+        assertThat(outStream.toString()).isEmpty();
+		assertThat(resp.getHeader("ETag")).isEqualTo(etag);
+	}
 }
\ No newline at end of file
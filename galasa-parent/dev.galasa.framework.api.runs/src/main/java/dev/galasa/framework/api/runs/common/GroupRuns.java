@@ -7,6 +7,7 @@ package dev.galasa.framework.api.runs.common;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.servlet.ServletException;
@@ -14,6 +15,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 
+import dev.galasa.framework.beans.SubmitRunRequest;
+import dev.galasa.framework.beans.SubmitRunResult;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IFrameworkRuns.SharedEnvironmentPhase;
 import dev.galasa.api.runs.ScheduleRequest;
@@ -83,39 +86,75 @@ public class GroupRuns extends BaseRoute {
             
         ScheduleStatus status = new ScheduleStatus();
         status.setComplete(false);
-            
-        for (String className : request.getClassNames()) {
-            // className is in format bundle/testClass
-            String[] classNameSplit = className.split("/");
 
-            SharedEnvironmentPhase senvPhase = null;
-            String sharedEnvironmentPhase = request.getSharedEnvironmentPhase();
-            if (sharedEnvironmentPhase != null) {
-                try {
-                    senvPhase = SharedEnvironmentPhase.valueOf(request.getSharedEnvironmentPhase());
-                } catch (Throwable t) {
-                    ServletError error = new ServletError(GAL5022_UNABLE_TO_PARSE_SHARED_ENVIRONMENT_PHASE,sharedEnvironmentPhase);
-                    throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, t);
-                }
+        SharedEnvironmentPhase senvPhase = null;
+        String sharedEnvironmentPhase = request.getSharedEnvironmentPhase();
+        if (sharedEnvironmentPhase != null) {
+            try {
+                senvPhase = SharedEnvironmentPhase.valueOf(request.getSharedEnvironmentPhase());
+            } catch (Throwable t) {
+                ServletError error = new ServletError(GAL5022_UNABLE_TO_PARSE_SHARED_ENVIRONMENT_PHASE,sharedEnvironmentPhase);
+                throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, t);
             }
+        }
 
-            if(jwtRequestor == null){
-                jwtRequestor = request.getRequestor(); 
-            }
+        if(jwtRequestor == null){
+            jwtRequestor = request.getRequestor(); 
+        }
+
+        // Build all the run requests first so the whole group is submitted in one go
+        List<String> classNames = request.getClassNames();
+        List<SubmitRunRequest> runRequests = new ArrayList<>();
+        for (String className : classNames) {
+            // className is in format bundle/testClass
+            String[] classNameSplit = className.split("/");
             try {
-                IRun newRun = framework.getFrameworkRuns().submitRun(request.getRequestorType(), jwtRequestor, classNameSplit[0], classNameSplit[1],
+                runRequests.add(new SubmitRunRequest(request.getRequestorType(), jwtRequestor, classNameSplit[0], classNameSplit[1],
                         groupName, request.getMavenRepository(), request.getObr(), request.getTestStream(), false,
                         request.isTrace(), request.getOverrides(), 
                         senvPhase, 
                         request.getSharedEnvironmentRunName(),
-                        "java");
-                
-                status.getRuns().add(newRun.getSerializedRun());
+                        "java"));
             } catch (FrameworkException fe) {
                 ServletError error = new ServletError(GAL5021_UNABLE_TO_SUBMIT_RUNS, className);  
                 throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, fe);
             }
         }
+
+        List<SubmitRunResult> results;
+        try {
+            results = framework.getFrameworkRuns().submitRuns(runRequests);
+        } catch (FrameworkException fe) {
+            ServletError error = new ServletError(GAL5021_UNABLE_TO_SUBMIT_RUNS, String.join(", ", classNames));  
+            throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, fe);
+        }
+
+        // Runs that were submitted are reported alongside those that failed, so the caller knows not to submit them again
+        List<String> errors = new ArrayList<>();
+        int firstFailure = -1;
+        for (int i = 0; i < results.size(); i++) {
+            SubmitRunResult result = results.get(i);
+            if (result.isSubmitted()) {
+                status.getRuns().add(result.getRun().getSerializedRun());
+                continue;
+            }
+
+            errors.add(new ServletError(GAL5021_UNABLE_TO_SUBMIT_RUNS, classNames.get(i)).getMessage());
+            if (firstFailure < 0) {
+                firstFailure = i;
+            }
+        }
+
+        if (errors.isEmpty()) {
+            return status;
+        }
+
+        if (status.getRuns().isEmpty()) {
+            // Nothing was submitted, so the whole request can be retried
+            ServletError error = new ServletError(GAL5021_UNABLE_TO_SUBMIT_RUNS, classNames.get(firstFailure));
+            throw new InternalServletException(error, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, results.get(firstFailure).getError());
+        }
+        status.setErrors(errors);
         return status;
     }
 }
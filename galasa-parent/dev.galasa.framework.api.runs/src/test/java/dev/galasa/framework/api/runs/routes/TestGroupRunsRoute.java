@@ -16,9 +16,11 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
 
+import dev.galasa.api.runs.ScheduleStatus;
 import dev.galasa.framework.api.common.BaseServletTest;
 import dev.galasa.framework.api.runs.RunsServletTest;
 import dev.galasa.framework.api.runs.mocks.MockRunsServlet;
+import dev.galasa.framework.spi.utils.GalasaGson;
 
 public class TestGroupRunsRoute extends RunsServletTest{
     
@@ -583,6 +585,31 @@ public class TestGroupRunsRoute extends RunsServletTest{
 		);
     }
 
+    @Test
+    public void TestPostRunsWithOneFailingClassReturnsSubmittedRunsAndError() throws Exception {
+        // Given...
+		String groupName = "valid";
+        String[] classes = new String[]{"Class1/name", "failing/name"};
+        String payload = generatePayload(classes, "requestorType", "user1", "this.test.stream", groupName, null);
+
+        setServlet("/"+groupName, groupName, payload, "POST");
+		MockRunsServlet servlet = getServlet();
+		HttpServletRequest req = getRequest();
+		HttpServletResponse resp = getResponse();
+        ServletOutputStream outStream = resp.getOutputStream();
+
+        // When...
+        servlet.init();
+        servlet.doPost(req, resp);
+
+        // Then...
+        assertThat(resp.getStatus()).isEqualTo(201);
+        ScheduleStatus status = new GalasaGson().fromJson(outStream.toString(), ScheduleStatus.class);
+        assertThat(status.getRuns()).hasSize(1);
+        assertThat(status.getRuns().get(0).getTestName()).isEqualTo("name");
+        assertThat(status.getErrors()).containsExactly("GAL5021E: Error occurred when trying to submit run 'failing/name'.");
+    }
+
     @Test
     public void TestPostRunsWithValidBodyAndMultipleClassesReturnsOK() throws Exception {
         // Given...
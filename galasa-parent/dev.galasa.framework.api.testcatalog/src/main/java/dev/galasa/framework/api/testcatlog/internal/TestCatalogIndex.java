@@ -0,0 +1,451 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.testcatlog.internal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import dev.galasa.framework.spi.utils.GalasaGson;
+
+/**
+ * An in-memory index of the test catalogs held in a catalog directory.
+ *
+ * Each stream's catalog is parsed once, when it is stored or first found in
+ * the directory, and the classes, packages, bundles and tags in it are
+ * indexed so that a class can be found without reading every catalog. The
+ * directory is checked for catalogs written by other servers at most once
+ * every refresh interval, and only the catalogs that have changed are parsed
+ * again. A stream whose catalog is found to be gone is dropped from the index
+ * straight away, and the index of a directory that is gone is dropped from the
+ * shared indexes.
+ */
+public class TestCatalogIndex {
+
+    public static final long REFRESH_INTERVAL_MILLIS = 10000;
+
+    private static final Log logger = LogFactory.getLog(TestCatalogIndex.class);
+
+    private static final ConcurrentHashMap<Path, TestCatalogIndex> indexes = new ConcurrentHashMap<>();
+
+    private final GalasaGson gson = new GalasaGson();
+    private final Path catalogDirectory;
+
+    private Map<String, IndexedCatalog> catalogs = new TreeMap<>();
+    private Map<String, List<IndexedClass>> classesByName = new HashMap<>();
+    private Map<String, List<IndexedClass>> classesByPackage = new HashMap<>();
+    private Map<String, List<IndexedClass>> classesByBundle = new HashMap<>();
+    private Map<String, List<IndexedClass>> classesByTag = new HashMap<>();
+
+    private long lastRefresh = 0;
+
+    /**
+     * A test class found in a catalog
+     */
+    public static class IndexedClass {
+        private final String stream;
+        private final String name;
+        private final String packageName;
+        private final String bundle;
+        private final List<String> tags;
+
+        IndexedClass(String stream, String name, String packageName, String bundle, List<String> tags) {
+            this.stream = stream;
+            this.name = name;
+            this.packageName = packageName;
+            this.bundle = bundle;
+            this.tags = tags;
+        }
+
+        public String getStream() {
+            return stream;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public String getBundle() {
+            return bundle;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("stream", stream);
+            json.addProperty("name", name);
+            json.addProperty("package", packageName);
+            json.addProperty("bundle", bundle);
+            JsonArray jsonTags = new JsonArray();
+            for (String tag : tags) {
+                jsonTags.add(tag);
+            }
+            json.add("tags", jsonTags);
+            return json;
+        }
+    }
+
+    /**
+     * The summary of a stream's catalog and where it came from
+     */
+    private static class IndexedCatalog {
+        private final FileTime lastModified;
+        private final long size;
+        private final String etag;
+        private final JsonObject summary;
+        private final List<IndexedClass> classes;
+
+        private IndexedCatalog(FileTime lastModified, long size, String etag, JsonObject summary, List<IndexedClass> classes) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.etag = etag;
+            this.summary = summary;
+            this.classes = classes;
+        }
+    }
+
+    public TestCatalogIndex(Path catalogDirectory) {
+        this.catalogDirectory = catalogDirectory;
+    }
+
+    /**
+     * @param catalogDirectory the catalog directory
+     * @return the index shared by all the servlets using the directory
+     */
+    public static TestCatalogIndex getIndex(Path catalogDirectory) {
+        return indexes.computeIfAbsent(catalogDirectory, TestCatalogIndex::new);
+    }
+
+    /**
+     * Record a catalog that has just been written to the catalog directory
+     *
+     * @param stream  the stream name
+     * @param catalog the parsed catalog
+     * @param data    the catalog as written
+     * @throws IOException if the written file cannot be read
+     */
+    public synchronized void catalogStored(String stream, JsonObject catalog, byte[] data) throws IOException {
+        Path catalogFile = catalogDirectory.resolve(stream);
+        IndexedCatalog indexed = indexCatalog(stream, catalog, data, Files.getLastModifiedTime(catalogFile), Files.size(catalogFile));
+
+        Map<String, IndexedCatalog> newCatalogs = new TreeMap<>(this.catalogs);
+        newCatalogs.put(stream, indexed);
+        rebuildLookups(newCatalogs);
+    }
+
+    /**
+     * @return the name, build, version and built date of each stream's catalog,
+     *         as returned by the list catalogs request
+     */
+    public synchronized JsonObject getSummary() throws IOException {
+        refreshIfDue();
+
+        JsonObject jsonCatalogs = new JsonObject();
+        for (Map.Entry<String, IndexedCatalog> entry : this.catalogs.entrySet()) {
+            jsonCatalogs.add(entry.getKey(), entry.getValue().summary);
+        }
+
+        JsonObject jsonSummary = new JsonObject();
+        jsonSummary.add("catalogs", jsonCatalogs);
+        return jsonSummary;
+    }
+
+    /**
+     * @return an ETag that changes whenever any catalog in the index changes
+     */
+    public synchronized String getSummaryEtag() throws IOException {
+        refreshIfDue();
+
+        StringBuilder etags = new StringBuilder();
+        for (Map.Entry<String, IndexedCatalog> entry : this.catalogs.entrySet()) {
+            etags.append(entry.getKey()).append('=').append(entry.getValue().etag).append('\n');
+        }
+        return "\"" + digest(etags.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * @param stream the stream name
+     * @return the ETag of the stream's catalog, or null if the stream has no
+     *         catalog or it has changed since it was indexed
+     */
+    public synchronized String getCatalogEtag(String stream) throws IOException {
+        refreshIfDue();
+
+        IndexedCatalog indexed = this.catalogs.get(stream);
+        if (indexed == null) {
+            return null;
+        }
+
+        // *** Another server may have written or removed the catalog since the last refresh
+        Path catalogFile = catalogDirectory.resolve(stream);
+        if (!Files.exists(catalogFile)) {
+            evictStream(stream);
+            return null;
+        }
+        if (!indexed.lastModified.equals(Files.getLastModifiedTime(catalogFile)) || indexed.size != Files.size(catalogFile)) {
+            return null;
+        }
+        return "\"" + indexed.etag + "\"";
+    }
+
+    /**
+     * Find the test classes that match all of the non-null criteria
+     *
+     * @param stream      only classes in this stream
+     * @param className   only classes with this fully qualified name
+     * @param packageName only classes in this package
+     * @param bundle      only classes in this bundle
+     * @param tag         only classes with this tag
+     * @return the matching classes, in stream and class name order
+     */
+    public synchronized List<IndexedClass> findClasses(String stream, String className, String packageName,
+            String bundle, String tag) throws IOException {
+        refreshIfDue();
+
+        // *** Start from the smallest of the candidate lists, then filter on the rest
+        List<IndexedClass> candidates = null;
+        candidates = smallest(candidates, className, this.classesByName);
+        candidates = smallest(candidates, packageName, this.classesByPackage);
+        candidates = smallest(candidates, bundle, this.classesByBundle);
+        candidates = smallest(candidates, tag, this.classesByTag);
+        if (candidates == null) {
+            if (stream == null) {
+                candidates = new ArrayList<>();
+                for (IndexedCatalog indexed : this.catalogs.values()) {
+                    candidates.addAll(indexed.classes);
+                }
+            } else {
+                IndexedCatalog indexed = this.catalogs.get(stream);
+                candidates = indexed == null ? Collections.emptyList() : indexed.classes;
+            }
+        }
+
+        ArrayList<IndexedClass> matches = new ArrayList<>();
+        for (IndexedClass candidate : candidates) {
+            if ((stream == null || stream.equals(candidate.stream))
+                    && (className == null || className.equals(candidate.name))
+                    && (packageName == null || packageName.equals(candidate.packageName))
+                    && (bundle == null || bundle.equals(candidate.bundle))
+                    && (tag == null || candidate.tags.contains(tag))) {
+                matches.add(candidate);
+            }
+        }
+
+        matches.sort((a, b) -> {
+            int compare = a.stream.compareTo(b.stream);
+            return compare != 0 ? compare : a.name.compareTo(b.name);
+        });
+        return matches;
+    }
+
+    private static List<IndexedClass> smallest(List<IndexedClass> current, String key,
+            Map<String, List<IndexedClass>> lookup) {
+        if (key == null) {
+            return current;
+        }
+        List<IndexedClass> candidates = lookup.getOrDefault(key, Collections.emptyList());
+        if (current == null || candidates.size() < current.size()) {
+            return candidates;
+        }
+        return current;
+    }
+
+    private void refreshIfDue() throws IOException {
+        long now = System.currentTimeMillis();
+        if (this.lastRefresh != 0 && now - this.lastRefresh < REFRESH_INTERVAL_MILLIS) {
+            return;
+        }
+        this.lastRefresh = now;
+        refresh();
+    }
+
+    /**
+     * Check the catalog directory for catalogs that have been written, changed or
+     * removed by something else, and parse only those
+     */
+    synchronized void refresh() throws IOException {
+        if (!Files.exists(catalogDirectory)) {
+            if (!this.catalogs.isEmpty()) {
+                rebuildLookups(new TreeMap<>());
+            }
+            indexes.remove(catalogDirectory, this);
+            return;
+        }
+
+        Map<String, IndexedCatalog> newCatalogs = new TreeMap<>();
+        boolean changed = false;
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(catalogDirectory)) {
+            files = new ArrayList<>();
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        }
+
+        for (Path file : files) {
+            String streamName = file.getFileName().toString();
+            if (streamName.equals("cache.json")) {
+                continue;
+            }
+
+            try {
+                FileTime lastModified = Files.getLastModifiedTime(file);
+                long size = Files.size(file);
+
+                IndexedCatalog existing = this.catalogs.get(streamName);
+                if (existing != null && existing.lastModified.equals(lastModified) && existing.size == size) {
+                    newCatalogs.put(streamName, existing);
+                    continue;
+                }
+
+                byte[] data = Files.readAllBytes(file);
+                JsonObject catalog = gson.fromJson(new String(data, StandardCharsets.UTF_8), JsonObject.class);
+                if (catalog != null) {
+                    newCatalogs.put(streamName, indexCatalog(streamName, catalog, data, lastModified, size));
+                }
+                changed = true;
+            } catch (IOException | JsonParseException e) {
+                logger.error("Problem indexing test catalog " + file, e);
+            }
+        }
+
+        if (changed || newCatalogs.size() != this.catalogs.size()) {
+            rebuildLookups(newCatalogs);
+        }
+    }
+
+    private void evictStream(String stream) {
+        Map<String, IndexedCatalog> newCatalogs = new TreeMap<>(this.catalogs);
+        if (newCatalogs.remove(stream) != null) {
+            rebuildLookups(newCatalogs);
+        }
+    }
+
+    private IndexedCatalog indexCatalog(String stream, JsonObject catalog, byte[] data, FileTime lastModified, long size) {
+        JsonObject summary = new JsonObject();
+        summary.add("name", catalog.get("name"));
+        summary.add("build", catalog.get("build"));
+        summary.add("version", catalog.get("version"));
+        summary.add("built", catalog.get("built"));
+
+        ArrayList<IndexedClass> classes = new ArrayList<>();
+        JsonElement jsonClasses = catalog.get("classes");
+        if (jsonClasses != null && jsonClasses.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : jsonClasses.getAsJsonObject().entrySet()) {
+                if (entry.getValue().isJsonObject()) {
+                    classes.add(indexClass(stream, entry.getKey(), entry.getValue().getAsJsonObject()));
+                }
+            }
+        }
+
+        return new IndexedCatalog(lastModified, size, digest(data), summary, Collections.unmodifiableList(classes));
+    }
+
+    private IndexedClass indexClass(String stream, String key, JsonObject jsonClass) {
+        // *** Classes are keyed by bundle/classname, but prefer the explicit fields if present
+        String bundle = getString(jsonClass, "bundle");
+        String name = getString(jsonClass, "name");
+        int slash = key.indexOf('/');
+        if (bundle == null && slash > 0) {
+            bundle = key.substring(0, slash);
+        }
+        if (name == null) {
+            name = key.substring(slash + 1);
+        }
+
+        String packageName = getString(jsonClass, "package");
+        if (packageName == null) {
+            int dot = name.lastIndexOf('.');
+            packageName = dot > 0 ? name.substring(0, dot) : "";
+        }
+
+        ArrayList<String> tags = new ArrayList<>();
+        JsonElement jsonTags = jsonClass.get("tags");
+        if (jsonTags != null && jsonTags.isJsonArray()) {
+            for (JsonElement jsonTag : jsonTags.getAsJsonArray()) {
+                if (jsonTag.isJsonPrimitive()) {
+                    tags.add(jsonTag.getAsString());
+                }
+            }
+        }
+
+        return new IndexedClass(stream, name, packageName, bundle, Collections.unmodifiableList(tags));
+    }
+
+    private static String getString(JsonObject json, String property) {
+        JsonElement element = json.get(property);
+        if (element == null || !element.isJsonPrimitive()) {
+            return null;
+        }
+        return element.getAsString();
+    }
+
+    private void rebuildLookups(Map<String, IndexedCatalog> newCatalogs) {
+        Map<String, List<IndexedClass>> newByName = new HashMap<>();
+        Map<String, List<IndexedClass>> newByPackage = new HashMap<>();
+        Map<String, List<IndexedClass>> newByBundle = new HashMap<>();
+        Map<String, List<IndexedClass>> newByTag = new HashMap<>();
+
+        for (IndexedCatalog indexed : newCatalogs.values()) {
+            for (IndexedClass indexedClass : indexed.classes) {
+                newByName.computeIfAbsent(indexedClass.name, k -> new ArrayList<>()).add(indexedClass);
+                newByPackage.computeIfAbsent(indexedClass.packageName, k -> new ArrayList<>()).add(indexedClass);
+                if (indexedClass.bundle != null) {
+                    newByBundle.computeIfAbsent(indexedClass.bundle, k -> new ArrayList<>()).add(indexedClass);
+                }
+                for (String tag : new HashSet<>(indexedClass.tags)) {
+                    newByTag.computeIfAbsent(tag, k -> new ArrayList<>()).add(indexedClass);
+                }
+            }
+        }
+
+        this.catalogs = newCatalogs;
+        this.classesByName = newByName;
+        this.classesByPackage = newByPackage;
+        this.classesByBundle = newByBundle;
+        this.classesByTag = newByTag;
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : messageDigest.digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -82,6 +82,15 @@ public class TestcatalogStreams extends HttpServlet {
                 return;
             }
 
+            String etag = TestCatalogIndex.getIndex(catalogDirectory).getCatalogEtag(streamName);
+            if (etag != null) {
+                resp.setHeader("ETag", etag);
+                if (etag.equals(req.getHeader("If-None-Match"))) {
+                    resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+
             resp.setContentType("application/json");
             resp.setContentLengthLong(Files.size(actualFile));
 
@@ -135,9 +144,12 @@ public class TestcatalogStreams extends HttpServlet {
 
             Path actualFile = catalogDirectory.resolve(streamName);
 
-            Files.write(actualFile, jsonData.getBytes("utf-8"), StandardOpenOption.CREATE,
+            byte[] data = jsonData.getBytes("utf-8");
+            Files.write(actualFile, data, StandardOpenOption.CREATE,
                     StandardOpenOption.TRUNCATE_EXISTING);
 
+            TestCatalogIndex.getIndex(catalogDirectory).catalogStored(streamName, tc, data);
+
             logger.info("Test Catalog written for stream " + streamName);
 
             resp.setStatus(200);
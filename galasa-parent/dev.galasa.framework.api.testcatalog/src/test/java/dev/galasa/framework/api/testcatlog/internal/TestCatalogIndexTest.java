@@ -0,0 +1,187 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.api.testcatlog.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.framework.api.testcatlog.internal.TestCatalogIndex.IndexedClass;
+import dev.galasa.framework.spi.utils.GalasaGson;
+
+public class TestCatalogIndexTest {
+
+    private final GalasaGson gson = new GalasaGson();
+
+    private Path catalogDirectory;
+
+    @Before
+    public void setup() throws Exception {
+        this.catalogDirectory = Files.createTempDirectory("galasa_junit_testcatalog_");
+    }
+
+    @After
+    public void teardown() throws Exception {
+        if (!Files.exists(this.catalogDirectory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(this.catalogDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private String createCatalog(String bundle, String className, String... tags) {
+        StringBuilder jsonTags = new StringBuilder();
+        for (String tag : tags) {
+            if (jsonTags.length() > 0) {
+                jsonTags.append(",");
+            }
+            jsonTags.append("\"").append(tag).append("\"");
+        }
+
+        String packageName = className.substring(0, className.lastIndexOf('.'));
+        return "{\"name\":\"" + bundle + "\",\"build\":\"1\",\"version\":\"0.1.0\",\"built\":\"2024-01-01T00:00:00Z\","
+            + "\"classes\":{\"" + bundle + "/" + className + "\":{\"name\":\"" + className + "\",\"bundle\":\"" + bundle
+            + "\",\"package\":\"" + packageName + "\",\"tags\":[" + jsonTags + "]}},"
+            + "\"packages\":{\"" + packageName + "\":[\"" + className + "\"]},"
+            + "\"bundles\":{\"" + bundle + "\":{}}}";
+    }
+
+    private void storeCatalog(TestCatalogIndex index, String stream, String catalog) throws Exception {
+        byte[] data = catalog.getBytes(StandardCharsets.UTF_8);
+        Files.write(catalogDirectory.resolve(stream), data);
+        index.catalogStored(stream, gson.fromJson(catalog, JsonObject.class), data);
+    }
+
+    @Test
+    public void testExistingCatalogsAreIndexedFromTheDirectory() throws Exception {
+        // Given...
+        Files.write(catalogDirectory.resolve("prod"), createCatalog("my.bundle", "my.pkg.MyTest", "smoke").getBytes(StandardCharsets.UTF_8));
+        Files.write(catalogDirectory.resolve("cache.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        TestCatalogIndex index = new TestCatalogIndex(catalogDirectory);
+
+        // When...
+        JsonObject summary = index.getSummary();
+
+        // Then...
+        assertThat(summary.getAsJsonObject("catalogs").keySet()).containsExactly("prod");
+        assertThat(summary.getAsJsonObject("catalogs").getAsJsonObject("prod").get("version").getAsString()).isEqualTo("0.1.0");
+    }
+
+    @Test
+    public void testClassCanBeFoundByNameAcrossStreams() throws Exception {
+        // Given...
+        TestCatalogIndex index = new TestCatalogIndex(catalogDirectory);
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.MyTest"));
+        storeCatalog(index, "dev", createCatalog("my.other.bundle", "my.pkg.OtherTest"));
+
+        // When...
+        List<IndexedClass> classes = index.findClasses(null, "my.pkg.OtherTest", null, null, null);
+
+        // Then...
+        assertThat(classes).hasSize(1);
+        assertThat(classes.get(0).getStream()).isEqualTo("dev");
+        assertThat(classes.get(0).getBundle()).isEqualTo("my.other.bundle");
+        assertThat(classes.get(0).getPackageName()).isEqualTo("my.pkg");
+    }
+
+    @Test
+    public void testClassesCanBeFoundByTagAndStream() throws Exception {
+        // Given...
+        TestCatalogIndex index = new TestCatalogIndex(catalogDirectory);
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.MyTest", "smoke", "core"));
+        storeCatalog(index, "dev", createCatalog("my.bundle", "my.pkg.MyTest", "smoke"));
+
+        // When...
+        List<IndexedClass> smoke = index.findClasses(null, null, null, null, "smoke");
+        List<IndexedClass> prodSmoke = index.findClasses("prod", null, null, null, "smoke");
+        List<IndexedClass> missing = index.findClasses(null, null, null, null, "nightly");
+
+        // Then...
+        assertThat(smoke).extracting(IndexedClass::getStream).containsExactly("dev", "prod");
+        assertThat(prodSmoke).extracting(IndexedClass::getTags).first().isEqualTo(List.of("smoke", "core"));
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    public void testStoredCatalogReplacesTheOldOne() throws Exception {
+        // Given...
+        TestCatalogIndex index = new TestCatalogIndex(catalogDirectory);
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.MyTest"));
+        String oldEtag = index.getCatalogEtag("prod");
+        String oldSummaryEtag = index.getSummaryEtag();
+
+        // When...
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.NewTest"));
+
+        // Then...
+        assertThat(index.findClasses(null, "my.pkg.MyTest", null, null, null)).isEmpty();
+        assertThat(index.findClasses(null, null, "my.pkg", null, null)).extracting(IndexedClass::getName).containsExactly("my.pkg.NewTest");
+        assertThat(index.getCatalogEtag("prod")).isNotNull().isNotEqualTo(oldEtag);
+        assertThat(index.getSummaryEtag()).isNotEqualTo(oldSummaryEtag);
+    }
+
+    @Test
+    public void testCatalogChangedByAnotherServerHasNoEtagUntilRefreshed() throws Exception {
+        // Given...
+        TestCatalogIndex index = new TestCatalogIndex(catalogDirectory);
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.MyTest"));
+        index.getSummary();
+
+        // When...
+        Files.write(catalogDirectory.resolve("prod"), createCatalog("my.bundle", "my.pkg.ChangedTest").getBytes(StandardCharsets.UTF_8));
+
+        // Then...
+        assertThat(index.getCatalogEtag("prod")).isNull();
+        index.refresh();
+        assertThat(index.getCatalogEtag("prod")).isNotNull();
+        assertThat(index.findClasses(null, "my.pkg.ChangedTest", null, null, null)).hasSize(1);
+    }
+
+    @Test
+    public void testRemovedCatalogIsEvictedFromTheIndex() throws Exception {
+        // Given...
+        TestCatalogIndex index = new TestCatalogIndex(catalogDirectory);
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.MyTest"));
+        storeCatalog(index, "dev", createCatalog("my.bundle", "my.pkg.DevTest"));
+        index.getSummary();
+
+        // When...
+        Files.delete(catalogDirectory.resolve("dev"));
+
+        // Then...
+        assertThat(index.getCatalogEtag("dev")).isNull();
+        assertThat(index.findClasses(null, null, "my.pkg", null, null)).extracting(IndexedClass::getName).containsExactly("my.pkg.MyTest");
+        assertThat(index.getSummary().getAsJsonObject("catalogs").keySet()).containsExactly("prod");
+    }
+
+    @Test
+    public void testRemovedDirectoryEmptiesTheSharedIndex() throws Exception {
+        // Given...
+        TestCatalogIndex index = TestCatalogIndex.getIndex(catalogDirectory);
+        storeCatalog(index, "prod", createCatalog("my.bundle", "my.pkg.MyTest"));
+
+        // When...
+        Files.delete(catalogDirectory.resolve("prod"));
+        Files.delete(catalogDirectory);
+        index.refresh();
+
+        // Then...
+        assertThat(index.findClasses(null, null, null, null, null)).isEmpty();
+        assertThat(TestCatalogIndex.getIndex(catalogDirectory)).isNotSameAs(index);
+    }
+}
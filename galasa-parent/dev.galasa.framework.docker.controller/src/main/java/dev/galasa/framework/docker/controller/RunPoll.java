@@ -5,13 +5,17 @@
  */
 package dev.galasa.framework.docker.controller;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -29,16 +33,20 @@ import com.github.dockerjava.api.model.Container;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunDispatchPlanner;
+import dev.galasa.framework.spi.RunsSnapshot;
 import io.prometheus.client.Counter;
 
 public class RunPoll implements Runnable {
+    private static final Duration            CONTAINER_START_TIMEOUT         = Duration.ofMinutes(5);
+    private static final int                 MAX_CONCURRENT_CONTAINER_STARTS = 10;
+
     private final Log                        logger           = LogFactory.getLog(getClass());
 
     private final Settings                   settings;
     private final DockerClient               dockerClient;
     private final IDynamicStatusStoreService dss;
     private final IFrameworkRuns             runs;
-    private final QueuedComparator           queuedComparator = new QueuedComparator();
 
     private Counter                          submittedRuns;
 
@@ -61,9 +69,10 @@ public class RunPoll implements Runnable {
         logger.info("Looking for new runs");
 
         try {
-            // *** No we are not, get all the queued runs
-            List<IRun> queuedRuns = this.runs.getQueuedRuns();
-            // TODO filter by capability
+            // *** Get the queued and active runs from a single read of the DSS
+            RunsSnapshot snapshot = this.runs.getRunsSnapshot();
+            List<IRun> queuedRuns = snapshot.getQueuedRuns();
+            // TODO filter by capability, runs do not yet record the capabilities they require
 
             // *** Remove all the local runs
             Iterator<IRun> queuedRunsIterator = queuedRuns.iterator();
@@ -79,46 +88,54 @@ public class RunPoll implements Runnable {
                 return;
             }
 
-            while (true) {
-                // *** Check we are not at max engines
-                List<Container> pods = getContainers(this.dockerClient, this.settings);
-                filterActiveRuns(pods);
-                logger.info("Active runs=" + pods.size() + ",max=" + settings.getMaxEngines());
-
-                int currentActive = pods.size();
-                if (currentActive >= settings.getMaxEngines()) {
-                    logger.info(
-                            "Not looking for runs, currently at maximim engines (" + settings.getMaxEngines() + ")");
-                    return;
-                }
+            // *** Work out the free engine slots once for the poll
+            List<Container> pods = getContainers(this.dockerClient, this.settings);
+            filterActiveRuns(pods);
+            logger.info("Active runs=" + pods.size() + ",max=" + settings.getMaxEngines());
 
-                // List<IRun> activeRuns = this.runs.getActiveRuns();
+            int freeSlots = settings.getMaxEngines() - pods.size();
+            if (freeSlots <= 0) {
+                logger.info(
+                        "Not looking for runs, currently at maximim engines (" + settings.getMaxEngines() + ")");
+                return;
+            }
 
-                // TODO Create the group algorithim same as the galasa scheduler
+            // *** Share the free slots between the requestor/group pools and allocate the selected runs in bulk
+            RunDispatchPlanner planner = new RunDispatchPlanner(this.settings.getRequestorsByGroup());
+            List<IRun> selectedRuns = planner.plan(queuedRuns, snapshot.getActiveRuns(), freeSlots);
+            List<IRun> allocatedRuns = planner.allocate(this.dss, selectedRuns, this.settings.getPodName(), null);
 
-                // *** Build pool lists
-                // HashMap<String, Pool> queuePools = getPools(queuedRuns);
-                // HashMap<String, Pool> activePools = getPools(activeRuns);
+            startContainers(allocatedRuns);
+        } catch (Exception e) {
+            logger.error("Unable to poll for new runs", e);
+        }
 
-                // *** cheat for the moment
-                Collections.sort(queuedRuns, queuedComparator);
+        return;
+    }
 
-                IRun selectedRun = queuedRuns.remove(0);
+    private void startContainers(List<IRun> allocatedRuns) throws InterruptedException {
+        if (allocatedRuns.isEmpty()) {
+            return;
+        }
 
-                startPod(selectedRun);
+        // *** Create the engine containers concurrently, each retries on its own
+        ArrayList<Callable<Object>> starts = new ArrayList<>();
+        for (IRun run : allocatedRuns) {
+            starts.add(Executors.callable(() -> startPod(run)));
+        }
 
-                if (!queuedRuns.isEmpty()) {
-                    Thread.sleep((long) settings.getRunPollRecheck() * 1000l); // *** Slight delay to allow Docker to
-                    // catch up
-                } else {
-                    return;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(allocatedRuns.size(), MAX_CONCURRENT_CONTAINER_STARTS));
+        try {
+            List<Future<Object>> results = executor.invokeAll(starts, CONTAINER_START_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isCancelled()) {
+                    // *** The run stays allocated, so will be requeued once the allocation times out
+                    logger.error("Gave up creating the engine container for run " + allocatedRuns.get(i).getName());
                 }
             }
-        } catch (Exception e) {
-            logger.error("Unable to poll for new runs", e);
+        } finally {
+            executor.shutdownNow();
         }
-
-        return;
     }
 
     private void startPod(IRun run) {
@@ -129,14 +146,7 @@ public class RunPoll implements Runnable {
 
         String containerId = null;
         try {
-            // *** First attempt to allocate the run to this controller
-            HashMap<String, String> props = new HashMap<>();
-            props.put("run." + runName + ".controller", settings.getPodName());
-            if (!this.dss.putSwap("run." + runName + ".status", "queued", "allocated", props)) {
-                logger.info("run allocated by another controller");
-                return;
-            }
-
+            // *** The run has already been allocated to this controller
             String choosenEngineName = engineName;
 
             boolean successful = false;
@@ -203,35 +213,14 @@ public class RunPoll implements Runnable {
                 logger.info("Waiting 2 seconds before trying to start container again");
                 Thread.sleep(2000);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Failed to start new engine", e);
         }
         return;
     }
 
-    // private HashMap<String, Pool> getPools(@NotNull List<IRun> runs) {
-    // HashMap<String, Pool> pools = new HashMap<>();
-    //
-    // for(IRun run : runs) {
-    // String poolid = getPoolId(run);
-    // Pool pool = pools.get(poolid);
-    // if (pool == null) {
-    // pool = new Pool(poolid);
-    // }
-    // pool.runs.add(run);
-    // }
-    //
-    // return pools;
-    // }
-    //
-    // private String getPoolId(IRun run) {
-    // if (settings.getRequestorsByGroup().contains(run.getRequestor())) {
-    // return run.getRequestor() + "/" + run.getGroup();
-    // }
-    //
-    // return run.getRequestor();
-    // }
-
     public static @NotNull List<Container> getContainers(DockerClient dockerClient, Settings settings)
             throws DockerControllerException {
 
@@ -289,29 +278,4 @@ public class RunPoll implements Runnable {
         }
     }
 
-    // private static class Pool implements Comparable<Pool> {
-    // private String id;
-    // private ArrayList<IRun> runs = new ArrayList<>();
-    //
-    // public Pool(String id) {
-    // this.id = id;
-    // }
-    //
-    // @Override
-    // public int compareTo(Pool o) {
-    // return runs.size() - o.runs.size();
-    // }
-    //
-    // }
-    //
-    //
-    private static class QueuedComparator implements Comparator<IRun> {
-
-        @Override
-        public int compare(IRun o1, IRun o2) {
-            return o1.getQueued().compareTo(o2.getQueued());
-        }
-
-    }
-
-}
\ No newline at end of file
+}
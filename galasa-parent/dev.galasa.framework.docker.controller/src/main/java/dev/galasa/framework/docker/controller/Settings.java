@@ -39,7 +39,6 @@ public class Settings implements Runnable {
     private String            reportCapabilties      = null;
 
     private int               runPoll                = 20;
-    private int               runPollRecheck         = 1;
     private int               maxEngines             = 0;
 
     private ArrayList<String> requestorsByScheduleID = new ArrayList<>();
@@ -189,20 +188,6 @@ public class Settings implements Runnable {
             logger.error("Error processing run_poll in configfile", e);
         }
 
-        try {
-            String newRunPoll = properties.getProperty("run_poll_recheck");
-            if (newRunPoll == null || newRunPoll.trim().isEmpty()) {
-                newRunPoll = "1";
-            }
-            Integer poll = Integer.parseInt(newRunPoll);
-            if (poll != runPollRecheck) {
-                logger.info("Setting Run Poll Recheck from '" + runPollRecheck + "' to '" + poll + "'");
-                runPollRecheck = poll;
-            }
-        } catch (Exception e) {
-            logger.error("Error processing run_poll_recheck in configfile", e);
-        }
-
         try {
             String newRequestors = properties.getProperty("scheduled_requestors");
             if (newRequestors == null || newRequestors.trim().isEmpty()) {
@@ -365,10 +350,6 @@ public class Settings implements Runnable {
         return runPoll;
     }
 
-    public int getRunPollRecheck() {
-        return runPollRecheck;
-    }
-
     public List<String> getDns() {
         return dnsList;
     }
@@ -46,6 +46,8 @@ public class K8sController {
     private TestPodScheduler podScheduler;
     private ScheduledFuture<?> pollFuture;
 
+    private RunQueueWatcher runQueueWatcher;
+
     private RunDeleted runDeleted;
 
     private ScheduledFuture<?> deleteFuture;
@@ -140,6 +142,12 @@ public class K8sController {
         runDeleted = new RunDeleted(settings, api, pc, framework.getFrameworkRuns());
         scheduleDelete();
         podScheduler = new TestPodScheduler(dss, settings, api, framework.getFrameworkRuns());
+        if (settings.isRunWatchEnabled()) {
+            // *** Start queued runs as soon as they are submitted, the poll becomes a reconciler
+            runQueueWatcher = new RunQueueWatcher(dss, scheduledExecutorService, podScheduler::startIndexedRuns);
+            podScheduler.setRunQueueWatcher(runQueueWatcher);
+            runQueueWatcher.start();
+        }
         schedulePoll();
 
         
@@ -155,6 +163,11 @@ public class K8sController {
             }
         }
         
+        // *** Stop watching for queued runs
+        if (runQueueWatcher != null) {
+            runQueueWatcher.shutdown();
+        }
+
         // *** shutdown the scheduler
         this.scheduledExecutorService.shutdown();
         try {
@@ -0,0 +1,168 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.k8s.controller;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IRun;
+
+/**
+ * Keeps an in-memory index of the queued run names, fed by a DSS watch on the "run." prefix,
+ * so that new submissions can be dispatched as soon as they are queued rather than waiting
+ * for the next poll of the whole DSS.
+ *
+ * A burst of events results in a single pending dispatch on the executor. The periodic
+ * poll in the TestPodScheduler still runs as a reconciler and resets the index from the DSS.
+ * Each event is tagged with the scan generation it arrived in, so that a scan never
+ * overrides an event that arrived while the scan was being read.
+ */
+public class RunQueueWatcher implements IDynamicStatusStoreWatcher {
+
+    private final Log                        logger           = LogFactory.getLog(getClass());
+
+    private final Pattern                    runStatusPattern = Pattern.compile("^\\Qrun.\\E(\\w+)\\Q.status\\E$");
+
+    private final IDynamicStatusStoreService dss;
+    private final Executor                   executor;
+    private final Runnable                   dispatcher;
+
+    private final Map<String, Long>          queuedRunNames   = new ConcurrentHashMap<>();
+    private final Map<String, Long>          unqueuedRunNames = new ConcurrentHashMap<>();
+    private final AtomicLong                 scanGeneration   = new AtomicLong();
+    private final AtomicBoolean              dispatchPending  = new AtomicBoolean(false);
+
+    private UUID                             watchId;
+
+    public RunQueueWatcher(IDynamicStatusStoreService dss, Executor executor, Runnable dispatcher) {
+        this.dss = dss;
+        this.executor = executor;
+        this.dispatcher = dispatcher;
+    }
+
+    public void start() throws DynamicStatusStoreException {
+        this.watchId = this.dss.watchPrefix(this, "run.");
+        logger.info("Watching the DSS for queued runs");
+    }
+
+    public void shutdown() {
+        if (this.watchId == null) {
+            return;
+        }
+
+        try {
+            this.dss.unwatch(this.watchId);
+        } catch (DynamicStatusStoreException e) {
+            logger.error("Unable to remove the queued run watch", e);
+        }
+        this.watchId = null;
+    }
+
+    @Override
+    public void propertyModified(String key, Event event, String oldValue, String newValue) {
+        if (event == null || key == null) {
+            return;
+        }
+
+        Matcher matcher = runStatusPattern.matcher(key);
+        if (!matcher.find()) {
+            return;
+        }
+
+        String runName = matcher.group(1);
+        long generation = this.scanGeneration.get();
+
+        if (event != Event.DELETE && "queued".equals(newValue)) {
+            logger.debug("Detected queued run " + runName);
+            this.unqueuedRunNames.remove(runName);
+            this.queuedRunNames.put(runName, generation);
+            requestDispatch();
+            return;
+        }
+
+        this.queuedRunNames.remove(runName);
+        this.unqueuedRunNames.put(runName, generation);
+
+        // *** A run finishing or being deleted may free up an engine slot for a waiting run
+        if ((event == Event.DELETE || "finished".equalsIgnoreCase(newValue)) && !this.queuedRunNames.isEmpty()) {
+            requestDispatch();
+        }
+    }
+
+    /**
+     * Called before the DSS is scanned for the queued runs to pass to reconcile
+     *
+     * @return the generation of the scan
+     */
+    public long startScan() {
+        return this.scanGeneration.incrementAndGet();
+    }
+
+    /**
+     * Replace the index with the queued runs found by a full scan of the DSS,
+     * keeping what the watch has seen since the scan was started
+     *
+     * @param generation the generation returned by startScan before the DSS was read
+     * @param queuedRuns the queued runs found by the scan
+     */
+    public void reconcile(long generation, List<IRun> queuedRuns) {
+        HashSet<String> names = new HashSet<>();
+        for (IRun run : queuedRuns) {
+            names.add(run.getName());
+        }
+
+        // *** Only drop runs the watch queued before the scan started, later ones may be missing from the scan
+        this.queuedRunNames.entrySet().removeIf(entry -> entry.getValue() < generation && !names.contains(entry.getKey()));
+
+        for (String name : names) {
+            // *** The run may have been allocated or deleted after the scan read it
+            Long unqueued = this.unqueuedRunNames.get(name);
+            if (unqueued == null || unqueued < generation) {
+                this.queuedRunNames.putIfAbsent(name, generation);
+            }
+        }
+
+        this.unqueuedRunNames.values().removeIf(unqueued -> unqueued < generation);
+    }
+
+    public void removeRun(String runName) {
+        this.queuedRunNames.remove(runName);
+    }
+
+    public Set<String> getQueuedRunNames() {
+        return new HashSet<>(this.queuedRunNames.keySet());
+    }
+
+    private void requestDispatch() {
+        if (!this.dispatchPending.compareAndSet(false, true)) {
+            return; // *** A dispatch is already waiting to run and will pick up this run
+        }
+
+        this.executor.execute(() -> {
+            this.dispatchPending.set(false);
+            try {
+                this.dispatcher.run();
+            } catch (Exception e) {
+                logger.error("Problem dispatching queued runs", e);
+            }
+        });
+    }
+}
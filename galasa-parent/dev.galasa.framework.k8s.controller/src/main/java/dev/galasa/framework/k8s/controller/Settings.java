@@ -43,6 +43,7 @@ public class Settings implements Runnable {
 
     private int               runPoll                     = 60;
     private int               maxEngines                  = 0;
+    private boolean           runWatch                    = false;
 
     private ArrayList<String> requestorsByScheduleID      = new ArrayList<>();
 
@@ -161,6 +162,12 @@ public class Settings implements Runnable {
             controller.pollUpdated();
         }
 
+        boolean newRunWatch = Boolean.parseBoolean(getPropertyFromData(configMapData, "run_watch", "false"));
+        if (newRunWatch != runWatch) {
+            logger.info("Setting Run Watch from '" + runWatch + "' to '" + newRunWatch + "'");
+            runWatch = newRunWatch;
+        }
+
         setRequestorsByScheduleId(configMapData);
         setEngineCapabilities(configMapData);
     }
@@ -326,6 +333,14 @@ public class Settings implements Runnable {
         return this.runPoll;
     }
 
+    /**
+     * @return true if queued runs should be dispatched as soon as they are seen by a DSS watch,
+     * rather than only on the run poll. Only read when the controller starts.
+     */
+    public boolean isRunWatchEnabled() {
+        return this.runWatch;
+    }
+
     public String getEncryptionKeysSecretName() {
         return encryptionKeysSecretName;
     }
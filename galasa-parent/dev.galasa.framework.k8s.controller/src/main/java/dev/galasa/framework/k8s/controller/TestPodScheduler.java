@@ -7,15 +7,18 @@ package dev.galasa.framework.k8s.controller;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -26,6 +29,8 @@ import dev.galasa.framework.spi.Environment;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunDispatchPlanner;
+import dev.galasa.framework.spi.RunsSnapshot;
 import dev.galasa.framework.spi.SystemEnvironment;
 import dev.galasa.framework.spi.creds.FrameworkEncryptionService;
 import io.kubernetes.client.openapi.ApiException;
@@ -60,13 +65,19 @@ public class TestPodScheduler implements Runnable {
     private static final String ENCRYPTION_KEYS_PATH_ENV = FrameworkEncryptionService.ENCRYPTION_KEYS_PATH_ENV;
     public static final String ENCRYPTION_KEYS_VOLUME_NAME = "encryption-keys";
 
+    private static final Duration ALLOCATE_TIMEOUT = Duration.ofMinutes(15);
+    private static final Duration POD_START_TIMEOUT = Duration.ofMinutes(5);
+    private static final int MAX_CONCURRENT_POD_STARTS = 10;
+
     private final Log                        logger           = LogFactory.getLog(getClass());
 
     private final Settings                   settings;
     private final CoreV1Api                  api;
     private final IDynamicStatusStoreService dss;
     private final IFrameworkRuns             runs;
-    private final QueuedComparator           queuedComparator = new QueuedComparator();
+
+    private RunQueueWatcher                  runQueueWatcher;
+    private List<IRun>                       activeRuns       = new ArrayList<>();
 
     private Counter                          submittedRuns;
     private Environment                      env              = new SystemEnvironment();
@@ -95,66 +106,140 @@ public class TestPodScheduler implements Runnable {
         logger.info("Looking for new runs");
 
         try {
-            // *** No we are not, get all the queued runs
-            List<IRun> queuedRuns = this.runs.getQueuedRuns();
-            // TODO filter by capability
-
-            // *** Remove all the local runs
-            Iterator<IRun> queuedRunsIterator = queuedRuns.iterator();
-            while (queuedRunsIterator.hasNext()) {
-                IRun run = queuedRunsIterator.next();
-                if (run.isLocal()) {
-                    queuedRunsIterator.remove();
-                }
+            long scanGeneration = 0;
+            if (this.runQueueWatcher != null) {
+                scanGeneration = this.runQueueWatcher.startScan();
             }
 
-            if (queuedRuns.isEmpty()) {
-                logger.info("There are no queued runs");
-                return;
+            // *** Get the queued and active runs from a single read of the DSS
+            RunsSnapshot snapshot = this.runs.getRunsSnapshot();
+            List<IRun> queuedRuns = snapshot.getQueuedRuns();
+
+            // *** Keep the watched queue index in step with the DSS
+            if (this.runQueueWatcher != null) {
+                this.runQueueWatcher.reconcile(scanGeneration, queuedRuns);
             }
 
-            while (true) {
-                // *** Check we are not at max engines
-                List<V1Pod> pods = getPods(this.api, this.settings);
-                filterActiveRuns(pods);
-                logger.info("Active runs=" + pods.size() + ",max=" + settings.getMaxEngines());
-
-                int currentActive = pods.size();
-                if (currentActive >= settings.getMaxEngines()) {
-                    logger.info(
-                            "Not looking for runs, currently at maximim engines (" + settings.getMaxEngines() + ")");
-                    return;
+            setActiveRuns(snapshot.getActiveRuns());
+            startQueuedRuns(queuedRuns);
+        } catch (Exception e) {
+            logger.error("Unable to poll for new runs", e);
+        }
+
+        return;
+    }
+
+    /**
+     * Start the runs held in the watched queue index, only reading the DSS properties
+     * of those runs rather than scanning every run. The active runs are those found by
+     * the last poll, plus the runs allocated since.
+     */
+    public void startIndexedRuns() {
+        if (this.runQueueWatcher == null) {
+            return;
+        }
+
+        try {
+            List<IRun> queuedRuns = new ArrayList<>();
+            for (String runName : this.runQueueWatcher.getQueuedRunNames()) {
+                IRun run = this.runs.getRun(runName);
+                if (run == null || !"queued".equals(run.getStatus())) {
+                    this.runQueueWatcher.removeRun(runName);
+                    continue;
                 }
+                queuedRuns.add(run);
+            }
 
-                // List<IRun> activeRuns = this.runs.getActiveRuns();
+            if (!queuedRuns.isEmpty()) {
+                startQueuedRuns(queuedRuns);
+            }
+        } catch (Exception e) {
+            logger.error("Unable to start the watched queued runs", e);
+        }
+    }
+
+    public void setRunQueueWatcher(RunQueueWatcher runQueueWatcher) {
+        this.runQueueWatcher = runQueueWatcher;
+    }
+
+    private synchronized void setActiveRuns(List<IRun> activeRuns) {
+        this.activeRuns = new ArrayList<>(activeRuns);
+    }
 
-                // TODO Create the group algorithim same as the galasa scheduler
+    private synchronized void startQueuedRuns(List<IRun> queuedRuns) throws Exception {
+        // TODO filter by capability, runs do not yet record the capabilities they require
 
-                // *** Build pool lists
-                // HashMap<String, Pool> queuePools = getPools(queuedRuns);
-                // HashMap<String, Pool> activePools = getPools(activeRuns);
+        // *** Remove all the local runs
+        Iterator<IRun> queuedRunsIterator = queuedRuns.iterator();
+        while (queuedRunsIterator.hasNext()) {
+            IRun run = queuedRunsIterator.next();
+            if (run.isLocal()) {
+                queuedRunsIterator.remove();
+            }
+        }
 
-                // *** cheat for the moment
-                Collections.sort(queuedRuns, queuedComparator);
+        if (queuedRuns.isEmpty()) {
+            logger.info("There are no queued runs");
+            return;
+        }
 
-                IRun selectedRun = queuedRuns.remove(0);
+        // *** Work out the free engine slots once for the pass
+        List<V1Pod> pods = getPods(this.api, this.settings);
+        filterActiveRuns(pods);
+        int currentActive = pods.size();
+        logger.info("Active runs=" + currentActive + ",max=" + settings.getMaxEngines());
 
-                startPod(selectedRun);
+        int freeSlots = settings.getMaxEngines() - currentActive;
+        if (freeSlots <= 0) {
+            logger.info("Not looking for runs, currently at maximim engines (" + settings.getMaxEngines() + ")");
+            return;
+        }
 
-                if (!queuedRuns.isEmpty()) {
-                    Thread.sleep(600); // *** Slight delay to allow Kubernetes to catch up
-                } else {
-                    return;
+        // *** Share the free slots between the requestor/group pools and allocate the selected runs in bulk
+        RunDispatchPlanner planner = new RunDispatchPlanner(this.settings.getRequestorsByGroup());
+        List<IRun> selectedRuns = planner.plan(queuedRuns, this.activeRuns, freeSlots);
+        List<IRun> allocatedRuns = planner.allocate(this.dss, selectedRuns, this.settings.getPodName(), ALLOCATE_TIMEOUT);
+        this.activeRuns.addAll(allocatedRuns);
+
+        if (this.runQueueWatcher != null && allocatedRuns.size() != selectedRuns.size()) {
+            HashSet<IRun> allocated = new HashSet<>(allocatedRuns);
+            for (IRun run : selectedRuns) {
+                if (!allocated.contains(run)) {
+                    this.runQueueWatcher.removeRun(run.getName());
                 }
             }
-        } catch (Exception e) {
-            logger.error("Unable to poll for new runs", e);
         }
 
-        return;
+        startPods(allocatedRuns);
     }
 
-    private void startPod(IRun run) {
+    private void startPods(List<IRun> allocatedRuns) throws InterruptedException {
+        if (allocatedRuns.isEmpty()) {
+            return;
+        }
+
+        // *** Create the engine pods concurrently, each retries on its own until the timeout
+        ArrayList<Callable<Boolean>> starts = new ArrayList<>();
+        for (IRun run : allocatedRuns) {
+            starts.add(() -> startPod(run));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(allocatedRuns.size(), MAX_CONCURRENT_POD_STARTS));
+        try {
+            List<Future<Boolean>> results = executor.invokeAll(starts, POD_START_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isCancelled()) {
+                    // *** The run stays allocated, so will be requeued once the allocation times out
+                    logger.error("Gave up creating the engine pod for run " + allocatedRuns.get(i).getName());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean startPod(IRun run) {
+        boolean started = false;
         String runName = run.getName();
         String engineName = this.settings.getEngineLabel() + "-" + runName.toLowerCase();
         String namespace = this.settings.getNamespace();
@@ -162,18 +247,7 @@ public class TestPodScheduler implements Runnable {
         logger.info("Received run " + runName);
 
         try {
-            // *** First attempt to allocate the run to this controller
-            Instant now = Instant.now();
-            Instant expire = now.plus(15, ChronoUnit.MINUTES);
-            HashMap<String, String> props = new HashMap<>();
-            props.put("run." + runName + ".controller", settings.getPodName());
-            props.put("run." + runName + ".allocated", now.toString());
-            props.put("run." + runName + ".allocate.timeout", expire.toString());
-            if (!this.dss.putSwap("run." + runName + ".status", "queued", "allocated", props)) {
-                logger.info("run allocated by another controller");
-                return;
-            }
-
+            // *** The run has already been allocated to this controller
             V1Pod newPod = createTestPod(runName, engineName, run.isTrace());
 
             boolean successful = false;
@@ -185,6 +259,7 @@ public class TestPodScheduler implements Runnable {
 
                     logger.info("Engine Pod " + newPod.getMetadata().getName() + " started");
                     successful = true;
+                    started = true;
                     submittedRuns.inc();
                     break;
                 } catch (ApiException e) {
@@ -208,9 +283,12 @@ public class TestPodScheduler implements Runnable {
                 logger.info("Waiting 2 seconds before trying to create pod again");
                 Thread.sleep(2000);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.error("Failed to start new engine", e);
         }
+        return started;
     }
 
     V1Pod createTestPod(String runName, String engineName, boolean isTraceEnabled) {
@@ -371,29 +449,6 @@ public class TestPodScheduler implements Runnable {
         return envs;
     }
 
-    private HashMap<String, Pool> getPools(@NotNull List<IRun> runs) {
-        HashMap<String, Pool> pools = new HashMap<>();
-
-        for (IRun run : runs) {
-            String poolid = getPoolId(run);
-            Pool pool = pools.get(poolid);
-            if (pool == null) {
-                pool = new Pool(poolid);
-            }
-            pool.runs.add(run);
-        }
-
-        return pools;
-    }
-
-    private String getPoolId(IRun run) {
-        if (settings.getRequestorsByGroup().contains(run.getRequestor())) {
-            return run.getRequestor() + "/" + run.getGroup();
-        }
-
-        return run.getRequestor();
-    }
-
     public static @NotNull List<V1Pod> getPods(CoreV1Api api, Settings settings) throws K8sControllerException {
         LinkedList<V1Pod> pods = new LinkedList<>();
 
@@ -445,30 +500,6 @@ public class TestPodScheduler implements Runnable {
         }
     }
 
-    private static class Pool implements Comparable<Pool> {
-        private String          id;
-        private ArrayList<IRun> runs = new ArrayList<>();
-
-        public Pool(String id) {
-            this.id = id;
-        }
-
-        @Override
-        public int compareTo(Pool o) {
-            return runs.size() - o.runs.size();
-        }
-
-    }
-
-    private static class QueuedComparator implements Comparator<IRun> {
-
-        @Override
-        public int compare(IRun o1, IRun o2) {
-            return o1.getQueued().compareTo(o2.getQueued());
-        }
-
-    }
-
     private V1EnvVar createValueEnv(String name, String value) {
         V1EnvVar env = new V1EnvVar();
         env.setName(name);
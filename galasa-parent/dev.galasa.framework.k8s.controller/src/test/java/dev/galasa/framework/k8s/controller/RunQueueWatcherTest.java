@@ -0,0 +1,121 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.k8s.controller;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import dev.galasa.framework.mocks.MockIDynamicStatusStoreService;
+import dev.galasa.framework.mocks.MockRun;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher.Event;
+import dev.galasa.framework.spi.IRun;
+
+public class RunQueueWatcherTest {
+
+    @Test
+    public void testQueuedStatusAddsRunToIndexAndDispatches() throws Exception {
+        // Given...
+        AtomicInteger dispatches = new AtomicInteger();
+        RunQueueWatcher watcher = new RunQueueWatcher(new MockIDynamicStatusStoreService(), Runnable::run, dispatches::incrementAndGet);
+
+        // When...
+        watcher.propertyModified("run.U1.status", Event.NEW, null, "queued");
+        watcher.propertyModified("run.U1.testclass", Event.NEW, null, "mytest");
+
+        // Then...
+        assertThat(watcher.getQueuedRunNames()).containsExactly("U1");
+        assertThat(dispatches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAllocatedStatusRemovesRunFromIndexWithoutDispatching() throws Exception {
+        // Given...
+        AtomicInteger dispatches = new AtomicInteger();
+        RunQueueWatcher watcher = new RunQueueWatcher(new MockIDynamicStatusStoreService(), Runnable::run, dispatches::incrementAndGet);
+        watcher.propertyModified("run.U1.status", Event.NEW, null, "queued");
+
+        // When...
+        watcher.propertyModified("run.U1.status", Event.MODIFIED, "queued", "allocated");
+
+        // Then...
+        assertThat(watcher.getQueuedRunNames()).isEmpty();
+        assertThat(dispatches.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFinishedRunDispatchesWaitingRuns() throws Exception {
+        // Given...
+        AtomicInteger dispatches = new AtomicInteger();
+        RunQueueWatcher watcher = new RunQueueWatcher(new MockIDynamicStatusStoreService(), Runnable::run, dispatches::incrementAndGet);
+        watcher.propertyModified("run.U2.status", Event.NEW, null, "queued");
+
+        // When...
+        watcher.propertyModified("run.U1.status", Event.MODIFIED, "ending", "finished");
+
+        // Then...
+        assertThat(watcher.getQueuedRunNames()).containsExactly("U2");
+        assertThat(dispatches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPendingDispatchIsCoalesced() throws Exception {
+        // Given...
+        AtomicInteger dispatches = new AtomicInteger();
+        List<Runnable> pending = new ArrayList<>();
+        RunQueueWatcher watcher = new RunQueueWatcher(new MockIDynamicStatusStoreService(), pending::add, dispatches::incrementAndGet);
+
+        // When...
+        watcher.propertyModified("run.U1.status", Event.NEW, null, "queued");
+        watcher.propertyModified("run.U2.status", Event.NEW, null, "queued");
+        watcher.propertyModified("run.U3.status", Event.NEW, null, "queued");
+        pending.forEach(Runnable::run);
+
+        // Then...
+        assertThat(pending).hasSize(1);
+        assertThat(dispatches.get()).isEqualTo(1);
+        assertThat(watcher.getQueuedRunNames()).containsExactlyInAnyOrder("U1", "U2", "U3");
+    }
+
+    @Test
+    public void testReconcileReplacesIndexWithScannedRuns() throws Exception {
+        // Given...
+        RunQueueWatcher watcher = new RunQueueWatcher(new MockIDynamicStatusStoreService(), Runnable::run, () -> {});
+        watcher.propertyModified("run.U1.status", Event.NEW, null, "queued");
+
+        List<IRun> queuedRuns = new ArrayList<>();
+        queuedRuns.add(new MockRun("bundle", "testclass", "U2", "stream", "obr", "repo", "me", false));
+
+        // When...
+        watcher.reconcile(watcher.startScan(), queuedRuns);
+
+        // Then...
+        assertThat(watcher.getQueuedRunNames()).containsExactly("U2");
+    }
+
+    @Test
+    public void testReconcileKeepsEventsThatArriveDuringTheScan() throws Exception {
+        // Given...
+        RunQueueWatcher watcher = new RunQueueWatcher(new MockIDynamicStatusStoreService(), Runnable::run, () -> {});
+        watcher.propertyModified("run.U1.status", Event.NEW, null, "queued");
+
+        List<IRun> queuedRuns = new ArrayList<>();
+        queuedRuns.add(new MockRun("bundle", "testclass", "U1", "stream", "obr", "repo", "me", false));
+
+        // When...
+        long generation = watcher.startScan();
+        watcher.propertyModified("run.U2.status", Event.NEW, null, "queued");
+        watcher.propertyModified("run.U1.status", Event.MODIFIED, "queued", "allocated");
+        watcher.reconcile(generation, queuedRuns);
+
+        // Then...
+        assertThat(watcher.getQueuedRunNames()).containsExactly("U2");
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.maven.repository.spi;
+
+import java.util.List;
+
+public interface IMavenArtifactPrefetcher {
+
+    /**
+     * Start fetching artifacts into the local repository in the background, so
+     * they are already there, or on their way, when they are opened
+     *
+     * @param artifactUrls - the artifact urls, only mvn: urls are fetched
+     */
+    void prefetch(List<String> artifactUrls);
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.maven.repository.internal;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Downloads files from remote maven repositories into the local repository.
+ *
+ * The ETag and Last-Modified headers returned with a download are kept in a
+ * file next to the downloaded file, so the next download of the same URL can
+ * be a conditional GET that does not transfer anything if the file has not
+ * changed. Files are downloaded to a temporary file and moved into place, so a
+ * partly downloaded file is never seen by another thread or process.
+ */
+public class ArtifactDownloader {
+
+    public enum Result {
+        DOWNLOADED,
+        NOT_MODIFIED,
+        NOT_FOUND
+    }
+
+    private static final Log    logger             = LogFactory.getLog(ArtifactDownloader.class);
+
+    private static final String VALIDATORS_SUFFIX  = ".validators";
+    private static final String URL_PROP           = "url";
+    private static final String ETAG_PROP          = "etag";
+    private static final String LAST_MODIFIED_PROP = "last-modified";
+
+    private final int           connectTimeoutMilliSecs;
+    private final int           readTimeoutMilliSecs;
+
+    public ArtifactDownloader(int connectTimeoutMilliSecs, int readTimeoutMilliSecs) {
+        this.connectTimeoutMilliSecs = connectTimeoutMilliSecs;
+        this.readTimeoutMilliSecs = readTimeoutMilliSecs;
+    }
+
+    /**
+     * Download a remote file, unless the local copy is still the same as the
+     * remote one
+     *
+     * @param remoteFile the URL of the file in the remote repository
+     * @param localFile  where to put the file in the local repository
+     * @return whether the file was downloaded, was not modified or was not found
+     * @throws IOException if there is a problem downloading the file
+     */
+    public Result download(URL remoteFile, Path localFile) throws IOException {
+        Path validatorsFile = localFile.resolveSibling(localFile.getFileName().toString() + VALIDATORS_SUFFIX);
+        Properties validators = readValidators(validatorsFile, remoteFile, localFile);
+
+        logger.debug("Attempting to download " + remoteFile + " with connection timeout of "
+                + connectTimeoutMilliSecs + "ms and read timeout of " + readTimeoutMilliSecs + "ms");
+
+        URLConnection connection = remoteFile.openConnection();
+        connection.setDoOutput(false);
+        connection.setConnectTimeout(connectTimeoutMilliSecs);
+        connection.setReadTimeout(readTimeoutMilliSecs);
+
+        HttpURLConnection httpConnection = null;
+        if (connection instanceof HttpURLConnection) {
+            httpConnection = (HttpURLConnection) connection;
+            if (validators != null) {
+                String etag = validators.getProperty(ETAG_PROP);
+                if (etag != null) {
+                    httpConnection.setRequestProperty("If-None-Match", etag);
+                }
+                String lastModified = validators.getProperty(LAST_MODIFIED_PROP);
+                if (lastModified != null) {
+                    httpConnection.setRequestProperty("If-Modified-Since", lastModified);
+                }
+            }
+        }
+
+        try {
+            connection.connect();
+
+            if (httpConnection != null) {
+                int responseCode = httpConnection.getResponseCode();
+                if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    logger.trace("Local copy of " + remoteFile + " is up to date");
+                    return Result.NOT_MODIFIED;
+                }
+                if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                    logger.trace(remoteFile + " not found");
+                    return Result.NOT_FOUND;
+                }
+            }
+
+            Files.createDirectories(localFile.getParent());
+            Path tempFile = Files.createTempFile(localFile.getParent(), localFile.getFileName().toString(), ".tmp");
+            try {
+                try (InputStream is = connection.getInputStream()) {
+                    Files.copy(is, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                moveIntoPlace(tempFile, localFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (FileNotFoundException e) {
+            logger.trace(remoteFile + " not found");
+            return Result.NOT_FOUND;
+        } finally {
+            if (httpConnection != null) {
+                httpConnection.disconnect();
+            }
+        }
+
+        writeValidators(validatorsFile, remoteFile, connection);
+
+        logger.trace("Downloaded " + remoteFile);
+        return Result.DOWNLOADED;
+    }
+
+    private Properties readValidators(Path validatorsFile, URL remoteFile, Path localFile) {
+        if (!Files.exists(validatorsFile) || !Files.exists(localFile)) {
+            return null;
+        }
+
+        Properties validators = new Properties();
+        try (InputStream is = Files.newInputStream(validatorsFile)) {
+            validators.load(is);
+        } catch (IOException e) {
+            return null;
+        }
+
+        // *** The validators are only good for the URL they came from
+        if (!remoteFile.toExternalForm().equals(validators.getProperty(URL_PROP))) {
+            return null;
+        }
+        return validators;
+    }
+
+    private void writeValidators(Path validatorsFile, URL remoteFile, URLConnection connection) {
+        String etag = connection.getHeaderField("ETag");
+        String lastModified = connection.getHeaderField("Last-Modified");
+
+        try {
+            if (etag == null && lastModified == null) {
+                Files.deleteIfExists(validatorsFile);
+                return;
+            }
+
+            Properties validators = new Properties();
+            validators.setProperty(URL_PROP, remoteFile.toExternalForm());
+            if (etag != null) {
+                validators.setProperty(ETAG_PROP, etag);
+            }
+            if (lastModified != null) {
+                validators.setProperty(LAST_MODIFIED_PROP, lastModified);
+            }
+
+            Path tempFile = Files.createTempFile(validatorsFile.getParent(), validatorsFile.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream os = Files.newOutputStream(tempFile)) {
+                    validators.store(os, null);
+                }
+                moveIntoPlace(tempFile, validatorsFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            // *** Only means the next download will not be conditional
+            logger.debug("Unable to save the validators for " + remoteFile, e);
+        }
+    }
+
+    private static void moveIntoPlace(Path tempFile, Path targetFile) throws IOException {
+        try {
+            Files.move(tempFile, targetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -5,15 +5,18 @@
  */
 package dev.galasa.framework.maven.repository.internal;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,6 +24,11 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,23 +38,51 @@ import org.apache.maven.artifact.repository.metadata.Versioning;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.url.AbstractURLStreamHandlerService;
 import org.osgi.service.url.URLConstants;
 import org.osgi.service.url.URLStreamHandlerService;
 
+import dev.galasa.framework.maven.repository.internal.ArtifactDownloader.Result;
+import dev.galasa.framework.maven.repository.spi.IMavenArtifactPrefetcher;
 import dev.galasa.framework.maven.repository.spi.IMavenRepository;
 
-@Component(service = { URLStreamHandlerService.class }, property = { URLConstants.URL_HANDLER_PROTOCOL + "=mvn" })
-public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerService {
+@Component(service = { URLStreamHandlerService.class, IMavenArtifactPrefetcher.class }, property = { URLConstants.URL_HANDLER_PROTOCOL + "=mvn" })
+public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerService implements IMavenArtifactPrefetcher {
 
     private static final Log               logger                = LogFactory
             .getLog(GalasaMavenUrlHandlerService.class);
     private static final DateTimeFormatter dtf                   = DateTimeFormatter.ofPattern("uuuuMMddHHmmss");
 
+    private static final int               TIMEOUT_MILLISECS     = 300000;
+    private static final int               PREFETCH_THREADS      = 8;
+
     @Reference
     private IMavenRepository               galasaRepository;
 
+    private final ArtifactDownloader       downloader            = new ArtifactDownloader(TIMEOUT_MILLISECS, TIMEOUT_MILLISECS);
+
+    // *** Fetches in progress by GAV, so concurrent requests for the same artifact share one fetch
+    private final ConcurrentHashMap<String, CompletableFuture<URL>> inFlightFetches = new ConcurrentHashMap<>();
+
+    private ExecutorService                prefetchExecutor;
+
+    public GalasaMavenUrlHandlerService() {
+    }
+
+    GalasaMavenUrlHandlerService(IMavenRepository galasaRepository) {
+        this.galasaRepository = galasaRepository;
+    }
+
+    @Deactivate
+    public synchronized void deactivate() {
+        if (this.prefetchExecutor != null) {
+            this.prefetchExecutor.shutdownNow();
+            this.prefetchExecutor = null;
+        }
+    }
+
     @Override
     public URLConnection openConnection(URL arg0) throws IOException {
 
@@ -73,7 +109,7 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
             throw new MalformedURLException("packaging is missing - " + arg0);
         }
 
-        URL result = fetchArtifact(groupId, artifactId, version, packaging);
+        URL result = fetchArtifactOnce(groupId, artifactId, version, packaging);
         if (result == null) {
             throw new IOException("Unable to locate maven artifact " + arg0);
         }
@@ -81,6 +117,84 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
         return result.openConnection();
     }
 
+    /**
+     * Fetch an artifact, or wait for the fetch of the same artifact already in
+     * progress on another thread
+     */
+    URL fetchArtifactOnce(String groupid, String artifactid, String version, String type) throws IOException {
+        String gav = groupid + ":" + artifactid + ":" + version + ":" + type;
+
+        CompletableFuture<URL> newFetch = new CompletableFuture<>();
+        CompletableFuture<URL> fetch = inFlightFetches.putIfAbsent(gav, newFetch);
+        if (fetch == null) {
+            fetch = newFetch;
+            try {
+                newFetch.complete(fetchArtifact(groupid, artifactid, version, type));
+            } catch (IOException | RuntimeException e) {
+                newFetch.completeExceptionally(e);
+            } finally {
+                inFlightFetches.remove(gav, newFetch);
+            }
+        } else {
+            logger.trace("Waiting for the fetch of maven artifact " + gav + " already in progress");
+        }
+
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for maven artifact " + gav, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Problem fetching maven artifact " + gav, e.getCause());
+        }
+    }
+
+    /**
+     * Fetch the artifacts in the background. Installing them later waits for the
+     * fetch already in progress rather than starting another.
+     */
+    @Override
+    public void prefetch(List<String> artifactUrls) {
+        List<URL> remoteRepositories = galasaRepository.getRemoteRepositories();
+        if (remoteRepositories == null || remoteRepositories.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = getPrefetchExecutor();
+        for (String artifactUrl : artifactUrls) {
+            if (!artifactUrl.startsWith("mvn:")) {
+                continue;
+            }
+            String[] parts = artifactUrl.substring("mvn:".length()).split("/");
+            if (parts.length != 4) {
+                continue;
+            }
+
+            executor.execute(() -> {
+                try {
+                    fetchArtifactOnce(parts[0], parts[1], parts[2], parts[3]);
+                } catch (Exception e) {
+                    // *** The install will fetch it again and report the problem
+                    logger.debug("Unable to prefetch maven artifact " + artifactUrl, e);
+                }
+            });
+        }
+    }
+
+    private synchronized ExecutorService getPrefetchExecutor() {
+        if (this.prefetchExecutor == null) {
+            this.prefetchExecutor = Executors.newFixedThreadPool(PREFETCH_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "galasa-maven-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.prefetchExecutor;
+    }
+
     private URL fetchArtifact(String groupid, String artifactid, String version,
             String type) throws IOException {
         logger.trace("Resolving maven artifact " + groupid + ":" + artifactid + ":" + version + ":" + type);
@@ -132,18 +246,18 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
     }
 
     private String resolveLatest(String groupid, String artifactid, String type) throws IOException {
-        Path tempMetadata = null;
+        Path localMetadata = null;
         for (URL remoteRepository : galasaRepository.getRemoteRepositories()) {
-            tempMetadata = getTempMetadata(remoteRepository, groupid, artifactid, null);
-            if (tempMetadata != null) {
+            localMetadata = getMetadata(remoteRepository, groupid, artifactid, null);
+            if (localMetadata != null) {
                 break;
             }
         }
         String resolvedVersion = null;
-        if (tempMetadata != null) {        
-            try {
+        if (localMetadata != null) {        
+            try (InputStream is = Files.newInputStream(localMetadata)) {
                 MetadataXpp3Reader reader = new MetadataXpp3Reader();
-                Metadata metadata = reader.read(Files.newInputStream(tempMetadata));
+                Metadata metadata = reader.read(is);
     
                 Versioning versioning = metadata.getVersioning();
                 if (versioning != null) {
@@ -158,8 +272,6 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
                     }
                 }
             } catch (XmlPullParserException e) {
-            } finally {
-                Files.delete(tempMetadata);
             }
         }
         
@@ -208,19 +320,19 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
         return null;
     }
 
-    private static URL retrieveSnapshot(URL repository, long lastupdated, Path localArtifact, Path localTimestamp,
+    private URL retrieveSnapshot(URL repository, long lastupdated, Path localArtifact, Path localTimestamp,
             String groupid, String artifactid, String version, String type) throws IOException {
 
-        Path tempMetadata = getTempMetadata(repository, groupid, artifactid, version);
-        if (tempMetadata == null) {
+        Path localMetadata = getMetadata(repository, groupid, artifactid, version);
+        if (localMetadata == null) {
             return null;
         }
 
         String snapshotSuffix = null;
         long updatedTime = 0;
-        try {
+        try (InputStream is = Files.newInputStream(localMetadata)) {
             MetadataXpp3Reader reader = new MetadataXpp3Reader();
-            Metadata metadata = reader.read(Files.newInputStream(tempMetadata));
+            Metadata metadata = reader.read(is);
 
             Versioning versioning = metadata.getVersioning();
             if (versioning != null) {
@@ -230,6 +342,7 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
 
                 if (updatedTime < lastupdated) {
                     logger.debug("Snapshot is up to date");
+                    writeTimestamp(localTimestamp);
                     return localArtifact.toUri().toURL();
                 }
 
@@ -247,50 +360,64 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
             }
         } catch (XmlPullParserException e) {
             return null;
-        } finally {
-            Files.delete(tempMetadata);
         }
 
         URL urlRemoteFile = buildArtifactUrl(repository, groupid, artifactid, version,
                 buildArtifactFilename(artifactid, snapshotSuffix, type));
-        logger.debug("Attempting to download " + urlRemoteFile);
-
-        URLConnection connection = urlRemoteFile.openConnection();
-        connection.setConnectTimeout(300000);
-        connection.setReadTimeout(300000);
-        connection.setDoOutput(false);
-        connection.connect();
 
-        try {
-            Files.copy(connection.getInputStream(), localArtifact, StandardCopyOption.REPLACE_EXISTING);
-        } catch (FileNotFoundException e) {
+        if (downloader.download(urlRemoteFile, localArtifact) == Result.NOT_FOUND) {
             return null;
         }
 
         logger.trace("Snapshot artifact downloaded from " + urlRemoteFile);
 
-        Files.write(localTimestamp, Long.toString(Instant.now().getEpochSecond()).getBytes());
+        writeTimestamp(localTimestamp);
 
         return localArtifact.toUri().toURL();
     }
 
-    private static Path getTempMetadata(URL repository, String groupid, String artifactid, String version) throws IOException {
-      Path tempMetadata = Files.createTempFile("metadata", ".xml");
-      try {
-          URL urlRemoteFile = buildArtifactUrl(repository, groupid, artifactid, version, "maven-metadata.xml");
-          logger.debug("Attempting to download " + urlRemoteFile);
-
-          URLConnection connection = urlRemoteFile.openConnection();
-          connection.setConnectTimeout(300000);
-          connection.setReadTimeout(300000);
-          connection.setDoOutput(false);
-          connection.connect();
-          Files.copy(connection.getInputStream(), tempMetadata, StandardCopyOption.REPLACE_EXISTING);
-      } catch (FileNotFoundException e) {
-          Files.delete(tempMetadata);
-          return null;
-      }
-      return tempMetadata;
+    private static void writeTimestamp(Path localTimestamp) throws IOException {
+        Files.write(localTimestamp, Long.toString(Instant.now().getEpochSecond()).getBytes());
+    }
+
+    /**
+     * Get the maven-metadata.xml from a remote repository. The metadata is kept in
+     * the local repository, one copy per remote repository, and only downloaded
+     * again if it has changed.
+     * 
+     * @return the local copy of the metadata, or null if the remote repository
+     *         does not have it
+     */
+    private Path getMetadata(URL repository, String groupid, String artifactid, String version) throws IOException {
+        URL urlRemoteFile = buildArtifactUrl(repository, groupid, artifactid, version, "maven-metadata.xml");
+        URL urlLocalFile = buildArtifactUrl(galasaRepository.getLocalRepository(), groupid, artifactid, version,
+                "maven-metadata-" + getRepositoryKey(repository) + ".xml");
+
+        Path localMetadata;
+        try {
+            localMetadata = Paths.get(urlLocalFile.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Problem with local maven repository", e);
+        }
+
+        if (downloader.download(urlRemoteFile, localMetadata) == Result.NOT_FOUND) {
+            return null;
+        }
+        return localMetadata;
+    }
+
+    private static String getRepositoryKey(URL repository) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(repository.toExternalForm().getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                key.append(String.format("%02x", hash[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Unable to hash the repository URL", e);
+        }
     }
 
     private URL fetchReleaseArtifact(Path localArtifact, String groupid, String artifactid, String version, String type)
@@ -309,31 +436,18 @@ public class GalasaMavenUrlHandlerService extends AbstractURLStreamHandlerServic
         return null;
     }
 
-    private static boolean getArtifact(URL repository, Path localArtifact, String groupid, String artifactid,
+    private boolean getArtifact(URL repository, Path localArtifact, String groupid, String artifactid,
             String version) throws IOException {
         logger.debug("Checking " + repository);
 
         // *** Read the artifact
         URL urlRemoteFile = buildArtifactUrl(repository, groupid, artifactid, version,
                 localArtifact.getFileName().toString());
-        int connectionTimeoutMilliSecs = 300000;
-        int readTimeoutMilliSecs = 300000;
-        logger.debug("Attempting to download " + urlRemoteFile+ 
-                    " with connection timeout of "+Integer.toString(connectionTimeoutMilliSecs)+"ms "+
-                    "and read timeout of "+Integer.toString(readTimeoutMilliSecs)+"ms "
-                    );
-        URLConnection connection = urlRemoteFile.openConnection();
-        connection.setDoOutput(false);
-
-        connection.setConnectTimeout(connectionTimeoutMilliSecs);
-        connection.setReadTimeout(readTimeoutMilliSecs);
-
         try {
-            connection.connect();
-            Files.copy(connection.getInputStream(), localArtifact, StandardCopyOption.REPLACE_EXISTING);
-        } catch (FileNotFoundException e) {
-            logger.trace("Release artifact "+ urlRemoteFile+" failed to download. File not found." );
-            return false;
+            if (downloader.download(urlRemoteFile, localArtifact) == Result.NOT_FOUND) {
+                logger.trace("Release artifact "+ urlRemoteFile+" failed to download. File not found." );
+                return false;
+            }
         } catch (Exception e) {
             // Re-throw any exception after tracing it.
             logger.trace("Release artifact "+ urlRemoteFile+" failed to download.",e );
@@ -0,0 +1,93 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.maven.repository.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.maven.repository.internal.ArtifactDownloader.Result;
+
+public class ArtifactDownloaderTest {
+
+    private StubMavenServer server;
+    private Path            localRepository;
+
+    @Before
+    public void setup() throws Exception {
+        this.server = new StubMavenServer();
+        this.localRepository = Files.createTempDirectory("galasa_junit_maven_");
+    }
+
+    @After
+    public void teardown() throws Exception {
+        this.server.stop();
+        try (Stream<Path> paths = Files.walk(this.localRepository)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testUnchangedFileIsNotDownloadedAgain() throws Exception {
+        // Given...
+        server.addFile("dev/galasa/test/maven-metadata.xml", "<metadata/>");
+        URL remoteFile = new URL(server.getRepositoryUrl() + "/dev/galasa/test/maven-metadata.xml");
+        Path localFile = localRepository.resolve("dev/galasa/test/maven-metadata-stub.xml");
+        ArtifactDownloader downloader = new ArtifactDownloader(10000, 10000);
+
+        // When...
+        Result first = downloader.download(remoteFile, localFile);
+        Result second = downloader.download(remoteFile, localFile);
+
+        // Then...
+        assertThat(first).isEqualTo(Result.DOWNLOADED);
+        assertThat(second).isEqualTo(Result.NOT_MODIFIED);
+        assertThat(server.getNotModifiedCount()).isEqualTo(1);
+        assertThat(new String(Files.readAllBytes(localFile), StandardCharsets.UTF_8)).isEqualTo("<metadata/>");
+    }
+
+    @Test
+    public void testChangedFileIsDownloadedAgain() throws Exception {
+        // Given...
+        server.addFile("dev/galasa/test/maven-metadata.xml", "<metadata/>");
+        URL remoteFile = new URL(server.getRepositoryUrl() + "/dev/galasa/test/maven-metadata.xml");
+        Path localFile = localRepository.resolve("dev/galasa/test/maven-metadata-stub.xml");
+        ArtifactDownloader downloader = new ArtifactDownloader(10000, 10000);
+        downloader.download(remoteFile, localFile);
+
+        // When...
+        server.addFile("dev/galasa/test/maven-metadata.xml", "<metadata><version>2</version></metadata>");
+        Result result = downloader.download(remoteFile, localFile);
+
+        // Then...
+        assertThat(result).isEqualTo(Result.DOWNLOADED);
+        assertThat(new String(Files.readAllBytes(localFile), StandardCharsets.UTF_8)).contains("<version>2</version>");
+    }
+
+    @Test
+    public void testMissingFileIsNotFound() throws Exception {
+        // Given...
+        URL remoteFile = new URL(server.getRepositoryUrl() + "/dev/galasa/missing/1.0.0/missing-1.0.0.jar");
+        Path localFile = localRepository.resolve("dev/galasa/missing/1.0.0/missing-1.0.0.jar");
+        ArtifactDownloader downloader = new ArtifactDownloader(10000, 10000);
+
+        // When...
+        Result result = downloader.download(remoteFile, localFile);
+
+        // Then...
+        assertThat(result).isEqualTo(Result.NOT_FOUND);
+        assertThat(localFile).doesNotExist();
+    }
+}
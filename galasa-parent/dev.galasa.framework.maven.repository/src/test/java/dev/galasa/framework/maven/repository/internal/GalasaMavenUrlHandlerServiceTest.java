@@ -0,0 +1,146 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.maven.repository.internal;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GalasaMavenUrlHandlerServiceTest {
+
+    private StubMavenServer              server;
+    private Path                         localRepository;
+    private GalasaMavenUrlHandlerService service;
+
+    @Before
+    public void setup() throws Exception {
+        this.server = new StubMavenServer();
+        this.localRepository = Files.createTempDirectory("galasa_junit_maven_");
+
+        GalasaMavenRepository repository = new GalasaMavenRepository();
+        repository.setRepositories(this.localRepository.toUri().toURL(), Arrays.asList(this.server.getRepositoryUrl()));
+        this.service = new GalasaMavenUrlHandlerService(repository);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        this.service.deactivate();
+        this.server.stop();
+        try (Stream<Path> paths = Files.walk(this.localRepository)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private URL createMavenUrl(String url) throws Exception {
+        return new URL(null, url, new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL u) throws IOException {
+                return service.openConnection(u);
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentRequestsForTheSameArtifactShareOneDownload() throws Exception {
+        // Given...
+        server.addFile("dev/galasa/thing/1.0.0/thing-1.0.0.jar", "jar content");
+        CountDownLatch gate = server.holdResponses();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // When...
+            List<Future<URL>> fetches = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                fetches.add(executor.submit(() -> service.fetchArtifactOnce("dev.galasa", "thing", "1.0.0", "jar")));
+            }
+            await().atMost(10, TimeUnit.SECONDS).until(() -> server.getGetCount("dev/galasa/thing/1.0.0/thing-1.0.0.jar") == 1);
+            gate.countDown();
+
+            // Then...
+            for (Future<URL> fetch : fetches) {
+                assertThat(fetch.get(10, TimeUnit.SECONDS)).isNotNull();
+            }
+            assertThat(server.getGetCount("dev/galasa/thing/1.0.0/thing-1.0.0.jar")).isEqualTo(1);
+        } finally {
+            gate.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPrefetchFetchesTheArtifactsInParallel() throws Exception {
+        // Given...
+        server.addFile("dev/galasa/one/1.0.0/one-1.0.0.jar", "one");
+        server.addFile("dev/galasa/two/2.0.0/two-2.0.0.jar", "two");
+        server.addFile("dev/galasa/three/3.0.0/three-3.0.0.jar", "three");
+        CountDownLatch gate = server.holdResponses();
+
+        try {
+            // When...
+            service.prefetch(Arrays.asList("mvn:dev.galasa/one/1.0.0/jar", "mvn:dev.galasa/two/2.0.0/jar",
+                    "mvn:dev.galasa/three/3.0.0/jar", "reference:file:/tmp/four.jar"));
+
+            // Then...
+            await().atMost(10, TimeUnit.SECONDS).until(() -> server.getGetCount("dev/galasa/one/1.0.0/one-1.0.0.jar") == 1
+                    && server.getGetCount("dev/galasa/two/2.0.0/two-2.0.0.jar") == 1
+                    && server.getGetCount("dev/galasa/three/3.0.0/three-3.0.0.jar") == 1);
+            gate.countDown();
+
+            URL one = service.fetchArtifactOnce("dev.galasa", "one", "1.0.0", "jar");
+            assertThat(Files.readAllLines(Paths.get(one.toURI()))).containsExactly("one");
+            await().atMost(10, TimeUnit.SECONDS).until(() -> Files.exists(localRepository.resolve("dev/galasa/three/3.0.0/three-3.0.0.jar")));
+            assertThat(server.getGetCount("dev/galasa/one/1.0.0/one-1.0.0.jar")).isEqualTo(1);
+        } finally {
+            gate.countDown();
+        }
+    }
+
+    @Test
+    public void testSnapshotMetadataIsRevalidatedNotDownloadedAgain() throws Exception {
+        // Given...
+        server.addFile("dev/galasa/snap/1.0.0-SNAPSHOT/maven-metadata.xml",
+                "<metadata><versioning><lastUpdated>20200101000000</lastUpdated>"
+                + "<snapshot><timestamp>20200101.000000</timestamp><buildNumber>1</buildNumber></snapshot>"
+                + "</versioning></metadata>");
+        server.addFile("dev/galasa/snap/1.0.0-SNAPSHOT/snap-1.0.0-20200101.000000-1.jar", "snapshot");
+
+        // When...
+        URL first = service.fetchArtifactOnce("dev.galasa", "snap", "1.0.0-SNAPSHOT", "jar");
+        long twoDaysAgo = Instant.now().minus(2, ChronoUnit.DAYS).getEpochSecond();
+        Files.write(localRepository.resolve("dev/galasa/snap/1.0.0-SNAPSHOT/snap-1.0.0-SNAPSHOT.jar.lastupdated"),
+                Long.toString(twoDaysAgo).getBytes());
+        URL second = service.fetchArtifactOnce("dev.galasa", "snap", "1.0.0-SNAPSHOT", "jar");
+
+        // Then...
+        assertThat(first).isEqualTo(second);
+        assertThat(server.getGetCount("dev/galasa/snap/1.0.0-SNAPSHOT/maven-metadata.xml")).isEqualTo(2);
+        assertThat(server.getNotModifiedCount()).isEqualTo(1);
+        assertThat(server.getGetCount("dev/galasa/snap/1.0.0-SNAPSHOT/snap-1.0.0-20200101.000000-1.jar")).isEqualTo(1);
+    }
+}
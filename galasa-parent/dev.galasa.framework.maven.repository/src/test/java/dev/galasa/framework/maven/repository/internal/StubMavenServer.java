@@ -0,0 +1,107 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.maven.repository.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP server that serves files as a remote maven repository would,
+ * answering conditional GETs with 304 when the ETag matches
+ */
+public class StubMavenServer {
+
+    private final HttpServer server;
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> getCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+
+    private volatile CountDownLatch gate;
+
+    public StubMavenServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public URL getRepositoryUrl() throws IOException {
+        return new URL("http://localhost:" + server.getAddress().getPort() + "/repo");
+    }
+
+    public void addFile(String path, String content) {
+        files.put("/repo/" + path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getGetCount(String path) {
+        AtomicInteger count = getCounts.get("/repo/" + path);
+        return count == null ? 0 : count.get();
+    }
+
+    public int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * Hold all responses until the returned latch is counted down
+     */
+    public CountDownLatch holdResponses() {
+        this.gate = new CountDownLatch(1);
+        return this.gate;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        getCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+
+        CountDownLatch currentGate = this.gate;
+        if (currentGate != null) {
+            try {
+                currentGate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        byte[] content = files.get(path);
+        if (content == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        String etag = "\"" + Integer.toHexString(Arrays.hashCode(content)) + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModifiedCount.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(content);
+        }
+    }
+}
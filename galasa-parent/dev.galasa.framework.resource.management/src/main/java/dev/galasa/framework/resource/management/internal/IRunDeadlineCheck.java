@@ -0,0 +1,37 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.resource.management.internal;
+
+import java.time.Instant;
+
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IRun;
+
+/**
+ * A check on runs that only needs to act once a deadline of the run has passed,
+ * such as its heartbeat expiring
+ */
+interface IRunDeadlineCheck {
+
+    /**
+     * Reload the settings of the check from the CPS
+     */
+    void loadSettings();
+
+    /**
+     * @param run the run
+     * @return when the check should next look at the run, or null if the check does not apply to the run
+     */
+    Instant getDeadline(IRun run);
+
+    /**
+     * Check the run, and action it if its deadline has passed
+     *
+     * @param run the run, as recently read from the DSS
+     * @throws FrameworkException if the run could not be actioned
+     */
+    void checkRun(IRun run) throws FrameworkException;
+}
@@ -59,6 +59,8 @@ public class ResourceManagement implements IResourceManagement {
 
     private ResourceManagementHealth                     healthServer;
 
+    private volatile RunEventDispatcher                  runEventDispatcher;
+
     private String                                       serverName;
     private String                                       hostname;
 
@@ -119,6 +121,8 @@ public class ResourceManagement implements IResourceManagement {
         int numberOfRunThreads = 5;
         int metricsPort = 9010;
         int healthPort = 9011;
+        int runEventLanes = 2;
+        int runEventQueueSize = 1000;
 
         String threads = AbstractManager.nulled(cps.getProperty("resource.management", "threads"));
         if (threads != null) {
@@ -135,6 +139,16 @@ public class ResourceManagement implements IResourceManagement {
             healthPort = Integer.parseInt(port);
         }
 
+        String lanes = AbstractManager.nulled(cps.getProperty("resource.management.run.events", "lanes"));
+        if (lanes != null) {
+            runEventLanes = Integer.parseInt(lanes);
+        }
+
+        String queueSize = AbstractManager.nulled(cps.getProperty("resource.management.run.events", "queue.size"));
+        if (queueSize != null) {
+            runEventQueueSize = Integer.parseInt(queueSize);
+        }
+
         // *** Setup scheduler
         scheduledExecutorService = new ScheduledThreadPoolExecutor(numberOfRunThreads);
 
@@ -199,6 +213,9 @@ public class ResourceManagement implements IResourceManagement {
             provider.start();
         }
 
+        // *** Pass finished runs to the providers off the DSS watcher thread
+        this.runEventDispatcher = new RunEventDispatcher(resourceManagementProviders, runEventLanes, runEventQueueSize);
+
         // *** Start the Run watch thread
         ResourceManagementRunWatch runWatch = new ResourceManagementRunWatch(framework, this);
 
@@ -230,6 +247,9 @@ public class ResourceManagement implements IResourceManagement {
         // *** Ask the run watch to terminate
         runWatch.shutdown();
 
+        // *** Let the providers catch up with the runs that have finished
+        this.runEventDispatcher.shutdown(30, TimeUnit.SECONDS);
+
         // *** shutdown the providers
         for (IResourceManagementProvider provider : resourceManagementProviders) {
             logger.info("Requesting Resource Management Provider " + provider.getClass().getName() + " shutdown");
@@ -271,8 +291,9 @@ public class ResourceManagement implements IResourceManagement {
     }
 
     public void runFinishedOrDeleted(String runName) {
-        for (IResourceManagementProvider provider : resourceManagementProviders) {
-            provider.runFinishedOrDeleted(runName);
+        RunEventDispatcher dispatcher = this.runEventDispatcher;
+        if (dispatcher != null) {
+            dispatcher.runFinishedOrDeleted(runName);
         }
     }
 
@@ -6,7 +6,6 @@
 package dev.galasa.framework.resource.management.internal;
 
 import java.util.UUID;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
@@ -22,7 +21,10 @@ public class ResourceManagementRunWatch implements IDynamicStatusStoreWatcher {
 
     private final Log                        logger         = LogFactory.getLog(this.getClass());
 
-    private final Pattern                    runTestPattern = Pattern.compile("^\\Qrun.\\E(\\w+)\\Q.status\\E$");
+    private static final String              RUN_PREFIX     = "run.";
+    private static final String              STATUS_SUFFIX  = ".status";
+
+    private final Pattern                    runNamePattern = Pattern.compile("\\w+");
 
     private final IFramework                 framework;
     private final ResourceManagement         resourceManagement;
@@ -46,12 +48,16 @@ public class ResourceManagementRunWatch implements IDynamicStatusStoreWatcher {
             return;
         }
 
-        Matcher matcher = runTestPattern.matcher(key);
-        if (!matcher.find()) {
+        // *** Most keys are not the status of a run, so rule them out before using the regex
+        if (!key.startsWith(RUN_PREFIX) || !key.endsWith(STATUS_SUFFIX)
+                || key.length() <= RUN_PREFIX.length() + STATUS_SUFFIX.length()) {
             return;
         }
 
-        String runName = matcher.group(1);
+        String runName = key.substring(RUN_PREFIX.length(), key.length() - STATUS_SUFFIX.length());
+        if (!runNamePattern.matcher(runName).matches()) {
+            return;
+        }
 
         if (event == Event.DELETE) {
             logger.debug("Detected deleted run " + runName);
@@ -22,8 +22,11 @@ import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IResourceManagement;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunsSnapshot;
 
-public class RunDeadHeartbeatMonitor implements Runnable {
+public class RunDeadHeartbeatMonitor implements Runnable, IRunDeadlineCheck {
+
+    private static final int                         DEFAULT_DEAD_HEARTBEAT_TIME = 300; // ** 5 minutes
 
     private final IResourceManagement                resourceManagement;
     private final IConfigurationPropertyStoreService cps;
@@ -33,6 +36,8 @@ public class RunDeadHeartbeatMonitor implements Runnable {
     private final DateTimeFormatter                  dtf    = DateTimeFormatter.ofPattern("yyyy-MM-dd hh:mm:ss")
             .withZone(ZoneId.systemDefault());
 
+    private volatile int                             deadHeartbeatTime = DEFAULT_DEAD_HEARTBEAT_TIME;
+
     protected RunDeadHeartbeatMonitor(IFramework framework, IResourceManagement resourceManagement,
             IDynamicStatusStoreService dss, RunResourceManagement runResourceManagement,
             IConfigurationPropertyStoreService cps) throws FrameworkException {
@@ -43,18 +48,32 @@ public class RunDeadHeartbeatMonitor implements Runnable {
     }
 
     @Override
-    public void run() {
-        int defaultDeadHeartbeatTime = 300; // ** 5 minutes
+    public void loadSettings() {
+        int timeout = DEFAULT_DEAD_HEARTBEAT_TIME;
         try { // TODO do we need a different timeout for automation run reset?
             String overrideTime = AbstractManager
                     .nulled(cps.getProperty("resource.management", "dead.heartbeat.timeout"));
             if (overrideTime != null) {
-                defaultDeadHeartbeatTime = Integer.parseInt(overrideTime);
+                timeout = Integer.parseInt(overrideTime);
             }
         } catch (Throwable e) {
             logger.error("Problem with resource.management.dead.heartbeat.timeout, using default "
-                    + defaultDeadHeartbeatTime, e);
+                    + DEFAULT_DEAD_HEARTBEAT_TIME, e);
         }
+        this.deadHeartbeatTime = timeout;
+    }
+
+    @Override
+    public Instant getDeadline(IRun run) {
+        if (run.isSharedEnvironment() || run.getHeartbeat() == null) {
+            return null;
+        }
+        return run.getHeartbeat().plusSeconds(this.deadHeartbeatTime);
+    }
+
+    @Override
+    public void run() {
+        loadSettings();
 
         logger.info("Starting Run Dead Heartbeat search");
         try {
@@ -62,34 +81,7 @@ public class RunDeadHeartbeatMonitor implements Runnable {
             List<IRun> runs = frameworkRuns.getActiveRuns();
             logger.trace("Active Run count = " + runs.size());
             for (IRun run : runs) {
-                if (run.isSharedEnvironment()) {
-                    continue;  //*** Ignore shared environments,  handled by a different class
-                }
-                String runName = run.getName();
-                logger.trace("Checking run " + runName);
-
-                Instant heartbeat = run.getHeartbeat();
-                if (heartbeat == null) {
-                    logger.warn("Active run without heartbeat = " + runName + " ignoring");
-                    continue;
-                }
-
-                Instant expires = heartbeat.plusSeconds(defaultDeadHeartbeatTime);
-                Instant now = Instant.now();
-                if (expires.compareTo(now) <= 0) {
-                    logger.trace("Run " + runName + " has a dead heartbeat");
-                    String lastHeartbeat = dtf.format(LocalDateTime.ofInstant(heartbeat, ZoneId.systemDefault()));
-                    if (run.isLocal()) {
-                        /// TODO put time management into the framework
-                        logger.warn("Deleting run " + runName + ", last heartbeat was at " + lastHeartbeat);
-                        this.frameworkRuns.delete(runName);
-                    } else {
-                        logger.warn("Reseting run " + runName + ", last heartbeat was at " + lastHeartbeat);
-                        this.frameworkRuns.reset(runName);
-                    }
-                } else {
-                    logger.trace("Run " + runName + " heartbeat is ok");
-                }
+                checkRun(run);
             }
         } catch (Throwable e) {
             logger.error("Scan of runs failed", e);
@@ -99,4 +91,38 @@ public class RunDeadHeartbeatMonitor implements Runnable {
         logger.info("Finished Run Dead Heartbeat search");
     }
 
+    @Override
+    public void checkRun(IRun run) throws FrameworkException {
+        if (run.isSharedEnvironment()) {
+            return;  //*** Ignore shared environments,  handled by a different class
+        }
+        String runName = run.getName();
+        logger.trace("Checking run " + runName);
+
+        Instant heartbeat = run.getHeartbeat();
+        if (heartbeat == null) {
+            if (RunsSnapshot.isActive(run)) {
+                logger.warn("Active run without heartbeat = " + runName + " ignoring");
+            }
+            return;
+        }
+
+        Instant expires = heartbeat.plusSeconds(this.deadHeartbeatTime);
+        Instant now = Instant.now();
+        if (expires.compareTo(now) <= 0) {
+            logger.trace("Run " + runName + " has a dead heartbeat");
+            String lastHeartbeat = dtf.format(LocalDateTime.ofInstant(heartbeat, ZoneId.systemDefault()));
+            if (run.isLocal()) {
+                /// TODO put time management into the framework
+                logger.warn("Deleting run " + runName + ", last heartbeat was at " + lastHeartbeat);
+                this.frameworkRuns.delete(runName);
+            } else {
+                logger.warn("Reseting run " + runName + ", last heartbeat was at " + lastHeartbeat);
+                this.frameworkRuns.reset(runName);
+            }
+        } else {
+            logger.trace("Run " + runName + " heartbeat is ok");
+        }
+    }
+
 }
\ No newline at end of file
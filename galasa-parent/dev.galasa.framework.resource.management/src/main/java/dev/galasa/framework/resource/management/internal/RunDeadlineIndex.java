@@ -0,0 +1,360 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.resource.management.internal;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.RunImpl;
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreWatcher;
+import dev.galasa.framework.spi.IResourceManagement;
+import dev.galasa.framework.spi.IRun;
+
+/**
+ * Keeps the deadlines of every run in a queue, so that runs are only looked at when one of
+ * their deadlines is due rather than every run being read from the DSS every few seconds.
+ *
+ * The index is kept up to date by watching the "run." keys in the DSS. As a watch event can be
+ * missed, each run is read again from the DSS before it is actioned, and the whole index is
+ * rebuilt from the DSS every resource.management.run.reconcile.interval seconds.
+ */
+public class RunDeadlineIndex implements IDynamicStatusStoreWatcher {
+
+    private static final String RUN_PREFIX                 = "run.";
+    private static final int    DEFAULT_RECONCILE_INTERVAL = 300; // ** 5 minutes
+    private static final int    TICK_INTERVAL              = 20;
+    // How long to wait before looking again at a run that is still overdue after being actioned
+    private static final int    RETRY_DELAY                = 20;
+
+    private final Log                                logger        = LogFactory.getLog(this.getClass());
+
+    private final Pattern                            runKeyPattern = Pattern.compile("^\\Qrun.\\E(\\w+)\\.");
+
+    private final IResourceManagement                resourceManagement;
+    private final IDynamicStatusStoreService         dss;
+    private final IConfigurationPropertyStoreService cps;
+    private final List<IRunDeadlineCheck>            checks;
+
+    private final Map<String, Map<String, String>>   runProperties = new HashMap<>();
+    private final Map<String, Long>                  generations   = new HashMap<>();
+    private final PriorityQueue<Deadline>            deadlines     = new PriorityQueue<>();
+    private long                                     nextGeneration;
+
+    private ScheduledFuture<?>                       scheduledFiring;
+    private Instant                                  scheduledFiringTime;
+
+    private UUID                                     watchId;
+
+    private static class Deadline implements Comparable<Deadline> {
+        private final Instant           due;
+        private final String            runName;
+        private final long              generation;
+        private final IRunDeadlineCheck check;
+
+        private Deadline(Instant due, String runName, long generation, IRunDeadlineCheck check) {
+            this.due = due;
+            this.runName = runName;
+            this.generation = generation;
+            this.check = check;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return this.due.compareTo(other.due);
+        }
+    }
+
+    protected RunDeadlineIndex(IResourceManagement resourceManagement, IDynamicStatusStoreService dss,
+            IConfigurationPropertyStoreService cps, List<IRunDeadlineCheck> checks) {
+        this.resourceManagement = resourceManagement;
+        this.dss = dss;
+        this.cps = cps;
+        this.checks = checks;
+    }
+
+    /**
+     * Start watching the runs and schedule the reconcile
+     *
+     * @throws FrameworkException if the DSS can't be watched, in which case the runs have to be swept instead
+     */
+    public void start(int initialDelay) throws FrameworkException {
+        int reconcileInterval = DEFAULT_RECONCILE_INTERVAL;
+        try {
+            String overrideInterval = AbstractManager
+                    .nulled(cps.getProperty("resource.management", "run.reconcile.interval"));
+            if (overrideInterval != null) {
+                reconcileInterval = Integer.parseInt(overrideInterval);
+            }
+        } catch (Exception e) {
+            logger.error("Problem with resource.management.run.reconcile.interval, using default "
+                    + DEFAULT_RECONCILE_INTERVAL, e);
+        }
+
+        // *** Watch before the first reconcile, so no change can fall between the two
+        this.watchId = this.dss.watchPrefix(this, RUN_PREFIX);
+
+        ScheduledExecutorService scheduler = this.resourceManagement.getScheduledExecutorService();
+        scheduler.scheduleWithFixedDelay(this::reconcile, initialDelay, reconcileInterval, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::tick, initialDelay + TICK_INTERVAL, TICK_INTERVAL, TimeUnit.SECONDS);
+        logger.info("Run deadline index started, reconciling every " + reconcileInterval + " seconds");
+    }
+
+    public void shutdown() {
+        try {
+            if (this.watchId != null) {
+                this.dss.unwatch(this.watchId);
+            }
+        } catch (DynamicStatusStoreException e) {
+            logger.warn("Unable to stop watching the runs", e);
+        }
+
+        synchronized (this) {
+            if (this.scheduledFiring != null) {
+                this.scheduledFiring.cancel(false);
+                this.scheduledFiring = null;
+            }
+        }
+    }
+
+    @Override
+    public void propertyModified(String key, Event event, String oldValue, String newValue) {
+        if (event == null || key == null) {
+            return;
+        }
+
+        Matcher matcher = runKeyPattern.matcher(key);
+        if (!matcher.find()) {
+            return;
+        }
+        String runName = matcher.group(1);
+
+        synchronized (this) {
+            if (event == Event.DELETE) {
+                Map<String, String> properties = this.runProperties.get(runName);
+                if (properties == null) {
+                    return;
+                }
+                properties.remove(key);
+                if (properties.isEmpty() || key.equals(RUN_PREFIX + runName + ".status")) {
+                    // *** The run has been deleted
+                    forgetRun(runName);
+                    return;
+                }
+            } else {
+                this.runProperties.computeIfAbsent(runName, k -> new HashMap<>()).put(key, newValue);
+            }
+
+            indexRun(runName, null);
+        }
+        scheduleNextFiring();
+    }
+
+    /**
+     * Rebuild the index from all the runs in the DSS, and action any that are due
+     */
+    protected void reconcile() {
+        logger.info("Starting run deadline reconcile");
+        try {
+            for (IRunDeadlineCheck check : this.checks) {
+                check.loadSettings();
+            }
+
+            Map<String, String> allProperties = this.dss.getPrefix(RUN_PREFIX);
+
+            HashMap<String, Map<String, String>> propertiesByRun = new HashMap<>();
+            for (Map.Entry<String, String> entry : allProperties.entrySet()) {
+                Matcher matcher = runKeyPattern.matcher(entry.getKey());
+                if (matcher.find()) {
+                    propertiesByRun.computeIfAbsent(matcher.group(1), k -> new HashMap<>()).put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            synchronized (this) {
+                this.runProperties.clear();
+                this.runProperties.putAll(propertiesByRun);
+                this.generations.clear();
+                this.deadlines.clear();
+                for (String runName : this.runProperties.keySet()) {
+                    indexRun(runName, null);
+                }
+            }
+            logger.info("Run deadline reconcile indexed " + propertiesByRun.size() + " runs");
+        } catch (Throwable e) {
+            logger.error("Reconcile of runs failed", e);
+        }
+
+        fireDueDeadlines();
+        this.resourceManagement.resourceManagementRunSuccessful();
+    }
+
+    /**
+     * Catch any deadline whose firing was missed, and keep the queue from growing with replaced deadlines
+     */
+    private void tick() {
+        synchronized (this) {
+            int liveDeadlines = this.generations.size() * this.checks.size();
+            if (this.deadlines.size() > (liveDeadlines * 4) + 100) {
+                List<Deadline> current = new ArrayList<>();
+                for (Deadline deadline : this.deadlines) {
+                    if (isCurrent(deadline)) {
+                        current.add(deadline);
+                    }
+                }
+                this.deadlines.clear();
+                this.deadlines.addAll(current);
+            }
+        }
+
+        fireDueDeadlines();
+        this.resourceManagement.resourceManagementRunSuccessful();
+    }
+
+    /**
+     * Action every run that has a deadline that has passed
+     */
+    protected void fireDueDeadlines() {
+        Map<String, List<IRunDeadlineCheck>> dueRuns = new LinkedHashMap<>();
+        synchronized (this) {
+            this.scheduledFiring = null;
+            this.scheduledFiringTime = null;
+
+            Instant now = Instant.now();
+            while (!this.deadlines.isEmpty() && this.deadlines.peek().due.compareTo(now) <= 0) {
+                Deadline deadline = this.deadlines.poll();
+                if (isCurrent(deadline)) {
+                    dueRuns.computeIfAbsent(deadline.runName, k -> new ArrayList<>()).add(deadline.check);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<IRunDeadlineCheck>> entry : dueRuns.entrySet()) {
+            String runName = entry.getKey();
+            try {
+                // *** Act on what is in the DSS now, not on what the watch last told us
+                Map<String, String> properties = this.dss.getPrefix(RUN_PREFIX + runName + ".");
+                if (properties.isEmpty()) {
+                    synchronized (this) {
+                        forgetRun(runName);
+                    }
+                    continue;
+                }
+
+                IRun run = new RunImpl(runName, properties);
+                for (IRunDeadlineCheck check : entry.getValue()) {
+                    check.checkRun(run);
+                }
+
+                // *** The watch will tell us what the actions changed, until then don't look again straight away
+                synchronized (this) {
+                    this.runProperties.put(runName, new HashMap<>(properties));
+                    indexRun(runName, Instant.now().plusSeconds(RETRY_DELAY));
+                }
+            } catch (Throwable e) {
+                logger.error("Problem actioning run " + runName, e);
+                synchronized (this) {
+                    indexRun(runName, Instant.now().plusSeconds(RETRY_DELAY));
+                }
+            }
+        }
+
+        scheduleNextFiring();
+    }
+
+    /**
+     * Make sure a firing is scheduled for the earliest deadline
+     */
+    private synchronized void scheduleNextFiring() {
+        while (!this.deadlines.isEmpty() && !isCurrent(this.deadlines.peek())) {
+            this.deadlines.poll();
+        }
+        if (this.deadlines.isEmpty()) {
+            return;
+        }
+
+        Instant due = this.deadlines.peek().due;
+        if (this.scheduledFiring != null) {
+            if (this.scheduledFiringTime.compareTo(due) <= 0) {
+                return;
+            }
+            this.scheduledFiring.cancel(false);
+        }
+
+        long delay = Math.max(0, due.toEpochMilli() - System.currentTimeMillis());
+        try {
+            this.scheduledFiring = this.resourceManagement.getScheduledExecutorService().schedule(this::fireDueDeadlines,
+                    delay, TimeUnit.MILLISECONDS);
+            this.scheduledFiringTime = due;
+        } catch (Exception e) {
+            // *** The scheduler is shutting down, the tick would have caught it anyway
+            this.scheduledFiring = null;
+            this.scheduledFiringTime = null;
+        }
+    }
+
+    /**
+     * Replace the deadlines of a run with those of its current properties. Must be called holding the lock.
+     *
+     * @param runName   the run
+     * @param notBefore the earliest any of the deadlines may be, or null to allow deadlines that have passed
+     */
+    private void indexRun(String runName, Instant notBefore) {
+        Map<String, String> properties = this.runProperties.get(runName);
+        if (properties == null) {
+            return;
+        }
+
+        long generation = this.nextGeneration++;
+        this.generations.put(runName, generation);
+
+        IRun run;
+        try {
+            run = new RunImpl(runName, properties);
+        } catch (Exception e) {
+            // *** Probably only part of the run has been seen so far, the next change or reconcile will fix it
+            logger.trace("Unable to index run " + runName, e);
+            return;
+        }
+
+        for (IRunDeadlineCheck check : this.checks) {
+            Instant due = check.getDeadline(run);
+            if (due != null) {
+                if (notBefore != null && due.isBefore(notBefore)) {
+                    due = notBefore;
+                }
+                this.deadlines.add(new Deadline(due, runName, generation, check));
+            }
+        }
+    }
+
+    private void forgetRun(String runName) {
+        this.runProperties.remove(runName);
+        this.generations.remove(runName);
+    }
+
+    private boolean isCurrent(Deadline deadline) {
+        Long generation = this.generations.get(deadline.runName);
+        return generation != null && generation == deadline.generation;
+    }
+}
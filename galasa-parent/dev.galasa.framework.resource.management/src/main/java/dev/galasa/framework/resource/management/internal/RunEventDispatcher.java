@@ -0,0 +1,173 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.resource.management.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.IResourceManagementProvider;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Passes finished or deleted runs to the Resource Management providers off the DSS watcher thread.
+ *
+ * Each provider has its own lanes, each with a bounded queue and one thread, so a slow provider only
+ * holds up its own events. Runs are assigned to a lane by name, so the events of a run reach a
+ * provider in order. A run that is already waiting in a lane is not queued again.
+ */
+public class RunEventDispatcher {
+
+    private final Log              logger = LogFactory.getLog(this.getClass());
+
+    private final List<Lane>       lanes  = new ArrayList<>();
+    private final int              lanesPerProvider;
+
+    private final Gauge            queueDepth;
+    private final Histogram        handlerLatency;
+    private final Counter          coalescedEvents;
+    private final Counter          droppedEvents;
+
+    private volatile boolean       shutdown;
+
+    private class Lane extends Thread {
+        private final IResourceManagementProvider provider;
+        private final String                      providerName;
+        private final int                         capacity;
+        private final LinkedHashSet<String>       pendingRuns = new LinkedHashSet<>();
+
+        private Lane(IResourceManagementProvider provider, int laneNumber, int capacity) {
+            super("rm-events-" + provider.getClass().getSimpleName() + "-" + laneNumber);
+            setDaemon(true);
+            this.provider = provider;
+            this.providerName = provider.getClass().getName();
+            this.capacity = capacity;
+        }
+
+        private synchronized void add(String runName) {
+            if (this.pendingRuns.contains(runName)) {
+                coalescedEvents.labels(this.providerName).inc();
+                return;
+            }
+            if (this.pendingRuns.size() >= this.capacity) {
+                // *** The provider has fallen a long way behind, it will have to find this run in its own sweeps
+                logger.warn("Event queue for Resource Management Provider " + this.providerName
+                        + " is full, dropping the event for run " + runName);
+                droppedEvents.labels(this.providerName).inc();
+                return;
+            }
+            this.pendingRuns.add(runName);
+            queueDepth.labels(this.providerName).inc();
+            notifyAll();
+        }
+
+        private synchronized String take() throws InterruptedException {
+            while (this.pendingRuns.isEmpty() && !shutdown) {
+                wait();
+            }
+            if (this.pendingRuns.isEmpty()) {
+                return null;
+            }
+            String runName = this.pendingRuns.iterator().next();
+            this.pendingRuns.remove(runName);
+            queueDepth.labels(this.providerName).dec();
+            return runName;
+        }
+
+        private synchronized void wake() {
+            notifyAll();
+        }
+
+        @Override
+        public void run() {
+            try {
+                String runName = take();
+                while (runName != null) {
+                    Histogram.Timer timer = handlerLatency.labels(this.providerName).startTimer();
+                    try {
+                        this.provider.runFinishedOrDeleted(runName);
+                    } catch (Throwable e) {
+                        logger.error("Resource Management Provider " + this.providerName
+                                + " failed to handle finished or deleted run " + runName, e);
+                    } finally {
+                        timer.observeDuration();
+                    }
+                    runName = take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public RunEventDispatcher(List<IResourceManagementProvider> providers, int lanesPerProvider, int laneCapacity) {
+        this.lanesPerProvider = Math.max(1, lanesPerProvider);
+
+        this.queueDepth = Gauge.build().name("galasa_resource_management_run_event_queue_depth")
+                .help("The number of finished or deleted runs waiting to be passed to each provider")
+                .labelNames("provider").register();
+        this.handlerLatency = Histogram.build().name("galasa_resource_management_run_event_handler_seconds")
+                .help("The time each provider takes to handle a finished or deleted run")
+                .labelNames("provider").register();
+        this.coalescedEvents = Counter.build().name("galasa_resource_management_run_events_coalesced")
+                .help("The number of run events dropped because the run was already waiting for the provider")
+                .labelNames("provider").register();
+        this.droppedEvents = Counter.build().name("galasa_resource_management_run_events_dropped")
+                .help("The number of run events dropped because the provider's queue was full")
+                .labelNames("provider").register();
+
+        for (IResourceManagementProvider provider : providers) {
+            for (int i = 0; i < this.lanesPerProvider; i++) {
+                Lane lane = new Lane(provider, i, laneCapacity);
+                this.lanes.add(lane);
+                lane.start();
+            }
+        }
+    }
+
+    /**
+     * Queue a finished or deleted run for every provider, without waiting for them
+     */
+    public void runFinishedOrDeleted(String runName) {
+        if (this.shutdown || this.lanes.isEmpty()) {
+            return;
+        }
+
+        int partition = Math.floorMod(runName.hashCode(), this.lanesPerProvider);
+        for (int i = partition; i < this.lanes.size(); i += this.lanesPerProvider) {
+            this.lanes.get(i).add(runName);
+        }
+    }
+
+    /**
+     * Stop accepting events, and give the providers a chance to handle those already queued
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        this.shutdown = true;
+        for (Lane lane : this.lanes) {
+            lane.wake();
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Lane lane : this.lanes) {
+            try {
+                lane.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lane.isAlive()) {
+                logger.warn("Resource Management Provider " + lane.providerName + " did not finish its queued events");
+            }
+        }
+    }
+}
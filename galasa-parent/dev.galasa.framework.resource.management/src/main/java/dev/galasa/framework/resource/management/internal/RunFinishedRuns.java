@@ -23,7 +23,9 @@ import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IResourceManagement;
 import dev.galasa.framework.spi.IRun;
 
-public class RunFinishedRuns implements Runnable {
+public class RunFinishedRuns implements Runnable, IRunDeadlineCheck {
+
+    private static final int                         DEFAULT_FINISHED_DELETE = 300; // ** 5 minutes
 
     private final IResourceManagement                resourceManagement;
     private final IConfigurationPropertyStoreService cps;
@@ -33,6 +35,8 @@ public class RunFinishedRuns implements Runnable {
     private final DateTimeFormatter                  dtf    = DateTimeFormatter.ofPattern("yyyy-MM-dd hh:mm:ss")
             .withZone(ZoneId.systemDefault());
 
+    private volatile int                             finishedDelete = DEFAULT_FINISHED_DELETE;
+
     protected RunFinishedRuns(IFramework framework, IResourceManagement resourceManagement,
             IDynamicStatusStoreService dss, RunResourceManagement runResourceManagement,
             IConfigurationPropertyStoreService cps) throws FrameworkException {
@@ -43,38 +47,37 @@ public class RunFinishedRuns implements Runnable {
     }
 
     @Override
-    public void run() {
-        int defaultFinishedDelete = 300; // ** 5 minutes
+    public void loadSettings() {
+        int timeout = DEFAULT_FINISHED_DELETE;
         try { // TODO do we need a different timeout for automation run reset?
             String overrideTime = AbstractManager.nulled(cps.getProperty("resource.management", "finished.timeout"));
             if (overrideTime != null) {
-                defaultFinishedDelete = Integer.parseInt(overrideTime);
+                timeout = Integer.parseInt(overrideTime);
             }
         } catch (Exception e) {
-            logger.error("Problem with resource.management.finished.timeout, using default " + defaultFinishedDelete,
+            logger.error("Problem with resource.management.finished.timeout, using default " + DEFAULT_FINISHED_DELETE,
                     e);
         }
+        this.finishedDelete = timeout;
+    }
+
+    @Override
+    public Instant getDeadline(IRun run) {
+        if (!"finished".equals(run.getStatus()) || run.getFinished() == null) {
+            return null;
+        }
+        return run.getFinished().plusSeconds(this.finishedDelete);
+    }
+
+    @Override
+    public void run() {
+        loadSettings();
 
         logger.info("Starting Finished Run search");
         try {
             List<IRun> runs = frameworkRuns.getAllRuns();
             for (IRun run : runs) {
-                String runName = run.getName();
-
-                String status = run.getStatus();
-                if (!"finished".equals(status)) {
-                    continue;
-                }
-
-                Instant finished = run.getFinished();
-                Instant expires = finished.plusSeconds(defaultFinishedDelete);
-                Instant now = Instant.now();
-                if (expires.compareTo(now) <= 0) {
-                    String sFinished = dtf.format(LocalDateTime.ofInstant(finished, ZoneId.systemDefault()));
-                    /// TODO put time management into the framework
-                    logger.info("Deleting run " + runName + ", finished at " + sFinished);
-                    this.frameworkRuns.delete(runName);
-                }
+                checkRun(run);
             }
         } catch (FrameworkException e) {
             logger.error("Scan of runs failed", e);
@@ -84,4 +87,27 @@ public class RunFinishedRuns implements Runnable {
         logger.info("Finished Finished search");
     }
 
+    @Override
+    public void checkRun(IRun run) throws FrameworkException {
+        String runName = run.getName();
+
+        String status = run.getStatus();
+        if (!"finished".equals(status)) {
+            return;
+        }
+
+        Instant finished = run.getFinished();
+        if (finished == null) {
+            return;
+        }
+        Instant expires = finished.plusSeconds(this.finishedDelete);
+        Instant now = Instant.now();
+        if (expires.compareTo(now) <= 0) {
+            String sFinished = dtf.format(LocalDateTime.ofInstant(finished, ZoneId.systemDefault()));
+            /// TODO put time management into the framework
+            logger.info("Deleting run " + runName + ", finished at " + sFinished);
+            this.frameworkRuns.delete(runName);
+        }
+    }
+
 }
\ No newline at end of file
@@ -5,6 +5,8 @@
  */
 package dev.galasa.framework.resource.management.internal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -26,6 +28,7 @@ public class RunResourceManagement implements IResourceManagementProvider {
     private IResourceManagement                resourceManagement;
     private IDynamicStatusStoreService         dss;
     private IConfigurationPropertyStoreService cps;
+    private RunDeadlineIndex                   deadlineIndex;
 
     @Override
     public boolean initialise(IFramework framework, IResourceManagement resourceManagement)
@@ -45,10 +48,9 @@ public class RunResourceManagement implements IResourceManagementProvider {
     @Override
     public void start() {
 
+        RunDeadHeartbeatMonitor deadHeartbeatMonitor = null;
         try {
-            this.resourceManagement.getScheduledExecutorService().scheduleWithFixedDelay(
-                    new RunDeadHeartbeatMonitor(this.framework, this.resourceManagement, this.dss, this, cps),
-                    this.framework.getRandom().nextInt(20), 20, TimeUnit.SECONDS);
+            deadHeartbeatMonitor = new RunDeadHeartbeatMonitor(this.framework, this.resourceManagement, this.dss, this, cps);
         } catch (FrameworkException e) {
             logger.error("Unable to initialise Run Dead Heartbeat monitor", e);
         }
@@ -59,24 +61,45 @@ public class RunResourceManagement implements IResourceManagementProvider {
         } catch (FrameworkException e) {
             logger.error("Unable to initialise Run Dead Heartbeat monitor", e);
         }
+        RunFinishedRuns finishedRuns = null;
         try {
-            this.resourceManagement.getScheduledExecutorService().scheduleWithFixedDelay(
-                    new RunFinishedRuns(this.framework, this.resourceManagement, this.dss, this, cps),
-                    this.framework.getRandom().nextInt(20), 20, TimeUnit.SECONDS);
+            finishedRuns = new RunFinishedRuns(this.framework, this.resourceManagement, this.dss, this, cps);
         } catch (FrameworkException e) {
             logger.error("Unable to initialise Finished Run monitor", e);
         }
+        RunWaitingRuns waitingRuns = null;
         try {
-            this.resourceManagement.getScheduledExecutorService().scheduleWithFixedDelay(
-                    new RunWaitingRuns(this.framework, this.resourceManagement, this.dss, this, cps),
-                    this.framework.getRandom().nextInt(20), 20, TimeUnit.SECONDS);
+            waitingRuns = new RunWaitingRuns(this.framework, this.resourceManagement, this.dss, this, cps);
         } catch (FrameworkException e) {
             logger.error("Unable to initialise Finished Run monitor", e);
         }
+
+        List<IRunDeadlineCheck> checks = new ArrayList<>();
+        for (IRunDeadlineCheck check : new IRunDeadlineCheck[] { deadHeartbeatMonitor, finishedRuns, waitingRuns }) {
+            if (check != null) {
+                checks.add(check);
+            }
+        }
+
+        // *** Action runs as their deadlines fall due, rather than sweeping every run every 20 seconds
+        this.deadlineIndex = new RunDeadlineIndex(this.resourceManagement, this.dss, this.cps, checks);
+        try {
+            this.deadlineIndex.start(this.framework.getRandom().nextInt(20));
+        } catch (FrameworkException e) {
+            logger.warn("Unable to watch the runs, falling back to sweeping all the runs", e);
+            this.deadlineIndex = null;
+            for (IRunDeadlineCheck check : checks) {
+                this.resourceManagement.getScheduledExecutorService().scheduleWithFixedDelay((Runnable) check,
+                        this.framework.getRandom().nextInt(20), 20, TimeUnit.SECONDS);
+            }
+        }
     }
 
     @Override
     public void shutdown() {
+        if (this.deadlineIndex != null) {
+            this.deadlineIndex.shutdown();
+        }
     }
 
     @Override
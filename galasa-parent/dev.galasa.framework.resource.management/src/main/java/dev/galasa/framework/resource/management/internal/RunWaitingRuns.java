@@ -19,7 +19,7 @@ import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IResourceManagement;
 import dev.galasa.framework.spi.IRun;
 
-public class RunWaitingRuns implements Runnable {
+public class RunWaitingRuns implements Runnable, IRunDeadlineCheck {
 
     private final IResourceManagement        resourceManagement;
     private final IFrameworkRuns             frameworkRuns;
@@ -35,32 +35,25 @@ public class RunWaitingRuns implements Runnable {
         this.logger.info("Waiting Runs Monitor initialised");
     }
 
+    @Override
+    public void loadSettings() {
+    }
+
+    @Override
+    public Instant getDeadline(IRun run) {
+        if (!"waiting".equals(run.getStatus())) {
+            return null;
+        }
+        return run.getWaitUntil();
+    }
+
     @Override
     public void run() {
         logger.info("Starting Waiting Run search");
         try {
             List<IRun> runs = frameworkRuns.getAllRuns();
             for (IRun run : runs) {
-                String runName = run.getName();
-
-                String status = run.getStatus();
-                if (!"waiting".equals(status)) {
-                    continue;
-                }
-
-                Instant finished = run.getWaitUntil();
-                if (finished == null) {
-                    continue;
-                }
-                Instant now = Instant.now();
-                if (finished.compareTo(now) <= 0) {
-                    if (this.dss.putSwap("run." + run.getName() + ".status", "waiting", "queued")) {
-                        // *** Leave the queue time as is as we want the waiting runs to be actioned
-                        // before 1st time queued runs
-                        logger.info("Requeueing Waiting run " + runName);
-                        this.dss.delete("run." + run.getName() + ".wait.until");
-                    }
-                }
+                checkRun(run);
             }
         } catch (FrameworkException e) {
             logger.error("Scan of runs failed", e);
@@ -70,4 +63,28 @@ public class RunWaitingRuns implements Runnable {
         logger.info("Finished Waiting search");
     }
 
+    @Override
+    public void checkRun(IRun run) throws FrameworkException {
+        String runName = run.getName();
+
+        String status = run.getStatus();
+        if (!"waiting".equals(status)) {
+            return;
+        }
+
+        Instant finished = run.getWaitUntil();
+        if (finished == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (finished.compareTo(now) <= 0) {
+            if (this.dss.putSwap("run." + run.getName() + ".status", "waiting", "queued")) {
+                // *** Leave the queue time as is as we want the waiting runs to be actioned
+                // before 1st time queued runs
+                logger.info("Requeueing Waiting run " + runName);
+                this.dss.delete("run." + run.getName() + ".wait.until");
+            }
+        }
+    }
+
 }
\ No newline at end of file
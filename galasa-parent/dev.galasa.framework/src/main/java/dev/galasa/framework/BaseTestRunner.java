@@ -177,6 +177,8 @@ public class BaseTestRunner {
                 for (Property override : properties) {
                     overrideProperties.put(override.getKey(), override.getValue());
                 }
+                // *** The overrides were changed in place, so drop anything resolved from them already
+                this.framework.setFrameworkProperties(overrideProperties);
             }
         } catch(Exception e) {
             throw new TestRunException("Problem loading overrides from the run properties", e);
@@ -9,6 +9,14 @@ import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.text.*;
 
 import org.apache.commons.io.IOUtils;
@@ -22,14 +30,26 @@ import org.apache.felix.bundlerepository.Resolver;
 import org.apache.felix.bundlerepository.Resource;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.namespace.HostNamespace;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
 
+import dev.galasa.framework.ResolutionPlanCache.PlannedBundle;
+import dev.galasa.framework.maven.repository.spi.IMavenArtifactPrefetcher;
 import dev.galasa.framework.spi.FrameworkException;
 
 public class BundleManagement {
 
     private static final Log logger = LogFactory.getLog(BundleManagement.class);
 
+    private static final String PLAN_FILE           = "resolution-plans.properties";
+    private static final int    MAX_INSTALL_THREADS = 4;
+
+    private static ResolutionPlanCache planCache;
+
     /**
      * Load a bundle from the OSGi Bundle Repository
      * @param repositoryAdmin
@@ -40,6 +60,10 @@ public class BundleManagement {
     public static void loadBundle(RepositoryAdmin repositoryAdmin, BundleContext bundleContext, String bundleSymbolicName) throws FrameworkException {
 
         logger.trace("Installing bundle " + bundleSymbolicName);
+        if (deployPlan(repositoryAdmin, bundleContext, bundleSymbolicName)) {
+            return;
+        }
+
         Resolver resolver = repositoryAdmin.resolver();
         String filterString = "(symbolicname=" + bundleSymbolicName + ")";
         Resource[] resources = null;
@@ -53,7 +77,7 @@ public class BundleManagement {
                 throw new FrameworkException("Unable to locate bundle \"" + bundleSymbolicName + "\" in OBR repository");
             }
             // *** Only load the first one
-            addResource(bundleContext, bundleSymbolicName, resolver, resources[0]);
+            addResource(repositoryAdmin, bundleContext, bundleSymbolicName, resolver, resources[0]);
         } catch (FrameworkException e) {
             throw new FrameworkException("Unable to install bundle \"" + bundleSymbolicName + "\" from OBR repository",
                     e);
@@ -89,8 +113,9 @@ public class BundleManagement {
                     }
                 }
                 if(gherkinSupport) {
-                    if (!isBundleActive(bundleContext, resource.getSymbolicName())) {
-                        addResource(bundleContext, resource.getSymbolicName(), resolver, resource);
+                    if (!isBundleActive(bundleContext, resource.getSymbolicName())
+                            && !deployPlan(repositoryAdmin, bundleContext, resource.getSymbolicName())) {
+                        addResource(repositoryAdmin, bundleContext, resource.getSymbolicName(), resolver, resource);
                     }
                 }
             }
@@ -100,15 +125,189 @@ public class BundleManagement {
         }
     }
 
+    /**
+     * Install and start a bundle using the plan recorded the last time it was
+     * resolved, if there is one
+     * 
+     * @param repositoryAdmin
+     * @param bundleContext
+     * @param bundleSymbolicName
+     * @return true if the bundle is now active, false if it needs to be resolved
+     */
+    static boolean deployPlan(RepositoryAdmin repositoryAdmin, BundleContext bundleContext, String bundleSymbolicName) {
+        ResolutionPlanCache cache = getPlanCache(bundleContext);
+        List<PlannedBundle> plan = cache.getPlan(bundleSymbolicName, ResolutionPlanCache.getRepositoriesFingerprint(repositoryAdmin));
+        if (plan == null) {
+            return false;
+        }
+
+        logger.trace("Installing bundle " + bundleSymbolicName + " using the recorded resolution plan");
+        ArrayList<Bundle> installedByPlan = new ArrayList<>();
+        try {
+            List<Bundle> bundlesToStart = installPlannedBundles(bundleContext, plan, installedByPlan);
+            for (Bundle bundle : bundlesToStart) {
+                if (bundle.getHeaders().get(Constants.FRAGMENT_HOST) == null) {
+                    bundle.start();
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Resolution plan for bundle " + bundleSymbolicName + " failed, resolving the bundle instead", e);
+        }
+
+        if (!isBundleActive(bundleContext, bundleSymbolicName)) {
+            // *** Leave the framework as the plan found it, so the resolver starts from a clean slate
+            uninstallBundles(installedByPlan);
+            cache.removePlan(bundleSymbolicName);
+            return false;
+        }
+
+        printBundles(bundleContext);
+        return true;
+    }
+
+    /**
+     * Install the planned bundles that are not already installed. The bundles in a
+     * plan do not depend on each other until they are started, so they are
+     * installed in parallel. Every install is waited for, even if one fails, so
+     * that all the bundles installed by the plan are known.
+     * 
+     * @param installedByPlan - the bundles that were not already installed are
+     *                        added to this as they are installed
+     * @return the installed bundles, in plan order
+     */
+    private static List<Bundle> installPlannedBundles(BundleContext bundleContext, List<PlannedBundle> plan,
+            List<Bundle> installedByPlan) throws Exception {
+        ArrayList<Bundle> bundles = new ArrayList<>();
+        ArrayList<Future<Bundle>> installs = new ArrayList<>();
+
+        ExecutorService executor = null;
+        try {
+            for (PlannedBundle plannedBundle : plan) {
+                Bundle installed = findInstalledBundle(bundleContext, plannedBundle);
+                if (installed != null) {
+                    installs.add(null);
+                    bundles.add(installed);
+                    continue;
+                }
+
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(Math.min(plan.size(), MAX_INSTALL_THREADS));
+                }
+                installs.add(executor.submit(() -> bundleContext.installBundle(plannedBundle.getLocation())));
+                bundles.add(null);
+            }
+
+            FrameworkException failure = null;
+            for (int i = 0; i < installs.size(); i++) {
+                Future<Bundle> install = installs.get(i);
+                if (install != null) {
+                    try {
+                        Bundle bundle = install.get();
+                        bundles.set(i, bundle);
+                        installedByPlan.add(bundle);
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = new FrameworkException("Unable to install bundle " + plan.get(i).getLocation(), e.getCause());
+                        }
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        return bundles;
+    }
+
+    private static void uninstallBundles(List<Bundle> bundles) {
+        ArrayList<Bundle> reversed = new ArrayList<>(bundles);
+        Collections.reverse(reversed);
+        for (Bundle bundle : reversed) {
+            try {
+                bundle.uninstall();
+            } catch (Exception e) {
+                logger.warn("Unable to uninstall bundle " + bundle.getSymbolicName() + " after its resolution plan failed", e);
+            }
+        }
+    }
+
+    private static Bundle findInstalledBundle(BundleContext bundleContext, PlannedBundle plannedBundle) {
+        for (Bundle bundle : bundleContext.getBundles()) {
+            if (plannedBundle.getSymbolicName().equals(bundle.getSymbolicName())
+                    && plannedBundle.getVersion().equals(bundle.getVersion().toString())) {
+                return bundle;
+            }
+        }
+        return null;
+    }
+
+    private static synchronized ResolutionPlanCache getPlanCache(BundleContext bundleContext) {
+        if (planCache == null) {
+            planCache = new ResolutionPlanCache(bundleContext.getDataFile(PLAN_FILE));
+        }
+        return planCache;
+    }
+
+    private static PlannedBundle toPlannedBundle(Bundle bundle) {
+        return new PlannedBundle(bundle.getSymbolicName(), bundle.getVersion().toString(), bundle.getLocation());
+    }
+
+    /**
+     * Build the plan for a bundle from the bundles the resolver deployed and
+     * everything they are wired to. The resolver leaves out the dependencies that
+     * were already installed, which a later run may not have.
+     * 
+     * @param roots - the bundles the resolver deployed, the loaded bundle last
+     * @return the bundles to install, dependencies before the bundles using them
+     */
+    private static List<PlannedBundle> getDependencyClosure(List<Bundle> roots) {
+        ArrayList<PlannedBundle> plan = new ArrayList<>();
+        HashSet<Long> visited = new HashSet<>();
+        for (Bundle root : roots) {
+            addToClosure(root, visited, plan);
+        }
+        return plan;
+    }
+
+    private static void addToClosure(Bundle bundle, Set<Long> visited, List<PlannedBundle> plan) {
+        // *** The system bundle is always there
+        if (bundle.getBundleId() == 0 || !visited.add(bundle.getBundleId())) {
+            return;
+        }
+
+        BundleWiring wiring = bundle.adapt(BundleWiring.class);
+        if (wiring != null) {
+            for (BundleWire wire : wiring.getRequiredWires(null)) {
+                addToClosure(wire.getProviderWiring().getBundle(), visited, plan);
+            }
+            // *** Fragments are not required by anything, but are wired to their host
+            for (BundleWire wire : wiring.getProvidedWires(HostNamespace.HOST_NAMESPACE)) {
+                addToClosure(wire.getRequirerWiring().getBundle(), visited, plan);
+            }
+        }
+        plan.add(toPlannedBundle(bundle));
+    }
+
+    private static Bundle findInstalledBundle(BundleContext bundleContext, Resource resource) {
+        return findInstalledBundle(bundleContext, new PlannedBundle(resource.getSymbolicName(), resource.getVersion().toString(), resource.getURI()));
+    }
+
     /**
      * Add the Resource to the Resolver and resolve
      * 
+     * @param repositoryAdmin
+     * @param bundleContext
      * @param bundleSymbolicName
      * @param resolver
      * @param resource
-     * @throws LauncherException
+     * @throws FrameworkException
      */
-    private static void addResource(BundleContext bundleContext, String bundleSymbolicName, Resolver resolver, Resource resource) throws FrameworkException {
+    static void addResource(RepositoryAdmin repositoryAdmin, BundleContext bundleContext, String bundleSymbolicName, Resolver resolver, Resource resource) throws FrameworkException {
         logger.trace("Resouce: " + resource);
         resolver.add(resource);
 
@@ -138,6 +337,7 @@ public class BundleManagement {
                 }
             }
 
+            prefetchResources(bundleContext, resolver, resource);
 
             if (!resourceHasReferenceUrl) {
                 resolver.deploy(Resolver.START);
@@ -180,6 +380,21 @@ public class BundleManagement {
                 throw new FrameworkException(msg);
             }
 
+            // *** Record what was installed, so the next load of this bundle can skip the resolve
+            ArrayList<Bundle> deployed = new ArrayList<>();
+            ArrayList<Resource> deployedResources = new ArrayList<>();
+            Collections.addAll(deployedResources, resolver.getRequiredResources());
+            Collections.addAll(deployedResources, resolver.getOptionalResources());
+            deployedResources.add(resource);
+            for (Resource deployedResource : deployedResources) {
+                Bundle bundle = findInstalledBundle(bundleContext, deployedResource);
+                if (bundle != null) {
+                    deployed.add(bundle);
+                }
+            }
+            getPlanCache(bundleContext).putPlan(bundleSymbolicName, ResolutionPlanCache.getRepositoriesFingerprint(repositoryAdmin),
+                    getDependencyClosure(deployed));
+
             printBundles(bundleContext);
         } else {
             logger.error("Unable to resolve " + resource.toString());
@@ -192,6 +407,35 @@ public class BundleManagement {
 
     }
 
+    /**
+     * Start fetching the bundles the resolver chose, so the installs, which are
+     * done one at a time, do not each wait for a download
+     */
+    private static void prefetchResources(BundleContext bundleContext, Resolver resolver, Resource resource) {
+        ServiceReference<IMavenArtifactPrefetcher> prefetcherService = bundleContext.getServiceReference(IMavenArtifactPrefetcher.class);
+        if (prefetcherService == null) {
+            return;
+        }
+        IMavenArtifactPrefetcher prefetcher = bundleContext.getService(prefetcherService);
+        if (prefetcher == null) {
+            return;
+        }
+
+        try {
+            ArrayList<String> artifactUrls = new ArrayList<>();
+            for (Resource requiredResource : resolver.getRequiredResources()) {
+                artifactUrls.add(requiredResource.getURI());
+            }
+            for (Resource optionalResource : resolver.getOptionalResources()) {
+                artifactUrls.add(optionalResource.getURI());
+            }
+            artifactUrls.add(resource.getURI());
+            prefetcher.prefetch(artifactUrls);
+        } finally {
+            bundleContext.ungetService(prefetcherService);
+        }
+    }
+
     /**
      * Is the supplied active in the OSGi framework
      * @param bundleContext
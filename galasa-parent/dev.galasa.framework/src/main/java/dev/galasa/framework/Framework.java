@@ -8,6 +8,7 @@ package dev.galasa.framework;
 import java.net.URL;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +29,7 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.ServiceScope;
 
 import dev.galasa.framework.internal.auth.FrameworkAuthStoreService;
+import dev.galasa.framework.internal.cps.FrameworkConfigurationPropertyCache;
 import dev.galasa.framework.internal.cps.FrameworkConfigurationPropertyService;
 import dev.galasa.framework.internal.creds.FrameworkCredentialsService;
 import dev.galasa.framework.internal.dss.FrameworkDynamicStatusStoreService;
@@ -63,6 +65,7 @@ public class Framework implements IFramework, IShuttableFramework {
     private IAuthStore                         authStore;
 
     private IConfigurationPropertyStoreService cpsFramework;
+    private final ConcurrentHashMap<String, FrameworkConfigurationPropertyCache> cpsCaches = new ConcurrentHashMap<>();
     @SuppressWarnings("unused")
     private ICredentialsService                credsFramework;
 
@@ -102,6 +105,7 @@ public class Framework implements IFramework, IShuttableFramework {
 
     public void setFrameworkProperties(Properties overridesProperties) {
         this.overrideProperties = overridesProperties;
+        invalidateConfigurationPropertyCaches(); // *** Cached resolutions may have come from the old overrides
     }
 
     @Override
@@ -135,7 +139,32 @@ public class Framework implements IFramework, IShuttableFramework {
         }
 
         return new FrameworkConfigurationPropertyService(this, this.cpsStore, this.overrideProperties,
-                this.recordProperties, namespace);
+                this.recordProperties, namespace, getConfigurationPropertyCache(namespace));
+    }
+
+    private FrameworkConfigurationPropertyCache getConfigurationPropertyCache(String namespace)
+            throws ConfigurationPropertyStoreException {
+        FrameworkConfigurationPropertyCache cache = this.cpsCaches.get(namespace);
+        if (cache != null) {
+            return cache;
+        }
+
+        cache = new FrameworkConfigurationPropertyCache(this.cpsStore);
+        if (!cache.isTrackingChanges()) {
+            return null; // *** The CPS cannot tell us when it has changed, so do not cache
+        }
+
+        FrameworkConfigurationPropertyCache existing = this.cpsCaches.putIfAbsent(namespace, cache);
+        if (existing != null) {
+            return existing;
+        }
+        return cache;
+    }
+
+    private void invalidateConfigurationPropertyCaches() {
+        for (FrameworkConfigurationPropertyCache cache : this.cpsCaches.values()) {
+            cache.invalidate();
+        }
     }
 
     /*
@@ -479,6 +508,7 @@ public class Framework implements IFramework, IShuttableFramework {
         if (this.cpsStore != null) {
             try {
                 shutdownLogger.trace("Shutting down the Configuration Properties Store");
+                this.cpsCaches.clear();
                 this.cpsStore.shutdown();
                 this.cpsStore = null;
             } catch (Throwable t) {
@@ -166,6 +166,8 @@ public class FrameworkInitialisation implements IFrameworkInitialisation {
                 }
                 overrideProperties.put(key, value);
             }
+            // *** The overrides were changed in place, so drop anything resolved from them already
+            this.framework.setFrameworkProperties(overrideProperties);
         }
     }
 
@@ -6,10 +6,10 @@
 package dev.galasa.framework;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -27,15 +27,21 @@ import com.google.gson.JsonArray;
 
 import dev.galasa.framework.beans.Property;
 import dev.galasa.framework.beans.SubmitRunRequest;
+import dev.galasa.framework.beans.SubmitRunResult;
 import dev.galasa.framework.spi.AbstractManager;
 import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.DssAdd;
+import dev.galasa.framework.spi.DssUpdate;
 import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.DynamicStatusStoreMatchException;
 import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IDssAction;
 import dev.galasa.framework.spi.IDynamicStatusStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunsSnapshot;
 import dev.galasa.framework.spi.utils.GalasaGson;
 import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
 
@@ -56,102 +62,68 @@ public class FrameworkRuns implements IFrameworkRuns {
 
     private final String                             RUN_PREFIX   = "run.";
 
+    // *** Keep bulk submission transactions within the 128 operations etcd allows by default
+    private static final int                         MAX_ACTIONS_PER_TRANSACTION = 120;
+
     private final GalasaGson gson = new GalasaGson();
 
+    private final RunNumberAllocator                 runNumbers;
+
     public FrameworkRuns(IFramework framework) throws FrameworkException {
         this.framework = framework;
         this.dss = framework.getDynamicStatusStoreService("framework");
         this.cps = framework.getConfigurationPropertyService("framework");
+        this.runNumbers = new RunNumberAllocator(this.dss, framework);
         gson.setGsonBuilder(new GalasaGsonBuilder(false));
     }
 
     @Override
     public List<IRun> getActiveRuns() throws FrameworkException {
-
-        List<IRun> runs = getAllRuns();
-        Iterator<IRun> iruns = runs.iterator();
-        while (iruns.hasNext()) {
-            IRun run = iruns.next();
-
-            if (run.getHeartbeat() != null) {
-                continue;
-            }
-
-            if ("allocated".equals(run.getStatus())) {
-                continue;
-            }
-
-            if (run.isSharedEnvironment()) {
-                continue;
-            }
-
-            iruns.remove();
-        }
-
-        return runs;
+        return getRunsSnapshot().getActiveRuns();
     }
 
     @Override
     public @NotNull List<IRun> getQueuedRuns() throws FrameworkException {
-        List<IRun> runs = getAllRuns();
-        Iterator<IRun> iruns = runs.iterator();
-        while (iruns.hasNext()) {
-            IRun run = iruns.next();
-
-            if (!"queued".equals(run.getStatus())) {
-                iruns.remove();
-            }
-        }
-
-        return runs;
+        return getRunsSnapshot().getQueuedRuns();
     }
 
     @Override
     public List<IRun> getAllRuns() throws FrameworkException {
-        HashMap<String, IRun> runs = new HashMap<>();
+        return getRunsSnapshot().getAllRuns();
+    }
 
+    @Override
+    public @NotNull RunsSnapshot getRunsSnapshot() throws FrameworkException {
         logger.trace("Fetching all runs from DSS");
         Map<String, String> runProperties = dss.getPrefix(RUN_PREFIX);
         logger.trace("Fetched all runs from DSS");
-        for (String key : runProperties.keySet()) {
-            Matcher matcher = runPattern.matcher(key);
+
+        // *** Split the properties by run name so each run is built from the one fetch
+        HashMap<String, Map<String, String>> propertiesByRun = new HashMap<>();
+        for (Map.Entry<String, String> entry : runProperties.entrySet()) {
+            Matcher matcher = runPattern.matcher(entry.getKey());
             if (matcher.find()) {
                 String runName = matcher.group(1);
-
-                if (!runs.containsKey(runName)) {
-                    runs.put(runName, new RunImpl(runName, this.dss));
-                }
+                propertiesByRun.computeIfAbsent(runName, k -> new HashMap<>()).put(entry.getKey(), entry.getValue());
             }
         }
 
-        LinkedList<IRun> returnRuns = new LinkedList<>(runs.values());
+        List<IRun> runs = new ArrayList<>(propertiesByRun.size());
+        for (Map.Entry<String, Map<String, String>> entry : propertiesByRun.entrySet()) {
+            runs.add(new RunImpl(entry.getKey(), entry.getValue()));
+        }
 
-        return returnRuns;
+        return new RunsSnapshot(runs);
     }
 
     @Override
     public List<IRun> getAllGroupedRuns(@NotNull String groupName) throws FrameworkException {
-        List<IRun> allRuns = this.getAllRuns();
-        List<IRun> groupedRuns = new LinkedList<IRun>();
-
-        for (IRun run : allRuns) {
-            if (groupName.equals(run.getGroup())) {
-                groupedRuns.add(run);
-            }
-        }
-        return groupedRuns;
+        return getRunsSnapshot().getGroupedRuns(groupName);
     }
 
     @Override
     public @NotNull Set<String> getActiveRunNames() throws FrameworkException {
-        List<IRun> runs = getActiveRuns();
-
-        HashSet<String> runNames = new HashSet<>();
-        for (IRun run : runs) {
-            runNames.add(run.getName());
-        }
-
-        return runNames;
+        return getRunsSnapshot().getActiveRunNames();
     }
 
     private @NotNull IRun submitRun(SubmitRunRequest runRequest) throws FrameworkException {
@@ -199,10 +171,150 @@ public class FrameworkRuns implements IFrameworkRuns {
         return submitRun(runRequest);
     }
 
+    @Override
+    public @NotNull List<SubmitRunResult> submitRuns(@NotNull List<SubmitRunRequest> runRequests) {
+        SubmitRunResult[] results = new SubmitRunResult[runRequests.size()];
+
+        // *** Fill in the defaults and group the runs by the prefix they will be numbered from
+        LinkedHashMap<String, List<Integer>> requestsByPrefix = new LinkedHashMap<>();
+        for (int i = 0; i < runRequests.size(); i++) {
+            SubmitRunRequest runRequest = runRequests.get(i);
+            try {
+                setRunRequestDefaultsIfNotSet(runRequest);
+                if (runRequest.getSharedEnvironmentPhase() != null) {
+                    results[i] = new SubmitRunResult(submitSharedEnvironmentRun(runRequest));
+                    continue;
+                }
+
+                String typePrefix = getRunTypePrefix(runRequest.getRunType());
+                requestsByPrefix.computeIfAbsent(typePrefix, k -> new ArrayList<>()).add(i);
+            } catch (FrameworkException e) {
+                results[i] = new SubmitRunResult(e);
+            }
+        }
+
+        // *** Allocate all the run names up front, then write the runs in batched transactions
+        ArrayList<PendingRun> batch = new ArrayList<>();
+        int batchActions = 0;
+        for (Map.Entry<String, List<Integer>> entry : requestsByPrefix.entrySet()) {
+            String typePrefix = entry.getKey();
+            List<Integer> indexes = entry.getValue();
+
+            int[] numbers;
+            try {
+                int maxNumber = getPrefixMaxNumber(typePrefix);
+                if (indexes.size() > maxNumber) {
+                    throw new FrameworkException("Not enough request type numbers available for " + indexes.size() + " runs");
+                }
+                numbers = this.runNumbers.nextNumbers(typePrefix, maxNumber, indexes.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failRuns(results, indexes, new FrameworkException("Interrupted", e));
+                continue;
+            } catch (Exception e) {
+                failRuns(results, indexes, new FrameworkException("Problem submitting job", e));
+                continue;
+            }
+
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                PendingRun pendingRun = new PendingRun(index, typePrefix + numbers[i], runRequests.get(index));
+
+                if (!batch.isEmpty() && batchActions + pendingRun.properties.size() > MAX_ACTIONS_PER_TRANSACTION) {
+                    storeRuns(batch, results);
+                    batch.clear();
+                    batchActions = 0;
+                }
+                batch.add(pendingRun);
+                batchActions += pendingRun.properties.size();
+            }
+        }
+        storeRuns(batch, results);
+
+        return Arrays.asList(results);
+    }
+
+    private class PendingRun {
+        private final int                     index;
+        private final String                  runName;
+        private final SubmitRunRequest        runRequest;
+        private final HashMap<String, String> properties;
+
+        private PendingRun(int index, String runName, SubmitRunRequest runRequest) {
+            this.index = index;
+            this.runName = runName;
+            this.runRequest = runRequest;
+            this.properties = getRunProperties(runName, runRequest);
+            this.properties.put(RUN_PREFIX + runName + ".test", runRequest.getBundleTest());
+        }
+    }
+
+    private void storeRuns(List<PendingRun> batch, SubmitRunResult[] results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        ArrayList<IDssAction> actions = new ArrayList<>();
+        for (PendingRun pendingRun : batch) {
+            String testKey = RUN_PREFIX + pendingRun.runName + ".test";
+            for (Map.Entry<String, String> property : pendingRun.properties.entrySet()) {
+                if (property.getKey().equals(testKey)) {
+                    actions.add(new DssAdd(property.getKey(), property.getValue())); // *** Fails if the run name is in use
+                } else {
+                    actions.add(new DssUpdate(property.getKey(), property.getValue()));
+                }
+            }
+        }
+
+        try {
+            this.dss.performActions(actions.toArray(new IDssAction[actions.size()]));
+            for (PendingRun pendingRun : batch) {
+                results[pendingRun.index] = new SubmitRunResult(new RunImpl(pendingRun.runName, pendingRun.properties));
+            }
+            return;
+        } catch (DynamicStatusStoreMatchException e) {
+            logger.debug("A run name in the batch is already in use, storing the batch run by run");
+        } catch (DynamicStatusStoreException e) {
+            for (PendingRun pendingRun : batch) {
+                results[pendingRun.index] = new SubmitRunResult(new FrameworkException("Problem submitting job", e));
+            }
+            return;
+        }
+
+        for (PendingRun pendingRun : batch) {
+            try {
+                if (storeRun(pendingRun.runName, pendingRun.runRequest)) {
+                    results[pendingRun.index] = new SubmitRunResult(new RunImpl(pendingRun.runName, pendingRun.properties));
+                } else {
+                    String runName = assignNewRunName(pendingRun.runRequest);
+                    results[pendingRun.index] = new SubmitRunResult(new RunImpl(runName, this.dss));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results[pendingRun.index] = new SubmitRunResult(new FrameworkException("Interrupted", e));
+            } catch (Exception e) {
+                results[pendingRun.index] = new SubmitRunResult(new FrameworkException("Problem submitting job", e));
+            }
+        }
+    }
+
+    private void failRuns(SubmitRunResult[] results, List<Integer> indexes, FrameworkException error) {
+        for (int index : indexes) {
+            results[index] = new SubmitRunResult(error);
+        }
+    }
+
     private boolean storeRun(String runName, SubmitRunRequest runRequest) throws DynamicStatusStoreException {
+        HashMap<String, String> otherRunProperties = getRunProperties(runName, runRequest);
+
+        // *** See if we can setup the runnumber properties (clashes possible if low max
+        // number or sharing prefix
+        return this.dss.putSwap(RUN_PREFIX + runName + ".test", null, runRequest.getBundleTest(), otherRunProperties);
+    }
+
+    private HashMap<String, String> getRunProperties(String runName, SubmitRunRequest runRequest) {
         String bundleName = runRequest.getBundleName();
         String testName = runRequest.getTestName();
-        String bundleTest = runRequest.getBundleTest();
         String gherkinTest = runRequest.getGherkinTest();
         String runType = runRequest.getRunType();
         String mavenRepository = runRequest.getMavenRepository();
@@ -264,9 +376,7 @@ public class FrameworkRuns implements IFrameworkRuns {
             otherRunProperties.put(runPropertyPrefix + ".overrides", gson.toJson(overridesArray));
         }
 
-        // *** See if we can setup the runnumber properties (clashes possible if low max
-        // number or sharing prefix
-        return this.dss.putSwap(runPropertyPrefix + ".test", null, bundleTest, otherRunProperties);
+        return otherRunProperties;
     }
 
     @Override
@@ -369,38 +479,17 @@ public class FrameworkRuns implements IFrameworkRuns {
 
         // *** Now loop until we find the next free number for this run type
         String runName = null;
-        boolean maxlooped = false;
+        RunNumberAllocator.Search search = new RunNumberAllocator.Search();
         while (runName == null) {
-            String pLastused = "request.prefix." + typePrefix + ".lastused";
-            String sLatestNumber = this.dss.get(pLastused);
-            int latestNumber = 0;
-            if (sLatestNumber != null && !sLatestNumber.trim().isEmpty()) {
-                latestNumber = Integer.parseInt(sLatestNumber);
-            }
-
-            // *** Add 1 to the run number and see if we get it
-            latestNumber++;
-            if (latestNumber > maxNumber) { // *** have we gone past the maximum number
-                if (maxlooped) {
-                    throw new FrameworkException("Not enough request type numbers available, looped twice");
-                }
-                latestNumber = 1;
-                maxlooped = true; // *** Safety check to make sure we havent gone through all the numbers again
-            }
-
-            String sNewNumber = Integer.toString(latestNumber);
-            if (!this.dss.putSwap(pLastused, sLatestNumber, sNewNumber)) {
-                Thread.sleep(this.framework.getRandom().nextInt(200)); // *** Wait for a bit, to avoid race
-                // conditions
-                continue; // Try again with the new latest number
+            int latestNumber = this.runNumbers.nextNumber(typePrefix, maxNumber);
+            if (!search.isUntried(latestNumber)) {
+                throw new FrameworkException("Not enough request type numbers available, looped twice");
             }
 
-            String tempRunName = typePrefix + sNewNumber;
+            String tempRunName = typePrefix + Integer.toString(latestNumber);
 
             if (!storeRun(tempRunName, runRequest)) {
-                Thread.sleep(this.framework.getRandom().nextInt(200)); // *** Wait for a bit, to avoid race
-                // conditions
-                continue; // *** Try again
+                continue; // *** Run name already in use, try the next number
             }
 
             runName = tempRunName; // *** Got it
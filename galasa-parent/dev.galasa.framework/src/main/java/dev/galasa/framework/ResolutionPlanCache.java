@@ -0,0 +1,203 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.felix.bundlerepository.Repository;
+import org.apache.felix.bundlerepository.RepositoryAdmin;
+
+/**
+ * Remembers the bundles the OBR resolver decided to install for a bundle, so
+ * that loading the same bundle again does not need a full resolve.
+ *
+ * A plan is only valid for the OBR content it was resolved against, so the
+ * plans are tagged with a fingerprint of the loaded repositories and all of them
+ * are dropped when the fingerprint changes. The plans are kept in a file, if
+ * one is provided, so they can be reused by later runs that share the same
+ * bundle storage.
+ */
+public class ResolutionPlanCache {
+
+    private static final String FINGERPRINT_PROP = "repositories";
+    private static final String PLAN_PROP_PREFIX = "plan.";
+    private static final String BUNDLE_SEPARATOR = "\n";
+    private static final String FIELD_SEPARATOR  = "|";
+
+    private final Log        logger = LogFactory.getLog(ResolutionPlanCache.class);
+
+    private final File       planFile;
+    private final Properties plans  = new Properties();
+
+    /**
+     * A bundle to be installed and started as part of a plan
+     */
+    public static class PlannedBundle {
+        private final String symbolicName;
+        private final String version;
+        private final String location;
+
+        public PlannedBundle(String symbolicName, String version, String location) {
+            this.symbolicName = symbolicName;
+            this.version = version;
+            this.location = location;
+        }
+
+        public String getSymbolicName() {
+            return symbolicName;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        private String encode() {
+            return symbolicName + FIELD_SEPARATOR + version + FIELD_SEPARATOR + location;
+        }
+
+        private static PlannedBundle decode(String encoded) {
+            String[] fields = encoded.split("\\" + FIELD_SEPARATOR, 3);
+            if (fields.length != 3) {
+                return null;
+            }
+            return new PlannedBundle(fields[0], fields[1], fields[2]);
+        }
+    }
+
+    /**
+     * @param planFile the file to keep the plans in, or null to only keep them in
+     *                 memory
+     */
+    public ResolutionPlanCache(File planFile) {
+        this.planFile = planFile;
+
+        if (planFile != null && planFile.exists()) {
+            try (InputStream is = new FileInputStream(planFile)) {
+                this.plans.load(is);
+            } catch (IOException e) {
+                logger.warn("Unable to read the bundle resolution plans from " + planFile + ", ignoring them", e);
+                this.plans.clear();
+            }
+        }
+    }
+
+    /**
+     * Calculate the fingerprint of the repositories loaded into the repository
+     * admin service
+     *
+     * @param repositoryAdmin the repository admin service
+     * @return the fingerprint
+     */
+    public static String getRepositoriesFingerprint(RepositoryAdmin repositoryAdmin) {
+        ArrayList<String> parts = new ArrayList<>();
+        Repository[] repositories = repositoryAdmin.listRepositories();
+        if (repositories != null) {
+            for (Repository repository : repositories) {
+                parts.add(repository.getURI() + "@" + repository.getLastModified());
+            }
+        }
+        Collections.sort(parts);
+        return String.join(" ", parts);
+    }
+
+    /**
+     * @param bundleSymbolicName the bundle to be loaded
+     * @param fingerprint        the fingerprint of the current repositories
+     * @return the bundles to install and start, in order, or null if there is no
+     *         usable plan for the bundle
+     */
+    public synchronized List<PlannedBundle> getPlan(String bundleSymbolicName, String fingerprint) {
+        if (!fingerprint.equals(this.plans.getProperty(FINGERPRINT_PROP))) {
+            return null;
+        }
+
+        String plan = this.plans.getProperty(PLAN_PROP_PREFIX + bundleSymbolicName);
+        if (plan == null || plan.isEmpty()) {
+            return null;
+        }
+
+        ArrayList<PlannedBundle> bundles = new ArrayList<>();
+        for (String encoded : plan.split(BUNDLE_SEPARATOR)) {
+            PlannedBundle bundle = PlannedBundle.decode(encoded);
+            if (bundle == null) {
+                return null;
+            }
+            bundles.add(bundle);
+        }
+        return bundles;
+    }
+
+    /**
+     * Record the plan the resolver produced for a bundle
+     *
+     * @param bundleSymbolicName the bundle that was loaded
+     * @param fingerprint        the fingerprint of the current repositories
+     * @param bundles            the bundles that were installed and started, in
+     *                           order
+     */
+    public synchronized void putPlan(String bundleSymbolicName, String fingerprint, List<PlannedBundle> bundles) {
+        if (!fingerprint.equals(this.plans.getProperty(FINGERPRINT_PROP))) {
+            // *** The repositories have changed, so none of the old plans can be trusted
+            this.plans.clear();
+            this.plans.setProperty(FINGERPRINT_PROP, fingerprint);
+        }
+
+        ArrayList<String> encoded = new ArrayList<>();
+        for (PlannedBundle bundle : bundles) {
+            encoded.add(bundle.encode());
+        }
+        this.plans.setProperty(PLAN_PROP_PREFIX + bundleSymbolicName, String.join(BUNDLE_SEPARATOR, encoded));
+        save();
+    }
+
+    /**
+     * Forget the plan for a bundle, because it did not work
+     *
+     * @param bundleSymbolicName the bundle
+     */
+    public synchronized void removePlan(String bundleSymbolicName) {
+        if (this.plans.remove(PLAN_PROP_PREFIX + bundleSymbolicName) != null) {
+            save();
+        }
+    }
+
+    private void save() {
+        if (this.planFile == null) {
+            return;
+        }
+
+        // *** Write then rename, so a run that dies part way through cannot leave a partial file
+        File tempFile = new File(this.planFile.getPath() + ".tmp");
+        try {
+            try (OutputStream os = new FileOutputStream(tempFile)) {
+                this.plans.store(os, "Galasa bundle resolution plans");
+            }
+            if (!tempFile.renameTo(this.planFile)) {
+                this.planFile.delete();
+                if (!tempFile.renameTo(this.planFile)) {
+                    throw new IOException("Unable to rename " + tempFile);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to save the bundle resolution plans to " + this.planFile, e);
+        }
+    }
+}
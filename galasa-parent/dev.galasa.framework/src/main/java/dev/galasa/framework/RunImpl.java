@@ -38,12 +38,18 @@ public class RunImpl implements IRun {
     private final String  rasRunId;
 
     public RunImpl(String name, IDynamicStatusStoreService dss) throws DynamicStatusStoreException {
+        this(name, dss.getPrefix("run." + name));
+    }
+
+    /**
+     * Builds the run from properties that have already been fetched from the DSS.
+     * The map may contain properties for other runs, only the "run.<name>." keys are used.
+     */
+    public RunImpl(String name, Map<String, String> runProperties) {
         this.name = name;
 
         String prefix = "run." + name + ".";
 
-        Map<String, String> runProperties = dss.getPrefix("run." + this.name);
-
         String sHeartbeat = runProperties.get(prefix + "heartbeat");
         if (sHeartbeat != null) {
             this.heartbeat = Instant.parse(sHeartbeat);
@@ -0,0 +1,191 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import java.util.HashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IFramework;
+
+/**
+ * Hands out run numbers for each run type prefix from a range leased from the
+ * "request.prefix.&lt;prefix&gt;.lastused" DSS property, so that a submitter
+ * does not swap that one property for every run it submits.
+ *
+ * A lease starts at a single number. While leases are used up before they
+ * expire, each new lease is twice the size of the last, up to a maximum, so a
+ * burst of submissions such as a large group only swaps the property a handful
+ * of times. An expired lease hands its unused numbers back if no other
+ * submitter has leased since, otherwise they are skipped. Skipping is safe,
+ * run numbers do not need to be contiguous.
+ */
+class RunNumberAllocator {
+
+    static final int                 MAX_LEASE_SIZE  = 100;
+    static final long                LEASE_EXPIRY_MS = 30000;
+
+    private final Log                logger          = LogFactory.getLog(getClass());
+
+    private final IDynamicStatusStoreService dss;
+    private final IFramework         framework;
+
+    private final HashMap<String, Lease> leases      = new HashMap<>();
+
+    private static class Lease {
+        private int  next;
+        private int  end;
+        private int  size;
+        private long expires;
+
+        private boolean isUsedUp() {
+            return this.next > this.end;
+        }
+    }
+
+    /**
+     * Follows the numbers handed out while looking for a free run name, so the
+     * search can stop once it has come round to the number it started from. The
+     * wrap is remembered, as it may happen on the very first lease.
+     */
+    static class Search {
+        private int     startedFrom = 0;
+        private int     last;
+        private boolean wrapped;
+
+        /**
+         * @param number - the number just handed out
+         * @return false if every number has already been tried
+         */
+        boolean isUntried(int number) {
+            if (this.startedFrom == 0) {
+                this.startedFrom = number;
+                this.last = number;
+                return true;
+            }
+
+            if (number <= this.last) {
+                this.wrapped = true; // *** Gone past the maximum number
+            }
+            this.last = number;
+            return !(this.wrapped && number >= this.startedFrom);
+        }
+    }
+
+    RunNumberAllocator(IDynamicStatusStoreService dss, IFramework framework) {
+        this.dss = dss;
+        this.framework = framework;
+    }
+
+    /**
+     * Get the next run number for the prefix
+     *
+     * @param typePrefix - the run type prefix
+     * @param maxNumber  - the highest run number for the prefix, numbers wrap back
+     *                   to 1 after this
+     * @return the run number
+     */
+    synchronized int nextNumber(String typePrefix, int maxNumber) throws DynamicStatusStoreException, InterruptedException {
+        Lease lease = this.leases.get(typePrefix);
+        long now = System.currentTimeMillis();
+
+        if (lease != null && !lease.isUsedUp() && (lease.expires < now || lease.end > maxNumber)) {
+            releaseUnused(typePrefix, lease);
+        }
+
+        if (lease == null || lease.isUsedUp()) {
+            int size = 1;
+            if (lease != null && lease.isUsedUp() && lease.expires >= now) {
+                size = Math.min(lease.size * 2, MAX_LEASE_SIZE); // *** Used up while still fresh, so lease more
+            }
+            lease = takeLease(typePrefix, maxNumber, size);
+            this.leases.put(typePrefix, lease);
+        }
+
+        return lease.next++;
+    }
+
+    /**
+     * Get a run number for each of a batch of runs, leasing however many numbers
+     * the current lease does not cover in one go
+     *
+     * @param typePrefix - the run type prefix
+     * @param maxNumber  - the highest run number for the prefix, numbers wrap back
+     *                   to 1 after this
+     * @param count      - how many numbers are needed, no more than maxNumber
+     * @return the run numbers
+     */
+    synchronized int[] nextNumbers(String typePrefix, int maxNumber, int count) throws DynamicStatusStoreException, InterruptedException {
+        int[] numbers = new int[count];
+        Lease lease = this.leases.get(typePrefix);
+
+        if (lease != null && !lease.isUsedUp() && (lease.expires < System.currentTimeMillis() || lease.end > maxNumber)) {
+            releaseUnused(typePrefix, lease);
+        }
+
+        int taken = 0;
+        while (taken < count) {
+            if (lease == null || lease.isUsedUp()) {
+                lease = takeLease(typePrefix, maxNumber, count - taken);
+                lease.size = Math.min(lease.size, MAX_LEASE_SIZE);
+                this.leases.put(typePrefix, lease);
+            }
+
+            while (taken < count && !lease.isUsedUp()) {
+                numbers[taken++] = lease.next++;
+            }
+        }
+
+        return numbers;
+    }
+
+    private Lease takeLease(String typePrefix, int maxNumber, int size) throws DynamicStatusStoreException, InterruptedException {
+        String pLastused = "request.prefix." + typePrefix + ".lastused";
+        while (true) {
+            String sLatestNumber = this.dss.get(pLastused);
+            int latestNumber = 0;
+            if (sLatestNumber != null && !sLatestNumber.trim().isEmpty()) {
+                latestNumber = Integer.parseInt(sLatestNumber);
+            }
+
+            // *** The lease starts after the last used number, wrapping if we have gone past the maximum
+            int start = latestNumber + 1;
+            if (start > maxNumber || start < 1) {
+                start = 1;
+            }
+            int end = (int) Math.min((long) start + size - 1, maxNumber);
+
+            if (!this.dss.putSwap(pLastused, sLatestNumber, Integer.toString(end))) {
+                Thread.sleep(this.framework.getRandom().nextInt(200)); // *** Wait for a bit, to avoid race conditions
+                continue; // Try again with the new latest number
+            }
+
+            Lease lease = new Lease();
+            lease.next = start;
+            lease.end = end;
+            lease.size = size;
+            lease.expires = System.currentTimeMillis() + LEASE_EXPIRY_MS;
+            return lease;
+        }
+    }
+
+    private void releaseUnused(String typePrefix, Lease lease) {
+        // *** Only possible if no one has leased numbers since, otherwise the unused numbers are skipped
+        String pLastused = "request.prefix." + typePrefix + ".lastused";
+        try {
+            if (this.dss.putSwap(pLastused, Integer.toString(lease.end), Integer.toString(lease.next - 1))) {
+                logger.trace("Returned run numbers " + typePrefix + lease.next + " to " + typePrefix + lease.end);
+            }
+        } catch (DynamicStatusStoreException e) {
+            logger.warn("Unable to return unused run numbers for prefix " + typePrefix, e);
+        }
+        lease.next = lease.end + 1;
+        lease.expires = 0; // *** So the next lease starts small again
+    }
+}
@@ -5,21 +5,15 @@
  */
 package dev.galasa.framework;
 
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.text.*;
 
 import javax.validation.constraints.NotNull;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.felix.bundlerepository.Reason;
 import org.apache.felix.bundlerepository.RepositoryAdmin;
 import org.apache.felix.bundlerepository.Resolver;
 import org.apache.felix.bundlerepository.Resource;
@@ -270,6 +264,10 @@ public class TestRunManagers implements ITestRunManagers {
     private void loadBundle(String bundleSymbolicName) throws FrameworkException {
 
         logger.trace("Installing bundle " + bundleSymbolicName);
+        if (BundleManagement.deployPlan(repositoryAdmin, bundleContext, bundleSymbolicName)) {
+            return;
+        }
+
         Resolver resolver = repositoryAdmin.resolver();
         String filterString = "(symbolicname=" + bundleSymbolicName + ")";
         Resource[] resources = null;
@@ -298,7 +296,7 @@ public class TestRunManagers implements ITestRunManagers {
      * @param bundleSymbolicName
      * @param resolver
      * @param resource
-     * @throws LauncherException
+     * @throws FrameworkException
      */
     private void addResource(String bundleSymbolicName, Resolver resolver, Resource resource)
             throws FrameworkException {
@@ -309,74 +307,7 @@ public class TestRunManagers implements ITestRunManagers {
             return;
         }
 
-        resolver.add(resource);
-
-        boolean resourceHasReferenceUrl = false;
-        if (resource.getURI().startsWith("reference:")) {
-            resourceHasReferenceUrl = true;
-        }
-
-        if (resolver.resolve()) {
-            Resource[] requiredResources = resolver.getRequiredResources();
-            for (Resource requiredResource : requiredResources) {
-                if (requiredResource.getURI().startsWith("reference:")) {
-                    resourceHasReferenceUrl = true;
-                }
-                if (logger.isTraceEnabled()) {
-                    logger.trace("  RequiredResource: " + requiredResource.getSymbolicName());
-                }
-            }
-            Resource[] optionalResources = resolver.getOptionalResources();
-            for (Resource optionalResource : optionalResources) {
-                if (optionalResource.getURI().startsWith("reference:")) {
-                    resourceHasReferenceUrl = true;
-                }
-                if (logger.isTraceEnabled()) {
-                    logger.trace("  OptionalResource: " + optionalResource.getSymbolicName());
-                }
-            }
-
-            if (!resourceHasReferenceUrl) {
-                resolver.deploy(Resolver.START);
-            } else {
-                // *** The Resolver can't cope with reference: URIs which is valid for Felix.
-                // *** So we have to manually install and start the bundles if ANY bundle
-                // *** is a reference
-                ArrayList<Bundle> bundlesToStart = new ArrayList<>();
-                try {
-                    Resource[] startRequiredResources = resolver.getRequiredResources();
-                    for (Resource requiredResource : startRequiredResources) {
-                        bundlesToStart.add(this.bundleContext.installBundle(requiredResource.getURI().toString()));
-                    }
-                    Resource[] startOptionalResources = resolver.getOptionalResources();
-                    for (Resource optionalResource : startOptionalResources) {
-                        bundlesToStart.add(this.bundleContext.installBundle(optionalResource.getURI().toString()));
-                    }
-
-                    bundlesToStart.add(this.bundleContext.installBundle(resource.getURI().toString()));
-                    for (Bundle bundle : bundlesToStart) {
-                        bundle.start();
-                    }
-                } catch (Exception e) {
-                    throw new FrameworkException("Unable to install bundles outside of resolver", e);
-                }
-            }
-
-            if (!isBundleActive(bundleSymbolicName)) {
-                String msg = MessageFormat.format("Bundle ''{0}'' failed to install and activate",bundleSymbolicName);
-                throw new FrameworkException(msg);
-            }
-
-            printBundles();
-        } else {
-            logger.error("Unable to resolve " + resource.toString());
-            Reason[] unsatisfiedRequirements = resolver.getUnsatisfiedRequirements();
-            for (Reason reason : unsatisfiedRequirements) {
-                logger.error("Unsatisfied requirement: " + reason.getRequirement());
-            }
-            throw new FrameworkException("Unable to resolve bundle " + bundleSymbolicName);
-        }
-
+        BundleManagement.addResource(repositoryAdmin, bundleContext, bundleSymbolicName, resolver, resource);
     }
 
     /**
@@ -396,66 +327,6 @@ public class TestRunManagers implements ITestRunManagers {
         return false;
     }
 
-    /**
-     * Print the currently installed bundles and their state
-     */
-    private void printBundles() {
-        if (!logger.isTraceEnabled()) {
-            return;
-        }
-        // Get the bundles
-        Bundle[] bundles = bundleContext.getBundles();
-        // Format and print the bundle Id, State, Symbolic name and Version.
-        StringBuilder messageBuffer = new StringBuilder(2048);
-        messageBuffer.append("Bundle status:");
-
-        for (Bundle bundle : bundles) {
-            
-            String gitHash = "";
-            try {
-                URL githashUrl = bundle.getEntry("/META-INF/git.hash");
-                if (githashUrl != null) {
-                    try (InputStream is = githashUrl.openStream()) {
-                        gitHash = "-" + IOUtils.toString(is, StandardCharsets.UTF_8);
-                    }
-                }
-            } catch(Exception e) {}
-            
-            String bundleId = String.valueOf(bundle.getBundleId());
-            messageBuffer.append("\n").append(String.format("%5s", bundleId)).append("|")
-                    .append(String.format("%-11s", getBundleStateLabel(bundle))).append("|     |")
-                    .append(bundle.getSymbolicName()).append(" (")
-                    .append(bundle.getVersion()).append(gitHash).append(")");
-        }
-
-        logger.trace(messageBuffer.toString());
-    }
-
-    /**
-     * Convert bundle state to string
-     * 
-     * @param bundle
-     * @return The bundle state
-     */
-    private String getBundleStateLabel(Bundle bundle) {
-        switch (bundle.getState()) {
-            case Bundle.UNINSTALLED:
-                return "Uninstalled";
-            case Bundle.INSTALLED:
-                return "Installed";
-            case Bundle.RESOLVED:
-                return "Resolved";
-            case Bundle.STARTING:
-                return "Starting";
-            case Bundle.STOPPING:
-                return "Stopping";
-            case Bundle.ACTIVE:
-                return "Active";
-            default:
-                return "<Unknown (" + bundle.getState() + ")>";
-        }
-    }
-
     @Override
     public boolean anyReasonTestClassShouldBeIgnored() throws FrameworkException {
         for (IManager manager : activeManagers) {
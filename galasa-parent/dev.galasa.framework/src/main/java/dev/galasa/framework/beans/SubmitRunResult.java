@@ -0,0 +1,41 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.beans;
+
+import dev.galasa.framework.spi.FrameworkException;
+import dev.galasa.framework.spi.IRun;
+
+/**
+ * The outcome of one run in a bulk submission, either the submitted run or the
+ * reason it could not be submitted.
+ */
+public class SubmitRunResult {
+
+    private final IRun               run;
+    private final FrameworkException error;
+
+    public SubmitRunResult(IRun run) {
+        this.run = run;
+        this.error = null;
+    }
+
+    public SubmitRunResult(FrameworkException error) {
+        this.run = null;
+        this.error = error;
+    }
+
+    public boolean isSubmitted() {
+        return run != null;
+    }
+
+    public IRun getRun() {
+        return run;
+    }
+
+    public FrameworkException getError() {
+        return error;
+    }
+}
@@ -126,6 +126,11 @@ public class FpfConfigurationPropertyStore implements IConfigurationPropertyStor
         return fpf.getNamespaces();
     }
 
+    @Override
+    public long getVersion() throws ConfigurationPropertyStoreException {
+        return fpf.getVersion();
+    }
+
     @Override
     public void shutdown() throws ConfigurationPropertyStoreException {
         try {
@@ -0,0 +1,198 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.cps;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStore;
+
+/**
+ * <p>
+ * Remembers how getProperty(prefix, suffix, infixes) was resolved for a
+ * namespace, the keys that were probed, which of them won and where its value
+ * came from, so that repeated lookups of the same property do not rebuild the
+ * key list or go back to the overrides and the store.
+ * </p>
+ *
+ * <p>
+ * Lookups that found nothing are remembered as well. The whole cache is
+ * dropped whenever the version of the store changes, which the file based
+ * store works out without a watch or a monitor thread, and whenever the
+ * framework is told the overrides have changed. Once the cache is
+ * full, the resolutions that have not been used for longest are dropped.
+ * </p>
+ */
+public class FrameworkConfigurationPropertyCache {
+
+    private static final int    MAX_ENTRIES = 10000;
+
+    private final IConfigurationPropertyStore cpsStore;
+
+    private final Map<ResolutionKey, Resolution> resolutions;
+    private long                                 storeVersion;
+    private long                                 generation;
+
+    /**
+     * The result of resolving a property. The keys are in the order they were
+     * probed, the winner is the index of the key the value came from, or -1 if
+     * none of them had a value.
+     */
+    public static class Resolution {
+        private final String[] keys;
+        private final int      winner;
+        private final String   value;
+        private final String   source;
+        private final String   trimmed;
+
+        public Resolution(String[] keys, int winner, String value, String source) {
+            this.keys = keys;
+            this.winner = winner;
+            this.value = value;
+            this.source = source;
+            this.trimmed = (value == null) ? null : value.trim();
+        }
+
+        public String[] getKeys() {
+            return keys;
+        }
+
+        public int getWinner() {
+            return winner;
+        }
+
+        /**
+         * @return the value trimmed, as returned by getProperty
+         */
+        public String getValue() {
+            return trimmed;
+        }
+
+        /**
+         * @return the value as it was found, as recorded in the access record
+         */
+        public String getRawValue() {
+            return value;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+
+    private static class ResolutionKey {
+        private final String   prefix;
+        private final String   suffix;
+        private final String[] infixes;
+        private final int      hash;
+
+        private ResolutionKey(String prefix, String suffix, String[] infixes) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.infixes = infixes;
+            this.hash = (31 * (31 * Objects.hashCode(prefix) + Objects.hashCode(suffix))) + Arrays.hashCode(infixes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ResolutionKey)) {
+                return false;
+            }
+            ResolutionKey other = (ResolutionKey) obj;
+            return this.hash == other.hash && Objects.equals(this.prefix, other.prefix) && Objects.equals(this.suffix, other.suffix)
+                    && Arrays.equals(this.infixes, other.infixes);
+        }
+    }
+
+    /**
+     * Create a cache for a namespace
+     *
+     * @param cpsStore - the store the properties are read from
+     * @throws ConfigurationPropertyStoreException - if the version of the store
+     *                                             could not be read
+     */
+    public FrameworkConfigurationPropertyCache(@NotNull IConfigurationPropertyStore cpsStore)
+            throws ConfigurationPropertyStoreException {
+        this(cpsStore, MAX_ENTRIES);
+    }
+
+    protected FrameworkConfigurationPropertyCache(@NotNull IConfigurationPropertyStore cpsStore, int maxEntries)
+            throws ConfigurationPropertyStoreException {
+        this.cpsStore = cpsStore;
+        this.storeVersion = cpsStore.getVersion();
+        this.resolutions = new LinkedHashMap<ResolutionKey, Resolution>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ResolutionKey, Resolution> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return false if the store is unable to tell when it has changed, in which
+     *         case resolutions cannot be safely cached
+     */
+    public boolean isTrackingChanges() {
+        return this.storeVersion >= 0;
+    }
+
+    public Resolution get(String prefix, String suffix, String[] infixes) throws ConfigurationPropertyStoreException {
+        long version = this.cpsStore.getVersion();
+        synchronized (this) {
+            checkStoreVersion(version);
+            return this.resolutions.get(new ResolutionKey(prefix, suffix, infixes));
+        }
+    }
+
+    /**
+     * Get the current generation, to be passed to put() once the property has
+     * been resolved
+     */
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Remember a resolution, unless the cache was invalidated since the
+     * generation was read, in which case it may already be out of date.
+     */
+    public void put(String prefix, String suffix, String[] infixes, long generation, Resolution resolution)
+            throws ConfigurationPropertyStoreException {
+        long version = this.cpsStore.getVersion();
+        synchronized (this) {
+            checkStoreVersion(version);
+            if (this.generation != generation || version < this.storeVersion) {
+                return;
+            }
+            this.resolutions.put(new ResolutionKey(prefix, suffix, infixes.clone()), resolution);
+        }
+    }
+
+    public synchronized void invalidate() {
+        this.generation++;
+        this.resolutions.clear();
+    }
+
+    private void checkStoreVersion(long version) {
+        // *** An older version was read by a thread that has been overtaken, it says nothing new about the store
+        if (version > this.storeVersion) {
+            this.storeVersion = version;
+            invalidate();
+        }
+    }
+}
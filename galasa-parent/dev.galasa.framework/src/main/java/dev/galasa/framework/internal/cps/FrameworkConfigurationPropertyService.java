@@ -13,6 +13,7 @@ import java.util.Properties;
 
 import javax.validation.constraints.NotNull;
 
+import dev.galasa.framework.internal.cps.FrameworkConfigurationPropertyCache.Resolution;
 import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.IConfigurationPropertyStore;
 import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
@@ -30,6 +31,7 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
     private Properties                  record;
     private Properties                  overrides;
     private IConfigurationPropertyStore cpsStore;
+    private FrameworkConfigurationPropertyCache cache;
 
     /**
      * <p>
@@ -54,6 +56,20 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
         this.cpsStore = cpsStore;
     }
 
+    /**
+     * <p>
+     * As above, but resolved properties are remembered in the cache, which is
+     * shared by all the services for the namespace.
+     * </p>
+     * 
+     * @param cache - the resolution cache for the namespace, or null to not cache
+     */
+    public FrameworkConfigurationPropertyService(IFramework framework, IConfigurationPropertyStore cpsStore,
+            Properties overrides, Properties record, String namespace, FrameworkConfigurationPropertyCache cache) {
+        this(framework, cpsStore, overrides, record, namespace);
+        this.cache = cache;
+    }
+
     /**
      * <p>
      * This method returns a String value for a key requested. This looks for any
@@ -70,24 +86,58 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
      *                "PLEXMA", "MVMA"
      * @return - string value for the key requested
      * @throws ConfigurationPropertyStoreException - throws the caught exception
-     *                                             from the
-     *                                             getValueAndMakeAccessRecord()
-     *                                             method.
+     *                                             from the registered CPS
+     *                                             service.
      */
     public String getProperty(@NotNull String prefix, @NotNull String suffix, String... infixes)
             throws ConfigurationPropertyStoreException {
         if (infixes == null) {
             infixes = new String[0];
         }
+        if (this.cache == null) {
+            return resolveProperty(prefix, suffix, infixes).getValue();
+        }
+
+        Resolution resolution = this.cache.get(prefix, suffix, infixes);
+        if (resolution == null) {
+            long generation = this.cache.getGeneration();
+            resolution = resolveProperty(prefix, suffix, infixes);
+            this.cache.put(prefix, suffix, infixes, generation, resolution);
+            return resolution.getValue();
+        }
+
+        // *** Record the accesses exactly as if the keys had been probed again
+        String[] keys = resolution.getKeys();
+        int winner = resolution.getWinner();
+        for (int i = 0; i < (winner < 0 ? keys.length : winner); i++) {
+            recordPropertyAccessed(keys[i], "*** MISSING ***", "missing");
+        }
+        if (winner >= 0) {
+            recordPropertyAccessed(keys[winner], resolution.getRawValue(), resolution.getSource());
+        }
+        return resolution.getValue();
+    }
+
+    private Resolution resolveProperty(String prefix, String suffix, String... infixes)
+            throws ConfigurationPropertyStoreException {
         String[] keys = createOrderedKeyList(prefix, suffix, infixes);
-        String value = null;
-        for (String key : keys) {
-            value = getValueAndMakeAccessRecord(key);
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+
+            String value = overrides.getProperty(key);
             if (value != null) {
-                return value.trim();
+                recordPropertyAccessed(key, value, "overrides");
+                return new Resolution(keys, i, value, "overrides");
             }
+
+            value = cpsStore.getProperty(key);
+            if (value != null) {
+                recordPropertyAccessed(key, value, "cps");
+                return new Resolution(keys, i, value, "cps");
+            }
+            recordPropertyAccessed(key, "*** MISSING ***", "missing");
         }
-        return null;
+        return new Resolution(keys, -1, null, null);
     }
 
     /**
@@ -177,39 +227,6 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
         return sb.toString();
     }
 
-    /**
-     * <p>
-     * This private method is used by the getProperty() method to return a String
-     * value for a given key and record any key/value accessed. This method insures
-     * it does the check of the overrides properties first before checking any
-     * cpsService.
-     * </p>
-     * 
-     * @param key - generated from the prefix, suffix and infixes provided to the
-     *            getProprty().
-     * @return - String value returned from either CPS store or the overrides.
-     * @throws ConfigurationPropertyStoreException - throws an exception is the
-     *                                             registered CPS service is not
-     *                                             available.
-     */
-    private String getValueAndMakeAccessRecord(String key) throws ConfigurationPropertyStoreException {
-        String value;
-
-        value = overrides.getProperty(key);
-        if (value != null) {
-            recordPropertyAccessed(key,value,"overrides");
-            return value;
-        }
-
-        value = cpsStore.getProperty(key);
-        if (value != null) {
-            recordPropertyAccessed(key,value,"cps");
-            return value;
-        }
-        recordPropertyAccessed(key,"*** MISSING ***","missing");
-        return null;
-    }
-
     /**
      * <p>
      * This method creates an array filled in order of all the keys to try and find
@@ -225,39 +242,27 @@ public class FrameworkConfigurationPropertyService implements IConfigurationProp
      */
     private String[] createOrderedKeyList(String prefix, String suffix, String... infixes) {
         String[] keys = new String[(infixes.length + 1)];
-        String[] infixOrder = getInfixOrder(infixes);
 
-        for (int i = 0; i < infixOrder.length; i++) {
-            keys[i] = namespace + "." + prefix + infixOrder[i] + suffix;
+        // *** Build the longest key once, each shorter key drops the last infix
+        StringBuilder key = new StringBuilder(namespace.length() + 64);
+        key.append(namespace).append('.').append(prefix);
+        int[] infixEnds = new int[infixes.length];
+        for (int i = 0; i < infixes.length; i++) {
+            key.append('.').append(infixes[i]);
+            infixEnds[i] = key.length();
+        }
+
+        for (int i = 0; i < infixes.length; i++) {
+            key.setLength(infixEnds[infixes.length - 1 - i]);
+            keys[i] = key.append('.').append(suffix).toString();
         }
 
-        keys[infixes.length] = namespace + "." + prefix + "." + suffix;
+        key.setLength(namespace.length() + 1);
+        keys[infixes.length] = key.append(prefix).append('.').append(suffix).toString();
 
         return keys;
     }
 
-    /**
-     * This method takes passed infixes and generates the list of infixes of
-     * hierachy order, which is will be surrounded by the prefix and suffix to
-     * genterate the kys to be searched.
-     * 
-     * @param infixes - all the heirachy levels that could be appended to the
-     *                namespace and prefix.
-     * @return - string array of the infixes that need to be checked.
-     */
-    private String[] getInfixOrder(String... infixes) {
-        String[] infixOrderList = new String[infixes.length];
-        for (int i = 0; i < infixes.length; i++) {
-            StringBuilder majorInfix = new StringBuilder();
-            for (int j = 0; j < (infixes.length - i); j++) {
-                majorInfix.append("." + infixes[j]);
-            }
-            majorInfix.append(".");
-            infixOrderList[i] = majorInfix.toString();
-        }
-        return infixOrderList;
-    }
-
     public List<String> getCPSNamespaces() throws ConfigurationPropertyStoreException {
         return cpsStore.getNamespaces();
     }
@@ -0,0 +1,162 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.cts;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable Aho-Corasick automaton over the registered confidential texts, so that
+ * a log line can be scrubbed of all of them in a single pass rather than one pass per text.
+ *
+ * Texts are matched literally. Where registered texts overlap, the one that starts first
+ * wins, and of those the longest.
+ */
+public class ConfidentialTextMatcher {
+
+    private static class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node                       fail;
+        private Node                       dictionaryLink; // *** Nearest suffix node that ends a text
+        private int                        textIndex = -1;
+    }
+
+    private final Node     root = new Node();
+    private final String[] texts;
+    private final String[] tags;
+    private final int      longestText;
+
+    /**
+     * @param texts - the confidential texts
+     * @param tags  - the replacement for each text, at the same index
+     */
+    public ConfidentialTextMatcher(List<String> texts, List<String> tags) {
+        this.texts = texts.toArray(new String[0]);
+        this.tags = tags.toArray(new String[0]);
+
+        int longest = 0;
+        for (int i = 0; i < this.texts.length; i++) {
+            String text = this.texts[i];
+            if (text == null || text.isEmpty()) {
+                continue;
+            }
+
+            Node node = this.root;
+            for (int c = 0; c < text.length(); c++) {
+                node = node.next.computeIfAbsent(text.charAt(c), k -> new Node());
+            }
+            if (node.textIndex < 0) { // *** The first registration of a text keeps its tag
+                node.textIndex = i;
+            }
+            longest = Math.max(longest, text.length());
+        }
+        this.longestText = longest;
+
+        buildLinks();
+    }
+
+    private void buildLinks() {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        this.root.fail = this.root;
+        for (Node child : this.root.next.values()) {
+            child.fail = this.root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                Node child = entry.getValue();
+                Node fail = node.fail;
+                while (fail != this.root && !fail.next.containsKey(entry.getKey())) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(entry.getKey());
+                child.fail = (target != null && target != child) ? target : this.root;
+                child.dictionaryLink = (child.fail.textIndex >= 0) ? child.fail : child.fail.dictionaryLink;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return the length of the longest registered text, the most a streaming caller
+     * needs to hold back in case a text continues in the next chunk
+     */
+    public int getLongestText() {
+        return this.longestText;
+    }
+
+    public boolean isEmpty() {
+        return this.longestText == 0;
+    }
+
+    public String scrub(CharSequence text) {
+        StringBuilder scrubbed = new StringBuilder(text.length());
+        scrub(text, text.length(), scrubbed);
+        return scrubbed.toString();
+    }
+
+    /**
+     * Scrub the text, copying the result to the output. Only positions before the limit
+     * are copied, a match that starts before the limit is always completed.
+     *
+     * @return the position in the text that was scrubbed up to
+     */
+    public int scrub(CharSequence text, int limit, StringBuilder output) {
+        if (isEmpty()) {
+            output.append(text, 0, limit);
+            return limit;
+        }
+
+        // *** Find the longest text starting at each position
+        int[] longestAt = null;
+        Node node = this.root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Node next = node.next.get(c);
+            while (next == null && node != this.root) {
+                node = node.fail;
+                next = node.next.get(c);
+            }
+            node = (next == null) ? this.root : next;
+
+            Node match = (node.textIndex >= 0) ? node : node.dictionaryLink;
+            while (match != null) {
+                if (longestAt == null) {
+                    longestAt = new int[text.length()];
+                }
+                int length = this.texts[match.textIndex].length();
+                int start = i - length + 1;
+                if (longestAt[start] == 0 || this.texts[longestAt[start] - 1].length() < length) {
+                    longestAt[start] = match.textIndex + 1;
+                }
+                match = match.dictionaryLink;
+            }
+        }
+
+        if (longestAt == null) {
+            output.append(text, 0, limit);
+            return limit;
+        }
+
+        int position = 0;
+        while (position < limit) {
+            int found = longestAt[position];
+            if (found == 0) {
+                output.append(text.charAt(position));
+                position++;
+            } else {
+                output.append(this.tags[found - 1]);
+                position += this.texts[found - 1].length();
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.cts;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer that removes confidential text from everything written through it, for
+ * artifacts that are too large to scrub as a single string.
+ *
+ * Up to the length of the longest confidential text less one character is held back
+ * between writes, in case a confidential text spans two writes. flush() does not release
+ * the held back characters, close() does.
+ */
+public class ConfidentialTextWriter extends FilterWriter {
+
+    private final ConfidentialTextMatcher matcher;
+    private final StringBuilder           pending  = new StringBuilder();
+    private final StringBuilder           scrubbed = new StringBuilder();
+
+    public ConfidentialTextWriter(Writer out, ConfidentialTextMatcher matcher) {
+        super(out);
+        this.matcher = matcher;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        this.pending.append((char) c);
+        scrub(false);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        this.pending.append(cbuf, off, len);
+        scrub(false);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        this.pending.append(str, off, off + len);
+        scrub(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scrub(true);
+        super.close();
+    }
+
+    private void scrub(boolean all) throws IOException {
+        int holdBack = all ? 0 : Math.max(this.matcher.getLongestText() - 1, 0);
+        int limit = this.pending.length() - holdBack;
+        if (limit <= 0) {
+            return;
+        }
+
+        int scrubbedTo = this.matcher.scrub(this.pending, limit, this.scrubbed);
+        this.out.append(this.scrubbed);
+        this.scrubbed.setLength(0);
+        this.pending.delete(0, scrubbedTo);
+    }
+}
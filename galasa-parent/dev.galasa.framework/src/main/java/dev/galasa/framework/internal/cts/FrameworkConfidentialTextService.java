@@ -5,9 +5,9 @@
  */
 package dev.galasa.framework.internal.cts;
 
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -25,6 +25,9 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
     private List<ConfidentialText> confidentialTexts = new ArrayList<>();
     private Log                    logger            = LogFactory.getLog(FrameworkConfidentialTextService.class);
 
+    // *** Rebuilt when a text is registered, so that scrubbing needs no locking
+    private volatile ConfidentialTextMatcher matcher = new ConfidentialTextMatcher(new ArrayList<>(), new ArrayList<>());
+
     /**
      * This method is for registering a text with the service. It creates the
      * replacement tag (******1******) which represents any registered password,
@@ -34,7 +37,7 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
      * @param text    - the word or phrase the manager wants obscuring.
      * @param comment - a comment explaining the conidential text.
      */
-    public void registerText(String text, String comment) {
+    public synchronized void registerText(String text, String comment) {
         String number = Integer.toString(confidentialTexts.size() + 1);
         StringBuilder builder = new StringBuilder();
         final String star = "*";
@@ -52,6 +55,14 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
         ConfidentialText ct = new ConfidentialText(text, builder.toString(), comment);
         confidentialTexts.add(ct);
 
+        ArrayList<String> texts = new ArrayList<>();
+        ArrayList<String> tags = new ArrayList<>();
+        for (ConfidentialText confidentials : confidentialTexts) {
+            texts.add(confidentials.getText());
+            tags.add(confidentials.getTag());
+        }
+        this.matcher = new ConfidentialTextMatcher(texts, tags);
+
         logger.info("Confidential text registered as '" + ct.replacementTag + "', with comment " + ct.getComment());
     }
 
@@ -62,13 +73,18 @@ public class FrameworkConfidentialTextService implements IConfidentialTextServic
      * @param text - the log or text that needs checking for confidential text.
      */
     public String removeConfidentialText(String text) {
+        return this.matcher.scrub(text);
+    }
 
-        for (ConfidentialText confidentials : confidentialTexts) {
-            text = text.replaceAll(Matcher.quoteReplacement(confidentials.getText()), confidentials.getTag());
-        }
-
-        return text;
-
+    /**
+     * This method returns a writer that removes the texts registered so far from
+     * anything written through it. The writer must be closed to write the end of
+     * the output.
+     * 
+     * @param writer - the writer the obscured output is written to.
+     */
+    public Writer removeConfidentialText(Writer writer) {
+        return new ConfidentialTextWriter(writer, this.matcher);
     }
 
     /**
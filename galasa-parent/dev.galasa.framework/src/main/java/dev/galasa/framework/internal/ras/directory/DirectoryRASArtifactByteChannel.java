@@ -0,0 +1,214 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A byte channel for writing a stored artifact, that records the size and
+ * checksum of the artifact in the manifest when it is closed.
+ *
+ * The checksum is built up as the artifact is written, so it only has to be
+ * read back if the writer moved about in the file. An append carries on from the
+ * checksum state left in the manifest by the previous writer.
+ *
+ * If there is a blob store, the content is compressed into it on close and the
+ * artifact file is replaced with a hard link to the blob, or emptied if the
+ * filesystem can't link.
+ */
+public class DirectoryRASArtifactByteChannel implements SeekableByteChannel {
+
+    private final Log                          logger       = LogFactory.getLog(this.getClass());
+
+    private final SeekableByteChannel          byteChannel;
+    private final Path                         realPath;
+    private final String                       artifactPath;
+    private final DirectoryRASArtifactManifest manifest;
+    private final DirectoryRASBlobStore        blobStore;
+
+    private MessageDigest                      digest;
+    private long                               digestedBytes;
+    private boolean                            isSequential = true;
+    private boolean                            isClosed;
+
+    protected DirectoryRASArtifactByteChannel(SeekableByteChannel byteChannel, Path realPath, String artifactPath,
+            DirectoryRASArtifactManifest manifest, DirectoryRASBlobStore blobStore) throws IOException {
+        this.byteChannel = byteChannel;
+        this.realPath = realPath;
+        this.artifactPath = artifactPath;
+        this.manifest = manifest;
+        this.blobStore = blobStore;
+
+        // *** Always taken, so a state left by an earlier writer can't outlive a rewrite of the file
+        long size = byteChannel.size();
+        this.digest = manifest.takeDigestState(artifactPath, size);
+        if (this.digest != null) {
+            this.digestedBytes = size;
+        } else {
+            this.digest = newDigest();
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!this.isSequential || this.byteChannel.position() != this.digestedBytes) {
+            // *** Writing after a seek, or appending without a checksum state, the checksum will be worked out at close
+            this.isSequential = false;
+            return this.byteChannel.write(src);
+        }
+
+        ByteBuffer written = src.duplicate();
+        int length = this.byteChannel.write(src);
+        written.limit(written.position() + length);
+        this.digest.update(written);
+        this.digestedBytes += length;
+        return length;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return this.byteChannel.read(dst);
+    }
+
+    @Override
+    public long position() throws IOException {
+        return this.byteChannel.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        this.byteChannel.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return this.byteChannel.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        if (size < this.digestedBytes) {
+            this.isSequential = false;
+        }
+        this.byteChannel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.byteChannel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.isClosed) {
+            return;
+        }
+        this.isClosed = true;
+        this.byteChannel.close();
+
+        long size = Files.size(this.realPath);
+        byte[] checksum;
+        if (this.isSequential && size == this.digestedBytes) {
+            saveDigestState(size);
+            checksum = this.digest.digest();
+        } else {
+            checksum = digestFile();
+        }
+
+        String sha256 = String.format("%064x", new BigInteger(1, checksum));
+
+        if (this.blobStore == null || size == 0) {
+            this.manifest.recordContent(this.artifactPath, size, sha256, false);
+            return;
+        }
+
+        Path blob;
+        try {
+            blob = this.blobStore.store(this.realPath, sha256);
+        } catch (IOException e) {
+            logger.warn("Unable to compress artifact " + this.artifactPath + ", it will be stored uncompressed", e);
+            this.manifest.recordContent(this.artifactPath, size, sha256, false);
+            return;
+        }
+
+        // *** Record the blob before the file is replaced, so a reader never finds compressed content it doesn't know about
+        this.manifest.recordContent(this.artifactPath, size, sha256, true);
+        replaceWithLink(blob, size, sha256);
+    }
+
+    private void replaceWithLink(Path blob, long size, String sha256) throws IOException {
+        Path tempLink = this.realPath.resolveSibling("." + this.realPath.getFileName() + ".link");
+        try {
+            Files.deleteIfExists(tempLink);
+            try {
+                Files.createLink(tempLink, blob);
+            } catch (NoSuchFileException e) {
+                // *** A discarded run reclaimed the blob since it was found, so store it again
+                blob = this.blobStore.store(this.realPath, sha256);
+                Files.createLink(tempLink, blob);
+            }
+            try {
+                Files.move(tempLink, this.realPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempLink, this.realPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.deleteIfExists(tempLink);
+            if (!Files.exists(blob)) {
+                // *** Without the blob the content has to stay in the artifact file
+                this.manifest.recordContent(this.artifactPath, size, sha256, false);
+                return;
+            }
+            // *** The blob may be on another filesystem, leave an empty file so the artifact can still be listed
+            Files.write(this.realPath, new byte[0]);
+        }
+    }
+
+    private void saveDigestState(long size) {
+        try {
+            this.manifest.saveDigestState(this.artifactPath, size, (MessageDigest) this.digest.clone());
+        } catch (CloneNotSupportedException e) {
+            // *** The next append will read back the whole file instead
+        }
+    }
+
+    private byte[] digestFile() throws IOException {
+        MessageDigest fileDigest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(this.realPath)) {
+            int length = is.read(buffer);
+            while (length >= 0) {
+                fileDigest.update(buffer, 0, length);
+                length = is.read(buffer);
+            }
+        }
+        return fileDigest.digest();
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import dev.galasa.framework.spi.ras.ArtifactManifestEntry;
+import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
+
+/**
+ * The manifest of the stored artifacts of a run, holding the content type, size
+ * and checksum of each artifact.
+ *
+ * The manifest is a file of JSON records, one per line, that is only ever appended
+ * to while the run is writing artifacts. A later record for a path overrides the
+ * fields it sets in earlier records. The manifest is compacted to one record per
+ * artifact when the run shuts down, and artifacts.properties is written at the same
+ * time for readers that only know about the content types.
+ *
+ * The manifest is only read when something asks for it, so writing artifacts does
+ * not need the existing manifest in memory.
+ *
+ * The state of the checksum of each artifact written by this run is kept until the
+ * manifest is compacted, so that appending to an artifact only has to digest the
+ * new content.
+ */
+public class DirectoryRASArtifactManifest {
+
+    protected static final String MANIFEST_FILE_NAME     = "artifacts.manifest";
+    protected static final String CONTENT_TYPE_FILE_NAME = "artifacts.properties";
+
+    private final Log                 logger  = LogFactory.getLog(this.getClass());
+
+    private final Gson                gson    = new GalasaGsonBuilder(false).getGson();
+
+    private final Path                manifestFile;
+    private final Path                contentTypesFile;
+
+    private final HashMap<String, DigestState> digestStates    = new HashMap<>();
+    private final HashSet<String>              compressedPaths = new HashSet<>();
+
+    private TreeMap<String, Record>   records;
+    private FileChannel               appendChannel;
+
+    private static class DigestState {
+        private final long          size;
+        private final MessageDigest digest;
+
+        private DigestState(long size, MessageDigest digest) {
+            this.size = size;
+            this.digest = digest;
+        }
+    }
+
+    private static class Record {
+        private String  path;
+        private String  contentType;
+        private Long    size;
+        private String  sha256;
+        private Boolean compressed;
+
+        private Record(String path) {
+            this.path = path;
+        }
+
+        private void merge(Record other) {
+            if (other.contentType != null) {
+                this.contentType = other.contentType;
+            }
+            if (other.size != null) {
+                // *** A record of the content replaces everything about the previous content
+                this.size = other.size;
+                this.sha256 = other.sha256;
+                this.compressed = other.compressed;
+            }
+        }
+    }
+
+    protected DirectoryRASArtifactManifest(Path runDirectory) {
+        this.manifestFile = runDirectory.resolve(MANIFEST_FILE_NAME);
+        this.contentTypesFile = runDirectory.resolve(CONTENT_TYPE_FILE_NAME);
+    }
+
+    /**
+     * @return true if the run has a manifest, runs stored before the manifest was
+     *         introduced only have artifacts.properties
+     */
+    public boolean exists() {
+        return Files.exists(this.manifestFile);
+    }
+
+    /**
+     * Record the content type of an artifact
+     *
+     * @param path        the absolute artifact path
+     * @param contentType the content type
+     * @throws IOException if the manifest can't be appended to
+     */
+    public synchronized void recordContentType(String path, String contentType) throws IOException {
+        Record record = new Record(path);
+        record.contentType = contentType;
+        append(record);
+    }
+
+    /**
+     * Record the size and checksum of an artifact once it has been written
+     *
+     * @param path       the absolute artifact path
+     * @param size       the size of the artifact
+     * @param sha256     the hex SHA-256 of the artifact
+     * @param compressed true if the content is held in the blob store rather than the artifact file
+     * @throws IOException if the manifest can't be appended to
+     */
+    public synchronized void recordContent(String path, long size, String sha256, boolean compressed) throws IOException {
+        Record record = new Record(path);
+        record.size = size;
+        record.sha256 = sha256;
+        if (compressed) {
+            record.compressed = Boolean.TRUE;
+        }
+        append(record);
+
+        if (compressed) {
+            this.compressedPaths.add(path);
+        } else {
+            this.compressedPaths.remove(path);
+        }
+    }
+
+    /**
+     * @param path the absolute artifact path
+     * @return true if the content of the artifact was put in the blob store through this
+     *         manifest, which does not need the manifest to be read
+     */
+    public synchronized boolean isRecordedCompressed(String path) {
+        return this.compressedPaths.contains(path);
+    }
+
+    /**
+     * Keep the state of the checksum of an artifact, so it can be carried on by
+     * the next writer to append to the artifact
+     *
+     * @param path   the absolute artifact path
+     * @param size   the number of bytes that have been digested
+     * @param digest the digest of the artifact content, before digest() has been called
+     */
+    public synchronized void saveDigestState(String path, long size, MessageDigest digest) {
+        this.digestStates.put(path, new DigestState(size, digest));
+    }
+
+    /**
+     * Take the state of the checksum of an artifact, to carry on digesting from the end of
+     * the content. The state is removed, so a writer that does not save it again can't
+     * leave a stale state behind.
+     *
+     * @param path the absolute artifact path
+     * @param size the current size of the artifact
+     * @return the digest of the artifact content, or null if no state was saved for that size
+     */
+    public synchronized MessageDigest takeDigestState(String path, long size) {
+        DigestState state = this.digestStates.remove(path);
+        if (state == null || state.size != size) {
+            return null;
+        }
+        return state.digest;
+    }
+
+    /**
+     * @param path the absolute artifact path
+     * @return the content type of the artifact, or null if none was recorded
+     * @throws IOException if the manifest can't be read
+     */
+    public synchronized String getContentType(String path) throws IOException {
+        load();
+        Record record = this.records.get(path);
+        if (record == null) {
+            return null;
+        }
+        return record.contentType;
+    }
+
+    /**
+     * @param path the absolute artifact path
+     * @return the entry of an artifact whose content is held in the blob store, or null
+     *         if the content is in the artifact file
+     * @throws IOException if the manifest can't be read
+     */
+    public synchronized ArtifactManifestEntry getCompressedEntry(String path) throws IOException {
+        load();
+        Record record = this.records.get(path);
+        if (record == null || !Boolean.TRUE.equals(record.compressed) || record.size == null) {
+            return null;
+        }
+        return new ArtifactManifestEntry(record.path, record.contentType, record.size, record.sha256);
+    }
+
+    /**
+     * @return every artifact in the manifest, in path order
+     * @throws IOException if the manifest can't be read
+     */
+    public synchronized List<ArtifactManifestEntry> getEntries() throws IOException {
+        load();
+        ArrayList<ArtifactManifestEntry> entries = new ArrayList<>(this.records.size());
+        for (Record record : this.records.values()) {
+            long size = -1;
+            if (record.size != null) {
+                size = record.size;
+            }
+            entries.add(new ArtifactManifestEntry(record.path, record.contentType, size, record.sha256));
+        }
+        return entries;
+    }
+
+    /**
+     * Rewrite the manifest with a single record for each artifact, and write
+     * artifacts.properties to match
+     *
+     * @throws IOException if the manifest can't be rewritten
+     */
+    public synchronized void compact() throws IOException {
+        this.digestStates.clear();
+        closeAppendChannel();
+        if (!exists()) {
+            return;
+        }
+        load();
+
+        Path tempManifest = this.manifestFile.resolveSibling(MANIFEST_FILE_NAME + ".tmp");
+        Properties contentTypes = new Properties();
+        try (OutputStream os = Files.newOutputStream(tempManifest)) {
+            for (Record record : this.records.values()) {
+                os.write(toLine(record));
+                if (record.contentType != null) {
+                    contentTypes.setProperty(record.path, record.contentType);
+                }
+            }
+        }
+        try {
+            Files.move(tempManifest, this.manifestFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempManifest, this.manifestFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (OutputStream os = Files.newOutputStream(this.contentTypesFile)) {
+            contentTypes.store(os, null);
+        }
+    }
+
+    private void append(Record record) throws IOException {
+        if (this.appendChannel == null) {
+            this.appendChannel = FileChannel.open(this.manifestFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        // *** A single write per record, so a reader never sees half of one unless the write failed
+        ByteBuffer line = ByteBuffer.wrap(toLine(record));
+        while (line.hasRemaining()) {
+            this.appendChannel.write(line);
+        }
+
+        if (this.records != null) {
+            this.records.computeIfAbsent(record.path, Record::new).merge(record);
+        }
+    }
+
+    private void load() throws IOException {
+        if (this.records != null) {
+            return;
+        }
+
+        TreeMap<String, Record> loaded = new TreeMap<>();
+
+        // *** Content types from before the manifest, or written by an older version
+        if (Files.exists(this.contentTypesFile)) {
+            Properties contentTypes = new Properties();
+            try (InputStream is = Files.newInputStream(this.contentTypesFile)) {
+                contentTypes.load(is);
+            } catch (final Exception e) {
+                throw new IOException("Unable to read the artifacts contenttypes", e);
+            }
+            for (Map.Entry<Object, Object> entry : contentTypes.entrySet()) {
+                Record record = new Record((String) entry.getKey());
+                record.contentType = (String) entry.getValue();
+                loaded.put(record.path, record);
+            }
+        }
+
+        if (Files.exists(this.manifestFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(this.manifestFile, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                while (line != null) {
+                    Record record = parseLine(line);
+                    if (record != null) {
+                        loaded.computeIfAbsent(record.path, Record::new).merge(record);
+                    }
+                    line = reader.readLine();
+                }
+            }
+        }
+
+        this.records = loaded;
+    }
+
+    private Record parseLine(String line) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Record record = this.gson.fromJson(line, Record.class);
+            if (record == null || record.path == null) {
+                return null;
+            }
+            return record;
+        } catch (JsonParseException e) {
+            // *** Most likely the last record of a run that ended while writing it
+            logger.warn("Ignoring unreadable record in artifact manifest " + this.manifestFile);
+            return null;
+        }
+    }
+
+    private byte[] toLine(Record record) {
+        return (this.gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void closeAppendChannel() throws IOException {
+        if (this.appendChannel != null) {
+            try {
+                this.appendChannel.close();
+            } finally {
+                this.appendChannel = null;
+            }
+        }
+    }
+}
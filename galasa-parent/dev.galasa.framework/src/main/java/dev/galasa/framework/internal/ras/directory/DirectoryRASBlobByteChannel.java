@@ -0,0 +1,146 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * A read only channel over the uncompressed content of a blob.
+ *
+ * Nothing is decompressed until it is read. Moving forward skips through the
+ * content, moving back starts decompressing again from the beginning.
+ */
+public class DirectoryRASBlobByteChannel implements SeekableByteChannel {
+
+    private final Path  blob;
+    private final long  size;
+
+    private InputStream inputStream;
+    private long        streamPosition;
+    private long        position;
+    private boolean     isOpen = true;
+
+    protected DirectoryRASBlobByteChannel(Path blob, long size) {
+        this.blob = blob;
+        this.size = size;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (this.position >= this.size) {
+            return -1;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        InputStream is = getStreamAtPosition();
+
+        int length = (int) Math.min(dst.remaining(), this.size - this.position);
+        int bytesRead;
+        if (dst.hasArray()) {
+            bytesRead = is.read(dst.array(), dst.arrayOffset() + dst.position(), length);
+            if (bytesRead > 0) {
+                dst.position(dst.position() + bytesRead);
+            }
+        } else {
+            byte[] buffer = new byte[length];
+            bytesRead = is.read(buffer, 0, length);
+            if (bytesRead > 0) {
+                dst.put(buffer, 0, bytesRead);
+            }
+        }
+
+        if (bytesRead < 0) {
+            return -1;
+        }
+        this.position += bytesRead;
+        this.streamPosition += bytesRead;
+        return bytesRead;
+    }
+
+    private InputStream getStreamAtPosition() throws IOException {
+        if (this.inputStream != null && this.streamPosition > this.position) {
+            this.inputStream.close();
+            this.inputStream = null;
+        }
+        if (this.inputStream == null) {
+            this.inputStream = DirectoryRASBlobStore.newInputStream(this.blob);
+            this.streamPosition = 0;
+        }
+
+        while (this.streamPosition < this.position) {
+            long skipped = this.inputStream.skip(this.position - this.streamPosition);
+            if (skipped <= 0) {
+                if (this.inputStream.read() < 0) {
+                    throw new IOException("The stored content " + this.blob + " is shorter than expected");
+                }
+                skipped = 1;
+            }
+            this.streamPosition += skipped;
+        }
+        return this.inputStream;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return this.position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return this.size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.isOpen;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.isOpen = false;
+        if (this.inputStream != null) {
+            this.inputStream.close();
+            this.inputStream = null;
+        }
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!this.isOpen) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A shared area of compressed artifact content, keyed by the SHA-256 of the
+ * uncompressed content, so identical artifacts from any number of runs are only
+ * stored once.
+ *
+ * Each blob is a gzip file at .blobs/<first 2 hex digits>/<sha256>.gz in the RAS
+ * base directory. Blobs are never changed once written, an artifact that is
+ * rewritten gets a new blob. Artifacts hold their blob through a hard link, so
+ * a blob whose link count has dropped to 1 is no longer used by any run.
+ */
+public class DirectoryRASBlobStore {
+
+    protected static final String BLOB_DIRECTORY_NAME = ".blobs";
+
+    private static final int      BUFFER_SIZE         = 64 * 1024;
+
+    private final Path            blobDirectory;
+
+    private volatile boolean      exists;
+
+    protected DirectoryRASBlobStore(Path baseDirectory) {
+        this.blobDirectory = baseDirectory.resolve(BLOB_DIRECTORY_NAME);
+    }
+
+    /**
+     * @return true if any run has stored a blob, until then no artifact can be compressed
+     */
+    public boolean exists() {
+        // *** The blob area is never removed, so once it has been seen it need not be checked again
+        if (!this.exists) {
+            this.exists = Files.isDirectory(this.blobDirectory);
+        }
+        return this.exists;
+    }
+
+    /**
+     * @param sha256 the hex SHA-256 of the uncompressed content
+     * @return where the blob is, or would be, stored
+     */
+    public Path getBlobPath(String sha256) {
+        return this.blobDirectory.resolve(sha256.substring(0, 2)).resolve(sha256 + ".gz");
+    }
+
+    /**
+     * Compress a file into the blob area, unless a blob with the same content is already there
+     *
+     * @param source the uncompressed content
+     * @param sha256 the hex SHA-256 of the uncompressed content
+     * @return the blob
+     * @throws IOException if the blob can't be written
+     */
+    public Path store(Path source, String sha256) throws IOException {
+        Path blob = getBlobPath(sha256);
+        if (Files.exists(blob)) {
+            return blob;
+        }
+
+        Files.createDirectories(blob.getParent());
+        Path tempBlob = Files.createTempFile(blob.getParent(), sha256, ".tmp");
+        try {
+            try (InputStream is = Files.newInputStream(source);
+                    OutputStream os = new GZIPOutputStream(Files.newOutputStream(tempBlob), BUFFER_SIZE)) {
+                is.transferTo(os);
+            }
+
+            // *** Another run storing the same content at the same time will have written an identical blob
+            try {
+                Files.move(tempBlob, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempBlob, blob, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempBlob);
+        }
+        return blob;
+    }
+
+    /**
+     * Delete a blob if no artifact is linked to it any more. If the link count
+     * can't be read the blob is kept.
+     *
+     * @param sha256 the hex SHA-256 of the uncompressed content
+     * @return true if the blob was deleted
+     * @throws IOException if the blob can't be deleted
+     */
+    public boolean reclaim(String sha256) throws IOException {
+        Path blob = getBlobPath(sha256);
+        int links;
+        try {
+            links = (Integer) Files.getAttribute(blob, "unix:nlink");
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return false;
+        }
+
+        if (links > 1) {
+            return false;
+        }
+        return Files.deleteIfExists(blob);
+    }
+
+    /**
+     * Open a blob to be read, it is decompressed as it is read
+     *
+     * @param sha256 the hex SHA-256 of the uncompressed content
+     * @param size   the size of the uncompressed content
+     * @return a read only channel of the uncompressed content
+     * @throws IOException if the blob can't be opened
+     */
+    public SeekableByteChannel newReadChannel(String sha256, long size) throws IOException {
+        Path blob = getBlobPath(sha256);
+        if (!Files.exists(blob)) {
+            throw new IOException("The stored content " + blob + " is missing");
+        }
+        return new DirectoryRASBlobByteChannel(blob, size);
+    }
+
+    /**
+     * Copy the uncompressed content of a blob to a file
+     *
+     * @param sha256 the hex SHA-256 of the uncompressed content
+     * @param target the file to write
+     * @throws IOException if the blob can't be read or the file written
+     */
+    public void extract(String sha256, Path target) throws IOException {
+        try (InputStream is = newInputStream(getBlobPath(sha256));
+                OutputStream os = Files.newOutputStream(target)) {
+            is.transferTo(os);
+        }
+    }
+
+    protected static InputStream newInputStream(Path blob) throws IOException {
+        InputStream is = Files.newInputStream(blob);
+        try {
+            return new GZIPInputStream(is, BUFFER_SIZE);
+        } catch (IOException e) {
+            is.close();
+            throw e;
+        }
+    }
+}
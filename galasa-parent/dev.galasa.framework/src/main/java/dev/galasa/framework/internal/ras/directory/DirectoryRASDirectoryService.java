@@ -5,16 +5,20 @@
  */
 package dev.galasa.framework.internal.ras.directory;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Base64.Encoder;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -37,12 +41,36 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
     public final static String ID_PREFIX = "local-";
 
+    private static final String DEFAULT_SORT_FIELD   = "queued";
+    private static final String PAGE_TOKEN_SEPARATOR = "\u0000";
+
     private final Path baseDirectory;
     private final GalasaGson gson;
+    private final DirectoryRASRunCatalogue catalogue;
+
+    /**
+     * Where a run comes in the order of a page of runs
+     */
+    private static class RunPosition {
+        private final String               sortKey;
+        private final String               directory;
+        private final DirectoryRASRunEntry entry;
+
+        private RunPosition(String sortKey, String directory, DirectoryRASRunEntry entry) {
+            this.sortKey = sortKey;
+            this.directory = directory;
+            this.entry = entry;
+        }
+    }
 
     protected DirectoryRASDirectoryService(@NotNull Path baseDirectory, GalasaGson gson) {
+        this(baseDirectory, gson, null);
+    }
+
+    protected DirectoryRASDirectoryService(@NotNull Path baseDirectory, GalasaGson gson, DirectoryRASRunCatalogue catalogue) {
         this.baseDirectory = baseDirectory;
         this.gson = gson;
+        this.catalogue = catalogue;
     }
 
     @Override
@@ -50,6 +78,16 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
 
         ArrayList<IRunResult> runs = new ArrayList<>();
 
+        if (this.catalogue != null) {
+            for (DirectoryRASRunEntry entry : getCatalogueEntries(searchCriteria)) {
+                DirectoryRASRunResult run = toRunResult(entry);
+                if (run != null) {
+                    runs.add(run);
+                }
+            }
+            return runs;
+        }
+
         List<DirectoryRASRunResult> allRuns = getAllRuns();
 
         boolean matched = true;
@@ -73,7 +111,150 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
     @Override
     public @NotNull RasRunResultPage getRunsPage(int maxResults, RasSortField primarySort, String pageToken, @NotNull IRasSearchCriteria... searchCriteria)
             throws ResultArchiveStoreException {
-        return new RasRunResultPage(getRuns(searchCriteria), null);
+        if (this.catalogue == null) {
+            return new RasRunResultPage(getRuns(searchCriteria), null);
+        }
+
+        String sortFieldName = DEFAULT_SORT_FIELD;
+        boolean isAscending = false;
+        if (primarySort != null) {
+            if (primarySort.getFieldName() != null) {
+                sortFieldName = primarySort.getFieldName();
+            }
+            String direction = primarySort.getSortDirection();
+            isAscending = "asc".equalsIgnoreCase(direction) || "ascending".equalsIgnoreCase(direction);
+        }
+        final String sortField = sortFieldName;
+
+        // *** Sort on the field, then the run directory so the order is stable across pages
+        Comparator<RunPosition> comparator = Comparator
+                .comparing((RunPosition position) -> position.sortKey)
+                .thenComparing(position -> position.directory);
+        if (!isAscending) {
+            comparator = comparator.reversed();
+        }
+
+        RunPosition lastPosition = null;
+        if (pageToken != null && !pageToken.isEmpty()) {
+            lastPosition = decodePageToken(pageToken);
+        }
+
+        // *** Only the runs on the page are kept and sorted, normally in one pass over the
+        // catalogue, another is only needed if a run directory has gone since it was catalogued
+        ArrayList<IRunResult> runs = new ArrayList<>();
+        boolean hasMore = false;
+        while (runs.size() < maxResults) {
+            int wanted = maxResults - runs.size();
+            List<RunPosition> positions = getTopPositions(wanted + 1, comparator, lastPosition, sortField, searchCriteria);
+            hasMore = positions.size() > wanted;
+
+            for (int i = 0; i < positions.size() && i < wanted; i++) {
+                lastPosition = positions.get(i);
+                DirectoryRASRunResult run = toRunResult(lastPosition.entry);
+                if (run != null) {
+                    runs.add(run);
+                }
+            }
+
+            if (!hasMore) {
+                break;
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore && lastPosition != null) {
+            String token = lastPosition.sortKey + PAGE_TOKEN_SEPARATOR + lastPosition.directory;
+            nextCursor = Base64.getUrlEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new RasRunResultPage(runs, nextCursor);
+    }
+
+    /**
+     * Find the first runs in the sort order that come after a position, keeping only
+     * as many as are wanted in a heap rather than sorting every matching run
+     *
+     * @return the runs in sort order
+     */
+    private List<RunPosition> getTopPositions(int count, Comparator<RunPosition> comparator, RunPosition after,
+            String sortField, IRasSearchCriteria... searchCriteria) throws ResultArchiveStoreException {
+        // *** The head of the heap is the last of the runs kept so far
+        PriorityQueue<RunPosition> heap = new PriorityQueue<>(count + 1, comparator.reversed());
+        try {
+            this.catalogue.forEachEntry(entry -> {
+                RunPosition position = new RunPosition(getSortKey(entry, sortField), entry.getDirectory(), entry);
+                if (after != null && comparator.compare(position, after) <= 0) {
+                    return;
+                }
+                if (heap.size() < count) {
+                    heap.add(position);
+                } else if (comparator.compare(position, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(position);
+                }
+            }, searchCriteria);
+        } catch (IOException e) {
+            throw new ResultArchiveStoreException("Unable to obtain runs", e);
+        }
+
+        ArrayList<RunPosition> positions = new ArrayList<>(heap);
+        positions.sort(comparator);
+        return positions;
+    }
+
+    private RunPosition decodePageToken(String pageToken) throws ResultArchiveStoreException {
+        String token;
+        try {
+            token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResultArchiveStoreException("Invalid page token", e);
+        }
+
+        int separator = token.lastIndexOf(PAGE_TOKEN_SEPARATOR);
+        if (separator < 0) {
+            throw new ResultArchiveStoreException("Invalid page token");
+        }
+        return new RunPosition(token.substring(0, separator), token.substring(separator + 1), null);
+    }
+
+    /**
+     * @return a string that sorts in the same order as the field, instants are zero padded
+     * epoch milliseconds and missing values sort first
+     */
+    private static String getSortKey(DirectoryRASRunEntry entry, String sortField) {
+        Object value;
+        if (DirectoryRASRunEntry.isCataloguedField(sortField)) {
+            value = entry.getFieldValue(sortField);
+        } else {
+            value = entry.getQueued();
+        }
+
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Instant) {
+            return String.format("%020d", ((Instant) value).toEpochMilli());
+        }
+        return value.toString();
+    }
+
+    private @NotNull List<DirectoryRASRunEntry> getCatalogueEntries(IRasSearchCriteria... searchCriteria) throws ResultArchiveStoreException {
+        try {
+            return this.catalogue.getEntries(searchCriteria);
+        } catch (IOException e) {
+            throw new ResultArchiveStoreException("Unable to obtain runs", e);
+        }
+    }
+
+    private DirectoryRASRunResult toRunResult(DirectoryRASRunEntry entry) {
+        try {
+            Path runPath = this.catalogue.getRunDirectory(entry);
+            Path relativePath = this.baseDirectory.relativize(runPath);
+            String id = ID_PREFIX + Base64.getEncoder().encodeToString(relativePath.toString().getBytes(StandardCharsets.UTF_8));
+            return new DirectoryRASRunResult(runPath, gson, id, this.catalogue);
+        } catch (Throwable t) {
+            return null; // *** The run directory may have been removed since it was catalogued
+        }
     }
 
     @Override
@@ -91,6 +272,15 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
     public @NotNull List<String> getRequestors() throws ResultArchiveStoreException {
         HashSet<String> requestors = new HashSet<>();
 
+        if (this.catalogue != null) {
+            for (DirectoryRASRunEntry entry : getCatalogueEntries()) {
+                if (entry.getTestName() != null) {
+                    requestors.add(entry.getRequestor());
+                }
+            }
+            return new ArrayList<>(requestors);
+        }
+
         for (DirectoryRASRunResult result : getAllRuns()) {
             if(result!=null) {
                 TestStructure testStructure = result.getTestStructure();
@@ -108,6 +298,19 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
     public @NotNull List<RasTestClass> getTests() throws ResultArchiveStoreException {
         HashMap<String,RasTestClass> tests = new HashMap<>();
         String key;
+
+        if (this.catalogue != null) {
+            for (DirectoryRASRunEntry entry : getCatalogueEntries()) {
+                if (entry.getTestName() != null) {
+                    key = entry.getBundle()+"/"+entry.getTestName();
+                    if (!tests.containsKey(key)) {
+                        tests.put(key,new RasTestClass(entry.getTestName(), entry.getBundle()));
+                    }
+                }
+            }
+            return new ArrayList<>(tests.values());
+        }
+
         for (DirectoryRASRunResult result : getAllRuns()) {
             if(result != null) {
 
@@ -128,6 +331,17 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
     public @NotNull List<String> getResultNames() throws ResultArchiveStoreException {
         HashSet<String> results = new HashSet<>();
 
+        if (this.catalogue != null) {
+            for (DirectoryRASRunEntry entry : getCatalogueEntries()) {
+                if (entry.getResult() == null) {
+                    results.add("UNKNOWN");
+                } else {
+                    results.add(entry.getResult());
+                }
+            }
+            return new ArrayList<>(results);
+        }
+
         for (DirectoryRASRunResult result : getAllRuns()) {
             if(result!=null) {
                 TestStructure testStructure = result.getTestStructure();
@@ -222,7 +436,7 @@ public class DirectoryRASDirectoryService implements IResultArchiveStoreDirector
                 return null;
             }
 
-            return new DirectoryRASRunResult(runPath, gson, runId);
+            return new DirectoryRASRunResult(runPath, gson, runId, this.catalogue);
         } catch(Exception e) {
             return null; // Ignore errors as this run id may not belong to this RAS  
         }
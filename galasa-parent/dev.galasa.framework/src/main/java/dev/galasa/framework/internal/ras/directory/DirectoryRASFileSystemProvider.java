@@ -6,8 +6,7 @@
 package dev.galasa.framework.internal.ras.directory;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.AccessMode;
@@ -20,19 +19,26 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.ProviderMismatchException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
 
+import org.apache.commons.io.FileUtils;
+
+
+import dev.galasa.framework.spi.ras.ArtifactManifestEntry;
 import dev.galasa.framework.spi.ras.ResultArchiveStoreFileSystem;
 import dev.galasa.framework.spi.ras.ResultArchiveStoreFileSystemProvider;
 import dev.galasa.framework.spi.ras.ResultArchiveStorePath;
@@ -51,9 +57,11 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
 
     private static final String RAS_CONTENT_TYPE      = "ras:contentType";
 
-    private final Path          artifactDirectory;
-    private final Path          artifactPropertesFile;
-    private final Properties    contentTypeProperties = new Properties();
+    private final Path                         artifactDirectory;
+    private final DirectoryRASArtifactManifest manifest;
+    private final DirectoryRASBlobStore        blobStore;
+    private final boolean                      compress;
+    private final boolean                      existingRun;
 
     /**
      * Create the Directory RAS provider for stored artifacts
@@ -62,20 +70,88 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
      * @throws IOException - if there is an error during setup
      */
     protected DirectoryRASFileSystemProvider(Path runDirectory) throws IOException {
+        this(runDirectory, false);
+    }
+
+    /**
+     * Create the Directory RAS provider for stored artifacts
+     *
+     * @param runDirectory - The real directory to store the stored artifacts
+     * @param compress     - true to compress new artifacts into the blob store shared by all runs
+     * @throws IOException - if there is an error during setup
+     */
+    protected DirectoryRASFileSystemProvider(Path runDirectory, boolean compress) throws IOException {
         super(runDirectory.getFileSystem().provider().getFileStore(runDirectory));
 
         this.artifactDirectory = runDirectory.resolve("artifacts");
-        this.artifactPropertesFile = runDirectory.resolve("artifacts.properties");
-
-        // *** Load the content type properties file, contains the content type of all
-        // the files if set
-        if (Files.exists(this.artifactPropertesFile)) {
-            try (InputStream is = Files.newInputStream(this.artifactPropertesFile)) {
-                this.contentTypeProperties.load(is);
-            } catch (final Exception e) {
-                throw new IOException("Unable to read the artifacts contenttypes", e);
+
+        // *** The manifest holds the content type, size and checksum of the artifacts,
+        // it is only read if something asks for them
+        this.manifest = new DirectoryRASArtifactManifest(runDirectory);
+        this.existingRun = this.manifest.exists();
+
+        // *** Compressed artifacts are always readable, whether or not this run compresses its own
+        Path baseDirectory = runDirectory.toAbsolutePath().getParent();
+        if (baseDirectory == null) {
+            this.blobStore = null;
+            this.compress = false;
+        } else {
+            this.blobStore = new DirectoryRASBlobStore(baseDirectory);
+            this.compress = compress;
+        }
+    }
+
+    /**
+     * Compact the artifact manifest, to be called once the run has finished writing artifacts
+     *
+     * @throws IOException - if unable to rewrite the manifest
+     */
+    public void shutdown() throws IOException {
+        this.manifest.compact();
+    }
+
+    /**
+     * Delete the run directory, then the blobs that were only used by the
+     * artifacts of this run
+     *
+     * @throws IOException - if unable to delete the run
+     */
+    public void discard() throws IOException {
+        HashSet<String> linkedBlobs = new HashSet<>();
+        if (this.blobStore != null && this.blobStore.exists() && this.manifest.exists()) {
+            for (ArtifactManifestEntry entry : this.manifest.getEntries()) {
+                ArtifactManifestEntry compressedEntry = this.manifest.getCompressedEntry(entry.getPath());
+                if (compressedEntry == null) {
+                    continue;
+                }
+                // *** An artifact left empty because it could not be linked does not hold its blob
+                String artifactPath = entry.getPath();
+                Path realPath = this.artifactDirectory.resolve(artifactPath.startsWith("/") ? artifactPath.substring(1) : artifactPath);
+                Path blob = this.blobStore.getBlobPath(compressedEntry.getSha256());
+                if (Files.exists(realPath) && Files.exists(blob) && Files.isSameFile(realPath, blob)) {
+                    linkedBlobs.add(compressedEntry.getSha256());
+                }
             }
         }
+
+        FileUtils.deleteDirectory(this.artifactDirectory.getParent().toFile());
+
+        for (String sha256 : linkedBlobs) {
+            this.blobStore.reclaim(sha256);
+        }
+    }
+
+    /**
+     * Get the stored artifacts from the manifest
+     *
+     * @return the stored artifacts, or null if the run has no manifest
+     * @throws IOException - if unable to read the manifest
+     */
+    public List<ArtifactManifestEntry> getArtifactManifest() throws IOException {
+        if (!this.manifest.exists()) {
+            return null;
+        }
+        return this.manifest.getEntries();
     }
 
     /**
@@ -83,21 +159,14 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
      *
      * @param path        - the stored artifact to set the content type for
      * @param contentType - the content type
-     * @throws IOException - if unable to save the properties file
+     * @throws IOException - if unable to append to the manifest
      */
     private void setContentType(Path path, ResultArchiveStoreContentType contentType) throws IOException {
         if (!path.isAbsolute()) {
             path = path.toAbsolutePath();
         }
 
-        this.contentTypeProperties.setProperty(path.toString(), contentType.value());
-
-        // *** Make hardcopy
-        try (OutputStream os = Files.newOutputStream(this.artifactPropertesFile)) {
-            this.contentTypeProperties.store(os, null);
-        } catch (final Exception e) {
-            throw new IOException("Unable to write the artifacts contenttypes", e);
-        }
+        this.manifest.recordContentType(path.toString(), contentType.value());
     }
 
     /**
@@ -111,7 +180,12 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
             path = path.toAbsolutePath();
         }
         ResultArchiveStoreContentType contentType = null;
-        final String sContentType = this.contentTypeProperties.getProperty(path.toString());
+        String sContentType;
+        try {
+            sContentType = this.manifest.getContentType(path.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         if (sContentType == null) {
             contentType = ResultArchiveStoreContentType.TEXT;
         } else {
@@ -167,8 +241,31 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
             }
         }
 
-        // *** Get a nice byte channel
-        final SeekableByteChannel byteChannel = Files.newByteChannel(realPath, newOptions); // NOSONAR
+        boolean write = newOptions.contains(StandardOpenOption.WRITE) || newOptions.contains(StandardOpenOption.APPEND);
+
+        // *** Compressed content is decompressed as it is read, but has to be restored to the file to be changed
+        ArtifactManifestEntry compressedEntry = getCompressedEntry(path, write);
+        if (compressedEntry != null) {
+            if (!write) {
+                return this.blobStore.newReadChannel(compressedEntry.getSha256(), compressedEntry.getSize());
+            }
+            if (!newOptions.contains(StandardOpenOption.CREATE_NEW)) {
+                boolean truncate = newOptions.contains(StandardOpenOption.TRUNCATE_EXISTING)
+                        && !newOptions.contains(StandardOpenOption.APPEND);
+                restoreFromBlob(realPath, compressedEntry, truncate);
+            }
+        }
+
+        // *** Get a nice byte channel, recording the size and checksum of whatever is written to it
+        SeekableByteChannel byteChannel = Files.newByteChannel(realPath, newOptions); // NOSONAR
+        if (write) {
+            DirectoryRASBlobStore writeBlobStore = null;
+            if (this.compress) {
+                writeBlobStore = this.blobStore;
+            }
+            byteChannel = new DirectoryRASArtifactByteChannel(byteChannel, realPath, path.toAbsolutePath().toString(),
+                    this.manifest, writeBlobStore);
+        }
 
         // *** If we have a RAS attribute, contenttype, set it
         for (final FileAttribute<?> attr : attrs) {
@@ -180,6 +277,56 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
         return byteChannel;
     }
 
+    /**
+     * Get the manifest entry of an artifact if its content is held in the blob store
+     *
+     * @param path  - stored artifact virtual path
+     * @param write - true if the artifact is being opened to be written
+     * @return - the manifest entry, or null if the content is in the artifact file
+     * @throws IOException - if unable to read the manifest
+     */
+    private ArtifactManifestEntry getCompressedEntry(Path path, boolean write) throws IOException {
+        if (this.blobStore == null) {
+            return null;
+        }
+
+        String artifactPath = path.toAbsolutePath().toString();
+        if (this.compress) {
+            // *** This run compressed its own artifacts, so it knows which they are without reading the manifest
+            if (!this.manifest.isRecordedCompressed(artifactPath)) {
+                return null;
+            }
+        } else if (write && !this.existingRun) {
+            return null; // *** A run that does not compress writes all of its artifacts uncompressed
+        } else if (!this.blobStore.exists()) {
+            return null; // *** Nothing has ever been compressed
+        }
+        return this.manifest.getCompressedEntry(artifactPath);
+    }
+
+    /**
+     * Replace the link to a blob with a file of its own, so the artifact can be written
+     *
+     * @param realPath        - the artifact file
+     * @param compressedEntry - the manifest entry of the artifact
+     * @param truncate        - true if the content is about to be replaced, so need not be decompressed
+     * @throws IOException - if unable to restore the file
+     */
+    private void restoreFromBlob(Path realPath, ArtifactManifestEntry compressedEntry, boolean truncate)
+            throws IOException {
+        Path tempFile = realPath.resolveSibling("." + realPath.getFileName() + ".restore");
+        try {
+            if (truncate) {
+                Files.write(tempFile, new byte[0]);
+            } else {
+                this.blobStore.extract(compressedEntry.getSha256(), tempFile);
+            }
+            Files.move(tempFile, realPath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -288,7 +435,12 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
         final Path realPath = getRealPath(path);
 
         if (type == BasicFileAttributes.class) {
-            return realPath.getFileSystem().provider().readAttributes(realPath, type, options);
+            A attributes = realPath.getFileSystem().provider().readAttributes(realPath, type, options);
+            ArtifactManifestEntry compressedEntry = getCompressedEntry(path, false);
+            if (compressedEntry != null) {
+                attributes = type.cast(new CompressedFileAttributes((BasicFileAttributes) attributes, compressedEntry.getSize()));
+            }
+            return attributes;
         }
         return null;
     }
@@ -346,6 +498,14 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
             // *** Pass them on to the real path
             final Path realPath = getRealPath(path);
             returnAttrs.putAll(realPath.getFileSystem().provider().readAttributes(realPath, sb.toString(), options));
+
+            // *** The file of a compressed artifact holds the compressed content
+            if (returnAttrs.containsKey("size")) {
+                ArtifactManifestEntry compressedEntry = getCompressedEntry(path, false);
+                if (compressedEntry != null) {
+                    returnAttrs.put("size", compressedEntry.getSize());
+                }
+            }
         }
 
         return returnAttrs;
@@ -374,4 +534,63 @@ public class DirectoryRASFileSystemProvider extends ResultArchiveStoreFileSystem
         return new DirectoryRASDirectoryStream(this.fileSystem, this.artifactDirectory, getRealPath(dir), filter);
     }
 
-}
\ No newline at end of file
+    /**
+     * The attributes of a compressed artifact, which are those of its file apart from the size
+     */
+    private static class CompressedFileAttributes implements BasicFileAttributes {
+
+        private final BasicFileAttributes fileAttributes;
+        private final long                size;
+
+        private CompressedFileAttributes(BasicFileAttributes fileAttributes, long size) {
+            this.fileAttributes = fileAttributes;
+            this.size = size;
+        }
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return this.fileAttributes.lastModifiedTime();
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return this.fileAttributes.lastAccessTime();
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return this.fileAttributes.creationTime();
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return this.fileAttributes.isRegularFile();
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return this.fileAttributes.isDirectory();
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return this.fileAttributes.isSymbolicLink();
+        }
+
+        @Override
+        public boolean isOther() {
+            return this.fileAttributes.isOther();
+        }
+
+        @Override
+        public long size() {
+            return this.size;
+        }
+
+        @Override
+        public Object fileKey() {
+            return this.fileAttributes.fileKey();
+        }
+    }
+
+}
@@ -0,0 +1,547 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.JsonParseException;
+
+import dev.galasa.framework.spi.ras.IRasSearchCriteria;
+import dev.galasa.framework.spi.ras.RasSearchCriteriaPredicate;
+import dev.galasa.framework.spi.teststructure.TestStructure;
+import dev.galasa.framework.spi.utils.GalasaGson;
+import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
+
+/**
+ * An append-only catalogue of the runs held in a directory RAS, stored as one JSON
+ * line per change in a file in the RAS base directory.
+ *
+ * Test runs append a line each time their test structure is written. Readers keep
+ * the catalogue in memory, only replay the lines appended since their last read and
+ * reconcile it against the run directories that exist, at most every
+ * RECONCILE_INTERVAL_MS, so that runs written without the catalogue, or a missing
+ * catalogue, are picked up lazily. When the file holds many superseded lines it is
+ * compacted in place under the file lock.
+ */
+public class DirectoryRASRunCatalogue {
+
+    public static final String  CATALOGUE_FILE_NAME = "runs.catalogue";
+
+    // *** File locks do not exclude threads within the same JVM
+    private static final Object CATALOGUE_LOCK      = new Object();
+
+    private static final int    COMPACTION_SLACK    = 1000;
+
+    private static final long   RECONCILE_INTERVAL_MS = 10000;
+
+    private final Log           logger              = LogFactory.getLog(getClass());
+
+    private final Path          baseDirectory;
+    private final Path          catalogueFile;
+    private final GalasaGson    gson                = new GalasaGson();
+    private final long          reconcileIntervalMs;
+
+    private final HashMap<String, DirectoryRASRunEntry> entries                = new HashMap<>();
+    private final HashMap<String, Set<String>>          directoriesByRequestor = new HashMap<>();
+    private final HashMap<String, Set<String>>          directoriesByTestName  = new HashMap<>();
+    private final HashMap<String, Set<String>>          directoriesByBundle    = new HashMap<>();
+    private final HashMap<String, Set<String>>          directoriesByResult    = new HashMap<>();
+    private final HashMap<String, Set<String>>          directoriesByRunName   = new HashMap<>();
+
+    private String              generation;
+    private long                readOffset;
+    private long                lineCount;
+    private long                lastReconcile;
+    private boolean             isReconciled;
+
+    public DirectoryRASRunCatalogue(@NotNull Path baseDirectory) {
+        this(baseDirectory, RECONCILE_INTERVAL_MS);
+    }
+
+    protected DirectoryRASRunCatalogue(@NotNull Path baseDirectory, long reconcileIntervalMs) {
+        this.baseDirectory = baseDirectory;
+        this.catalogueFile = baseDirectory.resolve(CATALOGUE_FILE_NAME);
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.gson.setGsonBuilder(new GalasaGsonBuilder(false));
+    }
+
+    /**
+     * Record the latest test structure of a run, called by the test run each time
+     * the structure.json file is written
+     *
+     * @param runDirectory  - the run directory the structure was written to
+     * @param testStructure - the test structure that was written
+     * @throws IOException - if the catalogue could not be appended to
+     */
+    public void record(@NotNull Path runDirectory, @NotNull TestStructure testStructure) throws IOException {
+        long lastModified = Files.getLastModifiedTime(runDirectory.resolve("structure.json")).toMillis();
+        String directory = runDirectory.getFileName().toString();
+        append(List.of(new DirectoryRASRunEntry(directory, testStructure, lastModified)));
+    }
+
+    /**
+     * Record that a run directory no longer holds the run that was catalogued for it
+     *
+     * @param directory - the name of the run directory
+     * @throws IOException - if the catalogue could not be appended to
+     */
+    public void remove(@NotNull String directory) throws IOException {
+        append(List.of(DirectoryRASRunEntry.tombstone(directory)));
+    }
+
+    /**
+     * The search criteria compiled against the catalogue. The index lookup expected to
+     * return the fewest runs gives the candidates, the other predicates are then checked
+     * most selective first, and criteria without a predicate are checked last against
+     * a summary test structure.
+     */
+    private static class QueryPlan {
+        private Collection<String>                     candidates;
+        private final List<RasSearchCriteriaPredicate> predicates     = new ArrayList<>();
+        private final List<IRasSearchCriteria>         opaqueCriteria = new ArrayList<>();
+
+        private boolean matches(DirectoryRASRunEntry entry) {
+            for (RasSearchCriteriaPredicate predicate : this.predicates) {
+                if (!predicate.matches(entry.getFieldValue(predicate.getField()))) {
+                    return false;
+                }
+            }
+
+            if (!this.opaqueCriteria.isEmpty()) {
+                TestStructure summary = entry.toSummaryTestStructure();
+                for (IRasSearchCriteria criteria : this.opaqueCriteria) {
+                    if (!criteria.criteriaMatched(summary)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the catalogued runs that match all of the search criteria
+     * @throws IOException - if the catalogue could not be read or reconciled
+     */
+    public @NotNull List<DirectoryRASRunEntry> getEntries(@NotNull IRasSearchCriteria... searchCriteria) throws IOException {
+        ArrayList<DirectoryRASRunEntry> matched = new ArrayList<>();
+        forEachEntry(matched::add, searchCriteria);
+        return matched;
+    }
+
+    /**
+     * Pass each catalogued run that matches all of the search criteria to the consumer,
+     * without collecting them first. The consumer is called holding the catalogue lock.
+     *
+     * @param consumer       - given each matching run
+     * @param searchCriteria - the criteria
+     * @throws IOException - if the catalogue could not be read or reconciled
+     */
+    public void forEachEntry(@NotNull Consumer<DirectoryRASRunEntry> consumer, @NotNull IRasSearchCriteria... searchCriteria)
+            throws IOException {
+        synchronized (CATALOGUE_LOCK) {
+            refresh();
+
+            QueryPlan plan = compile(searchCriteria);
+            for (String directory : plan.candidates) {
+                DirectoryRASRunEntry entry = this.entries.get(directory);
+                if (entry != null && plan.matches(entry)) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    public @NotNull Path getRunDirectory(@NotNull DirectoryRASRunEntry entry) {
+        return this.baseDirectory.resolve(entry.getDirectory());
+    }
+
+    /**
+     * Compile the criteria into a plan, estimating the selectivity of each predicate
+     * from the size of the secondary indexes. Predicates on fields that are not indexed
+     * are assumed to match every run.
+     */
+    private QueryPlan compile(IRasSearchCriteria... searchCriteria) {
+        QueryPlan plan = new QueryPlan();
+        HashMap<RasSearchCriteriaPredicate, Long> estimates = new HashMap<>();
+
+        RasSearchCriteriaPredicate lookupPredicate = null;
+        for (IRasSearchCriteria criteria : searchCriteria) {
+            RasSearchCriteriaPredicate predicate = criteria.getPredicate();
+            if (predicate == null || !DirectoryRASRunEntry.isCataloguedField(predicate.getField())) {
+                plan.opaqueCriteria.add(criteria);
+                continue;
+            }
+
+            long estimate = this.entries.size();
+            Map<String, Set<String>> index = getIndex(predicate.getField());
+            if (index != null && predicate.getOperator() == RasSearchCriteriaPredicate.Operator.IN) {
+                estimate = 0;
+                for (String value : predicate.getValues()) {
+                    Set<String> indexed = index.get(value);
+                    if (indexed != null) {
+                        estimate += indexed.size();
+                    }
+                }
+                if (lookupPredicate == null || estimate < estimates.get(lookupPredicate)) {
+                    lookupPredicate = predicate;
+                }
+            }
+            estimates.put(predicate, estimate);
+            plan.predicates.add(predicate);
+        }
+
+        if (lookupPredicate == null) {
+            plan.candidates = new ArrayList<>(this.entries.keySet());
+        } else {
+            // *** The index lookup is exact, so its predicate doesn't need checking again
+            plan.candidates = lookup(getIndex(lookupPredicate.getField()), lookupPredicate.getValues());
+            plan.predicates.remove(lookupPredicate);
+        }
+        plan.predicates.sort(Comparator.comparing(estimates::get));
+        return plan;
+    }
+
+    private Map<String, Set<String>> getIndex(String field) {
+        switch (field) {
+            case RasSearchCriteriaPredicate.FIELD_REQUESTOR:
+                return this.directoriesByRequestor;
+            case RasSearchCriteriaPredicate.FIELD_TEST_NAME:
+                return this.directoriesByTestName;
+            case RasSearchCriteriaPredicate.FIELD_BUNDLE:
+                return this.directoriesByBundle;
+            case RasSearchCriteriaPredicate.FIELD_RESULT:
+                return this.directoriesByResult;
+            case RasSearchCriteriaPredicate.FIELD_RUN_NAME:
+                return this.directoriesByRunName;
+            default:
+                return null;
+        }
+    }
+
+    private Set<String> lookup(Map<String, Set<String>> index, List<String> values) {
+        HashSet<String> directories = new HashSet<>();
+        for (String value : values) {
+            Set<String> indexed = index.get(value);
+            if (indexed != null) {
+                directories.addAll(indexed);
+            }
+        }
+        return directories;
+    }
+
+    private void append(List<DirectoryRASRunEntry> newEntries) throws IOException {
+        synchronized (CATALOGUE_LOCK) {
+            try (FileChannel channel = FileChannel.open(this.catalogueFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                FileLock lock = channel.lock();
+                try {
+                    StringBuilder lines = new StringBuilder();
+                    if (channel.size() == 0) {
+                        appendLine(lines, DirectoryRASRunEntry.header(UUID.randomUUID().toString()));
+                    }
+                    for (DirectoryRASRunEntry entry : newEntries) {
+                        appendLine(lines, entry);
+                    }
+                    write(channel, lines);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Bring the in-memory catalogue up to date with the file and the run directories,
+     * the caller must hold the catalogue lock
+     */
+    private void refresh() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.catalogueFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                if (channel.size() == 0) {
+                    // *** Missing or empty catalogue, it will be rebuilt from the run directories
+                    logger.info("Building the run catalogue for " + this.baseDirectory);
+                    StringBuilder header = new StringBuilder();
+                    String newGeneration = UUID.randomUUID().toString();
+                    appendLine(header, DirectoryRASRunEntry.header(newGeneration));
+                    write(channel, header);
+                    reset(newGeneration, channel.size(), 1);
+                    this.isReconciled = false;
+                } else {
+                    String fileGeneration = readGeneration(channel);
+                    if (fileGeneration == null || !fileGeneration.equals(this.generation)) {
+                        // *** The catalogue has been compacted or replaced, replay it from the start
+                        reset(fileGeneration, 0, 0);
+                    }
+                    readTail(channel);
+                }
+
+                // *** Listing the base directory is the expensive part, runs written through the catalogue don't need it
+                long now = System.currentTimeMillis();
+                if (!this.isReconciled || (now - this.lastReconcile) >= this.reconcileIntervalMs) {
+                    reconcile(channel);
+                    this.lastReconcile = now;
+                    this.isReconciled = true;
+                }
+
+                if (this.lineCount > (this.entries.size() * 2L) + COMPACTION_SLACK) {
+                    compact(channel);
+                }
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private void reset(String newGeneration, long newOffset, long newLineCount) {
+        this.entries.clear();
+        this.directoriesByRequestor.clear();
+        this.directoriesByTestName.clear();
+        this.directoriesByBundle.clear();
+        this.directoriesByResult.clear();
+        this.directoriesByRunName.clear();
+        this.generation = newGeneration;
+        this.readOffset = newOffset;
+        this.lineCount = newLineCount;
+    }
+
+    private String readGeneration(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        channel.read(buffer, 0);
+        String start = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        int endOfLine = start.indexOf('\n');
+        if (endOfLine < 0) {
+            return null;
+        }
+
+        DirectoryRASRunEntry header = parse(start.substring(0, endOfLine));
+        if (header == null) {
+            return null;
+        }
+        return header.getGeneration();
+    }
+
+    /**
+     * Replay the complete lines appended since the last read
+     */
+    private void readTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size <= this.readOffset) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - this.readOffset));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, this.readOffset + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        byte[] bytes = buffer.array();
+        int lineStart = 0;
+        for (int i = 0; i < buffer.position(); i++) {
+            if (bytes[i] == '\n') {
+                DirectoryRASRunEntry entry = parse(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                if (entry != null) {
+                    apply(entry);
+                }
+                this.lineCount++;
+                lineStart = i + 1;
+            }
+        }
+        this.readOffset += lineStart;
+    }
+
+    /**
+     * Catalogue any run directories that are not in the catalogue, or whose structure
+     * has been written since it was catalogued, and drop the runs whose directories have gone.
+     * Only runs that have not finished have their structure file checked.
+     */
+    private void reconcile(FileChannel channel) throws IOException {
+        ArrayList<DirectoryRASRunEntry> changes = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.baseDirectory)) {
+            for (Path path : stream) {
+                String directory = path.getFileName().toString();
+                DirectoryRASRunEntry entry = this.entries.get(directory);
+
+                if (entry != null && "finished".equalsIgnoreCase(entry.getStatus())) {
+                    seen.add(directory);
+                    continue;
+                }
+
+                Path structureFile = path.resolve("structure.json");
+                if (!Files.isRegularFile(structureFile)) {
+                    continue;
+                }
+
+                long lastModified = Files.getLastModifiedTime(structureFile).toMillis();
+                if (entry == null || entry.getLastModified() != lastModified) {
+                    DirectoryRASRunEntry newEntry = readRunDirectory(directory, structureFile, lastModified);
+                    if (newEntry == null) {
+                        continue;
+                    }
+                    apply(newEntry);
+                    changes.add(newEntry);
+                }
+                seen.add(directory);
+            }
+        }
+
+        for (String directory : new ArrayList<>(this.entries.keySet())) {
+            if (!seen.contains(directory)) {
+                DirectoryRASRunEntry tombstone = DirectoryRASRunEntry.tombstone(directory);
+                apply(tombstone);
+                changes.add(tombstone);
+            }
+        }
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        if (this.readOffset != channel.size()) {
+            lines.append('\n'); // *** Terminate a partial line left by a failed write
+        }
+        for (DirectoryRASRunEntry change : changes) {
+            appendLine(lines, change);
+        }
+        channel.position(channel.size());
+        write(channel, lines);
+        this.readOffset = channel.size();
+        this.lineCount += changes.size();
+    }
+
+    private DirectoryRASRunEntry readRunDirectory(String directory, Path structureFile, long lastModified) {
+        try (InputStreamReader in = new InputStreamReader(Files.newInputStream(structureFile), StandardCharsets.UTF_8)) {
+            TestStructure testStructure = this.gson.fromJson(in, TestStructure.class);
+            if (testStructure == null) {
+                return null;
+            }
+            return new DirectoryRASRunEntry(directory, testStructure, lastModified);
+        } catch (Exception e) {
+            logger.trace("Unable to catalogue the run from " + structureFile.toString());
+            return null;
+        }
+    }
+
+    private void compact(FileChannel channel) throws IOException {
+        String newGeneration = UUID.randomUUID().toString();
+
+        StringBuilder lines = new StringBuilder();
+        appendLine(lines, DirectoryRASRunEntry.header(newGeneration));
+        for (DirectoryRASRunEntry entry : this.entries.values()) {
+            appendLine(lines, entry);
+        }
+
+        channel.truncate(0);
+        channel.position(0);
+        write(channel, lines);
+
+        this.generation = newGeneration;
+        this.readOffset = channel.size();
+        this.lineCount = this.entries.size() + 1L;
+    }
+
+    private void apply(DirectoryRASRunEntry entry) {
+        if (entry.isHeader() || entry.getDirectory() == null) {
+            return;
+        }
+
+        DirectoryRASRunEntry oldEntry = this.entries.remove(entry.getDirectory());
+        if (oldEntry != null) {
+            unindex(this.directoriesByRequestor, oldEntry.getRequestor(), oldEntry);
+            unindex(this.directoriesByTestName, oldEntry.getTestName(), oldEntry);
+            unindex(this.directoriesByBundle, oldEntry.getBundle(), oldEntry);
+            unindex(this.directoriesByResult, oldEntry.getResult(), oldEntry);
+            unindex(this.directoriesByRunName, oldEntry.getRunName(), oldEntry);
+        }
+
+        if (entry.isRemoved()) {
+            return;
+        }
+
+        this.entries.put(entry.getDirectory(), entry);
+        index(this.directoriesByRequestor, entry.getRequestor(), entry);
+        index(this.directoriesByTestName, entry.getTestName(), entry);
+        index(this.directoriesByBundle, entry.getBundle(), entry);
+        index(this.directoriesByResult, entry.getResult(), entry);
+        index(this.directoriesByRunName, entry.getRunName(), entry);
+    }
+
+    private void index(Map<String, Set<String>> index, String value, DirectoryRASRunEntry entry) {
+        if (value != null) {
+            index.computeIfAbsent(value, k -> new HashSet<>()).add(entry.getDirectory());
+        }
+    }
+
+    private void unindex(Map<String, Set<String>> index, String value, DirectoryRASRunEntry entry) {
+        if (value == null) {
+            return;
+        }
+
+        Set<String> directories = index.get(value);
+        if (directories != null) {
+            directories.remove(entry.getDirectory());
+            if (directories.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private DirectoryRASRunEntry parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+
+        try {
+            return this.gson.fromJson(line, DirectoryRASRunEntry.class);
+        } catch (JsonParseException e) {
+            logger.trace("Ignoring an invalid line in the run catalogue " + this.catalogueFile.toString());
+            return null;
+        }
+    }
+
+    private void appendLine(StringBuilder lines, DirectoryRASRunEntry entry) {
+        lines.append(this.gson.toJson(entry));
+        lines.append('\n');
+    }
+
+    private void write(FileChannel channel, StringBuilder lines) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
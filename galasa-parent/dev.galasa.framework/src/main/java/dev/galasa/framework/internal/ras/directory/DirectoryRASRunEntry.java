@@ -0,0 +1,192 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.time.Instant;
+
+import dev.galasa.framework.spi.teststructure.TestStructure;
+
+/**
+ * One line of the directory RAS run catalogue, holding the searchable fields of a
+ * run's test structure so that queries do not need to parse every structure.json.
+ *
+ * A line with only the generation set is the catalogue header, a line with removed
+ * set is a tombstone for a run directory that has gone.
+ */
+public class DirectoryRASRunEntry {
+
+    private String  generation;
+    private String  directory;
+    private Boolean removed;
+    private Long    lastModified;
+
+    private String  runName;
+    private String  bundle;
+    private String  testName;
+    private String  testShortName;
+    private String  requestor;
+    private String  status;
+    private String  result;
+    private Instant queued;
+    private Instant startTime;
+    private Instant endTime;
+
+    public DirectoryRASRunEntry() {
+    }
+
+    public DirectoryRASRunEntry(String directory, TestStructure testStructure, long lastModified) {
+        this.directory = directory;
+        this.lastModified = lastModified;
+        this.runName = testStructure.getRunName();
+        this.bundle = testStructure.getBundle();
+        this.testName = testStructure.getTestName();
+        this.testShortName = testStructure.getTestShortName();
+        this.requestor = testStructure.getRequestor();
+        this.status = testStructure.getStatus();
+        this.result = testStructure.getResult();
+        this.queued = testStructure.getQueued();
+        this.startTime = testStructure.getStartTime();
+        this.endTime = testStructure.getEndTime();
+    }
+
+    public static DirectoryRASRunEntry header(String generation) {
+        DirectoryRASRunEntry entry = new DirectoryRASRunEntry();
+        entry.generation = generation;
+        return entry;
+    }
+
+    public static DirectoryRASRunEntry tombstone(String directory) {
+        DirectoryRASRunEntry entry = new DirectoryRASRunEntry();
+        entry.directory = directory;
+        entry.removed = Boolean.TRUE;
+        return entry;
+    }
+
+    /**
+     * @return a test structure holding only the catalogued fields, enough for the
+     * search criteria to be evaluated against
+     */
+    public TestStructure toSummaryTestStructure() {
+        TestStructure testStructure = new TestStructure();
+        testStructure.setRunName(this.runName);
+        testStructure.setBundle(this.bundle);
+        testStructure.setTestName(this.testName);
+        testStructure.setTestShortName(this.testShortName);
+        testStructure.setRequestor(this.requestor);
+        testStructure.setStatus(this.status);
+        testStructure.setResult(this.result);
+        testStructure.setQueued(this.queued);
+        testStructure.setStartTime(this.startTime);
+        testStructure.setEndTime(this.endTime);
+        return testStructure;
+    }
+
+    /**
+     * @param field - the name of a field, as used by RasSortField and RasSearchCriteriaPredicate
+     * @return the value of the field, or null if it is not set or is not catalogued
+     */
+    public Object getFieldValue(String field) {
+        switch (field) {
+            case "runName":
+                return this.runName;
+            case "bundle":
+                return this.bundle;
+            case "testName":
+                return this.testName;
+            case "requestor":
+                return this.requestor;
+            case "status":
+                return this.status;
+            case "result":
+                return this.result;
+            case "queued":
+                return this.queued;
+            case "startTime":
+                return this.startTime;
+            case "endTime":
+                return this.endTime;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param field - the name of a field
+     * @return true if the field is catalogued
+     */
+    public static boolean isCataloguedField(String field) {
+        switch (field) {
+            case "runName":
+            case "bundle":
+            case "testName":
+            case "requestor":
+            case "status":
+            case "result":
+            case "queued":
+            case "startTime":
+            case "endTime":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isHeader() {
+        return this.generation != null;
+    }
+
+    public boolean isRemoved() {
+        return Boolean.TRUE.equals(this.removed);
+    }
+
+    public String getGeneration() {
+        return generation;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public long getLastModified() {
+        return (lastModified == null) ? 0 : lastModified;
+    }
+
+    public String getRunName() {
+        return runName;
+    }
+
+    public String getBundle() {
+        return bundle;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public String getRequestor() {
+        return requestor;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public Instant getQueued() {
+        return queued;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.framework.spi.ResultArchiveStoreException;
+
+/**
+ * Appends messages to the run log from a background thread, so that the test does not pay for
+ * a write to the run log on every log line.
+ *
+ * Messages are held in a bounded queue, writers block when it is full rather than lose log
+ * lines. The background thread keeps the run log open and writes when enough has been buffered
+ * or the oldest buffered message has waited long enough. flush() and shutdownWriter() only
+ * return once everything queued before them is on disk.
+ *
+ * Checking for shutdown and queuing a message is one step, so a message is either queued
+ * before the shutdown and written by the background thread, or write() returns false and the
+ * caller has to append the message itself once the queued messages have been written.
+ */
+public class DirectoryRASRunLogWriter extends Thread {
+
+    private static final int        QUEUE_CAPACITY     = 10000;
+    private static final int        WRITE_THRESHOLD    = 64 * 1024;
+    private static final long       MAX_WRITE_DELAY_MS = 200;
+
+    private final Log               logger             = LogFactory.getLog(getClass());
+
+    private final Path              runLog;
+    private final BlockingQueue<LogRequest> queue      = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ByteArrayOutputStream     buffer     = new ByteArrayOutputStream(WRITE_THRESHOLD);
+
+    private final FileChannel       channel;
+    private long                    bufferedSince;
+
+    private boolean                 shutdown           = false;
+    private final CountDownLatch    closed             = new CountDownLatch(1);
+    private volatile IOException    writeFailure;
+
+    private static class LogRequest {
+        private final byte[]         message;
+        private final CountDownLatch written;
+        private final boolean        close;
+
+        private LogRequest(byte[] message, CountDownLatch written, boolean close) {
+            this.message = message;
+            this.written = written;
+            this.close = close;
+        }
+    }
+
+    public DirectoryRASRunLogWriter(@NotNull Path runLog) throws IOException {
+        this.runLog = runLog;
+        this.channel = FileChannel.open(runLog, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+
+        setName("RAS run log writer");
+        setDaemon(true);
+    }
+
+    /**
+     * Queue a message to be appended to the run log, waiting for space if the queue is full
+     *
+     * @param message - the message bytes
+     * @return false if the writer has been shutdown and the message was not queued
+     * @throws ResultArchiveStoreException - if the writer has failed
+     */
+    public synchronized boolean write(@NotNull byte[] message) throws ResultArchiveStoreException {
+        if (this.shutdown) {
+            // *** Let the queue be written first, so the late message ends up after it
+            awaitClosed();
+            return false;
+        }
+        checkWriteFailure();
+
+        try {
+            this.queue.put(new LogRequest(message, null, false));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResultArchiveStoreException("Interrupted waiting to write to the run log", e);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until all the messages queued so far have been written and forced to disk
+     */
+    public void flush() throws ResultArchiveStoreException {
+        LogRequest request = new LogRequest(null, new CountDownLatch(1), false);
+        synchronized (this) {
+            if (this.shutdown) {
+                return;
+            }
+            checkWriteFailure();
+            queue(request);
+        }
+
+        await(request);
+        checkWriteFailure();
+    }
+
+    /**
+     * Write all the queued messages, close the run log and stop the background thread
+     */
+    public void shutdownWriter() throws ResultArchiveStoreException {
+        LogRequest request = new LogRequest(null, new CountDownLatch(1), true);
+        synchronized (this) {
+            if (this.shutdown) {
+                return;
+            }
+            this.shutdown = true;
+
+            if (!isAlive()) {
+                // *** Nothing to hand the queue to, so write it here
+                drain(request);
+                checkWriteFailure();
+                return;
+            }
+            queue(request);
+        }
+
+        await(request);
+        checkWriteFailure();
+    }
+
+    private void checkWriteFailure() throws ResultArchiveStoreException {
+        if (this.writeFailure != null) {
+            throw new ResultArchiveStoreException("Unable to write to the run log", this.writeFailure);
+        }
+    }
+
+    private void queue(LogRequest request) throws ResultArchiveStoreException {
+        try {
+            this.queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResultArchiveStoreException("Interrupted waiting to write to the run log", e);
+        }
+    }
+
+    private void awaitClosed() throws ResultArchiveStoreException {
+        try {
+            this.closed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResultArchiveStoreException("Interrupted waiting for the run log to be written", e);
+        }
+    }
+
+    private void await(LogRequest request) throws ResultArchiveStoreException {
+        try {
+            request.written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResultArchiveStoreException("Interrupted waiting for the run log to be written", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            LogRequest request;
+            try {
+                if (this.buffer.size() == 0) {
+                    request = this.queue.take();
+                } else {
+                    long wait = (this.bufferedSince + MAX_WRITE_DELAY_MS) - System.currentTimeMillis();
+                    request = this.queue.poll(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                continue; // *** Only shutdownWriter() stops the writer, or queued messages would be lost
+            }
+
+            if (request == null) {
+                writeBuffer(false); // *** The oldest buffered message has waited long enough
+                continue;
+            }
+
+            if (request.message != null) {
+                bufferMessage(request.message);
+                if (this.buffer.size() >= WRITE_THRESHOLD) {
+                    writeBuffer(false);
+                }
+                continue;
+            }
+
+            if (request.close) {
+                drain(request);
+                return;
+            }
+
+            writeBuffer(true);
+            request.written.countDown();
+        }
+    }
+
+    /**
+     * Write everything still queued, close the run log and release anyone waiting
+     */
+    private void drain(LogRequest closeRequest) {
+        ArrayList<LogRequest> remaining = new ArrayList<>();
+        this.queue.drainTo(remaining);
+        for (LogRequest request : remaining) {
+            if (request.message != null) {
+                bufferMessage(request.message);
+            }
+        }
+
+        writeBuffer(true);
+        closeChannel();
+        this.closed.countDown();
+
+        remaining.add(closeRequest);
+        for (LogRequest request : remaining) {
+            if (request.written != null) {
+                request.written.countDown();
+            }
+        }
+    }
+
+    private void bufferMessage(byte[] message) {
+        if (this.buffer.size() == 0) {
+            this.bufferedSince = System.currentTimeMillis();
+        }
+        this.buffer.write(message, 0, message.length);
+    }
+
+    private void writeBuffer(boolean force) {
+        try {
+            if (this.buffer.size() > 0) {
+                ByteBuffer bytes = ByteBuffer.wrap(this.buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    this.channel.write(bytes);
+                }
+            }
+            if (force) {
+                this.channel.force(false);
+            }
+        } catch (IOException e) {
+            if (this.writeFailure == null) {
+                logger.error("Unable to write to the run log " + this.runLog, e);
+            }
+            this.writeFailure = e;
+        } finally {
+            this.buffer.reset();
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            logger.warn("Problem closing the run log " + this.runLog, e);
+        }
+    }
+}
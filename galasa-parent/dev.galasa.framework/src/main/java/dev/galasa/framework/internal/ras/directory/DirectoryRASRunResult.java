@@ -5,16 +5,20 @@
  */
 package dev.galasa.framework.internal.ras.directory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 
 import dev.galasa.framework.spi.IRunResult;
 import dev.galasa.framework.spi.ResultArchiveStoreException;
+import dev.galasa.framework.spi.ras.ArtifactManifestEntry;
 import dev.galasa.framework.spi.teststructure.TestStructure;
 import dev.galasa.framework.spi.utils.GalasaGson;
 
@@ -24,11 +28,18 @@ public class DirectoryRASRunResult implements IRunResult {
     private final TestStructure                  testStructure;
     private final DirectoryRASFileSystemProvider fileSystemProvider;
     private final String                         id;
+    private final DirectoryRASRunCatalogue       catalogue;
 
     protected DirectoryRASRunResult(Path runDirectory, GalasaGson gson, String id)
             throws JsonSyntaxException, JsonIOException, IOException {
+        this(runDirectory, gson, id, null);
+    }
+
+    protected DirectoryRASRunResult(Path runDirectory, GalasaGson gson, String id, DirectoryRASRunCatalogue catalogue)
+            throws JsonSyntaxException, JsonIOException, IOException {
         this.runDirectory = runDirectory;
         this.id           = id;
+        this.catalogue    = catalogue;
 
         Path structureFile = this.runDirectory.resolve("structure.json");
         
@@ -46,6 +57,7 @@ public class DirectoryRASRunResult implements IRunResult {
     	this.runDirectory = null;
     	this.fileSystemProvider = null;
     	this.id                 = null;
+    	this.catalogue          = null;
     }
 
     @Override
@@ -73,8 +85,55 @@ public class DirectoryRASRunResult implements IRunResult {
         return "";
     }
 
+    @Override
+    public InputStream getLogStream() throws ResultArchiveStoreException {
+        Path runLog = runDirectory.resolve("run.log");
+        if (Files.exists(runLog)) {
+            try {
+                return Files.newInputStream(runLog);
+            } catch (Exception e) {
+                throw new ResultArchiveStoreException("Unable to read the run log at " + runLog.toString(), e);
+            }
+        }
+
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public long getLogSize() throws ResultArchiveStoreException {
+        Path runLog = runDirectory.resolve("run.log");
+        if (Files.exists(runLog)) {
+            try {
+                return Files.size(runLog);
+            } catch (Exception e) {
+                throw new ResultArchiveStoreException("Unable to read the run log at " + runLog.toString(), e);
+            }
+        }
+
+        return 0;
+    }
+
+    @Override
+    public List<ArtifactManifestEntry> getArtifactManifest() throws ResultArchiveStoreException {
+        if (this.fileSystemProvider == null) {
+            return null;
+        }
+        try {
+            return this.fileSystemProvider.getArtifactManifest();
+        } catch (IOException e) {
+            throw new ResultArchiveStoreException("Unable to read the artifact manifest of run " + this.id, e);
+        }
+    }
+
     public void discard() throws ResultArchiveStoreException {
-        //TODO
+        try {
+            this.fileSystemProvider.discard();
+            if (this.catalogue != null) {
+                this.catalogue.remove(this.runDirectory.getFileName().toString());
+            }
+        } catch (IOException e) {
+            throw new ResultArchiveStoreException("Unable to discard run " + this.id, e);
+        }
     }
 
     @Override
@@ -20,8 +20,12 @@ import java.util.Objects;
 
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.annotations.Component;
 
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IResultArchiveStoreDirectoryService;
 import dev.galasa.framework.spi.IResultArchiveStoreService;
@@ -40,6 +44,8 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
 
     private static final Charset           UTF8     = Charset.forName("utf-8");
 
+    private final Log                      logger   = LogFactory.getLog(getClass());
+
     private final IFramework               framework;                           // NOSONAR
     private final URI                      rasUri;
     private final Path                     baseDirectory;
@@ -49,11 +55,14 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
     private Path                           runDirectory;
     private Path                           testStructureFile;
     private Path                           runLog;
+    private DirectoryRASRunLogWriter       runLogWriter;
 
     private final GalasaGson                     gson     = new GalasaGson();
 
     private DirectoryRASFileSystemProvider provider;
 
+    private final DirectoryRASRunCatalogue catalogue;
+
     public DirectoryResultArchiveStoreService(IFramework framework, URI rasUri) throws ResultArchiveStoreException {
         this.framework = framework;
         this.rasUri = rasUri;
@@ -66,6 +75,7 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
             throw new ResultArchiveStoreException(
                     "Unable to create the RAS base directory '" + this.baseDirectory + "'", e);
         }
+        this.catalogue = new DirectoryRASRunCatalogue(this.baseDirectory);
 
         // *** Get the runname to create the directory
         final String runName = this.framework.getTestRunName();
@@ -78,22 +88,42 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
         this.testStructureFile = this.runDirectory.resolve("structure.json");
         this.runLog = this.runDirectory.resolve("run.log");
 
-        // *** Create an empty run log so we append it
+        // *** Create an empty run log and the writer that appends to it
         try {
             Files.createFile(this.runLog);
+            this.runLogWriter = new DirectoryRASRunLogWriter(this.runLog);
+            this.runLogWriter.start();
         } catch (final IOException e) {
             throw new ResultArchiveStoreException("Unable to create Run Log", e);
         }
 
         // *** Setup the provider to do all the work
         try {
-            this.provider = new DirectoryRASFileSystemProvider(this.runDirectory);
+            this.provider = new DirectoryRASFileSystemProvider(this.runDirectory, isCompressionEnabled());
         } catch (final IOException e) {
             throw new ResultArchiveStoreException("Unable to create the RAS Provider", e);
         }
 
     }
 
+    /**
+     * Artifacts are only compressed into the blob store shared by all runs if
+     * framework.resultarchive.store.directory.compress is true
+     *
+     * @return true if new artifacts are to be compressed
+     */
+    private boolean isCompressionEnabled() {
+        try {
+            IConfigurationPropertyStoreService cps = this.framework.getConfigurationPropertyService("framework");
+            if (cps != null) {
+                return Boolean.parseBoolean(cps.getProperty("resultarchive.store", "directory.compress"));
+            }
+        } catch (ConfigurationPropertyStoreException e) {
+            logger.warn("Unable to read framework.resultarchive.store.directory.compress, artifacts will not be compressed", e);
+        }
+        return false;
+    }
+
     /**
      * Setup the run directory
      *
@@ -114,6 +144,7 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
                     movePath = this.runDirectory.resolveSibling(runname + "-" + Integer.toString(i));
                     if (!Files.exists(movePath)) {
                         Files.move(runDirectory, movePath);
+                        removeFromCatalogue(runname);
                         break;
                     }
                 }
@@ -132,6 +163,18 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
         }
     }
 
+    /**
+     * The previous run in a reused run directory is picked up again under its new name
+     * the next time the catalogue is reconciled
+     */
+    private void removeFromCatalogue(String runname) {
+        try {
+            this.catalogue.remove(runname);
+        } catch (IOException e) {
+            logger.warn("Unable to remove run directory '" + runname + "' from the RAS run catalogue", e);
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -150,6 +193,11 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
         if(framework.getConfidentialTextService() != null)
             message = framework.getConfidentialTextService().removeConfidentialText(message);
 
+        // *** Once the writer has been shutdown, late messages are appended directly
+        if (this.runLogWriter != null && this.runLogWriter.write(message.getBytes(UTF8))) {
+            return;
+        }
+
         try {
             Files.write(this.runLog, message.getBytes(UTF8), StandardOpenOption.APPEND);
         } catch (final Exception e) {
@@ -190,6 +238,13 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
         } catch (final Exception e) {
             throw new ResultArchiveStoreException("Unable to write the test structure", e);
         }
+
+        // *** The catalogue is rebuilt from the run directories if it falls behind, so don't fail the run
+        try {
+            this.catalogue.record(this.runDirectory, testStructure);
+        } catch (final Exception e) {
+            logger.warn("Unable to record the test structure in the RAS run catalogue", e);
+        }
     }
 
     /*
@@ -204,10 +259,33 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
 
     @Override
     public void flush() {
+        if (this.runLogWriter == null) {
+            return;
+        }
+
+        try {
+            this.runLogWriter.flush();
+        } catch (ResultArchiveStoreException e) {
+            logger.error("Unable to flush the run log", e);
+        }
     }
 
     @Override
     public void shutdown() {
+        if (this.runLogWriter != null) {
+            try {
+                this.runLogWriter.shutdownWriter();
+            } catch (ResultArchiveStoreException e) {
+                logger.error("Unable to write the remainder of the run log", e);
+            }
+        }
+        if (this.provider != null) {
+            try {
+                this.provider.shutdown();
+            } catch (IOException e) {
+                logger.error("Unable to compact the artifact manifest", e);
+            }
+        }
         this.shutdown = true;
     }
 
@@ -218,7 +296,7 @@ public class DirectoryResultArchiveStoreService implements IResultArchiveStoreSe
     @Override
     public @NotNull List<IResultArchiveStoreDirectoryService> getDirectoryServices() {
         ArrayList<IResultArchiveStoreDirectoryService> dirs = new ArrayList<>(1);
-        dirs.add(new DirectoryRASDirectoryService(this.baseDirectory, gson));
+        dirs.add(new DirectoryRASDirectoryService(this.baseDirectory, gson, this.catalogue));
         return dirs;
     }
 
@@ -106,6 +106,28 @@ public class CharacterVariable implements ICharacter {
         return chars.size();
     }
 
+    /**
+     * This method returns the position of a character in the order defined.
+     * 
+     * @param c - the character to find.
+     * @return int - the position, or -1 if the character is not in the definition.
+     */
+    public int indexOf(char c) {
+        int index = Collections.binarySearch(chars, c);
+        return (index < 0) ? -1 : index;
+    }
+
+    /**
+     * This method returns the character at a position in the order defined,
+     * without storing it.
+     * 
+     * @param index - the position of the character.
+     * @return char - the character at the position.
+     */
+    public char charAt(int index) {
+        return chars.get(index);
+    }
+
     /**
      * This method, called by the constructor, generates the acceptable chars
      * defined in the defintion passed in the node.
@@ -0,0 +1,142 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.rps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class holds which of the resources in a resource string definition are
+ * unavailable as one bit per combination, in the order getNextResource() steps
+ * through the definition. Free resources, or runs of consecutive free
+ * resources, can then be found without checking each candidate in turn.
+ */
+public class ResourceBitmap {
+    /**
+     * The largest definition a bitmap is built for, 2MB of bits. Larger
+     * definitions are left to random and sequential generation.
+     */
+    public static final int      MAX_COMBINATIONS = 1 << 24;
+
+    private final ResourceString definition;
+    private final int            combinations;
+    private final BitSet         unavailable;
+    private final BitSet         reserved;
+
+    /**
+     * @param definition - the resource string definition, with no more than
+     *                   MAX_COMBINATIONS combinations.
+     */
+    public ResourceBitmap(ResourceString definition) {
+        this.definition = definition;
+        this.combinations = definition.getNumberOfCombinations();
+        this.unavailable = new BitSet(this.combinations);
+        this.reserved = new BitSet(this.combinations);
+    }
+
+    /**
+     * This method checks if a bitmap can be built for the definition.
+     *
+     * @param definition - the resource string definition.
+     * @return - true if the definition is small enough.
+     */
+    public static boolean isSupported(ResourceString definition) {
+        return !definition.hasMoreCombinationsThan(MAX_COMBINATIONS);
+    }
+
+    /**
+     * This method marks a resource as unavailable, for example because it is
+     * in use or has been rejected. Resource names outside the definition are
+     * ignored.
+     *
+     * @param resource - the resource name.
+     */
+    public void markUnavailable(String resource) {
+        int index = this.definition.getResourceIndex(resource);
+        if (index >= 0) {
+            this.unavailable.set(index);
+            this.reserved.set(index);
+        }
+    }
+
+    /**
+     * This method marks a resource as reserved, so it will not be returned again
+     * until reset() is called. Resource names outside the definition are ignored.
+     *
+     * @param resource - the resource name.
+     */
+    public void markReserved(String resource) {
+        int index = this.definition.getResourceIndex(resource);
+        if (index >= 0) {
+            this.reserved.set(index);
+        }
+    }
+
+    /**
+     * This method releases all the resources reserved since the bitmap was
+     * built, leaving only the unavailable resources marked.
+     */
+    public void reset() {
+        this.reserved.clear();
+        this.reserved.or(this.unavailable);
+    }
+
+    /**
+     * @return - the number of resources that are neither unavailable nor
+     *         reserved.
+     */
+    public int getFreeCount() {
+        return this.combinations - this.reserved.cardinality();
+    }
+
+    /**
+     * This method reserves a run of consecutive free resources.
+     *
+     * @param count  - the number of consecutive resources.
+     * @param random - where to start looking for a free run, or null to take the
+     *               first free run.
+     * @return - the resource names in order, or null if there is no free run long
+     *         enough.
+     */
+    public List<String> reserve(int count, Random random) {
+        if (count <= 0 || count > this.combinations) {
+            return null;
+        }
+
+        int start = -1;
+        if (random != null) {
+            start = findFreeRun(random.nextInt(this.combinations), count);
+        }
+        if (start < 0) {
+            start = findFreeRun(0, count);
+        }
+        if (start < 0) {
+            return null;
+        }
+
+        this.reserved.set(start, start + count);
+
+        List<String> resources = new ArrayList<>(count);
+        for (int i = start; i < start + count; i++) {
+            resources.add(this.definition.getResource(i));
+        }
+        return resources;
+    }
+
+    private int findFreeRun(int from, int count) {
+        int start = this.reserved.nextClearBit(from);
+        while (start + count <= this.combinations) {
+            int nextReserved = this.reserved.nextSetBit(start);
+            if (nextReserved < 0 || nextReserved >= start + count) {
+                return start;
+            }
+            start = this.reserved.nextClearBit(nextReserved);
+        }
+        return -1;
+    }
+}
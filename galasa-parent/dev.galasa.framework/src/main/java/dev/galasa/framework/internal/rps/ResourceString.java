@@ -140,4 +140,77 @@ public class ResourceString {
         }
         return combintations;
     }
-}
\ No newline at end of file
+
+    /**
+     * This method checks if the definition has more combinations than a limit,
+     * without the count overflowing.
+     * 
+     * @param limit - the number of combinations.
+     * @return - true if there are more combinations than the limit.
+     */
+    public boolean hasMoreCombinationsThan(int limit) {
+        long combinations = 1;
+        for (ICharacter c : string) {
+            combinations *= c.numberOfCombinations();
+            if (combinations > limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method returns the position of a resource name in the order that
+     * getNextResource() steps through the definition, the first resource being at
+     * position 0.
+     * 
+     * @param resource - the resource name.
+     * @return - int, the position, or -1 if the resource name is not in the range
+     *         defined.
+     */
+    public int getResourceIndex(String resource) {
+        if (resource.length() != string.size()) {
+            return -1;
+        }
+
+        int index = 0;
+        for (int i = 0; i < string.size(); i++) {
+            ICharacter character = string.get(i);
+            char c = resource.charAt(i);
+            if (character instanceof CharacterVariable) {
+                int charIndex = ((CharacterVariable) character).indexOf(c);
+                if (charIndex < 0) {
+                    return -1;
+                }
+                index = (index * character.numberOfCombinations()) + charIndex;
+            } else if (character.firstChar() != c) {
+                return -1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * This method returns the resource name at a position in the order that
+     * getNextResource() steps through the definition.
+     * 
+     * @param index - the position, from 0 to one less than the number of
+     *              combinations.
+     * @return - string, for the definition: APPLID{9}{9}{9} position 359 would be
+     *         APPLID359.
+     */
+    public String getResource(int index) {
+        char[] resource = new char[string.size()];
+        for (int i = string.size() - 1; i >= 0; i--) {
+            ICharacter character = string.get(i);
+            if (character instanceof CharacterVariable) {
+                int combinations = character.numberOfCombinations();
+                resource[i] = ((CharacterVariable) character).charAt(index % combinations);
+                index /= combinations;
+            } else {
+                resource[i] = character.firstChar();
+            }
+        }
+        return new String(resource);
+    }
+}
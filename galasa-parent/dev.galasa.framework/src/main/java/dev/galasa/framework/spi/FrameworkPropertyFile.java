@@ -5,24 +5,35 @@
  */
 package dev.galasa.framework.spi;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
@@ -47,13 +58,36 @@ import dev.galasa.framework.spi.IFrameworkPropertyFileWatcher.Event;
  * and the watchng of values inside the properties.
  * </p>
  * 
+ * <p>
+ * Changes are not written by rewriting the properties file. Sets are appended
+ * to it as property lines, and deletes as comment lines starting #deleted:
+ * followed by the key, so a write costs the size of the change rather than the
+ * size of the file. The lines are applied in order, so the last line for a key
+ * wins. Readers, including those in other JVMs, replay only the lines they have
+ * not yet seen. Once the appended lines outnumber the properties, the file is
+ * rewritten with a new generation in its first line, which tells the readers to
+ * load it again.
+ * </p>
+ * 
+ * <p>
+ * Anything reading the file as plain properties, rather than through this
+ * class, will see deleted keys until the file is next rewritten.
+ * </p>
+ * 
+ * <p>
+ * Changes are applied to the properties in memory in place, behind a version
+ * counter that is odd while a change is being applied. A read that overlaps a
+ * change reads again, so readers never see part of a change, and a write costs
+ * the keys it changes rather than a copy of the properties.
+ * </p>
+ *
  *  
  *
  */
 
 public class FrameworkPropertyFile implements FileAlterationListener {
-    private Properties             currentProperties = new Properties();
-    private HashMap<UUID, Watch>   watches           = new HashMap<>();
+    private volatile PropertyStore currentProperties = new PropertyStore();
+    private final Map<UUID, Watch> watches           = new ConcurrentHashMap<>();
     private URI                    file;
     private File                   propertyFile;
     private String                 parent;
@@ -61,6 +95,27 @@ public class FrameworkPropertyFile implements FileAlterationListener {
     private FileAlterationMonitor  monitor;
     private static Log             fpfLog            = LogFactory.getLog(FrameworkPropertyFile.class);
 
+    private static final String    GENERATION_HEADER = "#generation=";
+    private static final String    DELETED_PREFIX    = "#deleted:";
+    private static final int       COMPACTION_MINIMUM_ENTRIES = 1000;
+    private static final long      CHANGE_CHECK_INTERVAL_MS   = 100;
+
+    // *** File locks do not exclude other instances in the same JVM, so they also share a lock per file
+    private static final ConcurrentHashMap<Path, SharedFile> fileLocks = new ConcurrentHashMap<>();
+
+    private Path                   propertyPath;
+    private SharedFile             fileLock;
+    private final ReentrantLock    updateLock        = new ReentrantLock();
+    private volatile long          seenVersion;
+    private volatile long          lastChangeCheck;
+    private final AtomicLong       propertiesVersion = new AtomicLong();
+
+    private String                 generation;
+    private long                   readOffset;
+    private long                   appendedEntries;
+    private long                   propertyFileModified;
+    private long                   propertyFileSize;
+
     /**
      * <p>
      * This constructor loads the properties store in the file into memory. For the
@@ -76,6 +131,8 @@ public class FrameworkPropertyFile implements FileAlterationListener {
         this.file = file;
         this.propertyFile = new File(file);
         this.parent = propertyFile.getParent();
+        this.propertyPath = Paths.get(file).toAbsolutePath().normalize();
+        this.fileLock = fileLocks.computeIfAbsent(this.propertyPath, k -> new SharedFile());
 
         load();
 
@@ -97,10 +154,9 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @param key
      * @return - corresponding value from the key, null if non-exsisting
      */
-    public synchronized String get(final String key) {
-        observer.checkAndNotify();
-        return currentProperties.getProperty(key);
-
+    public String get(final String key) {
+        checkForChanges();
+        return currentProperties.get(key);
     }
 
     /**
@@ -113,16 +169,9 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      *                  store.
      * @return A map of any size or null. The key is a string which starts with the specified prefix.
      */
-    public synchronized Map<String, String> getPrefix(String keyPrefix) {
-        Map<String, String> values = new HashMap<>();
-        observer.checkAndNotify();
-        for (Object k : currentProperties.keySet()) {
-            String key = (String) k;
-            if (key.startsWith(keyPrefix)) {
-                values.put(key, currentProperties.getProperty(key));
-            }
-        }
-        return values;
+    public Map<String, String> getPrefix(String keyPrefix) {
+        checkForChanges();
+        return currentProperties.getPrefix(keyPrefix);
     }
 
     /**
@@ -133,16 +182,109 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * 
      * @return - List of namespaces
      */
-    public synchronized List<String> getNamespaces() {
-        List<String> namespaces = new ArrayList<>();
-        observer.checkAndNotify();
-        for (Object k : currentProperties.keySet()) {
-            String name = ((String)k).substring(0,((String)k).indexOf("."));
-            if(!namespaces.contains(name)) {
-                namespaces.add(name);
+    public List<String> getNamespaces() {
+        checkForChanges();
+        return currentProperties.getNamespaces();
+    }
+
+    /**
+     * <p>
+     * Returns a number that increases every time the properties in memory
+     * change, after the change can be read. Like the reads, it looks for changes
+     * made by other JVMs at most every CHANGE_CHECK_INTERVAL_MS, so it can be
+     * called on every lookup.
+     * </p>
+     * 
+     * @return - the version of the properties
+     */
+    public long getVersion() {
+        checkForChanges();
+        return this.propertiesVersion.get();
+    }
+
+    /**
+     * <p>
+     * The reads do not take the object monitor and do not look at the files on
+     * every call. Changes made by another instance in this JVM are picked up
+     * straight away, as it bumps the shared version of the file. Changes made by
+     * other JVMs are looked for at most every CHANGE_CHECK_INTERVAL_MS, or by the
+     * monitor thread while there are watches.
+     * </p>
+     * 
+     * <p>
+     * A read never waits for the check. It only catches up if nothing else is
+     * updating the properties, in this JVM or another, otherwise it carries on
+     * with the properties it has and a later read checks again.
+     * </p>
+     */
+    private void checkForChanges() {
+        boolean changedInJvm = this.fileLock.version.get() != this.seenVersion;
+        long now = System.currentTimeMillis();
+        boolean checkDue = this.monitor == null && (now - this.lastChangeCheck) >= CHANGE_CHECK_INTERVAL_MS;
+        if (!changedInJvm && !checkDue) {
+            return;
+        }
+
+        if (!this.updateLock.tryLock()) {
+            return;
+        }
+        Map<String, String> oldValues;
+        try {
+            if (!this.fileLock.lock.tryLock()) {
+                return;
+            }
+            try {
+                oldValues = refreshIfUnlocked();
+            } finally {
+                this.fileLock.lock.unlock();
+            }
+        } finally {
+            this.updateLock.unlock();
+        }
+
+        if (oldValues != null) {
+            this.lastChangeCheck = now;
+            // *** Outside the locks, so a watcher can change the properties
+            notifyChanges(oldValues);
+        }
+    }
+
+    /**
+     * Catch up with the file, unless another JVM holds the lock on it
+     * 
+     * @return the previous value of each key that has changed, or null if the
+     *         file is locked and was not looked at
+     */
+    private Map<String, String> refreshIfUnlocked() {
+        if (this.currentProperties == null) {
+            return new HashMap<>(); // *** Destroyed
+        }
+
+        try (FileChannel fileChannel = FileChannel.open(this.propertyPath, StandardOpenOption.READ)) {
+            if (fileChannel.tryLock(0, Long.MAX_VALUE, true) == null) {
+                return null;
             }
+            return refresh(fileChannel);
+        } catch (OverlappingFileLockException e) {
+            return null; // *** Locked by something else in this JVM
+        } catch (IOException e) {
+            fpfLog.error("Error encounted loading file changes", e);
+            return new HashMap<>();
         }
-        return namespaces;
+    }
+
+    /**
+     * Take the locks needed to change the properties in memory or the file. The
+     * object monitor, if it is held, must be taken first.
+     */
+    private void lockForUpdate() {
+        this.updateLock.lock();
+        this.fileLock.lock.lock();
+    }
+
+    private void unlockForUpdate() {
+        this.fileLock.lock.unlock();
+        this.updateLock.unlock();
     }
 
     /**
@@ -156,24 +298,21 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @throws FrameworkPropertyFileException
      */
     public synchronized void delete(String key) throws FrameworkPropertyFileException {
-        // Make the current properties as close to the values in the file as 
-        // we can. So when we write they are up-to-date.
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-
-        // There is a small window here when another JVM may write to the file,
-        // which will get lost when we over-write it.
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
-                this.currentProperties.remove(key);
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
+                Map<String, String> oldValues = refresh(fileChannel);
+
+                PendingChanges changes = new PendingChanges();
+                changes.remove(key);
+
+                commit(fileChannel, changes, oldValues);
             } catch (IOException e) {
                 fpfLog.error("Unable to delete the key: " + key, e);
                 throw new FrameworkPropertyFileException("Unable to delete key: " + key, e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
@@ -185,27 +324,23 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @throws FrameworkPropertyFileException
      */
     public synchronized void delete(Set<String> keys) throws FrameworkPropertyFileException {
-        // Make the current properties as close to the values in the file as 
-        // we can. So when we write they are up-to-date.
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-        // There is a small window here when another JVM may write to the file,
-        // which will get lost when we over-write it.
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
+                Map<String, String> oldValues = refresh(fileChannel);
 
+                PendingChanges changes = new PendingChanges();
                 for (String key : keys) {
-                    this.currentProperties.remove(key);
+                    changes.remove(key);
                 }
 
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
+                commit(fileChannel, changes, oldValues);
             } catch (IOException e) {
                 fpfLog.error("Unable to delete keys", e);
                 throw new FrameworkPropertyFileException("Unable to delete keys.", e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
@@ -216,140 +351,113 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @throws FrameworkPropertyFileException
      */
     public synchronized void deletePrefix(String prefix) throws FrameworkPropertyFileException {
-        Set<String> deleteKeys = new HashSet<>();
-
-        // refresh our cache of properties from the file contents.
-        // Note that we can't do this while holding a write lock as the check
-        // attempts to get a read lock which fails, as the write lock is held.
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-        // There is a small timing window here where another JVM will enter and write a
-        // new set of properties to the file. We have no lock protecting it, so are 
-        // likely to over-write the file with our property cache values...
-        // Meaning this code is not able to protect itself from other JVMs interfering, and 
-        // vice-versa.
-
-        synchronized (FrameworkPropertyFile.class) {
-            try {
-                // Block other JVMs from writing to the property file while we delete things.
-                try (FileChannel fileChannel = getWriteChannel(false)) {
-
-                    // Gather the list of keys to be deleted.
-                    for (Object k : currentProperties.keySet()) {
-                        String key = (String) k;
-                        if (key.startsWith(prefix)) {
-                            deleteKeys.add(key);
-                        }
-                    }
-
-                    // Make a note of the current property values, so we retain a before... and after...
-                    // set to be used later notifying any observers of property changes.
-                    Properties oldProperties = (Properties) this.currentProperties.clone();
+        lockForUpdate();
+        try {
+            // Block other JVMs from writing to the property file while we delete things,
+            // catching up with anything they have written before we gather the keys.
+            try (FileChannel fileChannel = getWriteChannel(false)) {
+                Map<String, String> oldValues = refresh(fileChannel);
 
-                    // Now delete the keys
-                    for (String key : deleteKeys) {
-                        this.currentProperties.remove(key);
-                    }
+                PendingChanges changes = new PendingChanges();
+                changes.removePrefix(prefix);
 
-                    write(fileChannel, this.currentProperties);
-                    fileModified(this.currentProperties, oldProperties);
-                }
+                commit(fileChannel, changes, oldValues);
             } catch (IOException e) {
                 fpfLog.error("Failed to update file with DSS actions", e);
                 throw new FrameworkPropertyFileException("Unable to delete key prefix: " + prefix, e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
     public synchronized void performActions(IDssAction... actions) throws DynamicStatusStoreException, DynamicStatusStoreMatchException {
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
-
-                for(IDssAction action : actions) {
-                    if (action instanceof DssAdd) {
-                        performActionsAdd((DssAdd) action);
-                    } else if (action instanceof DssDelete) {
-                        performActionsDelete((DssDelete) action);
-                    } else if (action instanceof DssDeletePrefix) {
-                        performActionsDeletePrefix((DssDeletePrefix) action);
-                    } else if (action instanceof DssUpdate) {
-                        performActionsUpdate((DssUpdate) action);
-                    } else if (action instanceof DssSwap) {
-                        performActionsSwap((DssSwap) action);
-                    } else {
-                        throw new DynamicStatusStoreException("Unrecognised DSS Action - " + action.getClass().getName());
+                Map<String, String> oldValues = refresh(fileChannel);
+
+                // The actions are applied to the pending changes, so nothing is changed if one fails to match
+                PendingChanges changes = new PendingChanges();
+
+                try {
+                    for(IDssAction action : actions) {
+                        if (action instanceof DssAdd) {
+                            performActionsAdd((DssAdd) action, changes);
+                        } else if (action instanceof DssDelete) {
+                            performActionsDelete((DssDelete) action, changes);
+                        } else if (action instanceof DssDeletePrefix) {
+                            performActionsDeletePrefix((DssDeletePrefix) action, changes);
+                        } else if (action instanceof DssUpdate) {
+                            performActionsUpdate((DssUpdate) action, changes);
+                        } else if (action instanceof DssSwap) {
+                            performActionsSwap((DssSwap) action, changes);
+                        } else {
+                            throw new DynamicStatusStoreException("Unrecognised DSS Action - " + action.getClass().getName());
+                        }
                     }
+                } catch (DynamicStatusStoreException e) {
+                    notifyChanges(oldValues); // *** Still report what other writers have changed
+                    throw e;
                 }
 
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
+                commit(fileChannel, changes, oldValues);
             } catch (IOException e) {
                 fpfLog.error("Failed to update file with DSS actions", e);
                 throw new DynamicStatusStoreException("Failed to update file with DSS actions", e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
-    private void performActionsAdd(DssAdd dssAdd) throws DynamicStatusStoreMatchException {
+    private void performActionsAdd(DssAdd dssAdd, PendingChanges changes) throws DynamicStatusStoreMatchException {
         String key = dssAdd.getKey();
         String value = dssAdd.getValue();
 
-        String currentValue = this.currentProperties.getProperty(key);
+        String currentValue = changes.get(key);
         if (currentValue != null) {
             throw new DynamicStatusStoreMatchException("Attempt to add new property '" + key + "' but it already exists");
         }
 
-        this.currentProperties.put(key, value);
+        changes.put(key, value);
     }
 
 
-    private void performActionsDelete(DssDelete dssDelete) throws DynamicStatusStoreMatchException {
+    private void performActionsDelete(DssDelete dssDelete, PendingChanges changes) throws DynamicStatusStoreMatchException {
         String key = dssDelete.getKey();
         String oldValue = dssDelete.getOldValue();
 
         if (oldValue != null) {
-            String currentValue = this.currentProperties.getProperty(key);
+            String currentValue = changes.get(key);
             if (!oldValue.equals(currentValue)) {
                 throw new DynamicStatusStoreMatchException("Attempt to delete property '" + key + "', but current value '" + currentValue + "' does not match required value '" +oldValue + "'");
             }
         }
 
-        this.currentProperties.remove(key);
+        changes.remove(key);
     }
 
 
-    private void performActionsDeletePrefix(DssDeletePrefix dssDeletePrefix) {
-        ArrayList<String> toBeDeleted = new ArrayList<>();
-        for (Object k : this.currentProperties.keySet()) {
-            String key = (String) k;
-            if (key.startsWith(dssDeletePrefix.getPrefix())) {
-                toBeDeleted.add(key);
-            }
-        }
-        
-        for(String key : toBeDeleted) {
-            this.currentProperties.remove(key);
-        }
-        
+    private void performActionsDeletePrefix(DssDeletePrefix dssDeletePrefix, PendingChanges changes) {
+        changes.removePrefix(dssDeletePrefix.getPrefix());
     }
 
 
-    private void performActionsUpdate(DssUpdate dssUpdate) {
+    private void performActionsUpdate(DssUpdate dssUpdate, PendingChanges changes) {
         String key   = dssUpdate.getKey();
         String value = dssUpdate.getValue();
 
-        this.currentProperties.put(key, value);
+        changes.put(key, value);
     }
 
 
-    private void performActionsSwap(DssSwap dssSwap) throws DynamicStatusStoreMatchException {
+    private void performActionsSwap(DssSwap dssSwap, PendingChanges changes) throws DynamicStatusStoreMatchException {
         String key      = dssSwap.getKey();
         String newValue = dssSwap.getNewValue();
         String oldValue = dssSwap.getOldValue();
         
-        String currentValue = this.currentProperties.getProperty(key);
+        String currentValue = changes.get(key);
 
         if (oldValue == null) {
             if (currentValue != null) {
@@ -361,7 +469,7 @@ public class FrameworkPropertyFile implements FileAlterationListener {
             }
         }
         
-        this.currentProperties.put(key, newValue);
+        changes.put(key, newValue);
     }
 
 
@@ -377,9 +485,11 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      */
     public synchronized void write(FileChannel fileChannel, Properties newProperties) throws IOException {
         fileChannel.truncate(0);
+        fileChannel.position(0);
+        // *** Do not close the stream, that would close the channel and release the lock
         OutputStream out = Channels.newOutputStream(fileChannel);
         newProperties.store(out, null);
-        out.close();
+        out.flush();
     }
 
     /**
@@ -394,23 +504,21 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @throws FrameworkPropertyFileException
      */
     public synchronized void set(String key, String value) throws FrameworkPropertyFileException {
-
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
+                Map<String, String> oldValues = refresh(fileChannel);
 
-                this.currentProperties.put(key, value);
+                PendingChanges changes = new PendingChanges();
+                changes.put(key, value);
 
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
+                commit(fileChannel, changes, oldValues);
             } catch (IOException e) {
                 fpfLog.error("Unable to set key value pair: " + key + ":" + value, e);
                 throw new FrameworkPropertyFileException("Failed Setting value: " + key + "=" + value, e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
@@ -426,21 +534,21 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @throws IOException
      */
     public synchronized void set(Map<String, String> values) throws FrameworkPropertyFileException, IOException {
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
+                Map<String, String> oldValues = refresh(fileChannel);
 
-                this.currentProperties.putAll(values);
+                PendingChanges changes = new PendingChanges();
+                changes.putAll(values);
 
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
+                commit(fileChannel, changes, oldValues);
             } catch (IOException e) {
                 fpfLog.error("Unable to set values", e);
                 throw new FrameworkPropertyFileException("Unable to set values", e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
@@ -558,33 +666,7 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      */
     public synchronized boolean setAtomic(String key, String oldValue, String newValue)
             throws FrameworkPropertyFileException {
-
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-
-        synchronized (FrameworkPropertyFile.class) {
-            try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
-                if (oldValue == null && oldProperties.get(key) == null) {
-                    this.currentProperties.put(key, newValue);
-                } else {
-                    if (oldValue == null) {
-                        return false;
-                    }
-                    if (!this.currentProperties.replace(key, oldValue, newValue)) {
-                        return false;
-                    }
-                }
-
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
-                return true;
-            } catch (IOException e) {
-                fpfLog.error("Failed to set Atomically", e);
-                throw new FrameworkPropertyFileException("Failed to set atomically", e);
-            }
-        }
+        return setAtomic(key, oldValue, newValue, new HashMap<>());
     }
 
     /**
@@ -613,35 +695,30 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      */
     public synchronized boolean setAtomic(String key, String oldValue, String newValue, Map<String, String> otherValues)
             throws FrameworkPropertyFileException {
-
-        if (observer!=null) {
-            observer.checkAndNotify();
-        }
-
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getWriteChannel(false)) {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
+                Map<String, String> oldValues = refresh(fileChannel);
 
-                if (oldValue == null && oldProperties.get(key) == null) {
-                    this.currentProperties.put(key, newValue);
-                } else {
-                    if (oldValue == null) {
-                        return false;
-                    }
-                    if (!this.currentProperties.replace(key, oldValue, newValue)) {
-                        return false;
-                    }
+                String currentValue = this.currentProperties.get(key);
+                boolean matched = (oldValue == null) ? (currentValue == null) : oldValue.equals(currentValue);
+                if (!matched) {
+                    notifyChanges(oldValues);
+                    return false;
                 }
 
-                this.currentProperties.putAll(otherValues);
+                PendingChanges changes = new PendingChanges();
+                changes.put(key, newValue);
+                changes.putAll(otherValues);
 
-                write(fileChannel, this.currentProperties);
-                fileModified(this.currentProperties, oldProperties);
+                commit(fileChannel, changes, oldValues);
                 return true;
             } catch (IOException e) {
                 fpfLog.error("Failed to set Atomically", e);
                 throw new FrameworkPropertyFileException("Failed to set atomically", e);
             }
+        } finally {
+            unlockForUpdate();
         }
     }
 
@@ -667,42 +744,601 @@ public class FrameworkPropertyFile implements FileAlterationListener {
     /**
      * <p>
      * This method is for updating any watchers. All running watches are stored in a
-     * watches Map. Comparing what is loaded in memory to the file version alerts
-     * any watches that a value has changed. This alert is interfaced through the
-     * property modified method
+     * watches Map. Each changed key is compared with the value it had before the
+     * change, which alerts any watches that a value has changed. This alert is
+     * interfaced through the property modified method
      * </p>
      * 
-     * @param newProperties - loaded from file
-     * @param oldProperties - in memory currently
+     * @param oldValues - the value each changed key had before the change, null if it did not exist
      */
-    private synchronized void fileModified(Properties newProperties, Properties oldProperties) {
-        // Checks a list of Strings that are keys to watch. Compares file to loaded.
+    private void notifyChanges(Map<String, String> oldValues) {
+        if (oldValues.isEmpty()) {
+            return;
+        }
+
         for (Watch watch : this.watches.values()) {
-            for (Object oNewKey : newProperties.keySet()) {
-                String newKey = (String) oNewKey;
-                String newValue = newProperties.getProperty(newKey);
-                if (watch.matchKey(newKey)) {
-                    String oldValue = oldProperties.getProperty(newKey);
-                    if (oldValue == null) {
-                        watch.watcher.propertyModified(newKey, Event.NEW, oldValue, newValue);
-                    } else if (!oldValue.equals(newValue)) {
-                        watch.watcher.propertyModified(newKey, Event.MODIFIED, oldValue, newValue);
+            for (Map.Entry<String, String> change : oldValues.entrySet()) {
+                String key = change.getKey();
+                if (!watch.matchKey(key)) {
+                    continue;
+                }
+
+                String oldValue = change.getValue();
+                String newValue = this.currentProperties.get(key);
+                if (oldValue == null) {
+                    if (newValue != null) {
+                        watch.watcher.propertyModified(key, Event.NEW, oldValue, newValue);
+                    }
+                } else if (newValue == null) {
+                    watch.watcher.propertyModified(key, Event.DELETE, oldValue, newValue);
+                } else if (!oldValue.equals(newValue)) {
+                    watch.watcher.propertyModified(key, Event.MODIFIED, oldValue, newValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This method brings the properties in memory up to date with the file. Only
+     * the lines appended since the last refresh are replayed, unless the file has
+     * been rewritten, in which case everything is reloaded.
+     * </p>
+     * 
+     * <p>
+     * The caller must hold a lock on the properties file.
+     * </p>
+     * 
+     * @param fileChannel - a channel on the properties file that holds a lock
+     * @return - the previous value of each key that has changed
+     * @throws IOException
+     */
+    private Map<String, String> refresh(FileChannel fileChannel) throws IOException {
+        HashMap<String, String> oldValues = new HashMap<>();
+
+        // *** Other instances in this JVM can not write while the file lock is held
+        this.seenVersion = this.fileLock.version.get();
+
+        String fileGeneration = readGeneration(fileChannel);
+        if (fileGeneration == null && this.generation == null) {
+            // *** Not written by this class yet, so the only way to tell it has changed is the file attributes
+            BasicFileAttributes attributes = Files.readAttributes(this.propertyPath, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().toMillis() != this.propertyFileModified || attributes.size() != this.propertyFileSize) {
+                reload(fileChannel, oldValues);
+            }
+            return oldValues;
+        }
+
+        long size = fileChannel.size();
+        if (fileGeneration == null || !fileGeneration.equals(this.generation) || size < this.readOffset) {
+            reload(fileChannel, oldValues);
+            return oldValues;
+        }
+
+        if (size > this.readOffset) {
+            LinkedHashMap<String, String> changes = new LinkedHashMap<>();
+            replayAppended(fileChannel, changes);
+
+            // *** Readers see all of the replayed changes or none of them
+            this.currentProperties.apply(changes, oldValues);
+            this.propertiesVersion.incrementAndGet();
+        }
+        return oldValues;
+    }
+
+    /**
+     * Load the whole of the properties file
+     */
+    private void reload(FileChannel fileChannel, Map<String, String> oldValues) throws IOException {
+        PropertyStore oldProperties = this.currentProperties;
+        this.seenVersion = this.fileLock.version.get();
+
+        BasicFileAttributes attributes = Files.readAttributes(this.propertyPath, BasicFileAttributes.class);
+
+        // *** A partial line left by a failed append is ignored until the file is next rewritten
+        byte[] bytes = readFrom(fileChannel, 0);
+        int length = completeLinesLength(bytes);
+
+        LinkedHashMap<String, String> loaded = new LinkedHashMap<>();
+        long entries = applyLines(bytes, length, loaded);
+        PropertyStore newProperties = new PropertyStore();
+        newProperties.apply(loaded, null);
+
+        this.propertyFileModified = attributes.lastModifiedTime().toMillis();
+        this.propertyFileSize = attributes.size();
+        this.generation = readGeneration(fileChannel);
+        this.readOffset = length;
+        this.appendedEntries = Math.max(0, entries - newProperties.size());
+
+        // *** Readers switch to the reloaded properties in one step
+        this.currentProperties = newProperties;
+        this.propertiesVersion.incrementAndGet();
+
+        if (oldProperties == null || oldValues == null) {
+            return;
+        }
+
+        for (Map.Entry<String, String> entry : oldProperties.entries()) {
+            if (!entry.getValue().equals(newProperties.get(entry.getKey()))) {
+                oldValues.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> entry : newProperties.entries()) {
+            if (oldProperties.get(entry.getKey()) == null) {
+                oldValues.put(entry.getKey(), null);
+            }
+        }
+    }
+
+    /**
+     * @return the generation in the first line of the file, or null if it was
+     *         not written by this class
+     */
+    private String readGeneration(FileChannel fileChannel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        fileChannel.read(buffer, 0);
+        String start = new String(buffer.array(), 0, buffer.position(), StandardCharsets.ISO_8859_1);
+        int endOfLine = start.indexOf('\n');
+        if (!start.startsWith(GENERATION_HEADER) || endOfLine < 0) {
+            return null;
+        }
+        return start.substring(GENERATION_HEADER.length(), endOfLine).trim();
+    }
+
+    /**
+     * Apply the complete lines appended after the last replayed offset
+     */
+    private void replayAppended(FileChannel fileChannel, Map<String, String> changes) throws IOException {
+        byte[] bytes = readFrom(fileChannel, this.readOffset);
+        int length = completeLinesLength(bytes);
+        if (length == 0) {
+            return;
+        }
+
+        this.appendedEntries += applyLines(bytes, length, changes);
+        this.readOffset += length;
+    }
+
+    /**
+     * Gather the changes made by property lines and deleted lines, in the order
+     * they are in. The property lines between two deleted lines are loaded
+     * together, as only the last value of each key matters.
+     * 
+     * @param changes - the last value of each key that is changed, null if it is deleted
+     * @return the number of sets and deletes
+     */
+    private long applyLines(byte[] bytes, int length, Map<String, String> changes) throws IOException {
+        byte[] deletedPrefix = DELETED_PREFIX.getBytes(StandardCharsets.ISO_8859_1);
+
+        long entries = 0;
+        int setsStart = 0;
+        int lineStart = 0;
+        boolean continued = false;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length - 1 && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            if (!continued && startsWith(bytes, lineStart, lineEnd, deletedPrefix)) {
+                entries += applySets(bytes, setsStart, lineStart, changes);
+
+                Properties deleted = new Properties();
+                deleted.load(new ByteArrayInputStream(bytes, lineStart + deletedPrefix.length, lineEnd + 1 - lineStart - deletedPrefix.length));
+                for (String key : deleted.stringPropertyNames()) {
+                    changes.put(key, null);
+                    entries++;
+                }
+                setsStart = lineEnd + 1;
+            } else {
+                continued = isContinued(bytes, lineStart, lineEnd, continued);
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        entries += applySets(bytes, setsStart, length, changes);
+        return entries;
+    }
+
+    private long applySets(byte[] bytes, int start, int end, Map<String, String> changes) throws IOException {
+        if (end <= start) {
+            return 0;
+        }
+
+        Properties sets = new Properties();
+        sets.load(new ByteArrayInputStream(bytes, start, end - start));
+        for (String key : sets.stringPropertyNames()) {
+            changes.put(key, sets.getProperty(key));
+        }
+        return countEntries(bytes, start, end - start);
+    }
+
+    private static boolean startsWith(byte[] bytes, int lineStart, int lineEnd, byte[] prefix) {
+        if (lineEnd - lineStart < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[lineStart + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the line carries on to the next one, which happens when a
+     *         line that is not a comment ends with an odd number of backslashes
+     */
+    private static boolean isContinued(byte[] bytes, int lineStart, int lineEnd, boolean continuation) {
+        int first = lineStart;
+        while (first < lineEnd && (bytes[first] == ' ' || bytes[first] == '\t' || bytes[first] == '\f')) {
+            first++;
+        }
+        if (!continuation && first < lineEnd && (bytes[first] == '#' || bytes[first] == '!')) {
+            return false;
+        }
+
+        int last = lineEnd;
+        while (last > lineStart && (bytes[last] == '\n' || bytes[last] == '\r')) {
+            last--;
+        }
+        int backslashes = 0;
+        while (last - backslashes >= lineStart && bytes[last - backslashes] == '\\') {
+            backslashes++;
+        }
+        return (backslashes % 2) == 1;
+    }
+
+    private byte[] readFrom(FileChannel fileChannel, long offset) throws IOException {
+        long size = fileChannel.size();
+        if (size <= offset) {
+            return new byte[0];
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - offset));
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static int completeLinesLength(byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static long countEntries(byte[] bytes, int offset, int length) {
+        long entries = 0;
+        boolean lineStart = true;
+        for (int i = offset; i < offset + length; i++) {
+            if (lineStart && bytes[i] != '#' && bytes[i] != '\n' && bytes[i] != '\r') {
+                entries++;
+            }
+            lineStart = (bytes[i] == '\n');
+        }
+        return entries;
+    }
+
+    /**
+     * <p>
+     * This method writes the pending changes to the file, applies them to the
+     * properties in memory and updates any watchers. Sets and deletes are appended to the file, the file
+     * is rewritten if it holds more appended lines than properties.
+     * </p>
+     * 
+     * <p>
+     * The caller must hold an exclusive lock on the properties file.
+     * </p>
+     */
+    private void commit(FileChannel fileChannel, PendingChanges changes, Map<String, String> oldValues) throws IOException {
+        if (!changes.isEmpty()) {
+            Properties setProperties = new Properties();
+            Properties deletedProperties = new Properties();
+            int addedKeys = 0;
+            for (Map.Entry<String, String> change : changes.entrySet()) {
+                boolean exists = this.currentProperties.get(change.getKey()) != null;
+                if (change.getValue() != null) {
+                    setProperties.setProperty(change.getKey(), change.getValue());
+                    if (!exists) {
+                        addedKeys++;
                     }
+                } else if (exists) {
+                    deletedProperties.setProperty(change.getKey(), "");
                 }
             }
 
-            // Check for deleted properties
-            for (Object oOldKey : oldProperties.keySet()) {
-                String oldKey = (String) oOldKey;
-                String oldValue = oldProperties.getProperty(oldKey);
+            long size = fileChannel.size();
+            long changedEntries = setProperties.size() + deletedProperties.size();
+            int newSize = this.currentProperties.size() + addedKeys - deletedProperties.size();
+            if (this.generation == null || size != this.readOffset
+                    || this.appendedEntries + changedEntries > Math.max(COMPACTION_MINIMUM_ENTRIES, newSize)) {
+                Properties newProperties = this.currentProperties.toProperties();
+                newProperties.putAll(setProperties);
+                for (String key : deletedProperties.stringPropertyNames()) {
+                    newProperties.remove(key);
+                }
+                rewrite(fileChannel, newProperties);
+            } else if (changedEntries > 0) {
+                // *** Each key is changed once, so the sets and deletes can be written in any order
+                ByteArrayOutputStream lines = new ByteArrayOutputStream();
+                lines.write(toLines(setProperties));
+                lines.write(toDeletedLines(deletedProperties));
+
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                fileChannel.position(size);
+                while (buffer.hasRemaining()) {
+                    fileChannel.write(buffer);
+                }
+                this.readOffset = fileChannel.size();
+                this.appendedEntries += changedEntries;
+            }
+            this.seenVersion = this.fileLock.version.incrementAndGet();
+
+            // *** Only once the file has been written, readers see all of the changes or none of them
+            this.currentProperties.apply(changes, oldValues);
+            this.propertiesVersion.incrementAndGet();
+        }
+
+        notifyChanges(oldValues);
+    }
+
+    /**
+     * Rewrite the properties file from memory with a new generation
+     */
+    private void rewrite(FileChannel fileChannel, Properties properties) throws IOException {
+        String newGeneration = UUID.randomUUID().toString();
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write((GENERATION_HEADER + newGeneration + "\n").getBytes(StandardCharsets.ISO_8859_1));
+        properties.store(content, null);
+
+        ByteBuffer buffer = ByteBuffer.wrap(content.toByteArray());
+        fileChannel.truncate(0);
+        fileChannel.position(0);
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+        fileChannel.force(false);
+
+        BasicFileAttributes attributes = Files.readAttributes(this.propertyPath, BasicFileAttributes.class);
+        this.propertyFileModified = attributes.lastModifiedTime().toMillis();
+        this.propertyFileSize = attributes.size();
+        this.generation = newGeneration;
+        this.readOffset = fileChannel.size();
+        this.appendedEntries = 0;
+    }
+
+    /**
+     * @return the properties as lines in the format of a properties file, without
+     *         the date comment that Properties.store writes
+     */
+    private static byte[] toLines(Properties properties) throws IOException {
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        properties.store(stored, null);
+        byte[] bytes = stored.toByteArray();
+
+        int start = 0;
+        while (start < bytes.length && bytes[start] == '#') {
+            while (start < bytes.length && bytes[start++] != '\n') {
+                // *** Skip the comment line
+            }
+        }
+        return Arrays.copyOfRange(bytes, start, bytes.length);
+    }
+
+    /**
+     * @return a deleted line for each of the keys, with the key escaped as it
+     *         would be in a property line
+     */
+    private static byte[] toDeletedLines(Properties keys) throws IOException {
+        byte[] keyLines = toLines(keys);
+        byte[] deletedPrefix = DELETED_PREFIX.getBytes(StandardCharsets.ISO_8859_1);
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        int lineStart = 0;
+        for (int i = 0; i < keyLines.length; i++) {
+            if (keyLines[i] == '\n') {
+                lines.write(deletedPrefix);
+                lines.write(keyLines, lineStart, i + 1 - lineStart);
+                lineStart = i + 1;
+            }
+        }
+        return lines.toByteArray();
+    }
+
+    /**
+     * <p>
+     * This class is shared by all the instances in the JVM for the same file. It
+     * holds the lock they write under and counts the writes, so that the other instances
+     * know to catch up without having to look at the file.
+     * </p>
+     */
+    private static class SharedFile {
+        private final AtomicLong    version = new AtomicLong();
+        private final ReentrantLock lock    = new ReentrantLock();
+    }
 
-                if (watch.matchKey(oldKey)) {
-                    String newValue = newProperties.getProperty(oldKey);
-                    if (newValue == null) {
-                        watch.watcher.propertyModified(oldKey, Event.DELETE, oldValue, newValue);
+    /**
+     * <p>
+     * This class holds the properties in memory, sorted by key so that the keys
+     * with a prefix are a range rather than a scan of every key. A count of the keys
+     * in each namespace is kept as keys are added and removed, so the namespaces do
+     * not have to be gathered from every key.
+     * </p>
+     * 
+     * <p>
+     * Changes are applied in place by one writer at a time. The sequence is odd
+     * while a change is being applied, and a read that starts during a change, or
+     * overlaps one, reads again.
+     * </p>
+     */
+    private static class PropertyStore {
+        private final ConcurrentSkipListMap<String, String>  values          = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, Integer> namespaceCounts = new ConcurrentSkipListMap<>();
+        private final AtomicLong                             sequence        = new AtomicLong();
+        private volatile int                                 size;
+
+        private String get(String key) {
+            while (true) {
+                long start = startRead();
+                String value = this.values.get(key);
+                if (this.sequence.get() == start) {
+                    return value;
+                }
+            }
+        }
+
+        private Map<String, String> getPrefix(String prefix) {
+            while (true) {
+                long start = startRead();
+                HashMap<String, String> prefixValues = new HashMap<>();
+                for (Map.Entry<String, String> entry : this.values.tailMap(prefix).entrySet()) {
+                    if (!entry.getKey().startsWith(prefix)) {
+                        break;
+                    }
+                    prefixValues.put(entry.getKey(), entry.getValue());
+                }
+                if (this.sequence.get() == start) {
+                    return prefixValues;
+                }
+            }
+        }
+
+        private List<String> getNamespaces() {
+            while (true) {
+                long start = startRead();
+                ArrayList<String> namespaces = new ArrayList<>(this.namespaceCounts.keySet());
+                if (this.sequence.get() == start) {
+                    return namespaces;
+                }
+            }
+        }
+
+        private long startRead() {
+            long start = this.sequence.get();
+            while ((start & 1) != 0) {
+                Thread.onSpinWait();
+                start = this.sequence.get();
+            }
+            return start;
+        }
+
+        /**
+         * Only called by the writer, which is the only thread that changes the store
+         */
+        private Set<Map.Entry<String, String>> entries() {
+            return this.values.entrySet();
+        }
+
+        private int size() {
+            return this.size;
+        }
+
+        /**
+         * Apply changes as one step for the readers
+         * 
+         * @param changes   - the new value of each key, null to delete it
+         * @param oldValues - filled with the value each key had before its first change, may be null
+         */
+        private void apply(Map<String, String> changes, Map<String, String> oldValues) {
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            if (oldValues != null) {
+                for (String key : changes.keySet()) {
+                    if (!oldValues.containsKey(key)) {
+                        oldValues.put(key, this.values.get(key));
                     }
                 }
             }
+
+            this.sequence.incrementAndGet();
+            try {
+                for (Map.Entry<String, String> change : changes.entrySet()) {
+                    if (change.getValue() == null) {
+                        remove(change.getKey());
+                    } else {
+                        put(change.getKey(), change.getValue());
+                    }
+                }
+            } finally {
+                this.sequence.incrementAndGet();
+            }
+        }
+
+        private void put(String key, String value) {
+            if (this.values.put(key, value) == null) {
+                this.size++;
+                countNamespace(key, 1);
+            }
+        }
+
+        private void remove(String key) {
+            if (this.values.remove(key) != null) {
+                this.size--;
+                countNamespace(key, -1);
+            }
+        }
+
+        private void countNamespace(String key, int change) {
+            int dot = key.indexOf('.');
+            if (dot < 0) {
+                return;
+            }
+
+            this.namespaceCounts.compute(key.substring(0, dot), (namespace, count) -> {
+                int newCount = ((count == null) ? 0 : count) + change;
+                return (newCount <= 0) ? null : newCount;
+            });
+        }
+
+        private Properties toProperties() {
+            Properties properties = new Properties();
+            properties.putAll(this.values);
+            return properties;
+        }
+    }
+
+    /**
+     * <p>
+     * This class holds the changes being made by a single write, so that values
+     * can be checked against the changes made so far before any of them are
+     * applied. A null value is a delete.
+     * </p>
+     */
+    private class PendingChanges extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        public String get(String key) {
+            if (containsKey(key)) {
+                return super.get(key);
+            }
+            return currentProperties.get(key);
+        }
+
+        @Override
+        public String remove(Object key) {
+            String oldValue = get((String) key);
+            super.put((String) key, null);
+            return oldValue;
+        }
+
+        public void removePrefix(String prefix) {
+            for (String key : currentProperties.getPrefix(prefix).keySet()) {
+                super.put(key, null);
+            }
+            for (String key : new ArrayList<>(keySet())) {
+                if (key.startsWith(prefix)) {
+                    super.put(key, null);
+                }
+            }
         }
     }
 
@@ -716,7 +1352,7 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @return - a read file channel
      * @throws IOException
      */
-    private synchronized FileChannel getReadChannel(boolean shared) throws IOException {
+    private FileChannel getReadChannel(boolean shared) throws IOException {
         Path path = Paths.get(file);
         FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
         try {
@@ -731,16 +1367,17 @@ public class FrameworkPropertyFile implements FileAlterationListener {
     /**
      * <p>
      * This method is used to return a file channel that can be used for writing to
-     * the properties file. It is expected to be an exlusive lock
+     * the properties file, and reading it while the lock is held. It is expected to
+     * be an exlusive lock
      * </p>
      * 
      * @param shared - expected to be false for a write to the file
      * @return - a write file channel
      * @throws IOException
      */
-    private synchronized FileChannel getWriteChannel(boolean shared) throws IOException {
+    private FileChannel getWriteChannel(boolean shared) throws IOException {
         Path path = Paths.get(file);
-        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE);
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
         try {
             fileChannel.lock(0, Long.MAX_VALUE, shared);
             return fileChannel;
@@ -765,19 +1402,18 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * @throws FrameworkPropertyFileException
      */
     public synchronized void load() throws FrameworkPropertyFileException {
-        Properties newProperties = new Properties();
-        synchronized (FrameworkPropertyFile.class) {
+        lockForUpdate();
+        try {
             try (FileChannel fileChannel = getReadChannel(true)) {
-                InputStream in = Channels.newInputStream(fileChannel);
-                newProperties.load(in);
-                in.close();
+                reload(fileChannel, null);
             } catch (IOException e) {
                 fpfLog.error("Unable to Load Property from file", e);
                 throw new FrameworkPropertyFileException(
                         "Unable to Load Property from file: " + propertyFile.toString(), e);
             }
+        } finally {
+            unlockForUpdate();
         }
-        this.currentProperties = newProperties;
     }
 
     /**
@@ -808,35 +1444,51 @@ public class FrameworkPropertyFile implements FileAlterationListener {
      * As this is an implemented method, it cannot throw a exception so the
      * exception is logged
      * </p>
+     * 
+     * <p>
+     * It does not take the object monitor, so a change is never held up by a
+     * writer in this instance waiting for the file lock.
+     * </p>
      */
-    public synchronized void onFileChange(File file) {
-        synchronized (FrameworkPropertyFile.class) {
-            try {
-                Properties oldProperties = (Properties) this.currentProperties.clone();
-                load();
-                fileModified(this.currentProperties, oldProperties);
-            } catch (FrameworkPropertyFileException e) {
+    public void onFileChange(File file) {
+        Map<String, String> oldValues = null;
+        lockForUpdate();
+        try {
+            if (this.currentProperties == null) {
+                return; // *** Destroyed
+            }
+
+            try (FileChannel fileChannel = getReadChannel(true)) {
+                oldValues = refresh(fileChannel);
+            } catch (IOException e) {
                 fpfLog.error("Error encounted loading file changes", e);
             }
+        } finally {
+            unlockForUpdate();
+        }
+
+        // *** Outside the locks, so a watcher can change the properties
+        if (oldValues != null) {
+            notifyChanges(oldValues);
         }
     }
 
     /**
      * <p>
-     * This method is not used
+     * This method is invoked if the properties file is created again
      * </p>
      */
     public void onFileCreate(File file) {
-        // Method not used for fpf
+        onFileChange(file);
     }
 
     /**
      * <p>
-     * This method is not used
+     * This method is invoked if the properties file is removed
      * </p>
      */
     public void onFileDelete(File file) {
-        // Method not used for fpf
+        onFileChange(file);
     }
 
     /**
@@ -15,6 +15,7 @@ import java.util.UUID;
 
 import javax.validation.constraints.NotNull;
 
+import dev.galasa.framework.internal.rps.ResourceBitmap;
 import dev.galasa.framework.internal.rps.ResourceString;
 
 /**
@@ -247,11 +248,15 @@ public class FrameworkResourcePoolingService implements IResourcePoolingService
     }
 
     /**
-     * This method generates the resources from the given restrictions. On the first
-     * pass random generation is attempted to make sure load is equally spread
-     * across resources. If random generation fails, sequential generation of
-     * resources is then attempted. The InsufficentResourceException is thrown if
-     * this too cannot generate the defined resources.
+     * This method generates the resources from the given restrictions. Where the
+     * definitions are small enough, the resources are reserved from bitmaps of the
+     * unavailable resources, built from a single read of the DSS.
+     * 
+     * Otherwise, on the first pass random generation is attempted to make sure
+     * load is equally spread across resources. If random generation fails,
+     * sequential generation of resources is then attempted. The
+     * InsufficentResourceException is thrown if this too cannot generate the
+     * defined resources.
      * 
      * @param resourceDefinitions - the resource strings passed that define the
      *                            availabble resources to generate.
@@ -272,13 +277,18 @@ public class FrameworkResourcePoolingService implements IResourcePoolingService
     private List<String> generateResources(List<ResourceString> resourceDefinitions, List<String> rejectedResources,
             int numberOfResources, IDynamicStatusStoreService dss, String keyPrefix, int returnConsecutive)
             throws DynamicStatusStoreException, InsufficientResourcesAvailableException {
-        List<String> generatedResources = new ArrayList<>();
-        List<String> bannedResources = new ArrayList<>();
-
         if (rejectedResources == null) {
             rejectedResources = new ArrayList<>();
         }
 
+        List<ResourceBitmap> bitmaps = createResourceBitmaps(resourceDefinitions, rejectedResources, dss, keyPrefix);
+        if (bitmaps != null) {
+            return reserveResources(bitmaps, numberOfResources, returnConsecutive);
+        }
+
+        List<String> generatedResources = new ArrayList<>();
+        List<String> bannedResources = new ArrayList<>();
+
         bannedResources.addAll(rejectedResources);
 
         try {
@@ -322,6 +332,106 @@ public class FrameworkResourcePoolingService implements IResourcePoolingService
         }
     }
 
+    /**
+     * This method builds a bitmap of the unavailable resources for each
+     * definition, from the rejected resources and a single read of the resources
+     * in use in the DSS.
+     * 
+     * @param resourceDefinitions - the resource strings passed that define the
+     *                            available resources to generate.
+     * @param rejectedResources   - the resource strings which are to be rejected.
+     * @param dss                 - the dynamic status store to check against.
+     * @param keyPrefix           - the prefix for the resource if it was to be
+     *                            found in the DSS.
+     * @return - a bitmap for each definition, in the same order, or null if a
+     *         definition has too many combinations for a bitmap.
+     * @throws DynamicStatusStoreException
+     */
+    private List<ResourceBitmap> createResourceBitmaps(List<ResourceString> resourceDefinitions,
+            List<String> rejectedResources, IDynamicStatusStoreService dss, String keyPrefix)
+            throws DynamicStatusStoreException {
+        List<ResourceBitmap> bitmaps = new ArrayList<>();
+        for (ResourceString definition : resourceDefinitions) {
+            if (!ResourceBitmap.isSupported(definition)) {
+                return null;
+            }
+            bitmaps.add(new ResourceBitmap(definition));
+        }
+
+        List<String> unavailableResources = new ArrayList<>(rejectedResources);
+        for (String key : dss.getPrefix(keyPrefix).keySet()) {
+            if (key.startsWith(keyPrefix)) {
+                unavailableResources.add(key.substring(keyPrefix.length()));
+            }
+        }
+
+        for (String resource : unavailableResources) {
+            for (ResourceBitmap bitmap : bitmaps) {
+                bitmap.markUnavailable(resource);
+            }
+        }
+        return bitmaps;
+    }
+
+    /**
+     * This method reserves the resources from the bitmaps. On the first pass each
+     * "chunk" starts at a random position in a randomly chosen definition, to
+     * spread load across the resources. If that leaves too little room for the
+     * later chunks, the chunks are reserved again first fit, definition by
+     * definition.
+     * 
+     * The resources are ranked in the order they were reserved, the caller is
+     * expected to reserve them in the DSS atomically, as they may have been taken
+     * since the DSS was read.
+     * 
+     * @param bitmaps           - the bitmaps for each of the resource definitions.
+     * @param numberOfResources - the number of resources required to be generated.
+     * @param returnConsecutive - the "chunk" size to generate consecutive
+     *                          resources too.
+     * @return - a list of the resources reserved.
+     * @throws InsufficientResourcesAvailableException
+     */
+    private List<String> reserveResources(List<ResourceBitmap> bitmaps, int numberOfResources, int returnConsecutive)
+            throws InsufficientResourcesAvailableException {
+        List<String> generatedResources = reserveResources(bitmaps, numberOfResources, returnConsecutive, random);
+        if (generatedResources == null) {
+            for (ResourceBitmap bitmap : bitmaps) {
+                bitmap.reset();
+            }
+            generatedResources = reserveResources(bitmaps, numberOfResources, returnConsecutive, null);
+        }
+
+        if (generatedResources == null) {
+            throw new InsufficientResourcesAvailableException("There is not enough resource available");
+        }
+        return generatedResources;
+    }
+
+    private List<String> reserveResources(List<ResourceBitmap> bitmaps, int numberOfResources, int returnConsecutive,
+            Random startRandom) {
+        List<String> generatedResources = new ArrayList<>();
+        while (generatedResources.size() < numberOfResources) {
+            int first = (startRandom == null) ? 0 : startRandom.nextInt(bitmaps.size());
+
+            List<String> newResources = null;
+            for (int i = 0; i < bitmaps.size() && newResources == null; i++) {
+                newResources = bitmaps.get((first + i) % bitmaps.size()).reserve(returnConsecutive, startRandom);
+            }
+            if (newResources == null) {
+                return null;
+            }
+
+            // A resource may be in more than one definition
+            for (String resource : newResources) {
+                for (ResourceBitmap bitmap : bitmaps) {
+                    bitmap.markReserved(resource);
+                }
+            }
+            generatedResources.addAll(newResources);
+        }
+        return generatedResources;
+    }
+
     /**
      * This method is used for the random generation of the resources.
      * 
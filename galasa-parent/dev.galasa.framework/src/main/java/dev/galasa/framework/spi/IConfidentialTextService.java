@@ -5,6 +5,10 @@
  */
 package dev.galasa.framework.spi;
 
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * The confidential text services provides a manager with the ability to
  * registered passwords, usernames, keys and other confidnetial texts so that
@@ -31,6 +35,36 @@ public interface IConfidentialTextService {
      */
     String removeConfidentialText(String text);
 
+    /**
+     * Wraps a writer so that registered texts are removed from large outputs as they
+     * are written. The returned writer must be closed to write the end of the output.
+     * 
+     * By default each chunk written is passed through removeConfidentialText(String),
+     * so a text split across two writes is not obscured. Services should override this
+     * to obscure texts that span writes.
+     * 
+     * @param writer - the writer the obscured output is written to.
+     * @return -a writer that obscures the output.
+     */
+    default Writer removeConfidentialText(Writer writer) {
+        return new FilterWriter(writer) {
+            @Override
+            public void write(int c) throws IOException {
+                write(new char[] { (char) c }, 0, 1);
+            }
+
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                this.out.write(removeConfidentialText(new String(cbuf, off, len)));
+            }
+
+            @Override
+            public void write(String str, int off, int len) throws IOException {
+                this.out.write(removeConfidentialText(str.substring(off, off + len)));
+            }
+        };
+    }
+
     /**
      * Shutdown the confidential text service
      */
@@ -91,6 +91,20 @@ public interface IConfigurationPropertyStore {
      */
     List<String> getNamespaces() throws ConfigurationPropertyStoreException;
 
+    /**
+     * Return a number that increases whenever any property in the store changes,
+     * including changes made by other processes, once the change can be read.
+     * 
+     * Stores that are unable to tell when they have changed do not need to
+     * implement this, the framework will not cache properties read from them.
+     * 
+     * @return - the version of the store, or -1 if the store cannot tell when it has changed
+     * @throws ConfigurationPropertyStoreException - An error occurred.
+     */
+    default long getVersion() throws ConfigurationPropertyStoreException {
+        return -1;
+    }
+
     /**
      * Called by the framework when shutting down.
      * 
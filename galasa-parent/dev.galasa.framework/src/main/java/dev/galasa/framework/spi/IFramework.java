@@ -36,6 +36,13 @@ import dev.galasa.framework.spi.creds.ICredentialsService;
  */
 public interface IFramework {
 
+    /**
+     * Set the override properties. Must be called again after the overrides have
+     * been changed in place, so that properties resolved from the old overrides
+     * are not used.
+     * 
+     * @param overrideProperties - property values preferred over the CPS
+     */
     void setFrameworkProperties(Properties overrideProperties);
 
     boolean isInitialised();
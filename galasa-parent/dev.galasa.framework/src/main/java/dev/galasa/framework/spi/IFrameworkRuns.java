@@ -5,12 +5,16 @@
  */
 package dev.galasa.framework.spi;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
 import javax.validation.constraints.NotNull;
 
+import dev.galasa.framework.beans.SubmitRunRequest;
+import dev.galasa.framework.beans.SubmitRunResult;
+
 public interface IFrameworkRuns {
     
     public enum SharedEnvironmentPhase {
@@ -28,6 +32,15 @@ public interface IFrameworkRuns {
     @NotNull
     List<IRun> getAllRuns() throws FrameworkException;
 
+    /**
+     * Builds every run from a single prefix read of the DSS, so that callers needing
+     * several views of the runs during one poll only pay for one scan.
+     */
+    @NotNull
+    default RunsSnapshot getRunsSnapshot() throws FrameworkException {
+        return new RunsSnapshot(getAllRuns());
+    }
+
     @NotNull
     List<IRun> getAllGroupedRuns(@NotNull String groupName) throws FrameworkException;
 
@@ -39,6 +52,31 @@ public interface IFrameworkRuns {
             String mavenRepository, String obr, String stream, boolean local, boolean trace, Properties overrides,
             SharedEnvironmentPhase sharedEnvironmentPhase, String sharedEnvironmentRunName, String language) throws FrameworkException;
 
+    /**
+     * Submit several runs at once, such as the tests of a group. A failure to
+     * submit one run does not stop the others being submitted.
+     * 
+     * @param runRequests - the runs to submit
+     * @return the outcome of each run, in the same order as the requests
+     */
+    @NotNull
+    default List<SubmitRunResult> submitRuns(@NotNull List<SubmitRunRequest> runRequests) {
+        ArrayList<SubmitRunResult> results = new ArrayList<>();
+        for (SubmitRunRequest runRequest : runRequests) {
+            try {
+                results.add(new SubmitRunResult(submitRun(runRequest.getRunType(), runRequest.getRequestor(),
+                        runRequest.getBundleName(), runRequest.getTestName(), runRequest.getGroupName(),
+                        runRequest.getMavenRepository(), runRequest.getObr(), runRequest.getStream(),
+                        runRequest.isLocalRun(), runRequest.isTraceEnabled(), runRequest.getOverrides(),
+                        runRequest.getSharedEnvironmentPhase(), runRequest.getSharedEnvironmentRunName(),
+                        runRequest.getLanguage())));
+            } catch (FrameworkException e) {
+                results.add(new SubmitRunResult(e));
+            }
+        }
+        return results;
+    }
+
     boolean delete(String runname) throws DynamicStatusStoreException;
 
     IRun getRun(String runname) throws DynamicStatusStoreException;
@@ -5,8 +5,13 @@
  */
 package dev.galasa.framework.spi;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
 
+import dev.galasa.framework.spi.ras.ArtifactManifestEntry;
 import dev.galasa.framework.spi.teststructure.TestStructure;
 
 public interface IRunResult {
@@ -19,6 +24,42 @@ public interface IRunResult {
 
     String getLog() throws ResultArchiveStoreException;
 
+    /**
+     * Get the run log as a stream, so that a large log does not have to be held
+     * in memory. Stores that can stream the log should override this.
+     * 
+     * @return the run log, which the caller must close
+     * @throws ResultArchiveStoreException if the log cannot be read
+     */
+    default InputStream getLogStream() throws ResultArchiveStoreException {
+        String log = getLog();
+        if (log == null) {
+            log = "";
+        }
+        return new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the size of the run log in bytes, or -1 if it is not known without
+     *         reading the log
+     * @throws ResultArchiveStoreException if the log cannot be read
+     */
+    default long getLogSize() throws ResultArchiveStoreException {
+        return -1;
+    }
+
+    /**
+     * Get the stored artifacts of the run from the store's manifest, so that they can
+     * be listed without walking the artifacts. Stores without a manifest should leave
+     * this returning null.
+     * 
+     * @return the stored artifacts, or null if there is no manifest for the run
+     * @throws ResultArchiveStoreException if the manifest cannot be read
+     */
+    default List<ArtifactManifestEntry> getArtifactManifest() throws ResultArchiveStoreException {
+        return null;
+    }
+
     void discard() throws ResultArchiveStoreException;
 
     void loadArtifacts() throws ResultArchiveStoreException;
@@ -0,0 +1,192 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Decides which queued runs an engine controller should start in one pass, and
+ * allocates them to the controller in the DSS.
+ *
+ * Runs are shared fairly between pools, a pool being a requestor, or a
+ * requestor and group for requestors that are scheduled by group. Each free
+ * engine slot goes to the pool with the fewest runs active, oldest run first
+ * within a pool.
+ */
+public class RunDispatchPlanner {
+
+    private static final int                ALLOCATE_BATCH_SIZE = 50;
+
+    private static final Comparator<IRun>   QUEUED_COMPARATOR   = Comparator.comparing(IRun::getQueued,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Log                       logger              = LogFactory.getLog(getClass());
+
+    private final HashSet<String>           requestorsByGroup;
+
+    private static class Pool {
+        private final String           id;
+        private final LinkedList<IRun> queued = new LinkedList<>();
+        private int                    active;
+
+        private Pool(String id) {
+            this.id = id;
+        }
+    }
+
+    private static final Comparator<Pool>   POOL_COMPARATOR     = Comparator.<Pool>comparingInt(p -> p.active)
+            .thenComparing(p -> p.queued.getFirst(), QUEUED_COMPARATOR)
+            .thenComparing(p -> p.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * @param requestorsByGroup - the requestors whose runs are pooled by group
+     *                          rather than just by requestor
+     */
+    public RunDispatchPlanner(@NotNull Collection<String> requestorsByGroup) {
+        this.requestorsByGroup = new HashSet<>(requestorsByGroup);
+    }
+
+    /**
+     * Select the runs to start, in the order they should be started
+     *
+     * @param queuedRuns - the queued runs, local runs are ignored
+     * @param activeRuns - the runs already active, used to weight the pools
+     * @param freeSlots  - the number of engines that can be started
+     * @return up to freeSlots runs
+     */
+    public @NotNull List<IRun> plan(@NotNull List<IRun> queuedRuns, @NotNull List<IRun> activeRuns, int freeSlots) {
+        ArrayList<IRun> selected = new ArrayList<>();
+        if (freeSlots <= 0) {
+            return selected;
+        }
+
+        HashMap<String, Pool> pools = new HashMap<>();
+        for (IRun run : queuedRuns) {
+            if (!run.isLocal()) {
+                pools.computeIfAbsent(getPoolId(run), Pool::new).queued.add(run);
+            }
+        }
+
+        if (pools.isEmpty()) {
+            return selected;
+        }
+
+        for (IRun run : activeRuns) {
+            if (!run.isLocal()) {
+                Pool pool = pools.get(getPoolId(run));
+                if (pool != null) {
+                    pool.active++;
+                }
+            }
+        }
+
+        PriorityQueue<Pool> candidates = new PriorityQueue<>(POOL_COMPARATOR);
+        for (Pool pool : pools.values()) {
+            pool.queued.sort(QUEUED_COMPARATOR);
+            candidates.add(pool);
+        }
+
+        while (selected.size() < freeSlots && !candidates.isEmpty()) {
+            Pool pool = candidates.poll();
+            selected.add(pool.queued.removeFirst());
+            pool.active++;
+            if (!pool.queued.isEmpty()) {
+                candidates.add(pool);
+            }
+        }
+
+        return selected;
+    }
+
+    public @NotNull String getPoolId(@NotNull IRun run) {
+        if (this.requestorsByGroup.contains(run.getRequestor())) {
+            return run.getRequestor() + "/" + run.getGroup();
+        }
+
+        return run.getRequestor();
+    }
+
+    /**
+     * Allocate the runs to this controller, swapping each from queued to
+     * allocated. The runs are swapped in batches in a single DSS transaction, if a
+     * batch fails because another controller got to one of its runs first, that
+     * batch is retried run by run.
+     *
+     * @param dss             - the framework DSS
+     * @param runs            - the runs to allocate
+     * @param controller      - the name of this controller
+     * @param allocateTimeout - how long the run has to start before it is
+     *                        requeued, or null to not record the allocation time
+     * @return the runs that were allocated to this controller
+     * @throws DynamicStatusStoreException - if there is a problem accessing the DSS
+     */
+    public @NotNull List<IRun> allocate(@NotNull IDynamicStatusStoreService dss, @NotNull List<IRun> runs,
+            @NotNull String controller, Duration allocateTimeout) throws DynamicStatusStoreException {
+        ArrayList<IRun> allocated = new ArrayList<>();
+
+        for (int start = 0; start < runs.size(); start += ALLOCATE_BATCH_SIZE) {
+            List<IRun> batch = runs.subList(start, Math.min(start + ALLOCATE_BATCH_SIZE, runs.size()));
+
+            Instant now = Instant.now();
+            ArrayList<IDssAction> actions = new ArrayList<>();
+            for (IRun run : batch) {
+                actions.add(new DssSwap("run." + run.getName() + ".status", "queued", "allocated"));
+                for (DssUpdate update : getAllocationProperties(run, controller, now, allocateTimeout)) {
+                    actions.add(update);
+                }
+            }
+
+            try {
+                dss.performActions(actions.toArray(new IDssAction[actions.size()]));
+                allocated.addAll(batch);
+                continue;
+            } catch (DynamicStatusStoreMatchException e) {
+                logger.debug("Batch allocation failed, another controller allocated one of the runs");
+            }
+
+            for (IRun run : batch) {
+                HashMap<String, String> others = new HashMap<>();
+                for (DssUpdate update : getAllocationProperties(run, controller, now, allocateTimeout)) {
+                    others.put(update.getKey(), update.getValue());
+                }
+                if (dss.putSwap("run." + run.getName() + ".status", "queued", "allocated", others)) {
+                    allocated.add(run);
+                } else {
+                    logger.info("Run " + run.getName() + " allocated by another controller");
+                }
+            }
+        }
+
+        return allocated;
+    }
+
+    private List<DssUpdate> getAllocationProperties(IRun run, String controller, Instant now, Duration allocateTimeout) {
+        String prefix = "run." + run.getName() + ".";
+
+        ArrayList<DssUpdate> properties = new ArrayList<>();
+        properties.add(new DssUpdate(prefix + "controller", controller));
+        if (allocateTimeout != null) {
+            properties.add(new DssUpdate(prefix + "allocated", now.toString()));
+            properties.add(new DssUpdate(prefix + "allocate.timeout",
+                    now.plus(allocateTimeout).toString()));
+        }
+        return properties;
+    }
+}
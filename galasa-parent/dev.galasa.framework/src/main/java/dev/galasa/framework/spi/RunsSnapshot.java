@@ -0,0 +1,104 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A point-in-time view of all the runs held in the DSS, built from a single
+ * prefix read of the "run." namespace.
+ *
+ * Callers that need several views of the runs (queued, active, grouped) during
+ * one poll should take a single snapshot and query it, rather than going back
+ * to the DSS for each view.
+ */
+public class RunsSnapshot {
+
+    private final Map<String, IRun> runs;
+
+    public RunsSnapshot(@NotNull Collection<IRun> runs) {
+        LinkedHashMap<String, IRun> runsByName = new LinkedHashMap<>();
+        for (IRun run : runs) {
+            runsByName.put(run.getName(), run);
+        }
+        this.runs = Collections.unmodifiableMap(runsByName);
+    }
+
+    public @NotNull List<IRun> getAllRuns() {
+        return new ArrayList<>(this.runs.values());
+    }
+
+    public @NotNull List<IRun> getQueuedRuns() {
+        List<IRun> queuedRuns = new ArrayList<>();
+        for (IRun run : this.runs.values()) {
+            if (isQueued(run)) {
+                queuedRuns.add(run);
+            }
+        }
+        return queuedRuns;
+    }
+
+    public @NotNull List<IRun> getActiveRuns() {
+        List<IRun> activeRuns = new ArrayList<>();
+        for (IRun run : this.runs.values()) {
+            if (isActive(run)) {
+                activeRuns.add(run);
+            }
+        }
+        return activeRuns;
+    }
+
+    public @NotNull Set<String> getActiveRunNames() {
+        HashSet<String> runNames = new HashSet<>();
+        for (IRun run : this.runs.values()) {
+            if (isActive(run)) {
+                runNames.add(run.getName());
+            }
+        }
+        return runNames;
+    }
+
+    public @NotNull List<IRun> getGroupedRuns(@NotNull String groupName) {
+        List<IRun> groupedRuns = new ArrayList<>();
+        for (IRun run : this.runs.values()) {
+            if (groupName.equals(run.getGroup())) {
+                groupedRuns.add(run);
+            }
+        }
+        return groupedRuns;
+    }
+
+    public IRun getRun(String runName) {
+        return this.runs.get(runName);
+    }
+
+    public int size() {
+        return this.runs.size();
+    }
+
+    public static boolean isQueued(IRun run) {
+        return "queued".equals(run.getStatus());
+    }
+
+    /**
+     * A run is active if it has a heartbeat, has been allocated to an engine
+     * or is a shared environment.
+     */
+    public static boolean isActive(IRun run) {
+        return run.getHeartbeat() != null
+            || "allocated".equals(run.getStatus())
+            || run.isSharedEnvironment();
+    }
+}
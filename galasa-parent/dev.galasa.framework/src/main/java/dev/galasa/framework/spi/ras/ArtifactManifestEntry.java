@@ -0,0 +1,46 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi.ras;
+
+/**
+ * A stored artifact as recorded in a run's artifact manifest
+ */
+public class ArtifactManifestEntry {
+
+    private final String path;
+    private final String contentType;
+    private final long   size;
+    private final String sha256;
+
+    /**
+     * @param path        the absolute path of the artifact within the run's artifacts, eg "/framework/cps_record.properties"
+     * @param contentType the content type the artifact was stored with, or null if none was set
+     * @param size        the size of the artifact in bytes, or -1 if it was not recorded
+     * @param sha256      the hex SHA-256 of the artifact, or null if it was not recorded
+     */
+    public ArtifactManifestEntry(String path, String contentType, long size, String sha256) {
+        this.path = path;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    public String getSha256() {
+        return this.sha256;
+    }
+}
@@ -12,5 +12,14 @@ import dev.galasa.framework.spi.teststructure.TestStructure;
 public interface IRasSearchCriteria {
 	
 	boolean criteriaMatched(@NotNull TestStructure testStructure);
+
+	/**
+	 * @return the criteria as a condition on one field, so that a store can look the
+	 *         runs up in an index or query for them, or null if the criteria can only
+	 *         be checked with criteriaMatched
+	 */
+	default RasSearchCriteriaPredicate getPredicate() {
+		return null;
+	}
 	
 }
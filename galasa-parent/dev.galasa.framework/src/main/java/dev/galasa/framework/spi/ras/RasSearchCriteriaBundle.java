@@ -40,4 +40,8 @@ public class RasSearchCriteriaBundle implements IRasSearchCriteria {
        return bundles;
    }
 
+   @Override
+   public RasSearchCriteriaPredicate getPredicate() {
+      return RasSearchCriteriaPredicate.in(RasSearchCriteriaPredicate.FIELD_BUNDLE, bundles);
+   }
 }
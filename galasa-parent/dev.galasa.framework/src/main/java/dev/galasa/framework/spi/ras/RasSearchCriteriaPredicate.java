@@ -0,0 +1,111 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi.ras;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The declarative form of a search criteria, a condition on one field of the test
+ * structure. A store can turn it into an index lookup or a query of its own rather
+ * than reading every run's test structure to call criteriaMatched.
+ *
+ * The field names are the same as those used by RasSortField.
+ */
+public class RasSearchCriteriaPredicate {
+
+    public static final String FIELD_RUN_NAME   = "runName";
+    public static final String FIELD_REQUESTOR  = "requestor";
+    public static final String FIELD_TEST_NAME  = "testName";
+    public static final String FIELD_BUNDLE     = "bundle";
+    public static final String FIELD_RESULT     = "result";
+    public static final String FIELD_STATUS     = "status";
+    public static final String FIELD_START_TIME = "startTime";
+    public static final String FIELD_END_TIME   = "endTime";
+
+    public enum Operator {
+        /** The field is equal to one of the values */
+        IN,
+        /** The field is set and is at or after the instant */
+        AT_OR_AFTER,
+        /** The field is set and is at or before the instant */
+        AT_OR_BEFORE
+    }
+
+    private final String       field;
+    private final Operator     operator;
+    private final List<String> values;
+    private final Instant      instant;
+
+    private RasSearchCriteriaPredicate(String field, Operator operator, List<String> values, Instant instant) {
+        this.field = field;
+        this.operator = operator;
+        this.values = values;
+        this.instant = instant;
+    }
+
+    public static RasSearchCriteriaPredicate in(String field, String... values) {
+        List<String> valueList = Collections.emptyList();
+        if (values != null) {
+            valueList = Collections.unmodifiableList(Arrays.asList(values));
+        }
+        return new RasSearchCriteriaPredicate(field, Operator.IN, valueList, null);
+    }
+
+    public static RasSearchCriteriaPredicate atOrAfter(String field, Instant instant) {
+        return new RasSearchCriteriaPredicate(field, Operator.AT_OR_AFTER, Collections.emptyList(), instant);
+    }
+
+    public static RasSearchCriteriaPredicate atOrBefore(String field, Instant instant) {
+        return new RasSearchCriteriaPredicate(field, Operator.AT_OR_BEFORE, Collections.emptyList(), instant);
+    }
+
+    public String getField() {
+        return this.field;
+    }
+
+    public Operator getOperator() {
+        return this.operator;
+    }
+
+    /**
+     * @return the values an IN predicate matches, no values matches nothing
+     */
+    public List<String> getValues() {
+        return this.values;
+    }
+
+    /**
+     * @return the bound of an AT_OR_AFTER or AT_OR_BEFORE predicate
+     */
+    public Instant getInstant() {
+        return this.instant;
+    }
+
+    /**
+     * Evaluate the predicate against the value of its field
+     *
+     * @param value the value of the field, a String or an Instant, or null if it is not set
+     * @return true if the value matches
+     */
+    public boolean matches(Object value) {
+        if (value == null) {
+            return false;
+        }
+        switch (this.operator) {
+            case IN:
+                return this.values.contains(value.toString());
+            case AT_OR_AFTER:
+                return (value instanceof Instant) && !((Instant) value).isBefore(this.instant);
+            case AT_OR_BEFORE:
+                return (value instanceof Instant) && !((Instant) value).isAfter(this.instant);
+            default:
+                return false;
+        }
+    }
+}
@@ -44,5 +44,12 @@ public class RasSearchCriteriaQueuedFrom implements IRasSearchCriteria {
         return this.from;
     }
 	
-}
 
+    @Override
+    public RasSearchCriteriaPredicate getPredicate() {
+        if (from == null) {
+            return null;
+        }
+        return RasSearchCriteriaPredicate.atOrAfter(RasSearchCriteriaPredicate.FIELD_START_TIME, from);
+    }
+}
@@ -44,4 +44,12 @@ public class RasSearchCriteriaQueuedTo implements IRasSearchCriteria {
     public Instant getTo() {
         return this.to;
     }
+
+    @Override
+    public RasSearchCriteriaPredicate getPredicate() {
+        if (to == null) {
+            return null;
+        }
+        return RasSearchCriteriaPredicate.atOrBefore(RasSearchCriteriaPredicate.FIELD_END_TIME, to);
+    }
 }
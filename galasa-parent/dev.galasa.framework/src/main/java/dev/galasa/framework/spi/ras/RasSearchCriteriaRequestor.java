@@ -38,4 +38,9 @@ public class RasSearchCriteriaRequestor implements IRasSearchCriteria{
     public String[] getRequestors() {
         return requestors;
     }
+
+    @Override
+    public RasSearchCriteriaPredicate getPredicate() {
+        return RasSearchCriteriaPredicate.in(RasSearchCriteriaPredicate.FIELD_REQUESTOR, requestors);
+    }
 }
@@ -43,4 +43,8 @@ public class RasSearchCriteriaResult implements IRasSearchCriteria {
    }
    
 
+   @Override
+   public RasSearchCriteriaPredicate getPredicate() {
+      return RasSearchCriteriaPredicate.in(RasSearchCriteriaPredicate.FIELD_RESULT, results);
+   }
 }
@@ -39,5 +39,9 @@ public class RasSearchCriteriaRunName implements IRasSearchCriteria {
     public String[] getRunNames() {
         return this.runNames;
     }
+
+    @Override
+    public RasSearchCriteriaPredicate getPredicate() {
+        return RasSearchCriteriaPredicate.in(RasSearchCriteriaPredicate.FIELD_RUN_NAME, runNames);
+    }
 }
-	
@@ -43,4 +43,12 @@ public class RasSearchCriteriaStatus implements IRasSearchCriteria {
       }
       return statusesStrings.toArray(new String[0]);
    }
-}
\ No newline at end of file
+
+   @Override
+   public RasSearchCriteriaPredicate getPredicate() {
+      if (statuses == null) {
+         return null;
+      }
+      return RasSearchCriteriaPredicate.in(RasSearchCriteriaPredicate.FIELD_STATUS, getStatusesAsStrings());
+   }
+}
@@ -39,4 +39,9 @@ public class RasSearchCriteriaTestName implements IRasSearchCriteria {
     public String[] getTestNames() {
         return this.testNames;
     }
+
+    @Override
+    public RasSearchCriteriaPredicate getPredicate() {
+        return RasSearchCriteriaPredicate.in(RasSearchCriteriaPredicate.FIELD_TEST_NAME, testNames);
+    }
 }
@@ -7,9 +7,16 @@ package dev.galasa.framework;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.constraints.NotNull;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -17,11 +24,15 @@ import org.junit.Test;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import dev.galasa.framework.beans.SubmitRunRequest;
+import dev.galasa.framework.beans.SubmitRunResult;
 import dev.galasa.framework.mocks.MockCPSStore;
 import dev.galasa.framework.mocks.MockDSSStore;
 import dev.galasa.framework.mocks.MockFramework;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunsSnapshot;
 import dev.galasa.framework.spi.IFrameworkRuns.SharedEnvironmentPhase;
 import dev.galasa.framework.spi.utils.GalasaGson;
 import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
@@ -760,4 +771,123 @@ public class FrameworkRunsTest {
         assertThat(thrown).isNotNull();
         assertThat(thrown.getMessage()).contains("Unable to submit shared environment run", sharedEnvironmentRunName, "is there a duplicate runname?");
     }
+
+    @Test
+    public void testGetRunsSnapshotBuildsAllRunsFromOneDssRead() throws Exception {
+        // Given...
+        Map<String, String> dssProperties = new HashMap<>();
+        dssProperties.put("run.U1.status", "queued");
+        dssProperties.put("run.U1.test", "mybundle/mytest");
+        dssProperties.put("run.U1.group", "group1");
+        dssProperties.put("run.U2.status", "running");
+        dssProperties.put("run.U2.heartbeat", "2024-01-01T10:00:00Z");
+        dssProperties.put("run.U2.test", "mybundle/myothertest");
+        dssProperties.put("run.U3.status", "allocated");
+        dssProperties.put("run.U3.group", "group1");
+        dssProperties.put("run.U4.status", "finished");
+
+        AtomicInteger prefixReads = new AtomicInteger();
+        MockDSSStore mockDss = new MockDSSStore(dssProperties) {
+            @Override
+            public @NotNull Map<String, String> getPrefix(@NotNull String keyPrefix) throws DynamicStatusStoreException {
+                prefixReads.incrementAndGet();
+                Map<String, String> results = new HashMap<>();
+                for (Entry<String, String> entry : dssProperties.entrySet()) {
+                    if (entry.getKey().startsWith(keyPrefix)) {
+                        results.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                return results;
+            }
+        };
+        MockCPSStore mockCps = new MockCPSStore(new HashMap<>());
+        MockFramework mockFramework = new MockFramework(mockCps, mockDss);
+
+        FrameworkRuns frameworkRuns = new FrameworkRuns(mockFramework);
+
+        // When...
+        RunsSnapshot snapshot = frameworkRuns.getRunsSnapshot();
+
+        // Then...
+        assertThat(prefixReads.get()).isEqualTo(1);
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.getQueuedRuns()).extracting("name").containsExactly("U1");
+        assertThat(snapshot.getActiveRunNames()).containsExactlyInAnyOrder("U2", "U3");
+        assertThat(snapshot.getGroupedRuns("group1")).extracting("name").containsExactlyInAnyOrder("U1", "U3");
+
+        IRun run = snapshot.getRun("U2");
+        assertThat(run.getTestBundleName()).isEqualTo("mybundle");
+        assertThat(run.getTestClassName()).isEqualTo("myothertest");
+        assertThat(run.getHeartbeat()).isNotNull();
+    }
+
+    @Test
+    public void testSubmitRunsWritesGroupInBatchedTransactions() throws Exception {
+        // Given...
+        MockDSSStore mockDss = new MockDSSStore(new HashMap<>());
+        MockCPSStore mockCps = new MockCPSStore(new HashMap<>());
+        MockFramework mockFramework = new MockFramework(mockCps, mockDss);
+
+        FrameworkRuns frameworkRuns = new FrameworkRuns(mockFramework);
+
+        List<SubmitRunRequest> runRequests = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            runRequests.add(new SubmitRunRequest("unknown", "me", "mybundle", "mytest" + i, "my.group",
+                "https://my.maven.repo", "mvn:my.group/my.group.obr/0.38.0/obr", "a-test-stream", false, false,
+                new Properties(), null, null, "java"));
+        }
+
+        // When...
+        List<SubmitRunResult> results = frameworkRuns.submitRuns(runRequests);
+
+        // Then...
+        assertThat(results).hasSize(30).allMatch(SubmitRunResult::isSubmitted);
+        assertThat(mockDss.getPerformActionsCount()).isLessThan(30);
+        assertThat(mockDss.get("request.prefix.U.lastused")).isEqualTo("30");
+
+        for (int i = 0; i < 30; i++) {
+            IRun run = results.get(i).getRun();
+            assertThat(run.getName()).isEqualTo("U" + (i + 1));
+            assertThat(run.getTestClassName()).isEqualTo("mytest" + i);
+            assertThat(run.getGroup()).isEqualTo("my.group");
+            assertThat(run.getStatus()).isEqualTo("queued");
+            assertThat(mockDss.get("run.U" + (i + 1) + ".test")).isEqualTo("mybundle/mytest" + i);
+        }
+    }
+
+    @Test
+    public void testSubmitRunsWithRunNameInUseStillSubmitsEveryRun() throws Exception {
+        // Given...
+        MockDSSStore mockDss = new MockDSSStore(new HashMap<>()) {
+            @Override
+            public boolean putSwap(@NotNull String key, String oldValue, @NotNull String newValue,
+                    @NotNull Map<String, String> others) throws DynamicStatusStoreException {
+                // *** Like a real DSS, only swap if the old value matches
+                if (!Objects.equals(get(key), oldValue)) {
+                    return false;
+                }
+                return super.putSwap(key, oldValue, newValue, others);
+            }
+        };
+        mockDss.put("run.U2.test", "someone/elses");
+        MockCPSStore mockCps = new MockCPSStore(new HashMap<>());
+        MockFramework mockFramework = new MockFramework(mockCps, mockDss);
+
+        FrameworkRuns frameworkRuns = new FrameworkRuns(mockFramework);
+
+        List<SubmitRunRequest> runRequests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            runRequests.add(new SubmitRunRequest("unknown", "me", "mybundle", "mytest" + i, "my.group",
+                null, null, null, false, false, new Properties(), null, null, "java"));
+        }
+
+        // When...
+        List<SubmitRunResult> results = frameworkRuns.submitRuns(runRequests);
+
+        // Then...
+        assertThat(results).hasSize(3).allMatch(SubmitRunResult::isSubmitted);
+        assertThat(results).extracting(result -> result.getRun().getTestClassName())
+            .containsExactly("mytest0", "mytest1", "mytest2");
+        assertThat(mockDss.get("run.U2.test")).isEqualTo("someone/elses");
+    }
 }
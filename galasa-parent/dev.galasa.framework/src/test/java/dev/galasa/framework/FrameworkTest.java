@@ -0,0 +1,46 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import dev.galasa.framework.internal.cps.FpfConfigurationPropertyStore;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+
+public class FrameworkTest {
+
+    @Test
+    public void testOverridesChangedInPlaceAreUsedOnceTheFrameworkIsTold() throws Exception {
+        Path cpsFile = Files.createTempFile("galasa_cps_junit", ".properties");
+        FpfConfigurationPropertyStore cpsStore = new FpfConfigurationPropertyStore(cpsFile.toUri());
+        try {
+            Properties overrides = new Properties();
+            Framework framework = new Framework();
+            framework.setFrameworkProperties(overrides);
+            framework.setConfigurationPropertyStore(cpsStore);
+
+            IConfigurationPropertyStoreService cps = framework.getConfigurationPropertyService("zos");
+            assertThat(cps.getProperty("image", "credentialid", "PLEXMA")).isNull();
+
+            // *** As the run overrides are loaded from the DSS
+            overrides.put("zos.image.PLEXMA.credentialid", "runcreds");
+            framework.setFrameworkProperties(overrides);
+
+            assertThat(cps.getProperty("image", "credentialid", "PLEXMA")).isEqualTo("runcreds");
+            assertThat(framework.getConfigurationPropertyService("zos").getProperty("image", "credentialid", "PLEXMA"))
+                    .isEqualTo("runcreds");
+        } finally {
+            cpsStore.shutdown();
+            Files.deleteIfExists(cpsFile);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.ResolutionPlanCache.PlannedBundle;
+
+public class ResolutionPlanCacheTest {
+
+    private File planFile;
+
+    @Before
+    public void setup() throws Exception {
+        this.planFile = File.createTempFile("galasa_plans_", ".properties");
+        this.planFile.delete();
+    }
+
+    @After
+    public void teardown() {
+        this.planFile.delete();
+    }
+
+    private List<PlannedBundle> createPlan() {
+        return Arrays.asList(
+            new PlannedBundle("dev.galasa.core.manager", "0.31.0", "mvn:dev.galasa/dev.galasa.core.manager/0.31.0/jar"),
+            new PlannedBundle("dev.galasa.http.manager", "0.31.0", "reference:file:/tmp/dev.galasa.http.manager.jar"));
+    }
+
+    @Test
+    public void testPlanIsReusedByALaterCache() throws Exception {
+        // Given...
+        ResolutionPlanCache cache = new ResolutionPlanCache(this.planFile);
+        cache.putPlan("dev.galasa.http.manager", "obr1@1", createPlan());
+
+        // When...
+        List<PlannedBundle> plan = new ResolutionPlanCache(this.planFile).getPlan("dev.galasa.http.manager", "obr1@1");
+
+        // Then...
+        assertThat(plan).hasSize(2);
+        assertThat(plan.get(0).getSymbolicName()).isEqualTo("dev.galasa.core.manager");
+        assertThat(plan.get(0).getVersion()).isEqualTo("0.31.0");
+        assertThat(plan.get(0).getLocation()).isEqualTo("mvn:dev.galasa/dev.galasa.core.manager/0.31.0/jar");
+        assertThat(plan.get(1).getLocation()).isEqualTo("reference:file:/tmp/dev.galasa.http.manager.jar");
+    }
+
+    @Test
+    public void testPlanIsNotUsedWhenTheRepositoriesChange() throws Exception {
+        // Given...
+        ResolutionPlanCache cache = new ResolutionPlanCache(this.planFile);
+        cache.putPlan("dev.galasa.http.manager", "obr1@1", createPlan());
+
+        // When...
+        cache.putPlan("dev.galasa.core.manager", "obr1@2", createPlan().subList(0, 1));
+
+        // Then...
+        assertThat(cache.getPlan("dev.galasa.http.manager", "obr1@1")).isNull();
+        assertThat(cache.getPlan("dev.galasa.http.manager", "obr1@2")).isNull();
+        assertThat(cache.getPlan("dev.galasa.core.manager", "obr1@2")).hasSize(1);
+    }
+
+    @Test
+    public void testRemovedPlanIsNotReturned() throws Exception {
+        // Given...
+        ResolutionPlanCache cache = new ResolutionPlanCache(this.planFile);
+        cache.putPlan("dev.galasa.http.manager", "obr1@1", createPlan());
+
+        // When...
+        cache.removePlan("dev.galasa.http.manager");
+
+        // Then...
+        assertThat(cache.getPlan("dev.galasa.http.manager", "obr1@1")).isNull();
+        assertThat(new ResolutionPlanCache(this.planFile).getPlan("dev.galasa.http.manager", "obr1@1")).isNull();
+    }
+
+    @Test
+    public void testCacheWithoutFileKeepsPlansInMemory() throws Exception {
+        // Given...
+        ResolutionPlanCache cache = new ResolutionPlanCache(null);
+
+        // When...
+        cache.putPlan("dev.galasa.http.manager", "obr1@1", createPlan());
+
+        // Then...
+        assertThat(cache.getPlan("dev.galasa.http.manager", "obr1@1")).hasSize(2);
+        assertThat(this.planFile).doesNotExist();
+    }
+}
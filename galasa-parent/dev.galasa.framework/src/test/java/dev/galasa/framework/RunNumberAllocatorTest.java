@@ -0,0 +1,112 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.internal.dss.FpfDynamicStatusStore;
+import dev.galasa.framework.internal.dss.FrameworkDynamicStatusStoreService;
+import dev.galasa.framework.mocks.MockFramework;
+
+public class RunNumberAllocatorTest {
+
+    private File                               testFile;
+    private MockFramework                      framework;
+    private FrameworkDynamicStatusStoreService dss;
+
+    @Before
+    public void setup() throws Exception {
+        this.testFile = File.createTempFile("galasa_runnumbers_", ".properties");
+        this.framework = new MockFramework();
+        this.dss = new FrameworkDynamicStatusStoreService(this.framework, new FpfDynamicStatusStore(this.testFile.toURI()), "framework");
+    }
+
+    @After
+    public void teardown() {
+        this.testFile.delete();
+    }
+
+    @Test
+    public void testLeaseGrowsWhileNumbersAreInDemand() throws Exception {
+        // Given...
+        RunNumberAllocator allocator = new RunNumberAllocator(this.dss, this.framework);
+
+        // When...
+        int first = allocator.nextNumber("U", Integer.MAX_VALUE);
+        String lastusedAfterFirst = this.dss.get("request.prefix.U.lastused");
+        for (int i = 0; i < 6; i++) {
+            allocator.nextNumber("U", Integer.MAX_VALUE);
+        }
+
+        // Then...
+        assertThat(first).isEqualTo(1);
+        assertThat(lastusedAfterFirst).isEqualTo("1");
+        // *** Leases of 1, 2 and 4 numbers cover the 7 runs
+        assertThat(this.dss.get("request.prefix.U.lastused")).isEqualTo("7");
+    }
+
+    @Test
+    public void testSubmittersSharingAPrefixGetDifferentNumbers() throws Exception {
+        // Given...
+        RunNumberAllocator allocator1 = new RunNumberAllocator(this.dss, this.framework);
+        RunNumberAllocator allocator2 = new RunNumberAllocator(this.dss, this.framework);
+
+        // When...
+        HashSet<Integer> numbers = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            numbers.add(allocator1.nextNumber("U", Integer.MAX_VALUE));
+            numbers.add(allocator2.nextNumber("U", Integer.MAX_VALUE));
+        }
+
+        // Then...
+        assertThat(numbers).hasSize(100);
+    }
+
+    @Test
+    public void testLeaseWrapsAtTheMaximumNumber() throws Exception {
+        // Given...
+        this.dss.put("request.prefix.U.lastused", "8");
+        RunNumberAllocator allocator = new RunNumberAllocator(this.dss, this.framework);
+
+        // When...
+        int first = allocator.nextNumber("U", 10);
+        int second = allocator.nextNumber("U", 10);
+        int third = allocator.nextNumber("U", 10);
+
+        // Then...
+        assertThat(first).isEqualTo(9);
+        assertThat(second).isEqualTo(10);
+        assertThat(third).isEqualTo(1);
+    }
+
+    @Test
+    public void testSearchStartingNearTheMaximumStopsAfterOneLoop() throws Exception {
+        // Given...
+        this.dss.put("request.prefix.U.lastused", "8");
+        RunNumberAllocator allocator = new RunNumberAllocator(this.dss, this.framework);
+        RunNumberAllocator.Search search = new RunNumberAllocator.Search();
+
+        // When...
+        ArrayList<Integer> tried = new ArrayList<>();
+        int number = allocator.nextNumber("U", 10);
+        while (search.isUntried(number)) {
+            tried.add(number);
+            number = allocator.nextNumber("U", 10);
+        }
+
+        // Then...
+        assertThat(tried).containsExactly(9, 10, 1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(number).isEqualTo(9);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.cps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.internal.cps.FrameworkConfigurationPropertyCache.Resolution;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+
+public class FrameworkConfigurationPropertyServiceTest {
+
+    private Path                                tempProperties;
+    private FpfConfigurationPropertyStore       cpsStore;
+    private FrameworkConfigurationPropertyCache cache;
+    private Properties                          overrides = new Properties();
+    private Properties                          record    = new Properties();
+
+    @Before
+    public void setup() throws IOException, ConfigurationPropertyStoreException {
+        this.tempProperties = Files.createTempFile("galasa_cps_junit", ".properties");
+        this.cpsStore = new FpfConfigurationPropertyStore(this.tempProperties.toUri());
+        this.cache = new FrameworkConfigurationPropertyCache(this.cpsStore);
+    }
+
+    @After
+    public void teardown() throws IOException, ConfigurationPropertyStoreException {
+        this.cpsStore.shutdown();
+        if ((this.tempProperties != null) && Files.exists(this.tempProperties)) {
+            Files.delete(this.tempProperties);
+        }
+    }
+
+    private FrameworkConfigurationPropertyService createService() {
+        return new FrameworkConfigurationPropertyService(null, this.cpsStore, this.overrides, this.record, "zos", this.cache);
+    }
+
+    @Test
+    public void testPropertyVariantsAreInOrder() {
+        FrameworkConfigurationPropertyService cps = createService();
+
+        Assert.assertEquals("Variants differ", "[zos.image.PLEXMA.MVMA.credentialid,zos.image.PLEXMA.credentialid,zos.image.credentialid]",
+                cps.reportPropertyVariantsString("image", "credentialid", "PLEXMA", "MVMA"));
+    }
+
+    @Test
+    public void testCachedResolutionIsRecordedAgain() throws ConfigurationPropertyStoreException {
+        this.cpsStore.setProperty("zos.image.PLEXMA.credentialid", " creds ");
+        FrameworkConfigurationPropertyService cps = createService();
+
+        Assert.assertEquals("Wrong value", "creds", cps.getProperty("image", "credentialid", "PLEXMA", "MVMA"));
+        Assert.assertTrue("Resolution should have been cached", this.cache.get("image", "credentialid", new String[] {"PLEXMA", "MVMA"}) != null);
+
+        this.record.clear();
+        Assert.assertEquals("Wrong value", "creds", createService().getProperty("image", "credentialid", "PLEXMA", "MVMA"));
+
+        Assert.assertEquals("*** MISSING ***", this.record.getProperty("zos.image.PLEXMA.MVMA.credentialid"));
+        Assert.assertEquals("missing", this.record.getProperty("zos.image.PLEXMA.MVMA.credentialid._source"));
+        Assert.assertEquals(" creds ", this.record.getProperty("zos.image.PLEXMA.credentialid"));
+        Assert.assertEquals("cps", this.record.getProperty("zos.image.PLEXMA.credentialid._source"));
+        Assert.assertNull("Keys after the winner are not probed", this.record.getProperty("zos.image.credentialid"));
+    }
+
+    @Test
+    public void testMissingPropertyIsCachedUntilTheStoreChanges() throws ConfigurationPropertyStoreException {
+        FrameworkConfigurationPropertyService cps = createService();
+
+        Assert.assertNull("Should be missing", cps.getProperty("image", "credentialid", "PLEXMA"));
+        Assert.assertNull("Should be missing", cps.getProperty("image", "credentialid", "PLEXMA"));
+        Assert.assertEquals("missing", this.record.getProperty("zos.image.credentialid._source"));
+
+        cps.setProperty("image.credentialid", "fallback");
+        Assert.assertEquals("Change should invalidate the cache", "fallback", cps.getProperty("image", "credentialid", "PLEXMA"));
+
+        cps.setProperty("image.PLEXMA.credentialid", "specific");
+        Assert.assertEquals("Change should invalidate the cache", "specific", cps.getProperty("image", "credentialid", "PLEXMA"));
+
+        cps.deleteProperty("image.PLEXMA.credentialid");
+        Assert.assertEquals("Delete should invalidate the cache", "fallback", cps.getProperty("image", "credentialid", "PLEXMA"));
+    }
+
+    @Test
+    public void testOverridesArePreferred() throws ConfigurationPropertyStoreException {
+        this.cpsStore.setProperty("zos.image.credentialid", "cpsvalue");
+        this.overrides.setProperty("zos.image.credentialid", "overridden");
+        FrameworkConfigurationPropertyService cps = createService();
+
+        Assert.assertEquals("Wrong value", "overridden", cps.getProperty("image", "credentialid"));
+        Assert.assertEquals("Wrong value", "overridden", cps.getProperty("image", "credentialid"));
+        Assert.assertEquals("overrides", this.record.getProperty("zos.image.credentialid._source"));
+    }
+
+    @Test
+    public void testChangeByAnotherStoreInvalidatesTheCache() throws ConfigurationPropertyStoreException {
+        this.cpsStore.setProperty("zos.image.credentialid", "first");
+        FrameworkConfigurationPropertyService cps = createService();
+        Assert.assertEquals("Wrong value", "first", cps.getProperty("image", "credentialid"));
+
+        FpfConfigurationPropertyStore otherStore = new FpfConfigurationPropertyStore(this.tempProperties.toUri());
+        try {
+            otherStore.setProperty("zos.image.credentialid", "second");
+        } finally {
+            otherStore.shutdown();
+        }
+
+        Assert.assertEquals("Change should invalidate the cache", "second", cps.getProperty("image", "credentialid"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResolutionIsEvicted() throws ConfigurationPropertyStoreException {
+        FrameworkConfigurationPropertyCache smallCache = new FrameworkConfigurationPropertyCache(this.cpsStore, 2);
+        Resolution resolution = new Resolution(new String[] {"zos.image.credentialid"}, -1, null, null);
+
+        smallCache.put("image", "first", new String[0], smallCache.getGeneration(), resolution);
+        smallCache.put("image", "second", new String[0], smallCache.getGeneration(), resolution);
+        Assert.assertNotNull("Should be cached", smallCache.get("image", "first", new String[0]));
+
+        smallCache.put("image", "third", new String[0], smallCache.getGeneration(), resolution);
+
+        Assert.assertNotNull("Recently used should be kept", smallCache.get("image", "first", new String[0]));
+        Assert.assertNull("Least recently used should be evicted", smallCache.get("image", "second", new String[0]));
+        Assert.assertNotNull("Newest should be kept", smallCache.get("image", "third", new String[0]));
+    }
+}
@@ -10,7 +10,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
 import java.util.UUID;
 
 import org.junit.After;
@@ -19,6 +18,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.FrameworkPropertyFile;
 import dev.galasa.framework.spi.FrameworkPropertyFileException;
 
 /**
@@ -164,10 +164,18 @@ public class FpfDynamicStatusStoreTest {
 //        Assert.assertNotNull("Should get a dynamic run", this.dss.getDynamicRun());
 //    }
 
+    /**
+     * Read the key as another process would, deletes are appended to the file
+     * so it can not be read as plain properties
+     */
     private String getKey(String key) throws IOException {
-        Properties properties = new Properties();
-        properties.load(Files.newInputStream(tempProperties));
-
-        return properties.getProperty(key);
+        try {
+            FrameworkPropertyFile fpf = new FrameworkPropertyFile(tempProperties.toUri());
+            String value = fpf.get(key);
+            fpf.destroy();
+            return value;
+        } catch (FrameworkPropertyFileException e) {
+            throw new IOException(e);
+        }
     }
 }
\ No newline at end of file
@@ -8,17 +8,25 @@ package dev.galasa.framework.internal.ras.directory;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
 import java.nio.file.ClosedDirectoryStreamException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.spi.FileSystemProvider;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -30,6 +38,7 @@ import org.junit.Test;
 
 import dev.galasa.ResultArchiveStoreContentType;
 import dev.galasa.ResultArchiveStoreFileAttributeView;
+import dev.galasa.framework.spi.ras.ArtifactManifestEntry;
 
 public class DirectoryFileSystemTest {
 
@@ -303,4 +312,201 @@ public class DirectoryFileSystemTest {
 
     }
 
+    @Test
+    public void testManifestRecordsArtifacts() throws Exception {
+        final DirectoryRASFileSystemProvider fsp = new DirectoryRASFileSystemProvider(this.runDirectory);
+        final FileSystem fs = fsp.getFileSystem(this.runDirectory.toUri());
+
+        final Path rasTestArtifact = fs.getPath("/dir1/arty1.png");
+        Files.createDirectories(rasTestArtifact.getParent());
+        Files.createFile(rasTestArtifact, ResultArchiveStoreContentType.PNG);
+        Files.write(rasTestArtifact, testData);
+        Files.createFile(fs.getPath("/arty2.xml"), ResultArchiveStoreContentType.XML);
+
+        final List<ArtifactManifestEntry> entries = fsp.getArtifactManifest();
+        Assert.assertEquals("Incorrect number of artifacts in the manifest", 2, entries.size());
+
+        final ArtifactManifestEntry arty2 = entries.get(0);
+        Assert.assertEquals("Incorrect path", "/arty2.xml", arty2.getPath());
+        Assert.assertEquals("Incorrect content type", ResultArchiveStoreContentType.XML.value(), arty2.getContentType());
+        Assert.assertEquals("Incorrect size", 0, arty2.getSize());
+
+        final ArtifactManifestEntry arty1 = entries.get(1);
+        Assert.assertEquals("Incorrect path", "/dir1/arty1.png", arty1.getPath());
+        Assert.assertEquals("Incorrect content type", ResultArchiveStoreContentType.PNG.value(), arty1.getContentType());
+        Assert.assertEquals("Incorrect size", testData.length, arty1.getSize());
+        Assert.assertEquals("Incorrect checksum", sha256(testData), arty1.getSha256());
+
+        Assert.assertFalse("The content types should not be written until shutdown",
+                Files.exists(this.runDirectory.resolve("artifacts.properties")));
+    }
+
+    @Test
+    public void testManifestCompactedOnShutdown() throws Exception {
+        final DirectoryRASFileSystemProvider fsp = new DirectoryRASFileSystemProvider(this.runDirectory);
+        final FileSystem fs = fsp.getFileSystem(this.runDirectory.toUri());
+
+        final Path rasTestArtifact = fs.getPath("/arty1.png");
+        Files.createFile(rasTestArtifact, ResultArchiveStoreContentType.PNG);
+        Files.write(rasTestArtifact, testData);
+        final Path manifestFile = this.runDirectory.resolve("artifacts.manifest");
+        Assert.assertEquals("Expected a record for the content type and one for each write", 3,
+                Files.readAllLines(manifestFile).size());
+
+        fsp.shutdown();
+
+        Assert.assertEquals("Expected one record after compaction", 1, Files.readAllLines(manifestFile).size());
+
+        final Properties contentTypes = new Properties();
+        try (InputStream is = Files.newInputStream(this.runDirectory.resolve("artifacts.properties"))) {
+            contentTypes.load(is);
+        }
+        Assert.assertEquals("Content types not written at shutdown", "image/png", contentTypes.getProperty("/arty1.png"));
+
+        final DirectoryRASFileSystemProvider reader = new DirectoryRASFileSystemProvider(this.runDirectory);
+        final List<ArtifactManifestEntry> entries = reader.getArtifactManifest();
+        Assert.assertEquals("Incorrect number of artifacts in the manifest", 1, entries.size());
+        Assert.assertEquals("Incorrect size", testData.length, entries.get(0).getSize());
+        Assert.assertEquals("Incorrect checksum", sha256(testData), entries.get(0).getSha256());
+    }
+
+    @Test
+    public void testManifestChecksumOfAppendedArtifact() throws Exception {
+        final DirectoryRASFileSystemProvider fsp = new DirectoryRASFileSystemProvider(this.runDirectory);
+        final FileSystem fs = fsp.getFileSystem(this.runDirectory.toUri());
+
+        final Path rasTestArtifact = fs.getPath("/arty1.txt");
+        Files.write(rasTestArtifact, testData);
+        Files.write(rasTestArtifact, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+        Files.write(rasTestArtifact, new byte[] { 4, 5 }, StandardOpenOption.APPEND);
+
+        final byte[] expected = Files.readAllBytes(this.artifactDirectory.resolve("arty1.txt"));
+        Assert.assertEquals("Incorrect size", testData.length + 5, expected.length);
+
+        List<ArtifactManifestEntry> entries = fsp.getArtifactManifest();
+        Assert.assertEquals("Incorrect size", expected.length, entries.get(0).getSize());
+        Assert.assertEquals("Incorrect checksum after appends", sha256(expected), entries.get(0).getSha256());
+
+        // *** A rewrite of the same size after a seek must not leave the earlier checksum to be appended to
+        try (SeekableByteChannel channel = Files.newByteChannel(rasTestArtifact, StandardOpenOption.WRITE)) {
+            channel.position(1);
+            channel.write(ByteBuffer.wrap(new byte[] { 7 }));
+        }
+        Files.write(rasTestArtifact, new byte[] { 6 }, StandardOpenOption.APPEND);
+
+        final byte[] rewritten = Files.readAllBytes(this.artifactDirectory.resolve("arty1.txt"));
+        entries = fsp.getArtifactManifest();
+        Assert.assertEquals("Incorrect checksum after rewrite", sha256(rewritten), entries.get(0).getSha256());
+    }
+
+    @Test
+    public void testNoManifestForOlderRuns() throws IOException {
+        final DirectoryRASFileSystemProvider fsp = new DirectoryRASFileSystemProvider(this.runDirectory);
+
+        Assert.assertNull("Runs without a manifest should not return one", fsp.getArtifactManifest());
+    }
+
+    private String sha256(byte[] data) throws Exception {
+        return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(data)));
+    }
+
+    @Test
+    public void testCompressedArtifactsAreSharedAndReadable() throws Exception {
+        // *** The blob store is in the directory above the run
+        final Path compressedRunDirectory = this.runDirectory.resolve("run1");
+        Files.createDirectories(compressedRunDirectory.resolve("artifacts"));
+        final DirectoryRASFileSystemProvider fsp = new DirectoryRASFileSystemProvider(compressedRunDirectory, true);
+        final FileSystem fs = fsp.getFileSystem(compressedRunDirectory.toUri());
+
+        final Path rasTestArtifact1 = fs.getPath("/arty1.png");
+        final Path rasTestArtifact2 = fs.getPath("/dir1/arty2.png");
+        Files.createFile(rasTestArtifact1, ResultArchiveStoreContentType.PNG);
+        Files.write(rasTestArtifact1, testData);
+        Files.write(rasTestArtifact2, testData);
+
+        final Path blob = new DirectoryRASBlobStore(this.runDirectory).getBlobPath(sha256(testData));
+        Assert.assertTrue("Blob missing", Files.exists(blob));
+        Assert.assertTrue("Artifact should be linked to the blob",
+                Files.isSameFile(blob, compressedRunDirectory.resolve("artifacts").resolve("arty1.png")));
+        Assert.assertTrue("Identical artifacts should share the blob",
+                Files.isSameFile(blob, compressedRunDirectory.resolve("artifacts").resolve("dir1/arty2.png")));
+
+        Assert.assertArrayEquals("Incorrect content", testData, Files.readAllBytes(rasTestArtifact1));
+        Assert.assertArrayEquals("Incorrect content", testData, Files.readAllBytes(rasTestArtifact2));
+        Assert.assertEquals("Size should be of the uncompressed content", testData.length, Files.size(rasTestArtifact1));
+        Assert.assertEquals("Content type lost", ResultArchiveStoreContentType.PNG,
+                Files.getFileAttributeView(rasTestArtifact1, ResultArchiveStoreFileAttributeView.class).getContentType());
+
+        try (SeekableByteChannel channel = Files.newByteChannel(rasTestArtifact1)) {
+            channel.position(6);
+            final ByteBuffer buffer = ByteBuffer.allocate(10);
+            Assert.assertEquals("Incorrect number of bytes read", 4, channel.read(buffer));
+            Assert.assertArrayEquals("Incorrect content after seek", new byte[] { 3, 2, 1, 0 },
+                    Arrays.copyOf(buffer.array(), 4));
+
+            channel.position(1);
+            buffer.clear();
+            Assert.assertEquals("Incorrect number of bytes read", 9, channel.read(buffer));
+            Assert.assertEquals("Incorrect content after seeking back", 8, buffer.get(0));
+        }
+    }
+
+    @Test
+    public void testDiscardingARunReclaimsItsUnsharedBlobs() throws Exception {
+        final byte[] unsharedData = new byte[] { 1, 1, 2, 3, 5, 8, 13 };
+        final Path run1Directory = this.runDirectory.resolve("run1");
+        final Path run2Directory = this.runDirectory.resolve("run2");
+        Files.createDirectories(run1Directory.resolve("artifacts"));
+        Files.createDirectories(run2Directory.resolve("artifacts"));
+        final DirectoryRASFileSystemProvider run1 = new DirectoryRASFileSystemProvider(run1Directory, true);
+        final DirectoryRASFileSystemProvider run2 = new DirectoryRASFileSystemProvider(run2Directory, true);
+        final FileSystem run1Fs = run1.getFileSystem(run1Directory.toUri());
+        final FileSystem run2Fs = run2.getFileSystem(run2Directory.toUri());
+
+        Files.write(run1Fs.getPath("/shared.bin"), testData);
+        Files.write(run1Fs.getPath("/dir1/unshared.bin"), unsharedData);
+        Files.write(run2Fs.getPath("/shared.bin"), testData);
+
+        final DirectoryRASBlobStore blobStore = new DirectoryRASBlobStore(this.runDirectory);
+        final Path sharedBlob = blobStore.getBlobPath(sha256(testData));
+        final Path unsharedBlob = blobStore.getBlobPath(sha256(unsharedData));
+        Assert.assertTrue("Unshared blob missing", Files.exists(unsharedBlob));
+
+        new DirectoryRASFileSystemProvider(run1Directory).discard();
+
+        Assert.assertFalse("Run should have been deleted", Files.exists(run1Directory));
+        Assert.assertFalse("Blob only used by the discarded run should have been deleted", Files.exists(unsharedBlob));
+        Assert.assertTrue("Blob still used by another run must be kept", Files.exists(sharedBlob));
+        Assert.assertArrayEquals("Incorrect content of the remaining run", testData,
+                Files.readAllBytes(run2Fs.getPath("/shared.bin")));
+    }
+
+    @Test
+    public void testRewritingCompressedArtifactLeavesBlobAlone() throws Exception {
+        final Path compressedRunDirectory = this.runDirectory.resolve("run1");
+        Files.createDirectories(compressedRunDirectory.resolve("artifacts"));
+        final DirectoryRASFileSystemProvider fsp = new DirectoryRASFileSystemProvider(compressedRunDirectory, true);
+        final FileSystem fs = fsp.getFileSystem(compressedRunDirectory.toUri());
+
+        final Path rasTestArtifact = fs.getPath("/arty1.txt");
+        Files.write(rasTestArtifact, testData);
+        final Path blob = new DirectoryRASBlobStore(this.runDirectory).getBlobPath(sha256(testData));
+        final byte[] blobContent = Files.readAllBytes(blob);
+
+        Files.write(rasTestArtifact, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        final byte[] expected = Arrays.copyOf(testData, testData.length + 3);
+        expected[testData.length] = 1;
+        expected[testData.length + 1] = 2;
+        expected[testData.length + 2] = 3;
+        Assert.assertArrayEquals("Incorrect content after append", expected, Files.readAllBytes(rasTestArtifact));
+        Assert.assertArrayEquals("Shared blob must not change", blobContent, Files.readAllBytes(blob));
+
+        // *** A run reading the artifacts later does not need compression enabled
+        final DirectoryRASFileSystemProvider reader = new DirectoryRASFileSystemProvider(compressedRunDirectory);
+        final FileSystem readerFs = reader.getFileSystem(compressedRunDirectory.toUri());
+        Assert.assertArrayEquals("Incorrect content when read later", expected,
+                Files.readAllBytes(readerFs.getPath("/arty1.txt")));
+    }
+
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.internal.ras.directory;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.spi.IRunResult;
+import dev.galasa.framework.spi.ras.RasRunResultPage;
+import dev.galasa.framework.spi.ras.RasSearchCriteriaQueuedFrom;
+import dev.galasa.framework.spi.ras.RasSearchCriteriaRequestor;
+import dev.galasa.framework.spi.ras.RasSortField;
+import dev.galasa.framework.spi.teststructure.TestStructure;
+import dev.galasa.framework.spi.utils.GalasaGson;
+
+public class DirectoryRASRunCatalogueTest {
+
+    private Path       rasDirectory;
+    private GalasaGson gson = new GalasaGson();
+
+    @Before
+    public void before() throws IOException {
+        this.rasDirectory = Files.createTempDirectory("galasa_junit_ras_");
+    }
+
+    @After
+    public void after() throws IOException {
+        if (this.rasDirectory != null && Files.exists(this.rasDirectory)) {
+            FileUtils.deleteDirectory(this.rasDirectory.toFile());
+        }
+    }
+
+    private TestStructure writeRun(String runName, String requestor, Instant queued) throws IOException {
+        TestStructure testStructure = new TestStructure();
+        testStructure.setRunName(runName);
+        testStructure.setRequestor(requestor);
+        testStructure.setTestName("dev.galasa.Test" + runName);
+        testStructure.setBundle("dev.galasa.bundle");
+        testStructure.setStatus("finished");
+        testStructure.setResult("Passed");
+        testStructure.setQueued(queued);
+        testStructure.setStartTime(queued);
+
+        Path runDirectory = this.rasDirectory.resolve(runName);
+        Files.createDirectories(runDirectory);
+        Files.write(runDirectory.resolve("structure.json"), gson.toJson(testStructure).getBytes(StandardCharsets.UTF_8));
+        return testStructure;
+    }
+
+    private List<String> getRunNames(List<IRunResult> runs) throws Exception {
+        ArrayList<String> runNames = new ArrayList<>();
+        for (IRunResult run : runs) {
+            runNames.add(run.getTestStructure().getRunName());
+        }
+        return runNames;
+    }
+
+    @Test
+    public void testMissingCatalogueIsBuiltFromRunDirectories() throws Exception {
+        // Given...
+        writeRun("U1", "bob", Instant.parse("2024-01-01T10:00:00Z"));
+        writeRun("U2", "jim", Instant.parse("2024-01-01T11:00:00Z"));
+        DirectoryRASDirectoryService directoryService = new DirectoryRASDirectoryService(this.rasDirectory, gson, new DirectoryRASRunCatalogue(this.rasDirectory));
+
+        // When...
+        List<IRunResult> runs = directoryService.getRuns(new RasSearchCriteriaRequestor("jim"));
+
+        // Then...
+        assertThat(getRunNames(runs)).containsExactly("U2");
+        assertThat(this.rasDirectory.resolve(DirectoryRASRunCatalogue.CATALOGUE_FILE_NAME)).exists();
+        assertThat(directoryService.getRequestors()).containsExactlyInAnyOrder("bob", "jim");
+    }
+
+    @Test
+    public void testRecordedRunIsSeenByAnotherCatalogue() throws Exception {
+        // Given...
+        DirectoryRASRunCatalogue writer = new DirectoryRASRunCatalogue(this.rasDirectory);
+        DirectoryRASRunCatalogue reader = new DirectoryRASRunCatalogue(this.rasDirectory);
+        assertThat(reader.getEntries()).isEmpty();
+
+        TestStructure testStructure = writeRun("U3", "bob", Instant.parse("2024-01-01T10:00:00Z"));
+
+        // When...
+        writer.record(this.rasDirectory.resolve("U3"), testStructure);
+        List<DirectoryRASRunEntry> entries = reader.getEntries();
+
+        // Then...
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getRunName()).isEqualTo("U3");
+        assertThat(entries.get(0).getRequestor()).isEqualTo("bob");
+    }
+
+    @Test
+    public void testRemovedRunDirectoryIsDroppedFromCatalogue() throws Exception {
+        // Given...
+        writeRun("U1", "bob", Instant.parse("2024-01-01T10:00:00Z"));
+        writeRun("U2", "bob", Instant.parse("2024-01-01T11:00:00Z"));
+        DirectoryRASRunCatalogue catalogue = new DirectoryRASRunCatalogue(this.rasDirectory, 0);
+        assertThat(catalogue.getEntries()).hasSize(2);
+
+        // When...
+        FileUtils.deleteDirectory(this.rasDirectory.resolve("U1").toFile());
+        List<DirectoryRASRunEntry> entries = catalogue.getEntries();
+
+        // Then...
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getRunName()).isEqualTo("U2");
+    }
+
+    @Test
+    public void testRunsPageReturnsCursorUntilLastPage() throws Exception {
+        // Given...
+        writeRun("U1", "bob", Instant.parse("2024-01-01T10:00:00Z"));
+        writeRun("U2", "bob", Instant.parse("2024-01-01T11:00:00Z"));
+        writeRun("U3", "bob", Instant.parse("2024-01-01T12:00:00Z"));
+        DirectoryRASDirectoryService directoryService = new DirectoryRASDirectoryService(this.rasDirectory, gson, new DirectoryRASRunCatalogue(this.rasDirectory));
+        RasSortField sort = new RasSortField("queued", "desc");
+
+        // When...
+        RasRunResultPage firstPage = directoryService.getRunsPage(2, sort, null);
+        RasRunResultPage secondPage = directoryService.getRunsPage(2, sort, firstPage.getNextCursor());
+
+        // Then...
+        assertThat(getRunNames(firstPage.getRuns())).containsExactly("U3", "U2");
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        assertThat(getRunNames(secondPage.getRuns())).containsExactly("U1");
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testIndexedRangeAndOpaqueCriteriaAreCombined() throws Exception {
+        // Given...
+        writeRun("U1", "bob", Instant.parse("2024-01-01T10:00:00Z"));
+        writeRun("U2", "bob", Instant.parse("2024-01-01T11:00:00Z"));
+        writeRun("U3", "jim", Instant.parse("2024-01-01T12:00:00Z"));
+        writeRun("U4", "bob", Instant.parse("2024-01-01T13:00:00Z"));
+        DirectoryRASDirectoryService directoryService = new DirectoryRASDirectoryService(this.rasDirectory, gson, new DirectoryRASRunCatalogue(this.rasDirectory));
+
+        // When...
+        List<IRunResult> runs = directoryService.getRuns(
+            new RasSearchCriteriaRequestor("bob"),
+            new RasSearchCriteriaQueuedFrom(Instant.parse("2024-01-01T11:00:00Z")),
+            structure -> !"U4".equals(structure.getRunName()));
+
+        // Then...
+        assertThat(getRunNames(runs)).containsExactly("U2");
+    }
+
+    @Test
+    public void testRunsPageKeepsOnlyThePageWhenAscending() throws Exception {
+        // Given...
+        writeRun("U1", "bob", Instant.parse("2024-01-01T10:00:00Z"));
+        writeRun("U2", "jim", Instant.parse("2024-01-01T11:00:00Z"));
+        writeRun("U3", "bob", Instant.parse("2024-01-01T12:00:00Z"));
+        writeRun("U4", "bob", Instant.parse("2024-01-01T09:00:00Z"));
+        writeRun("U5", "bob", Instant.parse("2024-01-01T13:00:00Z"));
+        DirectoryRASDirectoryService directoryService = new DirectoryRASDirectoryService(this.rasDirectory, gson, new DirectoryRASRunCatalogue(this.rasDirectory));
+        RasSortField sort = new RasSortField("queued", "asc");
+        RasSearchCriteriaRequestor bob = new RasSearchCriteriaRequestor("bob");
+
+        // When...
+        RasRunResultPage firstPage = directoryService.getRunsPage(3, sort, null, bob);
+        RasRunResultPage secondPage = directoryService.getRunsPage(3, sort, firstPage.getNextCursor(), bob);
+
+        // Then...
+        assertThat(getRunNames(firstPage.getRuns())).containsExactly("U4", "U1", "U3");
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        assertThat(getRunNames(secondPage.getRuns())).containsExactly("U5");
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+}
@@ -154,6 +154,7 @@ public class DirectoryRASSTest {
         drass.writeLog(message1);
         drass.writeLog(message2);
         drass.writeLog(messages);
+        drass.flush();
 
         final List<String> readMessages = Files.readAllLines(this.rasDirectory.resolve(runname).resolve("run.log"));
 
@@ -163,4 +164,52 @@ public class DirectoryRASSTest {
         Assert.assertEquals("message 1 wrong", messages.get(1), readMessages.get(3));
     }
 
+    @Test
+    public void testRunLogIsDrainedOnShutdown() throws ResultArchiveStoreException, IOException {
+        DirectoryResultArchiveStoreService drass = new DirectoryResultArchiveStoreService(framework,
+                this.rasDirectory.toUri());
+
+        for (int i = 0; i < 20000; i++) {
+            drass.writeLog("message " + i);
+        }
+        drass.shutdown();
+        drass.writeLog("after shutdown");
+
+        final List<String> readMessages = Files.readAllLines(this.rasDirectory.resolve(runname).resolve("run.log"));
+
+        Assert.assertEquals("all messages should have been written", 20001, readMessages.size());
+        Assert.assertEquals("messages out of order", "message 19999", readMessages.get(19999));
+        Assert.assertEquals("late message should have been appended", "after shutdown", readMessages.get(20000));
+    }
+
+    @Test
+    public void testRunLogKeepsMessagesLoggedDuringShutdown() throws Exception {
+        DirectoryResultArchiveStoreService drass = new DirectoryResultArchiveStoreService(framework,
+                this.rasDirectory.toUri());
+
+        final ArrayList<Thread> loggers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            loggers.add(new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    try {
+                        drass.writeLog("thread " + thread + " message " + i);
+                    } catch (ResultArchiveStoreException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }));
+        }
+        for (Thread logger : loggers) {
+            logger.start();
+        }
+        drass.shutdown();
+        for (Thread logger : loggers) {
+            logger.join();
+        }
+
+        final List<String> readMessages = Files.readAllLines(this.rasDirectory.resolve(runname).resolve("run.log"));
+        Assert.assertEquals("no message should have been lost", 20000, readMessages.size());
+    }
+
 }
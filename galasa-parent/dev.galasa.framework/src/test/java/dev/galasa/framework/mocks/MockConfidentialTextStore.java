@@ -5,6 +5,7 @@
  */
 package dev.galasa.framework.mocks;
 
+import java.io.Writer;
 import java.util.Map;
 
 import dev.galasa.framework.spi.IConfidentialTextService;
@@ -27,6 +28,11 @@ public class MockConfidentialTextStore implements IConfidentialTextService {
         throw new UnsupportedOperationException("Unimplemented method 'removeConfidentialText'");
     }
 
+    @Override
+    public Writer removeConfidentialText(Writer writer) {
+        throw new UnsupportedOperationException("Unimplemented method 'removeConfidentialText'");
+    }
+
     @Override
     public void shutdown() {
         throw new UnsupportedOperationException("Unimplemented method 'shutdown'");
@@ -17,6 +17,8 @@ import javax.validation.constraints.Null;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import dev.galasa.framework.spi.DssAdd;
+import dev.galasa.framework.spi.DssUpdate;
 import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.DynamicStatusStoreMatchException;
 import dev.galasa.framework.spi.IDssAction;
@@ -31,6 +33,7 @@ public class MockDSSStore implements IDynamicStatusStore, IDynamicStatusStoreSer
     private Map<String,String> valueMap ;
     private Log logger = LogFactory.getLog(MockDSSStore.class.getName());
     private boolean isSwapSetToFail = false;
+    private int performActionsCount = 0;
 
     public MockDSSStore(Map<String,String> valueMap) {
         this.valueMap = valueMap;
@@ -109,7 +112,25 @@ public class MockDSSStore implements IDynamicStatusStore, IDynamicStatusStoreSer
     @Override
     public void performActions(IDssAction... actions)
             throws DynamicStatusStoreException, DynamicStatusStoreMatchException {
-        throw new UnsupportedOperationException("Unimplemented method 'performActions'");
+        performActionsCount++;
+        for (IDssAction action : actions) {
+            if (action instanceof DssAdd && valueMap.containsKey(((DssAdd) action).getKey())) {
+                throw new DynamicStatusStoreMatchException("Property " + ((DssAdd) action).getKey() + " already exists");
+            }
+        }
+        for (IDssAction action : actions) {
+            if (action instanceof DssAdd) {
+                valueMap.put(((DssAdd) action).getKey(), ((DssAdd) action).getValue());
+            } else if (action instanceof DssUpdate) {
+                valueMap.put(((DssUpdate) action).getKey(), ((DssUpdate) action).getValue());
+            } else {
+                throw new UnsupportedOperationException("Unimplemented action " + action.getClass().getName());
+            }
+        }
+    }
+
+    public int getPerformActionsCount() {
+        return performActionsCount;
     }
 
     @Override
@@ -15,6 +15,7 @@ import dev.galasa.framework.spi.DynamicStatusStoreException;
 import dev.galasa.framework.spi.FrameworkException;
 import dev.galasa.framework.spi.IFrameworkRuns;
 import dev.galasa.framework.spi.IRun;
+import dev.galasa.framework.spi.RunsSnapshot;
 
 public class MockIFrameworkRuns implements IFrameworkRuns{
     protected String groupName;
@@ -45,6 +46,11 @@ public class MockIFrameworkRuns implements IFrameworkRuns{
         throw new UnsupportedOperationException("Unimplemented method 'getAllRuns'");
     }
 
+    @Override
+    public @NotNull RunsSnapshot getRunsSnapshot() throws FrameworkException {
+        return new RunsSnapshot(this.runs);
+    }
+
     @Override
     public @NotNull List<IRun> getAllGroupedRuns(@NotNull String groupName) throws FrameworkException {
         if(groupName.equals("invalid")){
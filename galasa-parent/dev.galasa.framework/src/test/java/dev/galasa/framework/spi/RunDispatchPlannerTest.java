@@ -0,0 +1,155 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.framework.spi;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import dev.galasa.framework.RunImpl;
+import dev.galasa.framework.internal.dss.FpfDynamicStatusStore;
+import dev.galasa.framework.internal.dss.FrameworkDynamicStatusStoreService;
+import dev.galasa.framework.mocks.MockFramework;
+
+public class RunDispatchPlannerTest {
+
+    private File testFile;
+
+    @After
+    public void teardown() {
+        if (testFile != null) {
+            testFile.delete();
+        }
+    }
+
+    private IRun createRun(String name, String status, String requestor, String group, int queuedMinute) {
+        HashMap<String, String> props = new HashMap<>();
+        props.put("run." + name + ".status", status);
+        props.put("run." + name + ".requestor", requestor);
+        props.put("run." + name + ".group", group);
+        props.put("run." + name + ".queued", Instant.parse("2024-01-01T10:00:00Z").plusSeconds(queuedMinute * 60L).toString());
+        return new RunImpl(name, props);
+    }
+
+    private List<String> getNames(List<IRun> runs) {
+        ArrayList<String> names = new ArrayList<>();
+        for (IRun run : runs) {
+            names.add(run.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testFreeSlotsAreSharedBetweenRequestors() {
+        // Given...
+        ArrayList<IRun> queued = new ArrayList<>();
+        queued.add(createRun("B1", "queued", "bob", "g1", 1));
+        queued.add(createRun("B2", "queued", "bob", "g1", 2));
+        queued.add(createRun("B3", "queued", "bob", "g1", 3));
+        queued.add(createRun("J1", "queued", "jim", "g2", 10));
+        queued.add(createRun("J2", "queued", "jim", "g2", 11));
+
+        RunDispatchPlanner planner = new RunDispatchPlanner(new ArrayList<>());
+
+        // When...
+        List<IRun> selected = planner.plan(queued, new ArrayList<>(), 4);
+
+        // Then...
+        assertThat(getNames(selected)).containsExactly("B1", "J1", "B2", "J2");
+    }
+
+    @Test
+    public void testRunsWithoutARequestorArePooledTogether() {
+        // Given...
+        ArrayList<IRun> queued = new ArrayList<>();
+        queued.add(createRun("N1", "queued", null, "g1", 1));
+        queued.add(createRun("N2", "queued", null, "g1", 2));
+        queued.add(createRun("B1", "queued", "bob", "g1", 1));
+
+        RunDispatchPlanner planner = new RunDispatchPlanner(new ArrayList<>());
+
+        // When...
+        List<IRun> selected = planner.plan(queued, new ArrayList<>(), 3);
+
+        // Then...
+        assertThat(getNames(selected)).containsExactly("N1", "B1", "N2");
+    }
+
+    @Test
+    public void testPoolWithFewestActiveRunsGoesFirst() {
+        // Given...
+        ArrayList<IRun> queued = new ArrayList<>();
+        queued.add(createRun("B1", "queued", "bob", "g1", 1));
+        queued.add(createRun("J1", "queued", "jim", "g2", 10));
+
+        ArrayList<IRun> active = new ArrayList<>();
+        active.add(createRun("B0", "running", "bob", "g1", 0));
+
+        RunDispatchPlanner planner = new RunDispatchPlanner(new ArrayList<>());
+
+        // When...
+        List<IRun> selected = planner.plan(queued, active, 1);
+
+        // Then...
+        assertThat(getNames(selected)).containsExactly("J1");
+    }
+
+    @Test
+    public void testRequestorsByGroupArePooledByGroup() {
+        // Given...
+        ArrayList<IRun> queued = new ArrayList<>();
+        queued.add(createRun("B1", "queued", "bob", "g1", 1));
+        queued.add(createRun("B2", "queued", "bob", "g1", 2));
+        queued.add(createRun("B3", "queued", "bob", "g2", 3));
+
+        ArrayList<String> requestorsByGroup = new ArrayList<>();
+        requestorsByGroup.add("bob");
+        RunDispatchPlanner planner = new RunDispatchPlanner(requestorsByGroup);
+
+        // When...
+        List<IRun> selected = planner.plan(queued, new ArrayList<>(), 2);
+
+        // Then...
+        assertThat(getNames(selected)).containsExactly("B1", "B3");
+    }
+
+    @Test
+    public void testAllocateSkipsRunsTakenByAnotherController() throws Exception {
+        // Given...
+        testFile = File.createTempFile("galasa_dispatch_", ".properties");
+        FrameworkDynamicStatusStoreService dss = new FrameworkDynamicStatusStoreService(new MockFramework(),
+                new FpfDynamicStatusStore(testFile.toURI()), "framework");
+        dss.put("run.R1.status", "queued");
+        dss.put("run.R2.status", "allocated");
+        dss.put("run.R3.status", "queued");
+
+        ArrayList<IRun> runs = new ArrayList<>();
+        runs.add(createRun("R1", "queued", "bob", "g1", 1));
+        runs.add(createRun("R2", "queued", "bob", "g1", 2));
+        runs.add(createRun("R3", "queued", "bob", "g1", 3));
+
+        RunDispatchPlanner planner = new RunDispatchPlanner(new ArrayList<>());
+
+        // When...
+        List<IRun> allocated = planner.allocate(dss, runs, "controller1", Duration.ofMinutes(15));
+
+        // Then...
+        assertThat(getNames(allocated)).containsExactly("R1", "R3");
+        assertThat(dss.get("run.R1.status")).isEqualTo("allocated");
+        assertThat(dss.get("run.R1.controller")).isEqualTo("controller1");
+        assertThat(dss.get("run.R1.allocate.timeout")).isNotNull();
+        assertThat(dss.get("run.R2.controller")).isNull();
+    }
+}
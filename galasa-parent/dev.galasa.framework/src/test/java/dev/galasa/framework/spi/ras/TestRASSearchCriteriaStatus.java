@@ -90,4 +90,18 @@ public class TestRASSearchCriteriaStatus {
         //Then ...
         Assert.assertArrayEquals(returnedStatuses, expectedStatuses);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void TestPredicateMatchesTheSameStatuses(){
+        //Given ...
+        RasSearchCriteriaStatus searchCriteria = new RasSearchCriteriaStatus(Arrays.asList(TestRunLifecycleStatus.RUNNING));
+        //When ...
+        RasSearchCriteriaPredicate predicate = searchCriteria.getPredicate();
+        //Then ...
+        Assert.assertEquals(RasSearchCriteriaPredicate.FIELD_STATUS, predicate.getField());
+        Assert.assertEquals(RasSearchCriteriaPredicate.Operator.IN, predicate.getOperator());
+        Assert.assertTrue(predicate.matches("running"));
+        Assert.assertFalse(predicate.matches("finished"));
+        Assert.assertFalse(predicate.matches(null));
+    }
+}
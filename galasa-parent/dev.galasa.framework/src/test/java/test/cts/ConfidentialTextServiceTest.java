@@ -9,6 +9,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 
 import org.junit.Test;
 
@@ -82,4 +84,72 @@ public class ConfidentialTextServiceTest {
         System.out.println(result + "\n" + expected);
         assertEquals("Did not remove confidential imfomation ", expected, result);
     }
+
+    /**
+     * This test method ensures that regex metacharacters in a registered text are
+     * matched literally.
+     * 
+     * @throws ConfidentialTextException
+     * @throws IOException
+     */
+    @Test
+    public void testRemoveConfidentialTextWithRegexCharacters() throws ConfidentialTextException, IOException {
+        FrameworkConfidentialTextService ctsService = new FrameworkConfidentialTextService();
+
+        ctsService.registerText("p.ss(1)*", "This is a test comment");
+
+        String testSentence = "The password is p.ss(1)* and not pass(1) or p.ss11";
+        String expected = "The password is ***1**** and not pass(1) or p.ss11";
+
+        String result = ctsService.removeConfidentialText(testSentence);
+        assertEquals("Did not remove confidential imfomation ", expected, result);
+    }
+
+    /**
+     * This test method ensures that where registered texts overlap, the longest
+     * text is removed.
+     * 
+     * @throws ConfidentialTextException
+     * @throws IOException
+     */
+    @Test
+    public void testRemoveOverlappingConfidentialText() throws ConfidentialTextException, IOException {
+        FrameworkConfidentialTextService ctsService = new FrameworkConfidentialTextService();
+
+        ctsService.registerText("secret", "This is a test comment");
+        ctsService.registerText("secretkey", "This is a test comment");
+        ctsService.registerText("tkey1", "This is a test comment");
+
+        String testSentence = "keys are secretkey1, secret and tkey1";
+        String expected = "keys are ****2****1, **1*** and **3**";
+
+        String result = ctsService.removeConfidentialText(testSentence);
+        assertEquals("Did not remove confidential imfomation ", expected, result);
+    }
+
+    /**
+     * This test method ensures that registered texts split across writes are removed
+     * by the streaming writer.
+     * 
+     * @throws ConfidentialTextException
+     * @throws IOException
+     */
+    @Test
+    public void testRemoveConfidentialTextFromWriter() throws ConfidentialTextException, IOException {
+        FrameworkConfidentialTextService ctsService = new FrameworkConfidentialTextService();
+
+        ctsService.registerText("test1", "This is a test comment");
+        ctsService.registerText("test2", "This is a test comment");
+
+        StringWriter output = new StringWriter();
+        try (Writer writer = ctsService.removeConfidentialText(output)) {
+            writer.write("The current password is te");
+            writer.write("st1, the new password is t");
+            writer.write('e');
+            writer.write("st2");
+        }
+
+        String expected = "The current password is **1**, the new password is **2**";
+        assertEquals("Did not remove confidential imfomation ", expected, output.toString());
+    }
 }
@@ -13,14 +13,17 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -28,6 +31,12 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
@@ -607,6 +616,254 @@ public class FrameworkPropertyFileTest {
         fpf2.destroy();
     }
 
+    /**
+     * <p>
+     * This tests that a prefix only returns the keys that start with it, including
+     * keys that sort immediately either side of the prefix range.
+     * </p>
+     */
+    @Test
+    public void testGetPrefixReturnsOnlyKeysInRange() throws FrameworkPropertyFileException, IOException {
+        FrameworkPropertyFile fpf = new FrameworkPropertyFile(testPropUri);
+
+        fpf.set("prefix.infix", "exact");
+        fpf.set("prefix.infiw", "before");
+        fpf.set("prefix.infiy", "after");
+
+        Map<String, String> values = fpf.getPrefix("prefix.infix");
+
+        assertEquals("Wrong number of keys for the prefix", 3, values.size());
+        assertEquals("Prefix value wrong", "exact", values.get("prefix.infix"));
+        assertEquals("Prefix value wrong", "SomeString1", values.get("prefix.infix.suffix1"));
+        assertEquals("Prefix value wrong", "SomeString2", values.get("prefix.infix.suffix2"));
+        fpf.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that the namespaces are kept up to date as keys are added and
+     * removed.
+     * </p>
+     */
+    @Test
+    public void testGetNamespacesTracksChanges() throws FrameworkPropertyFileException, IOException {
+        FrameworkPropertyFile fpf = new FrameworkPropertyFile(testPropUri);
+
+        assertEquals("Namespaces not loaded", Arrays.asList("prefix"), fpf.getNamespaces());
+
+        fpf.set("framework.one", "1");
+        fpf.set("framework.two", "2");
+        assertTrue("New namespace not found", fpf.getNamespaces().contains("framework"));
+
+        fpf.delete("framework.one");
+        assertTrue("Namespace removed while it still has keys", fpf.getNamespaces().contains("framework"));
+
+        fpf.deletePrefix("framework.");
+        assertFalse("Namespace not removed with its last key", fpf.getNamespaces().contains("framework"));
+        fpf.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that a change made to the file outside of this JVM is picked up
+     * by the reads without a watch being active.
+     * </p>
+     */
+    @Test
+    public void testExternalChangeIsDetectedByReads() throws FrameworkPropertyFileException, IOException {
+        FrameworkPropertyFile fpf = new FrameworkPropertyFile(testPropUri);
+        assertEquals("Initial value wrong", "SomeString", fpf.get("Test1"));
+
+        Properties changedProps = new Properties();
+        changedProps.setProperty("Test1", "ChangedOutsideTheJvm");
+        try (FileOutputStream out = new FileOutputStream(testProp)) {
+            changedProps.store(out, null);
+        }
+
+        await().atMost(Duration.ONE_SECOND).until(() -> "ChangedOutsideTheJvm".equals(fpf.get("Test1")));
+        assertNull("Removed key still present", fpf.get("Test2"));
+        fpf.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that a set is appended to the properties file rather than
+     * rewriting it, that the file can still be read as a properties file and that
+     * another instance replays it.
+     * </p>
+     */
+    @Test
+    public void testSetIsAppendedAndReplayedByAnotherInstance() throws FrameworkPropertyFileException, IOException {
+        FrameworkPropertyFile fpf1 = new FrameworkPropertyFile(testPropUri);
+        FrameworkPropertyFile fpf2 = new FrameworkPropertyFile(testPropUri);
+
+        fpf1.set("first.key", "first");
+        byte[] written = Files.readAllBytes(testProp.toPath());
+
+        fpf1.set("appended.key", "line1\nline2=\\value");
+        byte[] appended = Files.readAllBytes(testProp.toPath());
+
+        assertTrue("Properties file should have been appended to", appended.length > written.length);
+        assertTrue("Properties file should not have been rewritten", Arrays.equals(written, Arrays.copyOf(appended, written.length)));
+        assertEquals("Appended value not replayed", "line1\nline2=\\value", fpf2.get("appended.key"));
+        assertEquals("Appended value not in the properties file", "line1\nline2=\\value", loadPropertiesFile().getProperty("appended.key"));
+
+        fpf1.delete("Test1");
+        byte[] deleted = Files.readAllBytes(testProp.toPath());
+        assertTrue("Properties file should not have been rewritten by the delete", Arrays.equals(appended, Arrays.copyOf(deleted, appended.length)));
+        assertNull("Delete not replayed", fpf2.get("Test1"));
+        assertEquals("Appended value lost by the delete", "line1\nline2=\\value", fpf2.get("appended.key"));
+
+        fpf1.destroy();
+        fpf2.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that appended sets and deletes of the same keys are applied in
+     * the order they were made, by an instance replaying them and by one loading
+     * the whole file.
+     * </p>
+     */
+    @Test
+    public void testAppendedDeletesAreAppliedInOrder() throws FrameworkPropertyFileException, IOException {
+        FrameworkPropertyFile fpf1 = new FrameworkPropertyFile(testPropUri);
+        FrameworkPropertyFile fpf2 = new FrameworkPropertyFile(testPropUri);
+        fpf1.set("first.key", "first");
+
+        fpf1.set("run.U1.status", "queued");
+        fpf1.set("run.U1.test", "a test");
+        fpf1.deletePrefix("run.U1.");
+        fpf1.set("run.U1.status", "requeued");
+        fpf1.set("odd key=with:separators", "set");
+        fpf1.delete("odd key=with:separators");
+        fpf1.delete("Test1");
+
+        FrameworkPropertyFile fpf3 = new FrameworkPropertyFile(testPropUri);
+        for (FrameworkPropertyFile fpf : Arrays.asList(fpf2, fpf3)) {
+            assertEquals("Set after delete lost", "requeued", fpf.get("run.U1.status"));
+            assertNull("Deleted by prefix", fpf.get("run.U1.test"));
+            assertNull("Escaped key not deleted", fpf.get("odd key=with:separators"));
+            assertNull("Delete not applied", fpf.get("Test1"));
+        }
+
+        fpf1.destroy();
+        fpf2.destroy();
+        fpf3.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that the appended lines are compacted once they outnumber the
+     * properties, and that other instances see the same values afterwards.
+     * </p>
+     */
+    @Test
+    public void testAppendedLinesAreCompacted() throws FrameworkPropertyFileException, IOException {
+        FrameworkPropertyFile fpf1 = new FrameworkPropertyFile(testPropUri);
+        FrameworkPropertyFile fpf2 = new FrameworkPropertyFile(testPropUri);
+
+        for (int i = 0; i <= 1001; i++) {
+            fpf1.set("heartbeat", Integer.toString(i));
+        }
+
+        assertEquals("Properties file value wrong", "1001", loadPropertiesFile().getProperty("heartbeat"));
+        assertTrue("Properties file was not compacted", Files.readAllLines(testProp.toPath()).size() < 100);
+        assertEquals("Other instance did not reload after compaction", "1001", fpf2.get("heartbeat"));
+        assertEquals("Other value lost during compaction", "admin", fpf2.get("RootPasswordForEverySystemEver"));
+
+        fpf1.destroy();
+        fpf2.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that a reader never sees only part of a change to several keys.
+     * </p>
+     */
+    @Test
+    public void testReadersSeeAllOrNoneOfAChange() throws Exception {
+        FrameworkPropertyFile fpf = new FrameworkPropertyFile(testPropUri);
+        fpf.set("swap.status", "0");
+        fpf.set("swap.field", "0");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean mismatched = new AtomicBoolean(false);
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                Map<String, String> values = fpf.getPrefix("swap.");
+                if (!values.get("swap.status").equals(values.get("swap.field"))) {
+                    mismatched.set(true);
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 1; i <= 500; i++) {
+            HashMap<String, String> values = new HashMap<>();
+            values.put("swap.field", Integer.toString(i));
+            fpf.setAtomic("swap.status", Integer.toString(i - 1), Integer.toString(i), values);
+        }
+        running.set(false);
+        reader.join();
+
+        assertFalse("A reader saw part of a change", mismatched.get());
+        fpf.destroy();
+    }
+
+    /**
+     * <p>
+     * This tests that a read does not wait for a write in progress in another
+     * instance, it carries on with the properties it has.
+     * </p>
+     */
+    @Test
+    public void testReadDoesNotWaitForAWriteInProgress() throws Exception {
+        FrameworkPropertyFile writer = new FrameworkPropertyFile(testPropUri);
+        FrameworkPropertyFile reader = new FrameworkPropertyFile(testPropUri);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.watch((key, event, oldValue, newValue) -> {
+            // *** The watcher is called with the write still holding its locks
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Test1");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> write = executor.submit(() -> {
+                writer.set("Test1", "changed");
+                return null;
+            });
+            assertTrue("Write did not start", writing.await(10, TimeUnit.SECONDS));
+
+            Future<String> read = executor.submit(() -> reader.get("Test1"));
+            assertEquals("Read should not wait for the write", "SomeString", read.get(10, TimeUnit.SECONDS));
+
+            release.countDown();
+            write.get(10, TimeUnit.SECONDS);
+            assertEquals("Read should see the write once it is done", "changed", reader.get("Test1"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            writer.destroy();
+            reader.destroy();
+        }
+    }
+
+    private Properties loadPropertiesFile() throws IOException {
+        Properties properties = new Properties();
+        try (FileInputStream in = new FileInputStream(testProp)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
     /**
      * <p>
      * This callable mehtod is used to detect changes to the file so the await()
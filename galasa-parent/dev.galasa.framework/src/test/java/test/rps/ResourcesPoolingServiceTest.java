@@ -10,11 +10,16 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import dev.galasa.framework.internal.rps.ResourceString;
+import dev.galasa.framework.mocks.MockDSSStore;
 import dev.galasa.framework.spi.FrameworkResourcePoolingService;
 import dev.galasa.framework.spi.InsufficientResourcesAvailableException;
 import dev.galasa.framework.spi.ResourcePoolingServiceException;
@@ -239,4 +244,80 @@ public class ResourcesPoolingServiceTest {
 
         assertTrue("Exception not thrown", caught);
     }
+
+    /**
+     * This test method checks a resource name can be converted to its position in
+     * the definition and back again, in the same order as getNextResource().
+     * 
+     * @throws ResourcePoolingServiceException
+     * @throws InsufficientResourcesAvailableException
+     */
+    @Test
+    public void testResourceIndexFollowsNextResourceOrder()
+            throws ResourcePoolingServiceException, InsufficientResourcesAvailableException {
+        ResourceString rs = new ResourceString("Hello{z}{9}Test");
+
+        String resource = rs.getFirstResource();
+        for (int i = 0; i < 30; i++) {
+            assertEquals("Unexpected resource index", i, rs.getResourceIndex(resource));
+            assertEquals("Unexpected resource", resource, rs.getResource(i));
+            resource = rs.getNextResource();
+        }
+
+        assertEquals("Resource outside the definition found", -1, rs.getResourceIndex("Helloa0Tesx"));
+        assertEquals("Resource outside the definition found", -1, rs.getResourceIndex("HelloA0Test"));
+        assertEquals("Resource outside the definition found", -1, rs.getResourceIndex("Helloa0"));
+    }
+
+    /**
+     * This test method checks resources in use in the DSS are not returned, and
+     * that the DSS is read once rather than once per candidate resource.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testResourcePoolingObtainSkipsResourcesInUseInDss() throws Exception {
+        FrameworkResourcePoolingService frps = new FrameworkResourcePoolingService();
+        List<String> resourceStrings = new ArrayList<>();
+        resourceStrings.add("PORT{9}{9}");
+
+        AtomicInteger prefixReads = new AtomicInteger();
+        Map<String, String> dssProperties = new HashMap<>();
+        MockDSSStore dss = new MockDSSStore(dssProperties) {
+            @Override
+            public String get(String key) {
+                throw new UnsupportedOperationException("The DSS should not be read per resource");
+            }
+
+            @Override
+            public Map<String, String> getPrefix(String keyPrefix) {
+                prefixReads.incrementAndGet();
+                Map<String, String> results = new HashMap<>();
+                for (Entry<String, String> entry : dssProperties.entrySet()) {
+                    if (entry.getKey().startsWith(keyPrefix)) {
+                        results.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                return results;
+            }
+        };
+
+        // Everything but PORT42 to PORT47 is in use
+        for (int i = 0; i < 100; i++) {
+            if (i < 42 || i > 47) {
+                dssProperties.put(String.format("port.PORT%02d", i), "run1");
+            }
+        }
+        dssProperties.put("port.PORT42.extra", "run2");
+
+        List<String> resources = frps.obtainResources(resourceStrings, null, 6, 3, dss, "port.");
+        Collections.sort(resources);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 42; i <= 47; i++) {
+            expected.add("PORT" + i);
+        }
+        assertEquals("Unexpected resources retrieved", expected, resources);
+        assertEquals("Unexpected number of DSS reads", 1, prefixReads.get());
+    }
 }
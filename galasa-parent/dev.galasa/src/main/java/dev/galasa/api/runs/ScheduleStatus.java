@@ -18,6 +18,8 @@ public class ScheduleStatus implements Serializable {
 
     private List<Run> runs;
 
+    private List<String> errors;
+
     public ScheduleStatus() {
         runs = new ArrayList<>();
     }
@@ -37,4 +39,12 @@ public class ScheduleStatus implements Serializable {
     public void setRuns(List<Run> runs) {
         this.runs = runs;
     }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
 }
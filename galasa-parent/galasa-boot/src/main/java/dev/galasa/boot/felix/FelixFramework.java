@@ -13,6 +13,7 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -48,6 +49,7 @@ public class FelixFramework {
 
     private static final String EXTRA_FRAMEWORK_BUNDLES_PROP  = "framework.extra.bundles";
     private static final String EXTRA_API_SERVER_BUNDLES_PROP = "api.extra.bundles";
+    private static final String WARM_START_PROP               = "dev.galasa.boot.warm.start";
 
     protected Framework framework;
 
@@ -63,10 +65,17 @@ public class FelixFramework {
         
     private File felixCache;
 
+    private WarmStartCache warmStartCache;
+
     /**
      * Initialise and start the Felix framework. Install required bundles and the
      * OBRs. Install the Galasa framework bundle
      * 
+     * If warm start is enabled in the bootstrap, the bundle cache from a previous
+     * boot with the same OBRs, Maven repositories and extra bundles is reused.
+     * The framework is cold started if there is no such cache, if the OBR content
+     * has changed, or if the warm start fails.
+     * 
      * @param bundleRepositories the supplied OBRs
      * @param boostrapProperties
      * @param localMavenRepo
@@ -83,8 +92,68 @@ public class FelixFramework {
         String cacheDirectory = "felix-cache";
         
         this.felixCache = new File(galasaDirectory, cacheDirectory);
+
+        if (Boolean.parseBoolean(boostrapProperties.getProperty(WARM_START_PROP, "false"))) {
+            openWarmStartCache(galasaDirectory, bundleRepositories, boostrapProperties, localMavenRepo, remoteMavenRepos);
+        }
+
+        if (warmStartCache != null && warmStartCache.isPopulated()) {
+            try {
+                startFramework(bundleRepositories, boostrapProperties, localMavenRepo, remoteMavenRepos, false);
+                logger.info("Felix framework warm started from " + felixCache);
+                return;
+            } catch (LauncherException e) {
+                logger.info("Unable to warm start the Felix framework, cold starting. Reason: " + e.getMessage());
+                stopQuietly();
+            }
+        }
+
         try {
-            FileUtils.deleteDirectory(felixCache);
+            if (warmStartCache != null) {
+                warmStartCache.clear();
+            }
+
+            startFramework(bundleRepositories, boostrapProperties, localMavenRepo, remoteMavenRepos, true);
+
+            if (warmStartCache != null) {
+                warmStartCache.record(getRepositoriesFingerprint(), getInstalledBundleLocations());
+            }
+        } catch (IOException e) {
+            throw new LauncherException("Unable to initialise the Felix framework", e);
+        }
+    }
+
+    private void openWarmStartCache(File galasaDirectory, List<String> bundleRepositories, Properties boostrapProperties,
+            URL localMavenRepo, List<URL> remoteMavenRepos) {
+        // *** Everything that decides which bundles are installed at boot
+        ArrayList<String> keyParts = new ArrayList<>();
+        keyParts.add(getBootJarIdentity());
+        keyParts.add(String.valueOf(bundleRepositories));
+        keyParts.add(String.valueOf(localMavenRepo));
+        keyParts.add(String.valueOf(remoteMavenRepos));
+        keyParts.add(boostrapProperties.getProperty(EXTRA_FRAMEWORK_BUNDLES_PROP));
+        keyParts.add(boostrapProperties.getProperty("dev.galasa.core.load.console"));
+        keyParts.add(boostrapProperties.getProperty("dev.galasa.boot.jar.location"));
+
+        try {
+            warmStartCache = WarmStartCache.open(galasaDirectory, WarmStartCache.calculateKey(keyParts));
+        } catch (IOException e) {
+            logger.error("Unable to open the warm start cache, cold starting", e);
+        }
+
+        if (warmStartCache == null) {
+            logger.info("The warm start cache is in use by another process, cold starting");
+        } else {
+            this.felixCache = warmStartCache.getStorageDirectory();
+        }
+    }
+
+    private void startFramework(List<String> bundleRepositories, Properties boostrapProperties, URL localMavenRepo,
+            List<URL> remoteMavenRepos, boolean clean) throws LauncherException {
+        try {
+            if (clean) {
+                FileUtils.deleteDirectory(felixCache);
+            }
             
             this.felixCache.mkdirs();
 
@@ -94,12 +163,17 @@ public class FelixFramework {
             // frameworkProperties.put("felix.log.level", "4");
             // frameworkProperties.put("ds.showtrace", "true");
             frameworkProperties.put(Constants.FRAMEWORK_STORAGE, felixCache.getAbsolutePath());
-            frameworkProperties.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+            if (clean) {
+                frameworkProperties.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+            }
             frameworkProperties.put(Constants.FRAMEWORK_SYSTEMPACKAGES_EXTRA,
                     "org.apache.felix.bundlerepository; version=2.1, dev.galasa.framework, sun.misc, com.sun.net.httpserver, com.sun.management, org.xml.sax, sun.nio.ch");
             framework = frameworkFactory.newFramework(frameworkProperties);
             logger.debug("Initializing Felix Framework");
             framework.init();
+            if (!clean) {
+                uninstallNonBootBundles();
+            }
             logger.debug("Starting Felix Framework");
             framework.start();
             logger.debug("Felix Framework started");
@@ -123,6 +197,11 @@ public class FelixFramework {
             // Load the OSGi Bundle Repositories
             loadBundleRepositories(bundleRepositories);
 
+            // The cached bundles are only good if they came from the same OBR content
+            if (!clean && !warmStartCache.matchesRepositories(getRepositoriesFingerprint())) {
+                throw new LauncherException("The OBR content has changed since the warm start cache was built");
+            }
+
             // Install and start the Felix OSGi console if required
             loadConsole = Boolean.parseBoolean(boostrapProperties.getProperty("dev.galasa.core.load.console", "false"));
             if (loadConsole) {
@@ -145,6 +224,69 @@ public class FelixFramework {
         }
     }
 
+    /**
+     * Uninstall the bundles a previous run installed after the framework had
+     * booted, such as test bundles, so that they are not restarted from the warm
+     * start cache
+     */
+    private void uninstallNonBootBundles() throws BundleException {
+        for (Bundle bundle : framework.getBundleContext().getBundles()) {
+            if (bundle.getBundleId() != 0 && !warmStartCache.isBootBundle(bundle.getLocation())) {
+                logger.trace("Uninstalling cached bundle " + bundle.getLocation());
+                bundle.uninstall();
+            }
+        }
+    }
+
+    private List<String> getInstalledBundleLocations() {
+        ArrayList<String> locations = new ArrayList<>();
+        for (Bundle bundle : framework.getBundleContext().getBundles()) {
+            if (bundle.getBundleId() != 0) {
+                locations.add(bundle.getLocation());
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Fingerprint the content of the loaded OBRs, so that a change to a bundle
+     * behind an unchanged OBR URL is noticed
+     */
+    private String getRepositoriesFingerprint() {
+        ArrayList<String> resourceIds = new ArrayList<>();
+        for (Repository repository : repositoryAdmin.listRepositories()) {
+            if (repository.getResources() != null) {
+                for (Resource resource : repository.getResources()) {
+                    resourceIds.add(resource.getSymbolicName() + "|" + resource.getVersion() + "|" + resource.getURI()
+                            + "|" + resource.getSize());
+                }
+            }
+        }
+        Collections.sort(resourceIds);
+        return WarmStartCache.calculateKey(resourceIds);
+    }
+
+    private String getBootJarIdentity() {
+        try {
+            File bootJar = new File(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+            return bootJar.getAbsolutePath() + "|" + bootJar.length() + "|" + bootJar.lastModified();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private void stopQuietly() {
+        try {
+            if (framework != null) {
+                framework.stop();
+                framework.waitForStop(30000);
+            }
+        } catch (Exception e) {
+            logger.error("Unable to stop the Felix framework", e);
+        }
+        framework = null;
+    }
+
     private void loadExtraApiBundles(Properties boostrapProperties) throws LauncherException {
         String extraApiBundles = boostrapProperties.getProperty(EXTRA_API_SERVER_BUNDLES_PROP);
         if (extraApiBundles != null) {
@@ -753,6 +895,9 @@ public class FelixFramework {
     public void stopFramework() throws LauncherException, InterruptedException {
         logger.debug("Stopping Felix framework");
         if (framework == null) {
+            if (warmStartCache != null) {
+                warmStartCache.release();
+            }
             return;
         }
         try {
@@ -764,6 +909,12 @@ public class FelixFramework {
         framework.waitForStop(30000);
         
         logger.debug("Felix framework stopped");
+
+        if (warmStartCache != null) {
+            // *** Keep the bundle cache for the next boot
+            warmStartCache.release();
+            return;
+        }
         
         try {
             FileUtils.deleteDirectory(felixCache);
@@ -824,6 +975,12 @@ public class FelixFramework {
      */
     private void loadBundle(String bundleSymbolicName) throws LauncherException {
 
+        // *** Bundles restarted from the warm start cache need no resolving
+        if (warmStartCache != null && isBundleActive(bundleSymbolicName)) {
+            logger.trace("Bundle " + bundleSymbolicName + " is already active");
+            return;
+        }
+
         logger.trace("Installing bundle " + bundleSymbolicName);
         Resolver resolver = repositoryAdmin.resolver();
         String filterString = "(symbolicname=" + bundleSymbolicName + ")";
@@ -0,0 +1,236 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.boot.felix;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+
+import dev.galasa.boot.BootLogger;
+
+/**
+ * A Felix bundle cache that is kept between boots, so that the framework, the
+ * managers and the OBR bundles do not have to be resolved and installed from
+ * scratch every time.
+ *
+ * Each cache lives in a directory named after a hash of everything that decides
+ * which bundles are installed at boot, so a change to any of them starts a new
+ * cache. Only one process can use the warm start caches at a time, any other
+ * process cold starts as before.
+ */
+public class WarmStartCache {
+
+    private static final String CACHE_DIRECTORY    = "felix-cache-warm";
+    private static final String LOCK_FILE          = ".lock";
+    private static final String STORAGE_DIRECTORY  = "storage";
+    private static final String BOOT_RECORD_FILE   = "boot.properties";
+
+    private static final String REPOSITORIES_PROP  = "repositories";
+    private static final String BUNDLE_PROP_PREFIX = "bundle.";
+
+    private BootLogger logger = new BootLogger();
+
+    private final File        directory;
+    private final FileChannel lockChannel;
+    private final FileLock    lock;
+
+    private Properties        bootRecord;
+    private HashSet<String>   bootBundleLocations = new HashSet<>();
+
+    private WarmStartCache(File directory, FileChannel lockChannel, FileLock lock) throws IOException {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+
+        File bootRecordFile = new File(directory, BOOT_RECORD_FILE);
+        if (bootRecordFile.exists()) {
+            Properties record = new Properties();
+            try (InputStream is = new FileInputStream(bootRecordFile)) {
+                record.load(is);
+            }
+            this.bootRecord = record;
+            for (String key : record.stringPropertyNames()) {
+                if (key.startsWith(BUNDLE_PROP_PREFIX)) {
+                    this.bootBundleLocations.add(record.getProperty(key));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lock and open the warm start cache for a key, removing the caches for any
+     * other keys
+     *
+     * @param galasaDirectory the Galasa home directory
+     * @param key             the cache key, from calculateKey()
+     * @return the cache, or null if another process is using the warm start caches
+     * @throws IOException if the cache directory cannot be used
+     */
+    public static WarmStartCache open(File galasaDirectory, String key) throws IOException {
+        File cachesDirectory = new File(galasaDirectory, CACHE_DIRECTORY);
+        cachesDirectory.mkdirs();
+
+        FileChannel lockChannel = FileChannel.open(new File(cachesDirectory, LOCK_FILE).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already locked from within this JVM
+        }
+        if (lock == null) {
+            lockChannel.close();
+            return null;
+        }
+
+        try {
+            // *** Caches for other keys are out of date, remove them
+            File[] others = cachesDirectory.listFiles(file -> file.isDirectory() && !file.getName().equals(key));
+            if (others != null) {
+                for (File other : others) {
+                    FileUtils.deleteDirectory(other);
+                }
+            }
+
+            File directory = new File(cachesDirectory, key);
+            directory.mkdirs();
+            return new WarmStartCache(directory, lockChannel, lock);
+        } catch (IOException e) {
+            lock.release();
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Calculate a key from the parts that decide the content of a cache
+     *
+     * @param parts the parts, in a consistent order
+     * @return a hex SHA-256 hash of the parts
+     */
+    public static String calculateKey(List<String> parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        for (String part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the directory to use as the Felix framework storage
+     */
+    public File getStorageDirectory() {
+        return new File(this.directory, STORAGE_DIRECTORY);
+    }
+
+    /**
+     * @return true if a previous boot completed and recorded its bundles in the
+     *         cache
+     */
+    public boolean isPopulated() {
+        return this.bootRecord != null && getStorageDirectory().isDirectory();
+    }
+
+    /**
+     * @param location the location of an installed bundle
+     * @return true if the bundle was installed while booting, rather than later
+     *         by a run
+     */
+    public boolean isBootBundle(String location) {
+        return this.bootBundleLocations.contains(location);
+    }
+
+    /**
+     * @param repositoriesFingerprint the fingerprint of the OBR content just
+     *                                loaded
+     * @return true if the OBR content is the same as when the cache was built
+     */
+    public boolean matchesRepositories(String repositoriesFingerprint) {
+        return this.bootRecord != null
+                && repositoriesFingerprint.equals(this.bootRecord.getProperty(REPOSITORIES_PROP));
+    }
+
+    /**
+     * Empty the cache, ready for a cold start to populate it
+     *
+     * @throws IOException if the cache cannot be deleted
+     */
+    public void clear() throws IOException {
+        this.bootRecord = null;
+        this.bootBundleLocations.clear();
+        FileUtils.deleteQuietly(new File(this.directory, BOOT_RECORD_FILE));
+        FileUtils.deleteDirectory(getStorageDirectory());
+    }
+
+    /**
+     * Record that the cache has been populated by a successful boot
+     *
+     * @param repositoriesFingerprint the fingerprint of the OBR content
+     * @param bundleLocations         the locations of the bundles installed while
+     *                                booting
+     * @throws IOException if the record cannot be written
+     */
+    public void record(String repositoriesFingerprint, List<String> bundleLocations) throws IOException {
+        Properties record = new Properties();
+        record.setProperty(REPOSITORIES_PROP, repositoriesFingerprint);
+        for (int i = 0; i < bundleLocations.size(); i++) {
+            record.setProperty(BUNDLE_PROP_PREFIX + i, bundleLocations.get(i));
+        }
+
+        // *** Write then rename, so a boot that dies part way through cannot leave a partial record
+        File bootRecordFile = new File(this.directory, BOOT_RECORD_FILE);
+        File tempFile = new File(this.directory, BOOT_RECORD_FILE + ".tmp");
+        try (OutputStream os = new FileOutputStream(tempFile)) {
+            record.store(os, "Galasa boot warm start record");
+        }
+        FileUtils.deleteQuietly(bootRecordFile);
+        if (!tempFile.renameTo(bootRecordFile)) {
+            throw new IOException("Unable to write the warm start record " + bootRecordFile);
+        }
+
+        this.bootRecord = record;
+        this.bootBundleLocations = new HashSet<>(bundleLocations);
+    }
+
+    /**
+     * Release the lock on the warm start caches
+     */
+    public void release() {
+        try {
+            this.lock.release();
+            this.lockChannel.close();
+        } catch (IOException e) {
+            logger.error("Unable to release the warm start cache lock", e);
+        }
+    }
+}
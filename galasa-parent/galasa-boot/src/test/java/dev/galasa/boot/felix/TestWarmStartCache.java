@@ -0,0 +1,114 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.boot.felix;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestWarmStartCache {
+
+    private File galasaHome;
+
+    @Before
+    public void setUp() throws Exception {
+        galasaHome = Files.createTempDirectory("galasa-home").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(galasaHome);
+    }
+
+    @Test
+    public void testCacheIsPopulatedOnceRecorded() throws Exception {
+        // Given...
+        String key = WarmStartCache.calculateKey(Arrays.asList("obr1", "obr2"));
+        WarmStartCache cache = WarmStartCache.open(galasaHome, key);
+        cache.getStorageDirectory().mkdirs();
+        assertThat(cache.isPopulated()).isFalse();
+
+        // When...
+        List<String> bundles = Arrays.asList("bundle/one.jar", "bundle/two.jar");
+        cache.record("fingerprint", bundles);
+        cache.release();
+
+        // Then...
+        WarmStartCache reopened = WarmStartCache.open(galasaHome, key);
+        assertThat(reopened.isPopulated()).isTrue();
+        assertThat(reopened.matchesRepositories("fingerprint")).isTrue();
+        assertThat(reopened.matchesRepositories("another")).isFalse();
+        assertThat(reopened.isBootBundle("bundle/one.jar")).isTrue();
+        assertThat(reopened.isBootBundle("bundle/test.jar")).isFalse();
+        reopened.release();
+    }
+
+    @Test
+    public void testClearedCacheIsNotPopulated() throws Exception {
+        // Given...
+        WarmStartCache cache = WarmStartCache.open(galasaHome, "key");
+        cache.getStorageDirectory().mkdirs();
+        cache.record("fingerprint", Arrays.asList("bundle/one.jar"));
+
+        // When...
+        cache.clear();
+
+        // Then...
+        assertThat(cache.isPopulated()).isFalse();
+        assertThat(cache.getStorageDirectory()).doesNotExist();
+        cache.release();
+    }
+
+    @Test
+    public void testNewKeyRemovesOtherCaches() throws Exception {
+        // Given...
+        WarmStartCache oldCache = WarmStartCache.open(galasaHome, "oldkey");
+        File oldStorage = oldCache.getStorageDirectory();
+        oldStorage.mkdirs();
+        oldCache.release();
+
+        // When...
+        WarmStartCache newCache = WarmStartCache.open(galasaHome, "newkey");
+
+        // Then...
+        assertThat(oldStorage).doesNotExist();
+        assertThat(newCache.isPopulated()).isFalse();
+        newCache.release();
+    }
+
+    @Test
+    public void testCacheInUseCannotBeOpenedAgain() throws Exception {
+        // Given...
+        WarmStartCache cache = WarmStartCache.open(galasaHome, "key");
+
+        // When...
+        WarmStartCache second = WarmStartCache.open(galasaHome, "key");
+
+        // Then...
+        assertThat(second).isNull();
+        cache.release();
+        WarmStartCache third = WarmStartCache.open(galasaHome, "key");
+        assertThat(third).isNotNull();
+        third.release();
+    }
+
+    @Test
+    public void testKeyChangesWithParts() throws Exception {
+        String key = WarmStartCache.calculateKey(Arrays.asList("a", "bc"));
+
+        assertThat(key).isEqualTo(WarmStartCache.calculateKey(Arrays.asList("a", "bc")));
+        assertThat(key).isNotEqualTo(WarmStartCache.calculateKey(Arrays.asList("ab", "c")));
+        assertThat(key).isNotEqualTo(WarmStartCache.calculateKey(Arrays.asList("a", null)));
+    }
+}